@@ -0,0 +1,48 @@
+package com.mediclinic.benchmark;
+
+import com.mediclinic.dao.MedecinDAO;
+import com.mediclinic.model.Medecin;
+import com.mediclinic.util.EmbeddedDatabase;
+import com.mediclinic.util.SyntheticDataGenerator;
+import java.util.List;
+
+/**
+ * Base H2 en mémoire (mode MySQL) pour les bancs d'essai : HibernateUtil est redirigé
+ * vers elle par propriétés système, puis {@link SyntheticDataGenerator} y insère un
+ * jeu de données reproductible (graine fixe). Chaque fork JMH étant une JVM neuve, la
+ * base est créée une fois par fork.
+ */
+public final class BenchmarkDatabase {
+
+    private static final long SEED = 20240101L;
+    private static final int APPOINTMENTS_PER_PATIENT = 4;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Dirige HibernateUtil vers une base H2 en mémoire, schéma recréé à la construction.
+     * A appeler avant tout accès à HibernateUtil dans la JVM.
+     */
+    public static void configure() {
+        System.setProperty(EmbeddedDatabase.PROFILE_PROPERTY, EmbeddedDatabase.H2_PROFILE);
+        System.setProperty(
+            "database.url",
+            "jdbc:h2:mem:mediclinic_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+        );
+        System.setProperty("database.schema.auto", "create");
+    }
+
+    /**
+     * Insère le jeu de données synthétique pour le nombre de patients donné : un
+     * médecin pour 250 patients, 4 rendez-vous par patient autour d'aujourd'hui.
+     * @return les médecins insérés
+     */
+    public static List<Medecin> seed(int patientCount) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setSeed(SEED);
+        generator.setPatientCount(patientCount);
+        generator.setAppointmentCount(patientCount * APPOINTMENTS_PER_PATIENT);
+        System.out.println("Base de bancs d'essai: " + generator.generate());
+        return new MedecinDAO().findAll();
+    }
+}
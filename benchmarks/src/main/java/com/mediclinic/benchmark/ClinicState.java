@@ -0,0 +1,57 @@
+package com.mediclinic.benchmark;
+
+import com.mediclinic.model.Medecin;
+import com.mediclinic.model.Role;
+import com.mediclinic.model.User;
+import com.mediclinic.util.HibernateUtil;
+import com.mediclinic.util.UserSession;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base peuplée partagée par les bancs d'essai d'un fork, à plusieurs échelles
+ * (nombre de patients ; médecins, rendez-vous et factures en découlent).
+ */
+@State(Scope.Benchmark)
+public class ClinicState {
+
+    @Param({ "1000", "10000", "50000" })
+    public int patients;
+
+    List<Medecin> medecins;
+    // Le planning couvre aujourd'hui : agenda chargé autour de ce créneau
+    LocalDateTime busySlot;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        medecins = BenchmarkDatabase.seed(patients);
+        busySlot = LocalDate.now().atTime(10, 0);
+
+        // Le tableau de bord exige un utilisateur connecté
+        UserSession.setInstance(new User("benchmark", "-", Role.ADMIN));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtil.shutdown();
+    }
+
+    /**
+     * Médecins pris à tour de rôle, pour ne pas mesurer un seul agenda.
+     */
+    Medecin nextMedecin() {
+        Medecin medecin = medecins.get(next);
+        next = (next + 1) % medecins.size();
+        return medecin;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mediclinic.benchmark;
+
+import com.mediclinic.dao.FactureDAO;
+import com.mediclinic.dao.PatientDAO;
+import com.mediclinic.dao.RendezVousDAO;
+import com.mediclinic.model.Facture;
+import com.mediclinic.model.Patient;
+import com.mediclinic.model.RendezVous;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Requêtes DAO des écrans les plus utilisés (agenda, facturation, recherche patient).
+ * Chaque banc déclare {@link ClinicState}, même inutilisé : JMH ne prépare la base que
+ * pour les bancs qui en dépendent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    private final RendezVousDAO rendezVousDAO = new RendezVousDAO();
+    private final PatientDAO patientDAO = new PatientDAO();
+    private final FactureDAO factureDAO = new FactureDAO();
+
+    @Benchmark
+    public Long countConflictingAppointments(ClinicState state) {
+        return rendezVousDAO.countConflictingAppointments(
+            state.nextMedecin(),
+            state.busySlot,
+            state.busySlot.plusMinutes(30),
+            null
+        );
+    }
+
+    @Benchmark
+    public List<RendezVous> rendezVousFindAllWithDetails(ClinicState state) {
+        return rendezVousDAO.findAllWithDetails();
+    }
+
+    @Benchmark
+    public List<Patient> patientSearchByName(ClinicState state) {
+        return patientDAO.searchByName("ber");
+    }
+
+    @Benchmark
+    public List<Facture> factureFindAllWithDetails(ClinicState state) {
+        return factureDAO.findAllWithDetails();
+    }
+}
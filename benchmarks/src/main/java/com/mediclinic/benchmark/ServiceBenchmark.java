@@ -0,0 +1,46 @@
+package com.mediclinic.benchmark;
+
+import com.mediclinic.service.DashboardService;
+import com.mediclinic.service.RendezVousService;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Services composant plusieurs requêtes : statistiques du tableau de bord (profil
+ * administrateur) et recherche du prochain créneau libre dans un agenda chargé.
+ * Chaque banc déclare {@link ClinicState} pour que la base soit préparée.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private final DashboardService dashboardService = new DashboardService();
+    private final RendezVousService rendezVousService = new RendezVousService();
+
+    @Benchmark
+    public DashboardService.DashboardStats dashboardStats(ClinicState state) {
+        return dashboardService.getDashboardStats();
+    }
+
+    @Benchmark
+    public LocalDateTime findNextAvailableSlot(ClinicState state) {
+        return rendezVousService.findNextAvailableSlot(
+            state.nextMedecin(),
+            state.busySlot,
+            30
+        );
+    }
+}
@@ -0,0 +1,42 @@
+#!/usr/bin/env python3
+"""
+Synthetic camera for testing the photo capture preview without a webcam.
+Writes raw RGB frames (width x height x 3 bytes, no header) to stdout,
+the same format as the GStreamer preview pipeline.
+
+Usage: python3 synthetic_preview.py [width] [height] [fps]
+Enable with: camera.preview.command=python3 scripts/synthetic_preview.py 640 480 20
+"""
+
+import sys
+import time
+
+
+def main():
+    width = int(sys.argv[1]) if len(sys.argv) > 1 else 640
+    height = int(sys.argv[2]) if len(sys.argv) > 2 else 480
+    fps = int(sys.argv[3]) if len(sys.argv) > 3 else 20
+
+    row = bytearray(width * 3)
+    out = sys.stdout.buffer
+    frame = 0
+
+    try:
+        while True:
+            # Moving vertical gradient bar so dropped/stuck frames are visible
+            offset = (frame * 8) % width
+            for x in range(width):
+                value = ((x + offset) * 255 // width) & 0xFF
+                row[x * 3] = value
+                row[x * 3 + 1] = 255 - value
+                row[x * 3 + 2] = (frame * 4) & 0xFF
+            out.write(bytes(row) * height)
+            out.flush()
+            frame += 1
+            time.sleep(1.0 / fps)
+    except (BrokenPipeError, KeyboardInterrupt):
+        pass
+
+
+if __name__ == "__main__":
+    main()
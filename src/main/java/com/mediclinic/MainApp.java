@@ -5,33 +5,54 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import com.mediclinic.util.ConfigurationManager;
+import com.mediclinic.util.DefaultAvatarGenerator;
 import com.mediclinic.util.HibernateUtil;
+import com.mediclinic.util.StartupTracer;
 
 public class MainApp extends Application {
 
+    // De main jusqu'à l'appel de start (démarrage du toolkit JavaFX)
+    private static StartupTracer.Phase toolkitPhase;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
-        // Initialisation de Hibernate
-        HibernateUtil.getSessionFactory();
+        toolkitPhase.close();
+
+        // Initialisation de Hibernate en arrière-plan, pendant l'affichage de la connexion
+        HibernateUtil.startBootstrap();
 
         // Chargement de la page de connexion
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/login_view.fxml"));
+        Parent root = StartupTracer.time("login-fxml", () ->
+            FXMLLoader.<Parent>load(getClass().getResource("/fxml/login_view.fxml"))
+        );
 
         primaryStage.setTitle("MediClinic - Connexion");
         primaryStage.setScene(new Scene(root, 800, 600));
         primaryStage.setMinWidth(600);
         primaryStage.setMinHeight(500);
         primaryStage.show();
+        StartupTracer.mark("login-shown");
+
+        // Pre-rendu des avatars par défaut, hors du thread JavaFX
+        Thread prewarm = new Thread(DefaultAvatarGenerator::prewarm, "avatar-prewarm");
+        prewarm.setDaemon(true);
+        prewarm.start();
+
+        // Rechargement de application-local.properties sans redémarrer
+        ConfigurationManager.getInstance().startWatching();
     }
 
     @Override
     public void stop() throws Exception {
         // Fermeture propre de Hibernate a la fermeture de l'application
         HibernateUtil.shutdown();
+        ConfigurationManager.getInstance().stopWatching();
         super.stop();
     }
 
     public static void main(String[] args) {
+        toolkitPhase = StartupTracer.start("javafx-init");
         launch(args);
     }
 }
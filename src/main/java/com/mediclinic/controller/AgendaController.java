@@ -2,7 +2,9 @@ package com.mediclinic.controller;
 
 import com.mediclinic.model.*;
 import com.mediclinic.service.*;
+import com.mediclinic.util.Permission;
 import com.mediclinic.util.PermissionChecker;
+import com.mediclinic.util.Refreshable;
 import com.mediclinic.util.UserSession;
 import java.io.File;
 import java.net.URL;
@@ -10,7 +12,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -27,7 +28,7 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.FileChooser;
 
-public class AgendaController implements Initializable {
+public class AgendaController implements Initializable, Refreshable {
 
     @FXML
     private DatePicker startDatePicker;
@@ -81,7 +82,6 @@ public class AgendaController implements Initializable {
     private PatientService patientService;
     private MedecinService medecinService;
     private PdfService pdfService;
-    private CsvService csvService;
     private EmailService emailService;
     private ObservableList<RendezVous> appointmentList;
     private List<Medecin> doctors;
@@ -101,10 +101,7 @@ public class AgendaController implements Initializable {
         // Check permission to access agenda page
         try {
             if (
-                !PermissionChecker.canAccessPage(
-                    UserSession.getInstance().getUser().getRole(),
-                    "agenda"
-                )
+                !PermissionChecker.hasPermission(Permission.PAGE_AGENDA)
             ) {
                 showAlert(
                     "Accès refusé",
@@ -126,7 +123,6 @@ public class AgendaController implements Initializable {
         patientService = new PatientService();
         medecinService = new MedecinService();
         pdfService = new PdfService();
-        csvService = new CsvService();
         emailService = new EmailService();
 
         setupTableColumns();
@@ -136,6 +132,16 @@ public class AgendaController implements Initializable {
         updateStatistics();
     }
 
+    @Override
+    public void refresh() {
+        if (rendezVousService == null) {
+            return;
+        }
+        // Recharge en conservant les filtres affichés
+        filterAppointments();
+        updateStatistics();
+    }
+
     private void updateStatistics() {
         try {
             List<RendezVous> allAppointments =
@@ -330,7 +336,7 @@ public class AgendaController implements Initializable {
                             if (UserSession.isAuthenticated()) {
                                 canModify =
                                     rendezVousService.canModifyAppointment(
-                                        rdv.getId()
+                                        rdv
                                     );
                             } else {
                                 canModify = false;
@@ -358,11 +364,11 @@ public class AgendaController implements Initializable {
                                         cancelBtn
                                     );
                             } else if (status == RendezVousStatus.TERMINE) {
-                                // Do not show the "Consultation" action to secretaries (Role.SEC)
+                                // Do not show the "Consultation" action to secretaries (no consultations page)
                                 try {
                                     if (
                                         !UserSession.isAuthenticated() ||
-                                        UserSession.getInstance().getUser().getRole() != Role.SEC
+                                        PermissionChecker.hasPermission(Permission.PAGE_CONSULTATIONS)
                                     ) {
                                         buttons.getChildren().add(consultBtn);
                                     }
@@ -389,7 +395,7 @@ public class AgendaController implements Initializable {
             // (they only see appointments for their associated doctor)
             if (
                 UserSession.isAuthenticated() &&
-                (UserSession.getInstance().getUser().getRole() == Role.MEDECIN || UserSession.getInstance().getUser().getRole() == Role.SEC)
+                !PermissionChecker.hasPermission(Permission.APPOINTMENT_VIEW_ALL)
             ) {
                 doctorCombo.setVisible(false);
                 doctorCombo.setManaged(false);
@@ -586,7 +592,7 @@ public class AgendaController implements Initializable {
             // Pre-select and disable doctor selection for MEDECIN and SEC users
             UserSession session = UserSession.getInstance();
             Role role = session.getUser().getRole();
-            if (role == Role.MEDECIN || role == Role.SEC) {
+            if (!session.getContext().has(Permission.APPOINTMENT_VIEW_ALL)) {
                 Medecin medecin = UserSession.getInstance()
                     .getUser()
                     .getMedecin();
@@ -1341,34 +1347,9 @@ public class AgendaController implements Initializable {
     @FXML
     private void handleStatistics() {
         try {
-            List<RendezVous> allAppointments = rendezVousService.findAll();
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalAppointments", allAppointments.size());
-
-            Map<String, Long> byStatus = allAppointments
-                .stream()
-                .collect(
-                    Collectors.groupingBy(
-                        rdv ->
-                            rdv.getStatus() != null
-                                ? rdv.getStatus().name()
-                                : "INCONNU",
-                        Collectors.counting()
-                    )
-                );
-            stats.put("appointmentsByStatus", byStatus);
-
-            Map<String, Long> byDoctor = allAppointments
-                .stream()
-                .filter(rdv -> rdv.getMedecin() != null)
-                .collect(
-                    Collectors.groupingBy(
-                        rdv -> rdv.getMedecin().getNomComplet(),
-                        Collectors.counting()
-                    )
-                );
-            stats.put("appointmentsByDoctor", byDoctor);
+            // Requêtes d'agrégat : les rendez-vous ne sont pas chargés
+            Map<String, Object> stats =
+                rendezVousService.getAppointmentStatistics();
 
             Dialog<ButtonType> dialog = new Dialog<>();
             dialog.setTitle("Statistiques");
@@ -1428,14 +1409,14 @@ public class AgendaController implements Initializable {
                                 appointmentTable.getScene().getWindow()
                             );
                             if (file != null) {
-                                pdfService.generateStatisticsReport(
-                                    stats,
-                                    file.getAbsolutePath()
-                                );
-                                showAlert(
-                                    "Succes",
-                                    "Rapport PDF genere avec succes!",
-                                    Alert.AlertType.INFORMATION
+                                runExport(
+                                    "statistics-pdf",
+                                    () ->
+                                        pdfService.generateStatisticsReport(
+                                            stats,
+                                            file.getAbsolutePath()
+                                        ),
+                                    "Rapport PDF genere avec succes!"
                                 );
                             }
                         } else if (response == csvButton) {
@@ -1456,14 +1437,16 @@ public class AgendaController implements Initializable {
                                 appointmentTable.getScene().getWindow()
                             );
                             if (file != null) {
-                                csvService.exportAppointments(
-                                    allAppointments,
-                                    file.getAbsolutePath()
-                                );
-                                showAlert(
-                                    "Succes",
-                                    "Export CSV genere avec succes!",
-                                    Alert.AlertType.INFORMATION
+                                // Tous les rendez-vous visibles, lus en flux depuis la base
+                                runExport(
+                                    "statistics-csv",
+                                    () ->
+                                        rendezVousService.exportAppointmentsCsv(
+                                            null,
+                                            null,
+                                            file.getAbsolutePath()
+                                        ),
+                                    "Export CSV genere avec succes!"
                                 );
                             }
                         }
@@ -1517,23 +1500,18 @@ public class AgendaController implements Initializable {
                 .showAndWait()
                 .ifPresent(selectedDate -> {
                     try {
-                        List<RendezVous> dailyAppointments = rendezVousService
-                            .findAll()
+                        // Requête d'agrégat : les rendez-vous ne sont pas chargés
+                        long dailyCount = rendezVousService
+                            .countByStatus(selectedDate, selectedDate)
+                            .values()
                             .stream()
-                            .filter(
-                                rdv ->
-                                    rdv.getDateHeureDebut() != null &&
-                                    rdv
-                                        .getDateHeureDebut()
-                                        .toLocalDate()
-                                        .equals(selectedDate)
-                            )
-                            .collect(Collectors.toList());
+                            .mapToLong(Long::longValue)
+                            .sum();
 
                         Dialog<ButtonType> exportDialog = new Dialog<>();
                         exportDialog.setTitle("Export Rapport");
                         exportDialog.setHeaderText(
-                            "Rendez-vous trouves: " + dailyAppointments.size()
+                            "Rendez-vous trouves: " + dailyCount
                         );
 
                         GridPane exportGrid = new GridPane();
@@ -1590,15 +1568,14 @@ public class AgendaController implements Initializable {
                                                 .getWindow()
                                         );
                                         if (file != null) {
-                                            pdfService.generateDailyReport(
-                                                dailyAppointments,
-                                                selectedDate,
-                                                file.getAbsolutePath()
-                                            );
-                                            showAlert(
-                                                "Succes",
-                                                "Rapport PDF genere avec succes!",
-                                                Alert.AlertType.INFORMATION
+                                            runExport(
+                                                "daily-report-pdf",
+                                                () ->
+                                                    rendezVousService.generateDailyReport(
+                                                        selectedDate,
+                                                        file.getAbsolutePath()
+                                                    ),
+                                                "Rapport PDF genere avec succes!"
                                             );
                                         }
                                     } else if (response == csvButton) {
@@ -1625,14 +1602,15 @@ public class AgendaController implements Initializable {
                                                 .getWindow()
                                         );
                                         if (file != null) {
-                                            csvService.exportAppointments(
-                                                dailyAppointments,
-                                                file.getAbsolutePath()
-                                            );
-                                            showAlert(
-                                                "Succes",
-                                                "Export CSV genere avec succes!",
-                                                Alert.AlertType.INFORMATION
+                                            runExport(
+                                                "daily-report-csv",
+                                                () ->
+                                                    rendezVousService.exportAppointmentsCsv(
+                                                        selectedDate,
+                                                        selectedDate,
+                                                        file.getAbsolutePath()
+                                                    ),
+                                                "Export CSV genere avec succes!"
                                             );
                                         }
                                     }
@@ -1663,6 +1641,48 @@ public class AgendaController implements Initializable {
         }
     }
 
+    /**
+     * Export work that may throw (PDF or CSV file generation)
+     */
+    @FunctionalInterface
+    private interface ExportTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs an export on a background thread (appointments are read as a stream
+     * from the database) and reports the outcome on the FX thread
+     */
+    private void runExport(
+        String threadName,
+        ExportTask task,
+        String successMessage
+    ) {
+        Thread exportThread = new Thread(() -> {
+            try {
+                task.run();
+                javafx.application.Platform.runLater(() ->
+                    showAlert(
+                        "Succes",
+                        successMessage,
+                        Alert.AlertType.INFORMATION
+                    )
+                );
+            } catch (Exception e) {
+                e.printStackTrace();
+                javafx.application.Platform.runLater(() ->
+                    showAlert(
+                        "Erreur",
+                        "Erreur lors de la generation: " + e.getMessage(),
+                        Alert.AlertType.ERROR
+                    )
+                );
+            }
+        }, threadName);
+        exportThread.setDaemon(true);
+        exportThread.start();
+    }
+
     private void sendAppointmentConfirmationEmail(RendezVous rdv) {
         if (rdv == null || rdv.getId() == null) {
             return;
@@ -2,6 +2,7 @@ package com.mediclinic.controller;
 
 import com.mediclinic.model.*;
 import com.mediclinic.service.*;
+import com.mediclinic.util.Refreshable;
 import com.mediclinic.util.UserSession;
 import java.io.File;
 import java.math.BigDecimal;
@@ -23,7 +24,7 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
-public class BillingController implements Initializable {
+public class BillingController implements Initializable, Refreshable {
 
     @FXML
     private TableView<Facture> invoiceTable;
@@ -74,16 +75,15 @@ public class BillingController implements Initializable {
     private PatientService patientService;
     private PdfService pdfService;
     private EmailService emailService;
-    private CsvService csvService;
+    private FactureExportService factureExportService;
     private ObservableList<Facture> invoiceList;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Check permission - SEC and ADMIN can access
         try {
-            com.mediclinic.util.PermissionChecker.requireRole(
-                com.mediclinic.model.Role.SEC,
-                com.mediclinic.model.Role.ADMIN
+            com.mediclinic.util.PermissionChecker.requirePermission(
+                com.mediclinic.util.Permission.PAGE_BILLING
             );
         } catch (IllegalStateException e) {
             showAlert(
@@ -98,7 +98,7 @@ public class BillingController implements Initializable {
         patientService = new PatientService();
         pdfService = new PdfService();
         emailService = new EmailService();
-        csvService = new CsvService();
+        factureExportService = new FactureExportService();
 
         setupTableColumns();
         setupStatusFilter();
@@ -106,6 +106,16 @@ public class BillingController implements Initializable {
         updateStatistics();
     }
 
+    @Override
+    public void refresh() {
+        if (facturationService == null) {
+            return;
+        }
+        // Recharge en conservant les filtres affichés
+        filterInvoices();
+        updateStatistics();
+    }
+
     private void setupTableColumns() {
         colId.setCellValueFactory(new PropertyValueFactory<>("id"));
 
@@ -991,19 +1001,6 @@ public class BillingController implements Initializable {
                                 return;
                             }
 
-                            List<Facture> filteredInvoices = facturationService
-                                .getAllFactures()
-                                .stream()
-                                .filter(f -> f.getDateFacturation() != null)
-                                .filter(
-                                    f ->
-                                        !f
-                                            .getDateFacturation()
-                                            .isBefore(startDate) &&
-                                        !f.getDateFacturation().isAfter(endDate)
-                                )
-                                .collect(Collectors.toList());
-
                             javafx.stage.FileChooser fileChooser =
                                 new javafx.stage.FileChooser();
                             fileChooser.setTitle(
@@ -1029,8 +1026,7 @@ public class BillingController implements Initializable {
                                 invoiceTable.getScene().getWindow()
                             );
                             if (file != null) {
-                                pdfService.generateFinancialReport(
-                                    filteredInvoices,
+                                facturationService.generateFinancialReport(
                                     startDate,
                                     endDate,
                                     file.getAbsolutePath()
@@ -1157,19 +1153,6 @@ public class BillingController implements Initializable {
                             return;
                         }
 
-                        List<Facture> filteredInvoices = facturationService
-                            .getAllFactures()
-                            .stream()
-                            .filter(f -> f.getDateFacturation() != null)
-                            .filter(
-                                f ->
-                                    !f
-                                        .getDateFacturation()
-                                        .isBefore(startDate) &&
-                                    !f.getDateFacturation().isAfter(endDate)
-                            )
-                            .collect(Collectors.toList());
-
                         javafx.stage.FileChooser fileChooser =
                             new javafx.stage.FileChooser();
                         fileChooser.setTitle("Sauvegarder Export CSV");
@@ -1193,24 +1176,37 @@ public class BillingController implements Initializable {
                             invoiceTable.getScene().getWindow()
                         );
                         if (file != null) {
-                            if ("CSV Detail".equals(format)) {
-                                csvService.exportInvoicesDetailed(
-                                    filteredInvoices,
-                                    file.getAbsolutePath()
-                                );
-                            } else {
-                                csvService.exportInvoices(
-                                    filteredInvoices,
-                                    file.getAbsolutePath()
-                                );
-                            }
-
-                            showAlert(
-                                "Succes",
-                                "Export CSV genere avec succes!\nFichier: " +
-                                    file.getAbsolutePath(),
-                                Alert.AlertType.INFORMATION
-                            );
+                            // Export en arrière-plan : les factures sont lues en flux
+                            Thread exportThread = new Thread(() -> {
+                                try {
+                                    facturationService.exportFacturesCsv(
+                                        startDate,
+                                        endDate,
+                                        "CSV Detail".equals(format),
+                                        file.getAbsolutePath()
+                                    );
+                                    javafx.application.Platform.runLater(() ->
+                                        showAlert(
+                                            "Succes",
+                                            "Export CSV genere avec succes!\nFichier: " +
+                                                file.getAbsolutePath(),
+                                            Alert.AlertType.INFORMATION
+                                        )
+                                    );
+                                } catch (Exception e) {
+                                    e.printStackTrace();
+                                    javafx.application.Platform.runLater(() ->
+                                        showAlert(
+                                            "Erreur",
+                                            "Erreur lors de l'export: " +
+                                                e.getMessage(),
+                                            Alert.AlertType.ERROR
+                                        )
+                                    );
+                                }
+                            }, "facture-csv-export");
+                            exportThread.setDaemon(true);
+                            exportThread.start();
                         }
                     } catch (Exception e) {
                         showAlert(
@@ -1229,6 +1225,265 @@ public class BillingController implements Initializable {
         }
     }
 
+    @FXML
+    private void handleBatchExport() {
+        try {
+            Dialog<ButtonType> dialog = new Dialog<>();
+            dialog.setTitle("Export groupé");
+            dialog.setHeaderText("Exporter plusieurs factures en PDF");
+
+            GridPane grid = new GridPane();
+            grid.setHgap(10);
+            grid.setVgap(10);
+            grid.setPadding(new javafx.geometry.Insets(20));
+
+            DatePicker startPicker = new DatePicker(
+                LocalDate.now().withDayOfMonth(1)
+            );
+            DatePicker endPicker = new DatePicker(LocalDate.now());
+
+            ComboBox<String> statusFilterCombo = new ComboBox<>(
+                FXCollections.observableArrayList(
+                    "Tous les statuts",
+                    "Payée",
+                    "En attente"
+                )
+            );
+            statusFilterCombo.setValue("Tous les statuts");
+
+            ComboBox<Patient> patientCombo = new ComboBox<>(
+                FXCollections.observableArrayList(patientService.findAll())
+            );
+            patientCombo.setPromptText("Tous les patients");
+            patientCombo.setConverter(
+                new javafx.util.StringConverter<Patient>() {
+                    @Override
+                    public String toString(Patient patient) {
+                        return patient != null ? patient.getNomComplet() : "";
+                    }
+
+                    @Override
+                    public Patient fromString(String string) {
+                        return null;
+                    }
+                }
+            );
+
+            ComboBox<String> formatCombo = new ComboBox<>(
+                FXCollections.observableArrayList(
+                    "Archive ZIP",
+                    "PDF unique",
+                    "Dossier"
+                )
+            );
+            formatCombo.setValue("Archive ZIP");
+
+            grid.add(new Label("Date debut:"), 0, 0);
+            grid.add(startPicker, 1, 0);
+            grid.add(new Label("Date fin:"), 0, 1);
+            grid.add(endPicker, 1, 1);
+            grid.add(new Label("Statut:"), 0, 2);
+            grid.add(statusFilterCombo, 1, 2);
+            grid.add(new Label("Patient:"), 0, 3);
+            grid.add(patientCombo, 1, 3);
+            grid.add(new Label("Format:"), 0, 4);
+            grid.add(formatCombo, 1, 4);
+
+            ButtonType exportButton = new ButtonType(
+                "Exporter",
+                ButtonBar.ButtonData.OK_DONE
+            );
+            dialog
+                .getDialogPane()
+                .getButtonTypes()
+                .addAll(exportButton, ButtonType.CANCEL);
+            dialog.getDialogPane().setContent(grid);
+
+            dialog
+                .showAndWait()
+                .filter(response -> response == exportButton)
+                .ifPresent(response -> {
+                    LocalDate startDate = startPicker.getValue();
+                    LocalDate endDate = endPicker.getValue();
+
+                    if (
+                        startDate != null &&
+                        endDate != null &&
+                        startDate.isAfter(endDate)
+                    ) {
+                        showAlert(
+                            "Erreur",
+                            "La date de debut doit etre avant la date de fin",
+                            Alert.AlertType.ERROR
+                        );
+                        return;
+                    }
+
+                    Boolean estPayee = null;
+                    if ("Payée".equals(statusFilterCombo.getValue())) {
+                        estPayee = true;
+                    } else if (
+                        "En attente".equals(statusFilterCombo.getValue())
+                    ) {
+                        estPayee = false;
+                    }
+
+                    Long patientId = patientCombo.getValue() != null
+                        ? patientCombo.getValue().getId()
+                        : null;
+
+                    javafx.stage.Window window = invoiceTable
+                        .getScene()
+                        .getWindow();
+                    FactureExportService.Format format;
+                    File destination;
+
+                    if ("Dossier".equals(formatCombo.getValue())) {
+                        format = FactureExportService.Format.DOSSIER;
+                        javafx.stage.DirectoryChooser directoryChooser =
+                            new javafx.stage.DirectoryChooser();
+                        directoryChooser.setTitle(
+                            "Dossier de destination des factures"
+                        );
+                        destination = directoryChooser.showDialog(window);
+                    } else {
+                        boolean zip = "Archive ZIP".equals(
+                            formatCombo.getValue()
+                        );
+                        format = zip
+                            ? FactureExportService.Format.ZIP
+                            : FactureExportService.Format.PDF_FUSIONNE;
+                        javafx.stage.FileChooser fileChooser =
+                            new javafx.stage.FileChooser();
+                        fileChooser.setTitle("Sauvegarder l'export groupé");
+                        fileChooser
+                            .getExtensionFilters()
+                            .add(
+                                zip
+                                    ? new javafx.stage.FileChooser.ExtensionFilter(
+                                        "ZIP Files",
+                                        "*.zip"
+                                    )
+                                    : new javafx.stage.FileChooser.ExtensionFilter(
+                                        "PDF Files",
+                                        "*.pdf"
+                                    )
+                            );
+                        fileChooser.setInitialFileName(
+                            "factures_" +
+                                LocalDate.now() +
+                                (zip ? ".zip" : ".pdf")
+                        );
+                        destination = fileChooser.showSaveDialog(window);
+                    }
+
+                    if (destination != null) {
+                        runBatchExport(
+                            startDate,
+                            endDate,
+                            patientId,
+                            estPayee,
+                            format,
+                            destination
+                        );
+                    }
+                });
+        } catch (Exception e) {
+            showAlert(
+                "Erreur",
+                "Erreur: " + e.getMessage(),
+                Alert.AlertType.ERROR
+            );
+        }
+    }
+
+    /**
+     * Lance l'export groupé en arrière-plan avec une fenêtre de progression annulable.
+     */
+    private void runBatchExport(
+        LocalDate startDate,
+        LocalDate endDate,
+        Long patientId,
+        Boolean estPayee,
+        FactureExportService.Format format,
+        File destination
+    ) {
+        ProgressBar progressBar = new ProgressBar(
+            ProgressBar.INDETERMINATE_PROGRESS
+        );
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("Sélection des factures...");
+        VBox progressContent = new VBox(10, progressLabel, progressBar);
+        progressContent.setPadding(new javafx.geometry.Insets(20));
+
+        Alert progressAlert = new Alert(Alert.AlertType.NONE);
+        progressAlert.setTitle("Export en cours");
+        progressAlert.setHeaderText("Génération des factures PDF");
+        progressAlert.getDialogPane().setContent(progressContent);
+        progressAlert.getButtonTypes().setAll(ButtonType.CANCEL);
+
+        Thread exportThread = new Thread(() -> {
+            try {
+                int count = factureExportService.exportFactures(
+                    startDate,
+                    endDate,
+                    patientId,
+                    estPayee,
+                    format,
+                    destination,
+                    (done, total) ->
+                        javafx.application.Platform.runLater(() -> {
+                            progressBar.setProgress((double) done / total);
+                            progressLabel.setText(
+                                done + " / " + total + " factures"
+                            );
+                        })
+                );
+
+                javafx.application.Platform.runLater(() -> {
+                    progressAlert.close();
+                    showAlert(
+                        "Succès",
+                        count == 0
+                            ? "Aucune facture ne correspond aux critères."
+                            : count +
+                                " facture(s) exportée(s) dans:\n" +
+                                destination.getAbsolutePath(),
+                        Alert.AlertType.INFORMATION
+                    );
+                });
+            } catch (java.io.InterruptedIOException e) {
+                javafx.application.Platform.runLater(() ->
+                    showAlert(
+                        "Export annulé",
+                        e.getMessage(),
+                        Alert.AlertType.WARNING
+                    )
+                );
+            } catch (Exception e) {
+                e.printStackTrace();
+                javafx.application.Platform.runLater(() -> {
+                    progressAlert.close();
+                    showAlert(
+                        "Erreur",
+                        "Erreur lors de l'export groupé: " + e.getMessage(),
+                        Alert.AlertType.ERROR
+                    );
+                });
+            }
+        }, "facture-batch-export");
+        exportThread.setDaemon(true);
+
+        progressAlert.setOnHidden(event -> {
+            if (exportThread.isAlive()) {
+                exportThread.interrupt();
+            }
+        });
+
+        exportThread.start();
+        progressAlert.show();
+    }
+
     private void showAlert(String title, String message, Alert.AlertType type) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -4,6 +4,7 @@ import com.mediclinic.model.Consultation;
 import com.mediclinic.model.RendezVous;
 import com.mediclinic.service.ConsultationService;
 import com.mediclinic.service.PdfService;
+import com.mediclinic.service.SignatureService;
 import com.mediclinic.util.UserSession;
 import java.io.File;
 import java.io.IOException;
@@ -55,6 +56,7 @@ public class ConsultationEditorController {
     private final ConsultationService consultationService =
         new ConsultationService();
     private final PdfService pdfService = new PdfService();
+    private final SignatureService signatureService = new SignatureService();
     private Consultation consultation;
 
     public void initData(Consultation consultation) {
@@ -92,23 +94,35 @@ public class ConsultationEditorController {
         if (includeSignatureCheckBox != null) {
             Long medecinId = UserSession.getMedecinId();
             if (medecinId != null) {
-                boolean hasSignature = pdfService.hasSignature(medecinId);
-                includeSignatureCheckBox.setDisable(!hasSignature);
-                if (!hasSignature) {
-                    includeSignatureCheckBox.setSelected(false);
-                    includeSignatureCheckBox.setText(
-                        "Inclure signature (non configurée)"
+                // Disabled until the signature store answers in the background
+                includeSignatureCheckBox.setDisable(true);
+                includeSignatureCheckBox.setSelected(false);
+                signatureService
+                    .hasSignatureAsync(medecinId)
+                    .thenAccept(hasSignature ->
+                        javafx.application.Platform.runLater(() ->
+                            showSignatureAvailability(hasSignature)
+                        )
                     );
-                } else {
-                    includeSignatureCheckBox.setSelected(true);
-                    includeSignatureCheckBox.setText(
-                        "Inclure signature électronique"
-                    );
-                }
             }
         }
     }
 
+    private void showSignatureAvailability(boolean hasSignature) {
+        includeSignatureCheckBox.setDisable(!hasSignature);
+        if (!hasSignature) {
+            includeSignatureCheckBox.setSelected(false);
+            includeSignatureCheckBox.setText(
+                "Inclure signature (non configurée)"
+            );
+        } else {
+            includeSignatureCheckBox.setSelected(true);
+            includeSignatureCheckBox.setText(
+                "Inclure signature électronique"
+            );
+        }
+    }
+
     @FXML
     private void handleSave() {
         if (consultation != null) {
@@ -3,6 +3,7 @@ package com.mediclinic.controller;
 import com.mediclinic.dao.ConsultationDAO;
 import com.mediclinic.model.Consultation;
 import com.mediclinic.model.Role;
+import com.mediclinic.util.Refreshable;
 import com.mediclinic.util.UserSession;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -15,7 +16,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class ConsultationsController implements Initializable {
+public class ConsultationsController implements Initializable, Refreshable {
 
     @FXML
     private Label contextLabel;
@@ -44,6 +45,14 @@ public class ConsultationsController implements Initializable {
         setupSearch();
     }
 
+    @Override
+    public void refresh() {
+        loadConsultations();
+        if (searchField != null) {
+            filterConsultations(searchField.getText());
+        }
+    }
+
     private void setupColumns() {
         colId.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("id"));
         colDate.setCellValueFactory(cellData -> {
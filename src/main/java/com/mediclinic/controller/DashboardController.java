@@ -2,6 +2,9 @@ package com.mediclinic.controller;
 
 import com.mediclinic.model.*;
 import com.mediclinic.service.*;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.Refreshable;
+import com.mediclinic.util.SecurityContext;
 import com.mediclinic.util.UserSession;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -27,7 +30,7 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.layout.HBox;
 
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, Refreshable {
 
     @FXML
     private Label totalPatientsLabel;
@@ -107,19 +110,30 @@ public class DashboardController implements Initializable {
         );
     }
 
+    @Override
+    public void refresh() {
+        try {
+            initializeStats();
+            initializeCharts();
+            loadUpcomingAppointments();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     private void setupRoleBasedUI() {
         try {
             if (!UserSession.isAuthenticated()) {
                 return;
             }
 
-            Role role = UserSession.getInstance().getUser().getRole();
+            SecurityContext context = UserSession.getInstance().getContext();
 
-            // Show/hide action buttons based on role
-            boolean canCreatePatient = role == Role.ADMIN || role == Role.SEC;
+            // Show/hide action buttons based on permissions
+            boolean canCreatePatient = context.has(Permission.PATIENT_CREATE);
             boolean canCreateAppointment =
-                role == Role.ADMIN || role == Role.SEC;
-            boolean canCreateInvoice = role == Role.ADMIN || role == Role.SEC;
+                context.has(Permission.APPOINTMENT_CREATE);
+            boolean canCreateInvoice = context.has(Permission.INVOICE_CREATE);
 
             if (quickPatientBtn != null) {
                 quickPatientBtn.setVisible(canCreatePatient);
@@ -0,0 +1,105 @@
+package com.mediclinic.controller;
+
+import com.mediclinic.util.DaoMetrics;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+
+/**
+ * Diagnostics window: database accesses per screen and calling DAO method, from
+ * {@link DaoMetrics}. Refreshed every few seconds while open.
+ */
+public class DiagnosticsController {
+
+    @FXML
+    private Label summaryLabel;
+
+    @FXML
+    private TableView<DaoMetrics.Snapshot> metricsTable;
+
+    @FXML
+    private TableColumn<DaoMetrics.Snapshot, String> colScreen, colMethod, colCalls, colErrors, colStatements, colRows, colMean, colP95, colP99, colMax, colTotal;
+
+    private Timeline autoRefresh;
+
+    @FXML
+    public void initialize() {
+        bind(colScreen, DaoMetrics.Snapshot::getScreen);
+        bind(colMethod, DaoMetrics.Snapshot::getMethod);
+        bind(colCalls, s -> String.valueOf(s.getCalls()));
+        bind(colErrors, s -> String.valueOf(s.getErrors()));
+        bind(colStatements, s -> String.valueOf(s.getStatements()));
+        bind(colRows, s -> String.valueOf(s.getRows()));
+        bind(colMean, s -> millis(s.getMeanMillis()));
+        bind(colP95, s -> millis(s.getP95Millis()));
+        bind(colP99, s -> millis(s.getP99Millis()));
+        bind(colMax, s -> millis(s.getMaxMillis()));
+        bind(colTotal, s -> millis(s.getTotalMillis()));
+
+        refreshTable();
+
+        autoRefresh = new Timeline(
+            new KeyFrame(Duration.seconds(5), e -> refreshTable())
+        );
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        autoRefresh.play();
+    }
+
+    /**
+     * Stops the periodic refresh, to be called when the window is closed
+     */
+    public void stop() {
+        autoRefresh.stop();
+    }
+
+    @FXML
+    private void handleRefresh() {
+        refreshTable();
+    }
+
+    @FXML
+    private void handleReset() {
+        DaoMetrics.getInstance().reset();
+        refreshTable();
+    }
+
+    private void refreshTable() {
+        DaoMetrics metrics = DaoMetrics.getInstance();
+        List<DaoMetrics.Snapshot> statistics = metrics.getStatistics();
+        metricsTable.setItems(FXCollections.observableArrayList(statistics));
+        if (!DaoMetrics.isEnabled()) {
+            summaryLabel.setText(
+                "Mesures désactivées (diagnostics.dao.enabled=false)"
+            );
+        } else {
+            summaryLabel.setText(
+                metrics.getTotalCalls() +
+                " appel(s), " +
+                metrics.getTotalStatements() +
+                " requête(s) SQL depuis le démarrage ou la dernière réinitialisation"
+            );
+        }
+    }
+
+    private static void bind(
+        TableColumn<DaoMetrics.Snapshot, String> column,
+        Function<DaoMetrics.Snapshot, String> value
+    ) {
+        column.setCellValueFactory(cellData ->
+            new SimpleStringProperty(value.apply(cellData.getValue()))
+        );
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
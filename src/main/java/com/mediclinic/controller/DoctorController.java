@@ -2,6 +2,7 @@ package com.mediclinic.controller;
 
 import com.mediclinic.model.*;
 import com.mediclinic.service.*;
+import com.mediclinic.util.Refreshable;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
@@ -18,7 +19,7 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.FileChooser;
 
-public class DoctorController implements Initializable {
+public class DoctorController implements Initializable, Refreshable {
 
     @FXML
     private TableView<Medecin> doctorTable;
@@ -52,8 +53,8 @@ public class DoctorController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         // Check permission - only ADMIN can access
         try {
-            com.mediclinic.util.PermissionChecker.requireRole(
-                com.mediclinic.model.Role.ADMIN
+            com.mediclinic.util.PermissionChecker.requirePermission(
+                com.mediclinic.util.Permission.PAGE_DOCTORS
             );
         } catch (IllegalStateException e) {
             showAlert(
@@ -72,6 +73,15 @@ public class DoctorController implements Initializable {
         loadDoctors();
     }
 
+    @Override
+    public void refresh() {
+        if (medecinService == null) {
+            return;
+        }
+        loadDoctors();
+        filterDoctors();
+    }
+
     private void setupTableColumns() {
         colId.setCellValueFactory(new PropertyValueFactory<>("id"));
 
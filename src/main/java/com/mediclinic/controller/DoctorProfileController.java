@@ -369,34 +369,41 @@ public class DoctorProfileController {
     }
 
     /**
-     * Loads and displays existing signature if available
+     * Loads and displays existing signature if available; the signature store
+     * is read in the background
      */
     private void loadExistingSignature() {
         if (currentMedecin == null) {
             return;
         }
 
-        boolean hasSignature = signatureService.hasSignature(
-            currentMedecin.getId()
-        );
-
-        if (hasSignature) {
-            Image signature = signatureService.loadSignature(
-                currentMedecin.getId()
+        deleteSignatureButton.setDisable(true);
+        Long medecinId = currentMedecin.getId();
+        signatureService
+            .loadSignatureAsync(medecinId)
+            .thenAccept(signature ->
+                javafx.application.Platform.runLater(() ->
+                    showExistingSignature(medecinId, signature)
+                )
             );
+    }
+
+    private void showExistingSignature(Long medecinId, Image signature) {
+        if (currentMedecin == null || !medecinId.equals(currentMedecin.getId())) {
+            return;
+        }
 
-            if (signature != null) {
-                currentSignatureView.setImage(signature);
-                currentSignatureBox.setVisible(true);
-                currentSignatureBox.setManaged(true);
-                deleteSignatureButton.setDisable(false);
-                updateSignatureStatus(true);
+        if (signature != null) {
+            currentSignatureView.setImage(signature);
+            currentSignatureBox.setVisible(true);
+            currentSignatureBox.setManaged(true);
+            deleteSignatureButton.setDisable(false);
+            updateSignatureStatus(true);
 
-                System.out.println(
-                    "Loaded existing signature for medecin " +
-                        currentMedecin.getId()
-                );
-            }
+            System.out.println(
+                "Loaded existing signature for medecin " +
+                    currentMedecin.getId()
+            );
         } else {
             currentSignatureBox.setVisible(false);
             currentSignatureBox.setManaged(false);
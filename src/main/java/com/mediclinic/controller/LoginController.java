@@ -1,5 +1,6 @@
 package com.mediclinic.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -11,6 +12,8 @@ import javafx.stage.Stage;
 import com.mediclinic.service.AuthService;
 import com.mediclinic.model.User;
 import com.mediclinic.model.Role;
+import com.mediclinic.util.HibernateUtil;
+import com.mediclinic.util.StartupTracer;
 import com.mediclinic.util.UserSession;
 
 import java.net.URL;
@@ -49,22 +52,40 @@ public class LoginController implements Initializable {
             return;
         }
 
-        try {
-            User user = authService.authenticate(username, password);
-            System.out.println("Connexion réussie pour: " + user.getUsername() + " (Role: " + user.getRole() + ")");
-            
-            // Set UserSession
-            UserSession.setInstance(user);
-            
-            // Charger la vue principale
-            loadMainView();
-            
-        } catch (IllegalArgumentException e) {
-            showError(e.getMessage());
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Erreur de connexion: " + e.getMessage());
+        // La base peut encore être en cours d'initialisation : authentification hors du thread JavaFX
+        loginBtn.setDisable(true);
+        if (!HibernateUtil.isReady()) {
+            showSuccess("Connexion à la base de données...");
         }
+        Thread loginThread = new Thread(() -> {
+            try {
+                User user = authService.authenticate(username, password);
+                System.out.println("Connexion réussie pour: " + user.getUsername() + " (Role: " + user.getRole() + ")");
+
+                Platform.runLater(() -> {
+                    loginBtn.setDisable(false);
+
+                    // Set UserSession
+                    UserSession.setInstance(user);
+
+                    // Charger la vue principale
+                    loadMainView();
+                });
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                Platform.runLater(() -> {
+                    loginBtn.setDisable(false);
+                    showError(e.getMessage());
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    loginBtn.setDisable(false);
+                    showError("Erreur de connexion: " + e.getMessage());
+                });
+            }
+        }, "login");
+        loginThread.setDaemon(true);
+        loginThread.start();
     }
 
     @FXML
@@ -94,22 +115,36 @@ public class LoginController implements Initializable {
             return;
         }
 
-        try {
-            // For testing: create a SEC (Secretary) account
-            authService.registerSecretary(username, password);
-            System.out.println("Compte créé pour: " + username);
-            
-            showSuccess("Compte créé avec succès! Vous pouvez maintenant vous connecter.");
-            
-            // Revenir au mode connexion
-            toggleMode();
-            
-        } catch (IllegalArgumentException e) {
-            showError(e.getMessage());
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Erreur lors de la création du compte: " + e.getMessage());
-        }
+        // Le hachage BCrypt est fait hors du thread JavaFX
+        registerBtn.setDisable(true);
+        Thread registerThread = new Thread(() -> {
+            try {
+                // For testing: create a SEC (Secretary) account
+                authService.registerSecretary(username, password);
+                System.out.println("Compte créé pour: " + username);
+
+                Platform.runLater(() -> {
+                    registerBtn.setDisable(false);
+                    showSuccess("Compte créé avec succès! Vous pouvez maintenant vous connecter.");
+
+                    // Revenir au mode connexion
+                    toggleMode();
+                });
+            } catch (IllegalArgumentException e) {
+                Platform.runLater(() -> {
+                    registerBtn.setDisable(false);
+                    showError(e.getMessage());
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    registerBtn.setDisable(false);
+                    showError("Erreur lors de la création du compte: " + e.getMessage());
+                });
+            }
+        }, "register");
+        registerThread.setDaemon(true);
+        registerThread.start();
     }
 
     @FXML
@@ -147,9 +182,22 @@ public class LoginController implements Initializable {
 
     private void loadMainView() {
         try {
-            Parent mainView = FXMLLoader.load(getClass().getResource("/fxml/main_view.fxml"));
+            Parent mainView = StartupTracer.time("main-fxml", () ->
+                FXMLLoader.<Parent>load(getClass().getResource("/fxml/main_view.fxml"))
+            );
             Stage stage = (Stage) loginBtn.getScene().getWindow();
-            stage.setScene(new Scene(mainView, 1200, 700));
+            Scene scene = new Scene(mainView, 1200, 700);
+
+            // Fin de la mesure du démarrage à la première mise en page du tableau de bord
+            Runnable firstLayout = new Runnable() {
+                @Override
+                public void run() {
+                    StartupTracer.finish("dashboard-shown");
+                    Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                }
+            };
+            scene.addPostLayoutPulseListener(firstLayout);
+            stage.setScene(scene);
             stage.setTitle("MediClinic - Gestion Médicale");
             stage.setMinWidth(1000);
             stage.setMinHeight(600);
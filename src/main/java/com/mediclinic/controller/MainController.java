@@ -1,9 +1,18 @@
 package com.mediclinic.controller;
 
 import com.mediclinic.model.Role;
+import com.mediclinic.util.DaoMetrics;
+import com.mediclinic.util.Permission;
 import com.mediclinic.util.PermissionChecker;
+import com.mediclinic.util.QueryDiagnostics;
+import com.mediclinic.util.Refreshable;
+import com.mediclinic.util.SecurityContext;
 import com.mediclinic.util.UserSession;
+import com.mediclinic.util.ViewCache;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -11,6 +20,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Labeled;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
@@ -34,9 +44,15 @@ public class MainController {
     @FXML
     private Button logoutBtn;
 
+    @FXML
+    private Button diagnosticsBtn;
+
     // Singleton instance for navigation from other controllers
     private static MainController instance;
 
+    // Views loaded during this session (a new MainController is created on each login)
+    private final ViewCache viewCache = new ViewCache();
+
     @FXML
     public void initialize() {
         // Set singleton instance
@@ -54,8 +70,49 @@ public class MainController {
         // Setup role-based menu visibility
         setupRoleBasedMenu();
 
+        // Dev mode: every button press starts a new action for the SQL report
+        if (QueryDiagnostics.isEnabled()) {
+            contentArea.sceneProperty().addListener((obs, oldScene, scene) -> {
+                if (scene != null) {
+                    scene.addEventFilter(ActionEvent.ACTION, e ->
+                        QueryDiagnostics.beginAction(describeAction(e))
+                    );
+                }
+            });
+        }
+
         // Show dashboard
         showDashboard();
+
+        // Preload the views most likely to be opened next
+        preloadViews();
+    }
+
+    private static String describeAction(ActionEvent event) {
+        Object target = event.getTarget();
+        if (target instanceof Labeled && ((Labeled) target).getText() != null) {
+            return "clic « " + ((Labeled) target).getText() + " »";
+        }
+        return target.getClass().getSimpleName();
+    }
+
+    private void preloadViews() {
+        try {
+            SecurityContext context = UserSession.getInstance().getContext();
+            List<String> views = new ArrayList<>();
+            if (context.has(Permission.PAGE_PATIENTS)) {
+                views.add("/fxml/patient_view.fxml");
+            }
+            if (context.has(Permission.PAGE_AGENDA)) {
+                views.add("/fxml/agenda_view.fxml");
+            }
+            if (context.has(Permission.PAGE_BILLING)) {
+                views.add("/fxml/billing_view.fxml");
+            }
+            viewCache.preload(views);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -119,75 +176,39 @@ public class MainController {
 
     private void setupRoleBasedMenu() {
         try {
-            UserSession session = UserSession.getInstance();
-            Role role = session.getUser().getRole();
+            SecurityContext context = UserSession.getInstance().getContext();
 
             // All roles can see dashboard
             dashboardBtn.setVisible(true);
             dashboardBtn.setManaged(true);
 
-            // Role-based visibility
-            switch (role) {
-                case ADMIN:
-                    // Admin sees everything
-                    patientsBtn.setVisible(true);
-                    patientsBtn.setManaged(true);
-                    agendaBtn.setVisible(true);
-                    agendaBtn.setManaged(true);
-                    doctorsBtn.setVisible(true);
-                    doctorsBtn.setManaged(true);
-                    billingBtn.setVisible(true);
-                    billingBtn.setManaged(true);
-                    usersBtn.setVisible(true);
-                    usersBtn.setManaged(true);
-                    if (consultationsBtn != null) {
-                        consultationsBtn.setVisible(true);
-                        consultationsBtn.setManaged(true);
-                    }
-                    break;
-                case MEDECIN:
-                    // Doctor sees only Dashboard and Agenda
-                    patientsBtn.setVisible(true);
-                    patientsBtn.setManaged(true); // Can view patient info
-                    agendaBtn.setVisible(true);
-                    agendaBtn.setManaged(true);
-                    doctorsBtn.setVisible(false);
-                    doctorsBtn.setManaged(false);
-                    billingBtn.setVisible(false);
-                    billingBtn.setManaged(false);
-                    usersBtn.setVisible(false);
-                    usersBtn.setManaged(false);
-                    if (consultationsBtn != null) {
-                        consultationsBtn.setVisible(true);
-                        consultationsBtn.setManaged(true);
-                    }
-                    break;
-                case SEC:
-                    // Secretary sees Dashboard, Patients, Agenda, Billing
-                    patientsBtn.setVisible(true);
-                    patientsBtn.setManaged(true);
-                    agendaBtn.setVisible(true);
-                    agendaBtn.setManaged(true);
-                    doctorsBtn.setVisible(false);
-                    doctorsBtn.setManaged(false);
-                    billingBtn.setVisible(true);
-                    billingBtn.setManaged(true);
-                    usersBtn.setVisible(false);
-                    usersBtn.setManaged(false);
-                    if (consultationsBtn != null) {
-                        consultationsBtn.setVisible(false);
-                        consultationsBtn.setManaged(false);
-                    }
-                    break;
-            }
+            // Database diagnostics are for administrators
+            showIfPermitted(diagnosticsBtn, context, Permission.DIAGNOSTICS_VIEW);
+
+            // Permission-based visibility
+            showIfPermitted(patientsBtn, context, Permission.PAGE_PATIENTS);
+            showIfPermitted(agendaBtn, context, Permission.PAGE_AGENDA);
+            showIfPermitted(doctorsBtn, context, Permission.PAGE_DOCTORS);
+            showIfPermitted(billingBtn, context, Permission.PAGE_BILLING);
+            showIfPermitted(usersBtn, context, Permission.PAGE_USERS);
+            showIfPermitted(consultationsBtn, context, Permission.PAGE_CONSULTATIONS);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private void showIfPermitted(Button button, SecurityContext context, Permission permission) {
+        if (button != null) {
+            boolean permitted = context.has(permission);
+            button.setVisible(permitted);
+            button.setManaged(permitted);
+        }
+    }
+
     @FXML
     private void handleLogout() {
         try {
+            viewCache.clear();
             UserSession.clean();
             redirectToLogin();
         } catch (Exception e) {
@@ -232,28 +253,28 @@ public class MainController {
 
     @FXML
     private void showPatients() {
-        checkPermission("patients");
+        checkPermission(Permission.PAGE_PATIENTS);
         setActiveButton(patientsBtn);
         loadView("/fxml/patient_view.fxml");
     }
 
     @FXML
     private void showAgenda() {
-        checkPermission("agenda");
+        checkPermission(Permission.PAGE_AGENDA);
         setActiveButton(agendaBtn);
         loadView("/fxml/agenda_view.fxml");
     }
 
     @FXML
     private void showDoctors() {
-        checkPermission("doctors");
+        checkPermission(Permission.PAGE_DOCTORS);
         setActiveButton(doctorsBtn);
         loadView("/fxml/doctor_view.fxml");
     }
 
     @FXML
     private void showBilling() {
-        checkPermission("billing");
+        checkPermission(Permission.PAGE_BILLING);
         setActiveButton(billingBtn);
         loadView("/fxml/billing_view.fxml");
     }
@@ -266,14 +287,14 @@ public class MainController {
 
     @FXML
     private void showUsers() {
-        checkPermission("users");
+        checkPermission(Permission.PAGE_USERS);
         setActiveButton(usersBtn);
         loadView("/fxml/user_view.fxml");
     }
 
     @FXML
     private void showConsultations() {
-        checkPermission("consultations");
+        checkPermission(Permission.PAGE_CONSULTATIONS);
         setActiveButton(consultationsBtn);
         loadView("/fxml/consultations_view.fxml");
     }
@@ -316,17 +337,45 @@ public class MainController {
         }
     }
 
-    private void checkPermission(String page) {
+    /**
+     * Opens the database diagnostics window (administrators only)
+     */
+    @FXML
+    private void openDiagnostics() {
+        if (!PermissionChecker.hasPermission(Permission.DIAGNOSTICS_VIEW)) {
+            return;
+        }
+        try {
+            FXMLLoader loader = new FXMLLoader(
+                getClass().getResource("/fxml/diagnostics_view.fxml")
+            );
+            Parent diagnosticsView = loader.load();
+            DiagnosticsController controller = loader.getController();
+
+            // Not modal: navigating the app while it is open is the point
+            Stage diagnosticsStage = new Stage();
+            diagnosticsStage.setTitle("MediClinic - Diagnostic");
+            diagnosticsStage.setScene(new Scene(diagnosticsView, 1200, 600));
+            diagnosticsStage.setOnHidden(e -> controller.stop());
+            diagnosticsStage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert(
+                "Erreur",
+                "Impossible d'ouvrir le diagnostic: " + e.getMessage(),
+                Alert.AlertType.ERROR
+            );
+        }
+    }
+
+    private void checkPermission(Permission page) {
         try {
             if (!UserSession.isAuthenticated()) {
                 redirectToLogin();
                 return;
             }
 
-            UserSession session = UserSession.getInstance();
-            Role role = session.getUser().getRole();
-
-            if (!PermissionChecker.canAccessPage(role, page)) {
+            if (!PermissionChecker.hasPermission(page)) {
                 showAlert(
                     "Accès refusé",
                     "Vous n'avez pas la permission d'accéder à cette page.",
@@ -387,11 +436,25 @@ public class MainController {
                 return;
             }
 
-            System.out.println(
-                "Chargement de la vue: " + fxmlFile + " depuis " + resourceUrl
-            );
-            Parent view = FXMLLoader.load(resourceUrl);
-            contentArea.getChildren().setAll(view);
+            // Database accesses from now on are attributed to this screen
+            String screen = fxmlFile
+                .substring(fxmlFile.lastIndexOf('/') + 1)
+                .replace("_view.fxml", "");
+            DaoMetrics.setCurrentScreen(screen);
+            QueryDiagnostics.beginAction("écran " + screen);
+
+            // Cached views are shown as is, then asked to reload their data
+            boolean cached = viewCache.contains(fxmlFile);
+            if (!cached) {
+                System.out.println(
+                    "Chargement de la vue: " + fxmlFile + " depuis " + resourceUrl
+                );
+            }
+            ViewCache.LoadedView view = viewCache.get(fxmlFile);
+            contentArea.getChildren().setAll(view.getRoot());
+            if (cached && view.getController() instanceof Refreshable) {
+                ((Refreshable) view.getController()).refresh();
+            }
         } catch (IOException e) {
             e.printStackTrace();
             showAlert(
@@ -1,14 +1,21 @@
 package com.mediclinic.controller;
 
 import com.mediclinic.model.Patient;
-import com.mediclinic.model.Role;
 import com.mediclinic.service.EmailService;
+import com.mediclinic.service.PatientImportService;
 import com.mediclinic.service.PatientService;
 import com.mediclinic.service.PhotoService;
+import com.mediclinic.service.RawVideoFrameSource;
+import com.mediclinic.util.ConfigurationManager;
 import com.mediclinic.util.DefaultAvatarGenerator;
+import com.mediclinic.util.FramePresenter;
+import com.mediclinic.util.Permission;
 import com.mediclinic.util.PermissionChecker;
+import com.mediclinic.util.Refreshable;
+import com.mediclinic.util.SecurityContext;
 import com.mediclinic.util.UserSession;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.net.URL;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -25,8 +32,9 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 
-public class PatientController implements Initializable {
+public class PatientController implements Initializable, Refreshable {
 
     @FXML
     private TableView<Patient> patientTable;
@@ -55,6 +63,9 @@ public class PatientController implements Initializable {
     @FXML
     private Button addPatientBtn;
 
+    @FXML
+    private Button importPatientsBtn;
+
     @FXML
     private Label totalPatientsLabel;
 
@@ -96,6 +107,10 @@ public class PatientController implements Initializable {
     private int currentPage = 1;
     private int itemsPerPage = 20;
 
+    private static final int PREVIEW_WIDTH = 640;
+    private static final int PREVIEW_HEIGHT = 480;
+    private static final int PREVIEW_FPS = 20;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Check authentication
@@ -111,10 +126,7 @@ public class PatientController implements Initializable {
         // Check permission to access patients page
         try {
             if (
-                !PermissionChecker.canAccessPage(
-                    UserSession.getInstance().getUser().getRole(),
-                    "patients"
-                )
+                !PermissionChecker.hasPermission(Permission.PAGE_PATIENTS)
             ) {
                 showAlert(
                     "Accès refusé",
@@ -143,6 +155,16 @@ public class PatientController implements Initializable {
         updateStatistics();
     }
 
+    @Override
+    public void refresh() {
+        if (patientService == null) {
+            return;
+        }
+        loadPatients();
+        filterPatients(searchField.getText());
+        updateStatistics();
+    }
+
     private void setupRoleBasedUI() {
         try {
             // Hide/show "Add Patient" button based on role
@@ -151,6 +173,11 @@ public class PatientController implements Initializable {
                 addPatientBtn.setVisible(canCreate);
                 addPatientBtn.setManaged(canCreate);
             }
+            if (importPatientsBtn != null) {
+                boolean canCreate = patientService.canCreatePatient();
+                importPatientsBtn.setVisible(canCreate);
+                importPatientsBtn.setManaged(canCreate);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -227,22 +254,21 @@ public class PatientController implements Initializable {
                         setGraphic(null);
                     } else {
                         try {
-                            UserSession session = UserSession.getInstance();
-                            Role role = session.getUser().getRole();
+                            SecurityContext context = UserSession.getInstance().getContext();
                             HBox buttons = new HBox(5);
                             buttons.getChildren().add(detailsBtn); // View button always visible
                             // Doctors can access dossier
-                            if (role == Role.MEDECIN || role == Role.ADMIN) {
+                            if (context.has(Permission.PAGE_DOSSIERS)) {
                                 buttons.getChildren().add(dossierBtn);
                             }
 
                             // Hide edit and delete buttons for MEDECIN (read-only)
-                            if (role == Role.ADMIN || role == Role.SEC) {
+                            if (context.has(Permission.PATIENT_MODIFY)) {
                                 buttons.getChildren().add(editBtn);
                             }
 
                             // Only ADMIN can delete
-                            if (role == Role.ADMIN) {
+                            if (context.has(Permission.PATIENT_DELETE)) {
                                 buttons.getChildren().add(deleteBtn);
                             }
 
@@ -327,11 +353,9 @@ public class PatientController implements Initializable {
 
     private void updateStatistics() {
         try {
-            Role role = UserSession.getInstance().getUser().getRole();
-
             // Only show statistics for ADMIN and SEC
             if (statsBox != null) {
-                boolean canSeeStats = (role == Role.ADMIN || role == Role.SEC);
+                boolean canSeeStats = PermissionChecker.hasPermission(Permission.PATIENT_VIEW_ALL);
                 statsBox.setVisible(canSeeStats);
                 statsBox.setManaged(canSeeStats);
 
@@ -810,17 +834,13 @@ public class PatientController implements Initializable {
                 "-fx-border-color: #ddd; -fx-border-width: 2;"
             );
 
-            // Load existing photo or show default
-            Image existingPhoto = photoService.loadPatientPhoto(
-                patient.getId()
+            // Load existing photo in the background (default avatar meanwhile)
+            photoService.displayPatientPhoto(
+                photoPreview,
+                patient.getId(),
+                PhotoService.PhotoSize.MEDIUM,
+                120
             );
-            if (existingPhoto != null) {
-                photoPreview.setImage(existingPhoto);
-            } else {
-                photoPreview.setImage(
-                    DefaultAvatarGenerator.generateDefaultAvatar(120)
-                );
-            }
 
             Button takePhotoBtn = new Button("📷 Prendre Photo");
             takePhotoBtn.setStyle("-fx-font-size: 12px;");
@@ -833,9 +853,16 @@ public class PatientController implements Initializable {
             Button deletePhotoBtn = new Button("🗑 Supprimer Photo");
             deletePhotoBtn.setStyle("-fx-font-size: 12px;");
             deletePhotoBtn.setMaxWidth(Double.MAX_VALUE);
-            deletePhotoBtn.setDisable(
-                !photoService.hasPatientPhoto(patient.getId())
-            );
+            deletePhotoBtn.setDisable(true);
+            photoService
+                .hasPatientPhotoAsync(patient.getId())
+                .thenAccept(hasPhoto -> {
+                    if (hasPhoto) {
+                        javafx.application.Platform.runLater(() ->
+                            deletePhotoBtn.setDisable(false)
+                        );
+                    }
+                });
 
             VBox photoBox = new VBox(10);
             photoBox.setAlignment(Pos.CENTER);
@@ -1116,15 +1143,13 @@ public class PatientController implements Initializable {
             "-fx-border-color: #ddd; -fx-border-width: 2; -fx-border-radius: 5;"
         );
 
-        // Load patient photo or show default
-        Image photo = photoService.loadPatientPhoto(patient.getId());
-        if (photo != null) {
-            photoView.setImage(photo);
-        } else {
-            photoView.setImage(
-                DefaultAvatarGenerator.generateDefaultAvatar(150)
-            );
-        }
+        // Load patient photo in the background (default avatar meanwhile)
+        photoService.displayPatientPhoto(
+            photoView,
+            patient.getId(),
+            PhotoService.PhotoSize.MEDIUM,
+            150
+        );
 
         VBox photoBox = new VBox(10);
         photoBox.setAlignment(Pos.CENTER);
@@ -1213,6 +1238,101 @@ public class PatientController implements Initializable {
         );
     }
 
+    @FXML
+    private void handleImportCsv() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Importer des patients (CSV)");
+        fileChooser
+            .getExtensionFilters()
+            .add(new FileChooser.ExtensionFilter("Fichiers CSV", "*.csv"));
+        File file = fileChooser.showOpenDialog(
+            patientTable.getScene().getWindow()
+        );
+        if (file == null) {
+            return;
+        }
+
+        ProgressBar progressBar = new ProgressBar(
+            ProgressBar.INDETERMINATE_PROGRESS
+        );
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("Lecture du fichier...");
+        VBox progressContent = new VBox(10, progressLabel, progressBar);
+        progressContent.setPadding(new javafx.geometry.Insets(20));
+
+        Alert progressAlert = new Alert(Alert.AlertType.NONE);
+        progressAlert.setTitle("Import en cours");
+        progressAlert.setHeaderText("Import des patients depuis " + file.getName());
+        progressAlert.getDialogPane().setContent(progressContent);
+        progressAlert.getButtonTypes().setAll(ButtonType.CANCEL);
+
+        Thread importThread = new Thread(() -> {
+            try {
+                PatientImportService.ImportResult result =
+                    new PatientImportService().importPatients(
+                        file.getAbsolutePath(),
+                        (lignes, importes, rejetes) ->
+                            javafx.application.Platform.runLater(() ->
+                                progressLabel.setText(
+                                    lignes + " ligne(s) lue(s) - " +
+                                        importes + " importé(s), " +
+                                        rejetes + " rejeté(s)"
+                                )
+                            )
+                    );
+
+                javafx.application.Platform.runLater(() -> {
+                    progressAlert.close();
+                    loadPatients();
+                    String message =
+                        result.getImportes() + " patient(s) importé(s).";
+                    if (result.getRejetes() > 0) {
+                        message +=
+                            "\n" + result.getRejetes() +
+                            " ligne(s) rejetée(s), voir le rapport:\n" +
+                            result.getRapportErreurs();
+                    }
+                    showAlert(
+                        "Import terminé",
+                        message,
+                        result.getRejetes() > 0
+                            ? Alert.AlertType.WARNING
+                            : Alert.AlertType.INFORMATION
+                    );
+                });
+            } catch (java.io.InterruptedIOException e) {
+                javafx.application.Platform.runLater(() -> {
+                    loadPatients();
+                    showAlert(
+                        "Import annulé",
+                        e.getMessage(),
+                        Alert.AlertType.WARNING
+                    );
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                javafx.application.Platform.runLater(() -> {
+                    progressAlert.close();
+                    showAlert(
+                        "Erreur",
+                        "Erreur lors de l'import: " + e.getMessage(),
+                        Alert.AlertType.ERROR
+                    );
+                });
+            }
+        }, "patient-csv-import");
+        importThread.setDaemon(true);
+
+        progressAlert.setOnHidden(event -> {
+            if (importThread.isAlive()) {
+                importThread.interrupt();
+            }
+        });
+
+        importThread.start();
+        progressAlert.show();
+    }
+
     private void showAlert(String title, String message, Alert.AlertType type) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -1265,6 +1385,9 @@ public class PatientController implements Initializable {
         final boolean[] keepRunning = { true };
         final Process[] gstProcess = { null };
 
+        // Camera probing starts as soon as the dialog is built
+        PhotoService.prepareCamera();
+
         // Open webcam in a separate thread to avoid blocking UI
         new Thread(() -> {
             try {
@@ -1290,6 +1413,9 @@ public class PatientController implements Initializable {
                             captureButton.setDisable(false);
 
                             // Start continuous preview in a separate thread
+                            FramePresenter presenter = new FramePresenter(
+                                previewView
+                            );
                             previewThread[0] = new Thread(() -> {
                                 while (
                                     keepRunning[0] &&
@@ -1298,19 +1424,7 @@ public class PatientController implements Initializable {
                                     try {
                                         BufferedImage frame =
                                             photoService.capturePhoto();
-                                        if (frame != null) {
-                                            Image fxImage =
-                                                photoService.convertToFXImage(
-                                                    frame
-                                                );
-                                            javafx.application.Platform.runLater(
-                                                () -> {
-                                                    previewView.setImage(
-                                                        fxImage
-                                                    );
-                                                }
-                                            );
-                                        }
+                                        presenter.offer(frame);
                                         // ~15 FPS for smooth preview
                                         Thread.sleep(66);
                                     } catch (InterruptedException e) {
@@ -1513,7 +1627,10 @@ public class PatientController implements Initializable {
     }
 
     /**
-     * Try to use GStreamer for continuous video preview (works with Intel IPU6)
+     * Try to use GStreamer for continuous video preview (works with Intel IPU6).
+     * A single gst-launch process streams raw RGB frames over its stdout; frames are
+     * read into a reused buffer and dropped while the UI is still drawing the previous one.
+     * The command can be replaced with camera.preview.command (e.g. a synthetic generator).
      */
     private boolean tryGStreamerPreview(
         ImageView previewView,
@@ -1524,112 +1641,62 @@ public class PatientController implements Initializable {
         Process[] gstProcessRef
     ) {
         try {
-            // Check if GStreamer is available
-            ProcessBuilder checkPb = new ProcessBuilder(
-                "which",
-                "gst-launch-1.0"
+            List<String> command;
+            String customCommand = ConfigurationManager.getInstance().getProperty(
+                "camera.preview.command"
             );
-            Process checkProcess = checkPb.start();
-            int exitCode = checkProcess.waitFor();
-
-            if (exitCode != 0) {
-                return false; // GStreamer not available
+            if (customCommand != null && !customCommand.trim().isEmpty()) {
+                command = java.util.Arrays.asList(customCommand.trim().split("\\s+"));
+            } else {
+                // Check if GStreamer is available (cached for the process)
+                if (!PhotoService.isCommandAvailable("gst-launch-1.0")) {
+                    return false; // GStreamer not available
+                }
+                command = RawVideoFrameSource.gstreamerCommand(
+                    PREVIEW_WIDTH,
+                    PREVIEW_HEIGHT,
+                    PREVIEW_FPS
+                );
             }
 
-            // Start GStreamer-based preview
-            javafx.application.Platform.runLater(() -> {
-                statusLabel.setText(
-                    "Caméra prête - Cliquez sur 'Capturer' pour prendre la photo"
-                );
-                captureButton.setDisable(false);
-            });
+            RawVideoFrameSource source = RawVideoFrameSource.start(
+                command,
+                PREVIEW_WIDTH,
+                PREVIEW_HEIGHT
+            );
+            gstProcessRef[0] = source.getProcess();
+            FramePresenter presenter = new FramePresenter(previewView);
 
             previewThread[0] = new Thread(() -> {
+                boolean first = true;
                 try {
-                    // Use optimized libcamera preview script (same backend as qcam)
-                    ProcessBuilder gstPb = new ProcessBuilder(
-                        "python3",
-                        "scripts/libcamera_preview.py",
-                        "/tmp/webcam_preview.jpg"
-                    );
-                    gstProcessRef[0] = gstPb.start();
-
-                    // Read output to detect when ready
-                    java.io.BufferedReader reader = new java.io.BufferedReader(
-                        new java.io.InputStreamReader(
-                            gstProcessRef[0].getInputStream()
-                        )
-                    );
-
-                    // Wait for preview to be ready
-                    String line1 = reader.readLine();
-                    if (!"PREVIEW_STARTING".equals(line1)) {
-                        return;
-                    }
-
-                    String line2 = reader.readLine();
-                    if (!"PREVIEW_READY".equals(line2)) {
-                        return;
-                    }
-
-                    Thread.sleep(500); // Brief delay for stability
-
-                    // Continuously update preview
                     while (keepRunning[0]) {
-                        try {
-                            java.io.File previewFile = new java.io.File(
-                                "/tmp/webcam_preview.jpg"
-                            );
-                            if (
-                                previewFile.exists() && previewFile.length() > 0
-                            ) {
-                                java.awt.image.BufferedImage frame =
-                                    javax.imageio.ImageIO.read(previewFile);
-                                if (frame != null) {
-                                    Image fxImage =
-                                        javafx.embed.swing.SwingFXUtils.toFXImage(
-                                            frame,
-                                            null
-                                        );
-                                    javafx.application.Platform.runLater(() -> {
-                                        previewView.setImage(fxImage);
-                                    });
-                                }
-                            }
-                            Thread.sleep(100); // ~10 FPS (smooth enough for preview)
-                        } catch (InterruptedException e) {
-                            break;
-                        } catch (Exception e) {
-                            // Ignore individual frame errors
+                        BufferedImage frame = source.nextFrame(0);
+                        if (first) {
+                            first = false;
+                            javafx.application.Platform.runLater(() -> {
+                                statusLabel.setText(
+                                    "Caméra prête - Cliquez sur 'Capturer' pour prendre la photo"
+                                );
+                                captureButton.setDisable(false);
+                            });
                         }
+                        presenter.offer(frame);
                     }
                 } catch (Exception e) {
-                    System.err.println(
-                        "GStreamer preview error: " + e.getMessage()
-                    );
+                    if (keepRunning[0]) {
+                        System.err.println(
+                            "GStreamer preview error: " + e.getMessage()
+                        );
+                    }
                 } finally {
-                    // Cleanup is now handled by the dialog button handlers
-                    // to ensure immediate shutdown when Capture is clicked
-                    if (
-                        gstProcessRef[0] != null && gstProcessRef[0].isAlive()
-                    ) {
-                        try {
-                            gstProcessRef[0].destroy();
-                            gstProcessRef[0].waitFor(
-                                1,
-                                java.util.concurrent.TimeUnit.SECONDS
-                            );
-                            if (gstProcessRef[0].isAlive()) {
-                                gstProcessRef[0].destroyForcibly();
-                            }
-                        } catch (Exception e) {
-                            // Ignore cleanup errors
-                        }
+                    try {
+                        source.close();
+                    } catch (Exception e) {
+                        // Ignore cleanup errors
                     }
-                    // Cleanup temp file
-                    new java.io.File("/tmp/webcam_preview.jpg").delete();
                 }
-            });
+            }, "camera-preview");
 
             previewThread[0].setDaemon(true);
             previewThread[0].start();
@@ -1648,12 +1715,12 @@ public class PatientController implements Initializable {
      */
     private void killGStreamerProcesses() {
         try {
-            // Kill any remaining GStreamer processes related to webcam_preview
+            // Kill any remaining GStreamer preview pipelines
             ProcessBuilder pb1 = new ProcessBuilder(
                 "pkill",
                 "-9",
                 "-f",
-                "gst-launch.*webcam_preview"
+                "gst-launch.*mediclinic_preview"
             );
             pb1.start().waitFor(1, java.util.concurrent.TimeUnit.SECONDS);
 
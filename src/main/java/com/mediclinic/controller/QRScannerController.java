@@ -1,11 +1,12 @@
 package com.mediclinic.controller;
 
-import com.google.zxing.*;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.NotFoundException;
 import com.mediclinic.model.RendezVous;
 import com.mediclinic.model.RendezVousStatus;
+import com.mediclinic.service.CheckInService;
+import com.mediclinic.service.DirectoryFrameSource;
 import com.mediclinic.service.QRCodeService;
+import com.mediclinic.service.QRScanService;
 import com.mediclinic.service.RendezVousService;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -13,14 +14,15 @@ import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class QRScannerController {
 
@@ -63,15 +65,28 @@ public class QRScannerController {
     @FXML
     private TextArea detailsTextArea;
 
+    @FXML
+    private Button checkInButton;
+
+    @FXML
+    private ListView<String> checkInLog;
+
     private final QRCodeService qrCodeService = new QRCodeService();
     private final RendezVousService rendezVousService = new RendezVousService();
+    private final QRScanService qrScanService = new QRScanService();
+    private final CheckInService checkInService = new CheckInService();
     private File selectedImageFile;
+    private CompletableFuture<QRScanService.ScanResult> currentScan;
     private QRCodeService.AppointmentData scannedData;
     private RendezVous verifiedAppointment;
 
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(
         "dd/MM/yyyy HH:mm"
     );
+    private static final DateTimeFormatter LOG_TIME_FORMATTER = DateTimeFormatter.ofPattern(
+        "HH:mm:ss"
+    );
+    private static final int CHECK_IN_LOG_SIZE = 200;
 
     @FXML
     public void initialize() {
@@ -95,8 +110,17 @@ public class QRScannerController {
         selectedImageFile = fileChooser.showOpenDialog(stage);
 
         if (selectedImageFile != null) {
+            currentScan = null;
             try {
-                Image image = new Image(new FileInputStream(selectedImageFile));
+                // Chargement en arrière-plan, réduit à la taille d'affichage
+                Image image = new Image(
+                    selectedImageFile.toURI().toString(),
+                    qrImageView.getFitWidth(),
+                    qrImageView.getFitHeight(),
+                    true,
+                    true,
+                    true
+                );
                 qrImageView.setImage(image);
                 scanButton.setDisable(false);
                 statusLabel.setText("Image selectionnee. Cliquez sur 'Scanner' pour verifier.");
@@ -116,40 +140,61 @@ public class QRScannerController {
             return;
         }
 
-        try {
-            BufferedImage bufferedImage = ImageIO.read(selectedImageFile);
-            LuminanceSource source = new BufferedImageLuminanceSource(bufferedImage);
-            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-
-            Result result = new MultiFormatReader().decode(bitmap);
-            String qrData = result.getText();
+        scanButton.setDisable(true);
+        statusLabel.setText("Analyse du QR code en cours...");
+        statusLabel.setStyle("-fx-text-fill: #3498db;");
 
-            scannedData = qrCodeService.parseQRCode(qrData);
+        CompletableFuture<QRScanService.ScanResult> scan = qrScanService.scan(
+            selectedImageFile
+        );
+        currentScan = scan;
+        scan.whenComplete((result, error) ->
+            Platform.runLater(() -> {
+                // Résultat d'un scan remplacé entre-temps (nouvelle image, reset)
+                if (currentScan != scan) {
+                    return;
+                }
+                currentScan = null;
+                scanButton.setDisable(selectedImageFile == null);
+
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException &&
+                        error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                    if (cause instanceof NotFoundException) {
+                        showError("Aucun QR code trouve dans l'image.");
+                    } else {
+                        showError("Erreur lors du scan: " + cause.getMessage());
+                        cause.printStackTrace();
+                    }
+                    return;
+                }
 
-            verifyAppointment(scannedData);
-        } catch (NotFoundException e) {
-            showError("Aucun QR code trouve dans l'image.");
-        } catch (Exception e) {
-            showError("Erreur lors du scan: " + e.getMessage());
-            e.printStackTrace();
-        }
+                scannedData = result.getData();
+                verifyAppointment(scannedData, result.getRendezVous());
+            })
+        );
     }
 
-    private void verifyAppointment(QRCodeService.AppointmentData data) {
+    private void verifyAppointment(
+        QRCodeService.AppointmentData data,
+        RendezVous rdv
+    ) {
         if (data.getRendezVousId() == null) {
             showError("QR code invalide: ID de rendez-vous manquant");
             return;
         }
 
         try {
-            verifiedAppointment = rendezVousService.findById(data.getRendezVousId());
+            verifiedAppointment = rdv;
 
             if (verifiedAppointment == null) {
                 showError("Rendez-vous non trouve dans le systeme (ID: " + data.getRendezVousId() + ")");
                 return;
             }
 
-            boolean isValid = validateAppointmentData(verifiedAppointment, data);
+            boolean isValid = qrCodeService.matches(verifiedAppointment, data);
 
             if (isValid) {
                 displayAppointmentInfo(verifiedAppointment, data);
@@ -168,30 +213,6 @@ public class QRScannerController {
         }
     }
 
-    private boolean validateAppointmentData(
-        RendezVous rdv,
-        QRCodeService.AppointmentData data
-    ) {
-        if (!rdv.getId().equals(data.getRendezVousId())) {
-            return false;
-        }
-
-        if (!rdv.getPatient().getId().equals(data.getPatientId())) {
-            return false;
-        }
-
-        if (!rdv.getMedecin().getId().equals(data.getDoctorId())) {
-            return false;
-        }
-
-        String expectedDate = rdv.getDateHeureDebut().format(DATETIME_FORMATTER);
-        if (!expectedDate.equals(data.getAppointmentDateTime())) {
-            return false;
-        }
-
-        return true;
-    }
-
     private void displayAppointmentInfo(
         RendezVous rdv,
         QRCodeService.AppointmentData data
@@ -315,12 +336,82 @@ public class QRScannerController {
             });
     }
 
+    @FXML
+    private void handleToggleCheckIn() {
+        if (checkInService.isRunning()) {
+            checkInService.stop();
+            checkInButton.setDisable(true);
+            return;
+        }
+
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Dossier des images QR code a surveiller");
+        File directory = chooser.showDialog(checkInButton.getScene().getWindow());
+        if (directory == null) {
+            return;
+        }
+
+        try {
+            checkInService.start(
+                new DirectoryFrameSource(directory.toPath()),
+                new CheckInService.Listener() {
+                    @Override
+                    public void onCheckedIn(RendezVous rdv) {
+                        logCheckIn(
+                            "Arrivee confirmee : " +
+                            rdv.getPatient().getNomComplet() +
+                            " (Dr. " +
+                            rdv.getMedecin().getNomComplet() +
+                            ", " +
+                            rdv.getDateHeureDebut().format(DATETIME_FORMATTER) +
+                            ")"
+                        );
+                    }
+
+                    @Override
+                    public void onRejected(String message) {
+                        logCheckIn("Refuse : " + message);
+                    }
+
+                    @Override
+                    public void onStopped(Exception error) {
+                        Platform.runLater(() -> {
+                            checkInButton.setText("Demarrer l'accueil continu");
+                            checkInButton.setDisable(false);
+                            if (error != null) {
+                                showError("Accueil continu interrompu: " + error.getMessage());
+                            }
+                        });
+                        logCheckIn("Accueil continu arrete");
+                    }
+                }
+            );
+        } catch (Exception e) {
+            showError("Impossible de surveiller le dossier: " + e.getMessage());
+            return;
+        }
+
+        checkInButton.setText("Arreter l'accueil continu");
+        logCheckIn("Accueil continu demarre sur " + directory.getAbsolutePath());
+    }
+
+    private void logCheckIn(String message) {
+        String line = LocalTime.now().format(LOG_TIME_FORMATTER) + "  " + message;
+        Platform.runLater(() -> {
+            checkInLog.getItems().add(0, line);
+            if (checkInLog.getItems().size() > CHECK_IN_LOG_SIZE) {
+                checkInLog.getItems().remove(CHECK_IN_LOG_SIZE);
+            }
+        });
+    }
+
     @FXML
     private void handleReset() {
         resetScanner();
     }
 
     private void resetScanner() {
+        currentScan = null;
         selectedImageFile = null;
         scannedData = null;
         verifiedAppointment = null;
@@ -1,5 +1,6 @@
 package com.mediclinic.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -10,7 +11,9 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import com.mediclinic.model.*;
 import com.mediclinic.service.*;
+import com.mediclinic.util.Permission;
 import com.mediclinic.util.PermissionChecker;
+import com.mediclinic.util.Refreshable;
 import com.mediclinic.util.UserSession;
 
 import java.util.List;
@@ -18,7 +21,7 @@ import java.util.List;
 import java.net.URL;
 import java.util.ResourceBundle;
 
-public class UserController implements Initializable {
+public class UserController implements Initializable, Refreshable {
 
     @FXML private TableView<User> userTable;
     @FXML private TableColumn<User, Long> colId;
@@ -35,7 +38,7 @@ public class UserController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         // Check permission - only ADMIN can access
         try {
-            PermissionChecker.requireRole(Role.ADMIN);
+            PermissionChecker.requirePermission(Permission.PAGE_USERS);
         } catch (IllegalStateException e) {
             showAlert("Accès refusé", e.getMessage(), Alert.AlertType.ERROR);
             return;
@@ -47,6 +50,17 @@ public class UserController implements Initializable {
         loadUsers();
     }
 
+    @Override
+    public void refresh() {
+        if (userService == null) {
+            return;
+        }
+        loadUsers();
+        if (searchField != null) {
+            handleSearch();
+        }
+    }
+
     private void setupTableColumns() {
         colId.setCellValueFactory(new PropertyValueFactory<>("id"));
         colUsername.setCellValueFactory(new PropertyValueFactory<>("username"));
@@ -215,16 +229,21 @@ public class UserController implements Initializable {
             return null;
         });
 
-        dialog.showAndWait().ifPresent(user -> {
+        // Password hashing (BCrypt) runs off the JavaFX thread
+        dialog.showAndWait().ifPresent(user -> new Thread(() -> {
             try {
                 userService.createUserWithPasswordAndMedecin(user.getUsername(), user.getPasswordHash(), user.getRole(), user.getMedecin());
-                loadUsers();
-                showAlert("Succès", "Utilisateur créé avec succès!", Alert.AlertType.INFORMATION);
+                Platform.runLater(() -> {
+                    loadUsers();
+                    showAlert("Succès", "Utilisateur créé avec succès!", Alert.AlertType.INFORMATION);
+                });
             } catch (Exception e) {
                 e.printStackTrace();
-                showAlert("Erreur", "Erreur lors de la création: " + e.getMessage(), Alert.AlertType.ERROR);
+                Platform.runLater(() ->
+                    showAlert("Erreur", "Erreur lors de la création: " + e.getMessage(), Alert.AlertType.ERROR)
+                );
             }
-        });
+        }).start());
     }
 
     private void editUser(User user) {
@@ -299,14 +318,18 @@ public class UserController implements Initializable {
             return null;
         });
 
-        dialog.showAndWait().ifPresent(newPassword -> {
+        dialog.showAndWait().ifPresent(newPassword -> new Thread(() -> {
             try {
                 userService.updatePassword(user.getId(), null, newPassword); // null for old password when admin changes it
-                showAlert("Succès", "Mot de passe modifié avec succès!", Alert.AlertType.INFORMATION);
+                Platform.runLater(() ->
+                    showAlert("Succès", "Mot de passe modifié avec succès!", Alert.AlertType.INFORMATION)
+                );
             } catch (Exception e) {
-                showAlert("Erreur", "Erreur lors de la modification: " + e.getMessage(), Alert.AlertType.ERROR);
+                Platform.runLater(() ->
+                    showAlert("Erreur", "Erreur lors de la modification: " + e.getMessage(), Alert.AlertType.ERROR)
+                );
             }
-        });
+        }).start());
     }
 
     private void deleteUser(User user) {
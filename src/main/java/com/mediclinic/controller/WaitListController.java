@@ -2,6 +2,7 @@ package com.mediclinic.controller;
 
 import com.mediclinic.model.RendezVous;
 import com.mediclinic.service.RendezVousService;
+import com.mediclinic.util.Refreshable;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -14,7 +15,7 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.util.Duration;
 
-public class WaitListController {
+public class WaitListController implements Refreshable {
     @FXML
     private Label currentReservationLabel;
     @FXML
@@ -50,6 +51,11 @@ public class WaitListController {
         timeline.play();
     }
 
+    @Override
+    public void refresh() {
+        refreshList();
+    }
+
     public void refreshList() {
         List<RendezVous> waitingList = rendezVousService.getWaitingRoomReservations();
         reservationTable.setItems(FXCollections.observableArrayList(waitingList));
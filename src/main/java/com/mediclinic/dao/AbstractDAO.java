@@ -1,16 +1,43 @@
 package com.mediclinic.dao;
 
 import com.mediclinic.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.util.List;
 
 public abstract class AbstractDAO<T, ID extends Serializable> implements GenericDAO<T, ID> {
 
+    private static final Logger LOG = LogManager.getLogger(AbstractDAO.class);
+
+    // Taille de fetch des requêtes parcourues en flux : avec MySQL Connector/J,
+    // Integer.MIN_VALUE fait remonter les lignes une à une au lieu de charger tout le résultat.
+    // Les autres pilotes (H2) refusent une valeur négative : lots de STREAM_BATCH_ROWS lignes.
+    private static final int STREAM_BATCH_ROWS = 500;
+    private static Integer streamFetchSize;
+
     private final Class<T> persistentClass;
 
+    /**
+     * Taille de fetch des parcours en flux, selon le dialecte de la base configurée.
+     */
+    protected static synchronized int getStreamFetchSize() {
+        if (streamFetchSize == null) {
+            Dialect dialect = HibernateUtil.getSessionFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+            streamFetchSize = dialect instanceof MySQLDialect ? Integer.MIN_VALUE : STREAM_BATCH_ROWS;
+        }
+        return streamFetchSize;
+    }
+
     // Constructeur : récupère le type de l'entité (T) dynamiquement
     @SuppressWarnings("unchecked")
     public AbstractDAO() {
@@ -35,10 +62,10 @@ public abstract class AbstractDAO<T, ID extends Serializable> implements Generic
                 try {
                     tx.rollback();
                 } catch (Exception rollbackEx) {
-                    rollbackEx.printStackTrace();
+                    LOG.warn("Échec du rollback method={}", "save", rollbackEx);
                 }
             }
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "save", e);
             throw new RuntimeException("Erreur lors de la sauvegarde: " + e.getMessage(), e);
         } finally {
             if (session != null && session.isOpen()) {
@@ -57,7 +84,7 @@ public abstract class AbstractDAO<T, ID extends Serializable> implements Generic
             return entity;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findById", e);
             throw e;
         }
     }
@@ -73,7 +100,7 @@ public abstract class AbstractDAO<T, ID extends Serializable> implements Generic
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findAll", e);
             throw e;
         }
     }
@@ -87,7 +114,7 @@ public abstract class AbstractDAO<T, ID extends Serializable> implements Generic
             tx.commit();
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "delete", e);
             throw e;
         }
     }
@@ -2,11 +2,15 @@ package com.mediclinic.dao;
 
 import com.mediclinic.model.DossierMedical;
 import com.mediclinic.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 
 public class DossierMedicalDAO extends AbstractDAO<DossierMedical, Long> {
 
+    private static final Logger LOG = LogManager.getLogger(DossierMedicalDAO.class);
+
     public DossierMedicalDAO() {
         super();
     }
@@ -26,7 +30,7 @@ public class DossierMedicalDAO extends AbstractDAO<DossierMedical, Long> {
             return result;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByPatientId", e);
             throw e;
         }
     }
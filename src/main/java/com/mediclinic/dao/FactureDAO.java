@@ -2,14 +2,27 @@ package com.mediclinic.dao;
 
 import com.mediclinic.model.Facture;
 import com.mediclinic.model.Patient;
+import com.mediclinic.model.TypePaiement;
 import com.mediclinic.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public class FactureDAO extends AbstractDAO<Facture, Long> {
 
+    private static final Logger LOG = LogManager.getLogger(FactureDAO.class);
+
     public FactureDAO() {
         super();
     }
@@ -29,7 +42,7 @@ public class FactureDAO extends AbstractDAO<Facture, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByPatient", e);
             throw e;
         }
     }
@@ -48,7 +61,7 @@ public class FactureDAO extends AbstractDAO<Facture, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findUnpaid", e);
             throw e;
         }
     }
@@ -71,7 +84,7 @@ public class FactureDAO extends AbstractDAO<Facture, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findUnpaidWithDetails", e);
             throw e;
         }
     }
@@ -92,7 +105,197 @@ public class FactureDAO extends AbstractDAO<Facture, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findAllWithDetails", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compte les factures émises sur une période (bornes incluses).
+     */
+    public long countByDateRange(LocalDate debut, LocalDate fin) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT COUNT(f) FROM Facture f " +
+                    "WHERE f.dateFacturation BETWEEN :debut AND :fin";
+            Long result = session.createQuery(hql, Long.class)
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .uniqueResult();
+            tx.commit();
+            return result != null ? result : 0L;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "countByDateRange", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Somme des montants des factures émises sur une période (bornes incluses).
+     */
+    public BigDecimal sumMontantByDateRange(LocalDate debut, LocalDate fin) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT SUM(f.montantTotal) FROM Facture f " +
+                    "WHERE f.dateFacturation BETWEEN :debut AND :fin";
+            BigDecimal result = session.createQuery(hql, BigDecimal.class)
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .uniqueResult();
+            tx.commit();
+            return result != null ? result : BigDecimal.ZERO;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "sumMontantByDateRange", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Nombre de factures par type de paiement sur une période (les factures
+     * sans type de paiement sont ignorées).
+     */
+    public Map<TypePaiement, Long> countByTypePaiement(LocalDate debut, LocalDate fin) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT f.typePaiement, COUNT(f) FROM Facture f " +
+                    "WHERE f.dateFacturation BETWEEN :debut AND :fin " +
+                    "AND f.typePaiement IS NOT NULL " +
+                    "GROUP BY f.typePaiement";
+            List<Object[]> rows = session.createQuery(hql, Object[].class)
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .list();
+            tx.commit();
+            Map<TypePaiement, Long> results = new EnumMap<>(TypePaiement.class);
+            for (Object[] row : rows) {
+                results.put((TypePaiement) row[0], (Long) row[1]);
+            }
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "countByTypePaiement", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parcourt les factures d'une période (Patient chargé) sans les matérialiser en liste.
+     * Le flux repose sur un curseur JDBC ouvert dans une StatelessSession : aucune entité
+     * n'est retenue par un contexte de persistance, la mémoire reste donc constante.
+     * Le flux n'est valide que pendant l'appel à {@code reader}.
+     */
+    public void streamByDateRange(LocalDate debut, LocalDate fin, Consumer<Stream<Facture>> reader) {
+        Transaction tx = null;
+        try (StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT f FROM Facture f " +
+                    "LEFT JOIN FETCH f.patient " +
+                    "WHERE f.dateFacturation BETWEEN :debut AND :fin " +
+                    "ORDER BY f.dateFacturation ASC, f.id ASC";
+            try (Stream<Facture> stream = session.createQuery(hql, Facture.class)
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .setFetchSize(getStreamFetchSize())
+                    .stream()) {
+                reader.accept(stream);
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            LOG.error("Échec de la requête method={}", "streamByDateRange", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Identifiants des factures d'un export groupé, triés par date puis numéro.
+     * Chaque critère est optionnel (null = pas de filtre). Les factures elles-mêmes
+     * sont chargées par paquets avec {@link #findForExportByIds}.
+     */
+    public List<Long> findIdsForExport(LocalDate debut, LocalDate fin, Long patientId, Boolean estPayee) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            StringBuilder hql = new StringBuilder("SELECT f.id FROM Facture f WHERE 1 = 1");
+            if (debut != null) hql.append(" AND f.dateFacturation >= :debut");
+            if (fin != null) hql.append(" AND f.dateFacturation <= :fin");
+            if (patientId != null) hql.append(" AND f.patient.id = :patientId");
+            if (estPayee != null) hql.append(" AND f.estPayee = :estPayee");
+            hql.append(" ORDER BY f.dateFacturation ASC, f.id ASC");
+
+            SelectionQuery<Long> query = session.createQuery(hql.toString(), Long.class);
+            if (debut != null) query.setParameter("debut", debut);
+            if (fin != null) query.setParameter("fin", fin);
+            if (patientId != null) query.setParameter("patientId", patientId);
+            if (estPayee != null) query.setParameter("estPayee", estPayee);
+            List<Long> results = query.list();
+            tx.commit();
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "findIdsForExport", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Paquet de factures d'un export groupé, avec Patient et lignes chargés,
+     * dans l'ordre de {@link #findIdsForExport}.
+     */
+    public List<Facture> findForExportByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT DISTINCT f FROM Facture f " +
+                    "LEFT JOIN FETCH f.patient " +
+                    "LEFT JOIN FETCH f.lignes " +
+                    "WHERE f.id IN (:ids) " +
+                    "ORDER BY f.dateFacturation ASC, f.id ASC";
+            List<Facture> results = session.createQuery(hql, Facture.class)
+                    .setParameterList("ids", ids)
+                    .list();
+            tx.commit();
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "findForExportByIds", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parcourt les lignes des factures d'une période, une entrée par ligne (ou une entrée
+     * avec ligne null pour une facture sans ligne) : [Facture avec Patient chargé, LigneFacture].
+     * Le flux n'est valide que pendant l'appel à {@code reader}.
+     */
+    public void streamWithLignesByDateRange(LocalDate debut, LocalDate fin, Consumer<Stream<Object[]>> reader) {
+        Transaction tx = null;
+        try (StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT f, l FROM Facture f " +
+                    "LEFT JOIN FETCH f.patient " +
+                    "LEFT JOIN f.lignes l " +
+                    "WHERE f.dateFacturation BETWEEN :debut AND :fin " +
+                    "ORDER BY f.dateFacturation ASC, f.id ASC, l.id ASC";
+            try (Stream<Object[]> stream = session.createQuery(hql, Object[].class)
+                    .setParameter("debut", debut)
+                    .setParameter("fin", fin)
+                    .setFetchSize(getStreamFetchSize())
+                    .stream()) {
+                reader.accept(stream);
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            LOG.error("Échec de la requête method={}", "streamWithLignesByDateRange", e);
             throw e;
         }
     }
@@ -3,12 +3,16 @@ package com.mediclinic.dao;
 import com.mediclinic.model.Medecin;
 import com.mediclinic.model.SpecialiteMedecin;
 import com.mediclinic.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import java.util.List;
 
 public class MedecinDAO extends AbstractDAO<Medecin, Long> {
 
+    private static final Logger LOG = LogManager.getLogger(MedecinDAO.class);
+
     public MedecinDAO() {
         super();
     }
@@ -28,7 +32,7 @@ public class MedecinDAO extends AbstractDAO<Medecin, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findBySpecialite", e);
             throw e;
         }
     }
@@ -49,7 +53,7 @@ public class MedecinDAO extends AbstractDAO<Medecin, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "searchByName", e);
             throw e;
         }
     }
@@ -2,12 +2,32 @@ package com.mediclinic.dao;
 
 import com.mediclinic.model.Patient;
 import com.mediclinic.util.HibernateUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class PatientDAO extends AbstractDAO<Patient, Long> {
 
+    private static final Logger LOG = LogManager.getLogger(PatientDAO.class);
+
+    private static final String INSERT_PATIENT_SQL =
+            "INSERT INTO patient (nom, prenom, date_naissance, email, telephone, adresse) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DOSSIER_SQL =
+            "INSERT INTO dossier_medical (patient_id, date_creation) VALUES (?, ?)";
+
     public PatientDAO() {
         super();
     }
@@ -27,7 +47,7 @@ public class PatientDAO extends AbstractDAO<Patient, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "searchByName", e);
             throw e;
         }
     }
@@ -47,7 +67,97 @@ public class PatientDAO extends AbstractDAO<Patient, Long> {
             return result;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByEmail", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne tous les emails enregistrés, en minuscules (détection des doublons à l'import).
+     */
+    public Set<String> findAllEmails() {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            String hql = "SELECT lower(p.email) FROM Patient p WHERE p.email IS NOT NULL";
+            Set<String> results = new HashSet<>(session.createQuery(hql, String.class).list());
+            tx.commit();
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "findAllEmails", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Taille des lots JDBC configurée (hibernate.jdbc.batch_size).
+     */
+    public int getJdbcBatchSize() {
+        Object value = HibernateUtil.getSessionFactory().getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        try {
+            int batchSize = value != null ? Integer.parseInt(value.toString().trim()) : 0;
+            return batchSize > 0 ? batchSize : 1;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Insère un lot de patients et leurs dossiers médicaux en une transaction.
+     * Les ids étant générés en IDENTITY, Hibernate n'insère pas ces entités par lots :
+     * on passe donc directement par JDBC (un executeBatch par table).
+     * Les ids générés sont reportés sur les objets Patient.
+     */
+    public void insertWithDossiers(List<Patient> patients) {
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            session.doWork(connection -> {
+                List<Long> ids = new ArrayList<>(patients.size());
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_PATIENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Patient patient : patients) {
+                        ps.setString(1, patient.getNom());
+                        ps.setString(2, patient.getPrenom());
+                        if (patient.getDateNaissance() != null) {
+                            ps.setDate(3, Date.valueOf(patient.getDateNaissance()));
+                        } else {
+                            ps.setNull(3, Types.DATE);
+                        }
+                        ps.setString(4, patient.getEmail());
+                        ps.setString(5, patient.getTelephone());
+                        ps.setString(6, patient.getAdresse());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+                if (ids.size() != patients.size()) {
+                    throw new SQLException("Identifiants générés incomplets: " + ids.size() + "/" + patients.size());
+                }
+
+                Date today = Date.valueOf(LocalDate.now());
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_DOSSIER_SQL)) {
+                    for (Long id : ids) {
+                        ps.setLong(1, id);
+                        ps.setDate(2, today);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                for (int i = 0; i < patients.size(); i++) {
+                    patients.get(i).setId(ids.get(i));
+                }
+            });
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            LOG.error("Échec de la requête method={}", "insertWithDossiers", e);
             throw e;
         }
     }
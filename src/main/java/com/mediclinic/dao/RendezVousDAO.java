@@ -6,12 +6,25 @@ import com.mediclinic.model.RendezVous;
 import com.mediclinic.model.RendezVousStatus;
 import com.mediclinic.util.HibernateUtil;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
 
 public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
 
+    private static final Logger LOG = LogManager.getLogger(RendezVousDAO.class);
+
     public RendezVousDAO() {
         super();
     }
@@ -41,7 +54,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByMedecinAndDateRange", e);
             throw e;
         }
     }
@@ -68,7 +81,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByMedecin", e);
             throw e;
         }
     }
@@ -116,7 +129,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return result;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "countConflictingAppointments", e);
             throw e;
         }
     }
@@ -140,7 +153,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findByPatient", e);
             throw e;
         }
     }
@@ -164,7 +177,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return result != null ? result : 0L;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "countByMedecin", e);
             throw e;
         }
     }
@@ -192,7 +205,7 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return results;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findAllWithDetails", e);
             throw e;
         }
     }
@@ -221,7 +234,221 @@ public class RendezVousDAO extends AbstractDAO<RendezVous, Long> {
             return result;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            e.printStackTrace();
+            LOG.error("Échec de la requête method={}", "findById", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compte les RDV par statut sur une période, pour un médecin ou pour tous (medecin == null).
+     * Une borne null n'est pas appliquée (debut == fin == null : tous les RDV).
+     */
+    public Map<RendezVousStatus, Long> countByStatusInDateRange(
+        Medecin medecin,
+        LocalDateTime debut,
+        LocalDateTime fin
+    ) {
+        Transaction tx = null;
+        try (
+            Session session = HibernateUtil.getSessionFactory().openSession()
+        ) {
+            tx = session.beginTransaction();
+            String hql =
+                "SELECT r.status, COUNT(r) FROM RendezVous r " +
+                rangeFilter(medecin, debut, fin) +
+                "GROUP BY r.status";
+            SelectionQuery<Object[]> query = session.createQuery(
+                hql,
+                Object[].class
+            );
+            bindRangeFilter(query, medecin, debut, fin);
+            List<Object[]> rows = query.list();
+            tx.commit();
+            Map<RendezVousStatus, Long> results = new EnumMap<>(
+                RendezVousStatus.class
+            );
+            for (Object[] row : rows) {
+                results.put((RendezVousStatus) row[0], (Long) row[1]);
+            }
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "countByStatusInDateRange", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compte les RDV par médecin (clé : nom complet), pour un médecin ou pour tous
+     * (medecin == null). Les RDV sans médecin ne sont pas comptés.
+     */
+    public Map<String, Long> countByMedecinName(Medecin medecin) {
+        Transaction tx = null;
+        try (
+            Session session = HibernateUtil.getSessionFactory().openSession()
+        ) {
+            tx = session.beginTransaction();
+            String hql =
+                "SELECT m.prenom, m.nom, COUNT(r) FROM RendezVous r " +
+                "JOIN r.medecin m " +
+                rangeFilter(medecin, null, null) +
+                "GROUP BY m.id, m.prenom, m.nom";
+            SelectionQuery<Object[]> query = session.createQuery(
+                hql,
+                Object[].class
+            );
+            bindRangeFilter(query, medecin, null, null);
+            List<Object[]> rows = query.list();
+            tx.commit();
+            Map<String, Long> results = new HashMap<>();
+            for (Object[] row : rows) {
+                // Même libellé que Medecin.getNomComplet() ; les homonymes sont cumulés
+                String nomComplet = row[0] + " " + ((String) row[1]).toUpperCase();
+                results.merge(nomComplet, (Long) row[2], Long::sum);
+            }
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "countByMedecinName", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Parcourt les RDV d'une période (Patient et Medecin chargés), pour un médecin ou pour
+     * tous (medecin == null), sans les matérialiser en liste. Une borne null n'est pas
+     * appliquée. Le flux repose sur un curseur
+     * JDBC ouvert dans une StatelessSession et n'est valide que pendant l'appel à {@code reader}.
+     */
+    public void streamByDateRange(
+        Medecin medecin,
+        LocalDateTime debut,
+        LocalDateTime fin,
+        Consumer<Stream<RendezVous>> reader
+    ) {
+        Transaction tx = null;
+        try (
+            StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()
+        ) {
+            tx = session.beginTransaction();
+            String hql =
+                "SELECT r FROM RendezVous r " +
+                "LEFT JOIN FETCH r.patient " +
+                "LEFT JOIN FETCH r.medecin " +
+                rangeFilter(medecin, debut, fin) +
+                "ORDER BY r.dateHeureDebut ASC, r.id ASC";
+            SelectionQuery<RendezVous> query = session
+                .createQuery(hql, RendezVous.class)
+                .setFetchSize(getStreamFetchSize());
+            bindRangeFilter(query, medecin, debut, fin);
+            try (Stream<RendezVous> stream = query.stream()) {
+                reader.accept(stream);
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            LOG.error("Échec de la requête method={}", "streamByDateRange", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Clause WHERE (suivie d'un espace, vide sans critère) pour un médecin et des bornes
+     * optionnels ; les paramètres sont liés par {@link #bindRangeFilter}.
+     */
+    private static String rangeFilter(
+        Medecin medecin,
+        LocalDateTime debut,
+        LocalDateTime fin
+    ) {
+        List<String> conditions = new ArrayList<>();
+        if (debut != null) {
+            conditions.add("r.dateHeureDebut >= :debut");
+        }
+        if (fin != null) {
+            conditions.add("r.dateHeureDebut <= :fin");
+        }
+        if (medecin != null) {
+            conditions.add("r.medecin = :medecin");
+        }
+        return conditions.isEmpty()
+            ? ""
+            : "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    private static void bindRangeFilter(
+        SelectionQuery<?> query,
+        Medecin medecin,
+        LocalDateTime debut,
+        LocalDateTime fin
+    ) {
+        if (debut != null) {
+            query.setParameter("debut", debut);
+        }
+        if (fin != null) {
+            query.setParameter("fin", fin);
+        }
+        if (medecin != null) {
+            query.setParameter("medecin", medecin);
+        }
+    }
+
+    /**
+     * Charge plusieurs RDV (Patient et Medecin chargés) en une seule requête.
+     */
+    public List<RendezVous> findByIds(Collection<Long> ids) {
+        Transaction tx = null;
+        try (
+            Session session = HibernateUtil.getSessionFactory().openSession()
+        ) {
+            tx = session.beginTransaction();
+            String hql =
+                "SELECT DISTINCT r FROM RendezVous r " +
+                "LEFT JOIN FETCH r.patient " +
+                "LEFT JOIN FETCH r.medecin " +
+                "WHERE r.id IN :ids";
+            List<RendezVous> results = session
+                .createQuery(hql, RendezVous.class)
+                .setParameter("ids", ids)
+                .list();
+            tx.commit();
+            return results;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "findByIds", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Passe au statut {@code nouveau} les RDV listés encore au statut {@code actuel},
+     * en une seule requête UPDATE (un RDV modifié entre-temps n'est pas touché).
+     * @return le nombre de RDV mis à jour.
+     */
+    public int updateStatus(
+        Collection<Long> ids,
+        RendezVousStatus actuel,
+        RendezVousStatus nouveau
+    ) {
+        Transaction tx = null;
+        try (
+            Session session = HibernateUtil.getSessionFactory().openSession()
+        ) {
+            tx = session.beginTransaction();
+            String hql =
+                "UPDATE RendezVous r SET r.status = :nouveau " +
+                "WHERE r.id IN :ids AND r.status = :actuel";
+            int updated = session
+                .createMutationQuery(hql)
+                .setParameter("nouveau", nouveau)
+                .setParameter("ids", ids)
+                .setParameter("actuel", actuel)
+                .executeUpdate();
+            tx.commit();
+            return updated;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            LOG.error("Échec de la requête method={}", "updateStatus", e);
             throw e;
         }
     }
@@ -3,6 +3,7 @@ package com.mediclinic.dao;
 import com.mediclinic.model.User;
 import com.mediclinic.util.HibernateUtil;
 import org.hibernate.Session;
+import org.hibernate.Transaction;
 
 public class UserDAO extends AbstractDAO<User, Long> {
 
@@ -11,16 +12,56 @@ public class UserDAO extends AbstractDAO<User, Long> {
     }
 
     public User findByUsername(String username) {
+        Transaction tx = null;
         try (
             Session session = HibernateUtil.getSessionFactory().openSession()
         ) {
-            return session
+            tx = session.beginTransaction();
+            User user = session
                 .createQuery(
                     "SELECT u FROM User u LEFT JOIN FETCH u.medecin WHERE u.username = :username",
                     User.class
                 )
                 .setParameter("username", username)
+                .setReadOnly(true)
                 .uniqueResult();
+            tx.commit();
+            return user;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Remplace le hachage du mot de passe sans recharger l'utilisateur, seulement s'il
+     * vaut encore expectedHash (pas de mot de passe changé entre-temps écrasé).
+     * @return true si le hachage a été remplacé
+     */
+    public boolean updatePasswordHash(
+        Long userId,
+        String expectedHash,
+        String passwordHash
+    ) {
+        Transaction tx = null;
+        try (
+            Session session = HibernateUtil.getSessionFactory().openSession()
+        ) {
+            tx = session.beginTransaction();
+            int updated = session
+                .createMutationQuery(
+                    "UPDATE User u SET u.passwordHash = :hash " +
+                    "WHERE u.id = :id AND u.passwordHash = :expected"
+                )
+                .setParameter("hash", passwordHash)
+                .setParameter("id", userId)
+                .setParameter("expected", expectedHash)
+                .executeUpdate();
+            tx.commit();
+            return updated > 0;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            throw e;
         }
     }
 
@@ -1,21 +1,33 @@
 package com.mediclinic.service;
 
-import com.mediclinic.dao.RendezVousDAO;
-import com.mediclinic.model.Patient;
 import com.mediclinic.model.RendezVous;
 import com.mediclinic.model.RendezVousStatus;
+import com.mediclinic.util.AppSettings;
+import com.mediclinic.util.ConfigurationManager;
+import com.mediclinic.util.SecurityContext;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class AppointmentReminderService {
 
+    private static final Logger LOG = LogManager.getLogger(AppointmentReminderService.class);
+
     private final RendezVousService rendezVousService;
     private final EmailService emailService;
     private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+    private Runnable pass;
+    private long intervalMinutes;
+    // Replanifie les passages si reminder.interval.minutes change pendant l'exécution
+    private final Consumer<AppSettings> settingsListener = settings ->
+        reschedule(settings.getReminder().getIntervalMinutes());
     private boolean isRunning = false;
 
     public AppointmentReminderService() {
@@ -23,26 +35,52 @@ public class AppointmentReminderService {
         this.emailService = new EmailService();
     }
 
-    public void startReminderScheduler() {
+    public synchronized void startReminderScheduler() {
         if (isRunning) {
-            System.out.println("Reminder scheduler is already running");
+            LOG.info("Planificateur de rappels déjà démarré");
             return;
         }
 
+        // Les passages s'exécutent avec l'identité de l'utilisateur qui a démarré le
+        // planificateur, même s'il se déconnecte ensuite
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
         scheduler = Executors.newScheduledThreadPool(1);
+        pass = context.wrap(this::checkAndSendReminders);
+        intervalMinutes = AppSettings.current().getReminder().getIntervalMinutes();
 
-        scheduler.scheduleAtFixedRate(
-            this::checkAndSendReminders,
+        task = scheduler.scheduleAtFixedRate(
+            pass,
             0,
-            1,
-            TimeUnit.HOURS
+            intervalMinutes,
+            TimeUnit.MINUTES
         );
+        ConfigurationManager.getInstance().addListener(settingsListener);
 
         isRunning = true;
-        System.out.println("Appointment reminder scheduler started");
+        LOG.info("Planificateur de rappels démarré intervalMinutes={}", intervalMinutes);
     }
 
-    public void stopReminderScheduler() {
+    private synchronized void reschedule(long newIntervalMinutes) {
+        if (!isRunning || newIntervalMinutes == intervalMinutes) {
+            return;
+        }
+        task.cancel(false);
+        intervalMinutes = newIntervalMinutes;
+        task = scheduler.scheduleAtFixedRate(
+            pass,
+            intervalMinutes,
+            intervalMinutes,
+            TimeUnit.MINUTES
+        );
+        LOG.info("Planificateur de rappels replanifié intervalMinutes={}", intervalMinutes);
+    }
+
+    public synchronized void stopReminderScheduler() {
+        ConfigurationManager.getInstance().removeListener(settingsListener);
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdown();
             try {
@@ -54,18 +92,18 @@ public class AppointmentReminderService {
                 Thread.currentThread().interrupt();
             }
             isRunning = false;
-            System.out.println("Appointment reminder scheduler stopped");
+            LOG.info("Planificateur de rappels arrêté");
         }
     }
 
     private void checkAndSendReminders() {
         try {
-            System.out.println(
-                "Checking for appointments needing reminders..."
-            );
+            LOG.debug("Recherche des rendez-vous à rappeler");
 
             LocalDateTime now = LocalDateTime.now();
-            LocalDateTime reminderWindow = now.plusHours(24);
+            LocalDateTime reminderWindow = now.plusHours(
+                AppSettings.current().getReminder().getWindowHours()
+            );
 
             List<RendezVous> allAppointments = rendezVousService.findAll();
 
@@ -78,18 +116,13 @@ public class AppointmentReminderService {
                 }
             }
 
-            if (remindersSent > 0) {
-                System.out.println(
-                    "Sent " + remindersSent + " appointment reminder(s)"
-                );
-            } else {
-                System.out.println("No appointment reminders to send");
-            }
-        } catch (Exception e) {
-            System.err.println(
-                "Error in reminder scheduler: " + e.getMessage()
+            LOG.info(
+                "Rappels envoyés sent={} scanned={}",
+                remindersSent,
+                allAppointments.size()
             );
-            e.printStackTrace();
+        } catch (Exception e) {
+            LOG.error("Échec du passage du planificateur de rappels", e);
         }
     }
 
@@ -136,31 +169,13 @@ public class AppointmentReminderService {
     private void sendReminder(RendezVous rdv) {
         try {
             emailService.sendAppointmentReminderWithQR(rdv);
-
-            // Avoid LazyInitializationException by reloading the appointment
-            RendezVousDAO rdvDAO = new RendezVousDAO();
-            RendezVous reloadedRdv = rdvDAO.findById(rdv.getId());
-            
-            if (reloadedRdv != null && reloadedRdv.getPatient() != null && 
-                reloadedRdv.getPatient().getEmail() != null) {
-                System.out.println(
-                    "Reminder with QR code sent to " +
-                        reloadedRdv.getPatient().getEmail() +
-                        " for appointment on " +
-                        reloadedRdv
-                            .getDateHeureDebut()
-                            .format(
-                            DateTimeFormatter.ofPattern("dd/MM/yyyy à HH:mm")
-                        )
-                );
-            }
-        } catch (Exception e) {
-            System.err.println(
-                "Failed to send reminder for appointment " +
-                    rdv.getId() +
-                    ": " +
-                    e.getMessage()
+            LOG.debug(
+                "Rappel envoyé rdvId={} debut={}",
+                rdv.getId(),
+                rdv.getDateHeureDebut()
             );
+        } catch (Exception e) {
+            LOG.warn("Échec de l'envoi du rappel rdvId={}", rdv.getId(), e);
         }
     }
 
@@ -168,15 +183,13 @@ public class AppointmentReminderService {
         try {
             RendezVous rdv = rendezVousService.findById(appointmentId);
             if (rdv == null) {
-                System.err.println("Appointment not found: " + appointmentId);
+                LOG.warn("Rendez-vous introuvable rdvId={}", appointmentId);
                 return;
             }
 
             sendReminder(rdv);
         } catch (Exception e) {
-            System.err.println(
-                "Failed to send immediate reminder: " + e.getMessage()
-            );
+            LOG.warn("Échec du rappel immédiat rdvId={}", appointmentId, e);
         }
     }
 
@@ -4,10 +4,67 @@ import com.mediclinic.dao.UserDAO;
 import com.mediclinic.model.Medecin;
 import com.mediclinic.model.Role;
 import com.mediclinic.model.User;
-import org.mindrot.jbcrypt.BCrypt;
+import com.mediclinic.util.AppSettings;
+import com.mediclinic.util.HibernateUtil;
+import com.mediclinic.util.LoginThrottle;
+import com.mediclinic.util.PasswordHasher;
+import com.mediclinic.util.StartupTracer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class AuthService {
 
+    private static final Logger LOG = LogManager.getLogger(AuthService.class);
+
+    // Attente maximale de la SessionFactory encore en construction au démarrage
+    private static final long DATABASE_WAIT_SECONDS = 60;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final LoginThrottle THROTTLE = new LoginThrottle();
+
+    // Connexions récemment vérifiées, par nom d'utilisateur : un poste partagé où les
+    // utilisateurs se succèdent ne repaie pas BCrypt à chaque changement. Seule une
+    // empreinte HMAC du mot de passe est gardée, avec une clé propre à ce processus.
+    private static final Map<String, VerifiedLogin> VERIFIED = new ConcurrentHashMap<>();
+    private static final byte[] CACHE_KEY = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(CACHE_KEY);
+    }
+
+    // Mise à niveau des hachages après connexion, sans retarder l'ouverture de session
+    private static final ExecutorService REHASH_EXECUTOR =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "password-rehash");
+            t.setDaemon(true);
+            return t;
+        });
+
+    private static class VerifiedLogin {
+
+        private final String passwordHash;
+        private final byte[] fingerprint;
+        private final long expiresAt;
+
+        VerifiedLogin(String passwordHash, byte[] fingerprint, long expiresAt) {
+            this.passwordHash = passwordHash;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
     private final UserDAO userDAO;
 
     public AuthService() {
@@ -15,23 +72,116 @@ public class AuthService {
     }
 
     /**
-     * Tente de connecter un utilisateur.
+     * Tente de connecter un utilisateur. Appelé hors du thread JavaFX : la
+     * vérification BCrypt coûte plusieurs dizaines de millisecondes.
      * @return L'objet User si succès.
-     * @throws IllegalArgumentException si échec.
+     * @throws IllegalArgumentException si échec ou trop de tentatives récentes.
+     * @throws IllegalStateException si la base de données n'est pas disponible.
      */
     public User authenticate(String username, String password) {
-        User user = userDAO.findByUsername(username);
+        long lockedMillis = THROTTLE.getRemainingLockMillis(username);
+        if (lockedMillis > 0) {
+            throw new IllegalArgumentException(
+                "Trop de tentatives échouées. Réessayez dans " +
+                TimeUnit.MILLISECONDS.toSeconds(lockedMillis + 999) +
+                " s."
+            );
+        }
+
+        StartupTracer.time("login-await-hibernate", () ->
+            HibernateUtil.awaitSessionFactory(DATABASE_WAIT_SECONDS, TimeUnit.SECONDS)
+        );
+        User user = StartupTracer.time("login-query", () ->
+            userDAO.findByUsername(username)
+        );
 
         if (user == null) {
+            THROTTLE.recordFailure(username);
             throw new IllegalArgumentException("Nom d'utilisateur inconnu.");
         }
 
         // Vérification du mot de passe haché
-        if (BCrypt.checkpw(password, user.getPasswordHash())) {
-            return user;
-        } else {
+        if (!verify(user, password)) {
+            VERIFIED.remove(user.getUsername());
+            THROTTLE.recordFailure(username);
+            LOG.warn("Échec de connexion username={}", username);
             throw new IllegalArgumentException("Mot de passe incorrect.");
         }
+        THROTTLE.recordSuccess(username);
+
+        if (PasswordHasher.needsRehash(user.getPasswordHash())) {
+            scheduleRehash(user, password);
+        }
+        return user;
+    }
+
+    private boolean verify(User user, String password) {
+        long cacheMillis = AppSettings.current().getCache().getLoginMillis();
+        byte[] fingerprint = cacheMillis > 0 ? fingerprint(password) : null;
+        if (fingerprint != null) {
+            VerifiedLogin cached = VERIFIED.get(user.getUsername());
+            if (
+                cached != null &&
+                cached.expiresAt > System.currentTimeMillis() &&
+                cached.passwordHash.equals(user.getPasswordHash()) &&
+                MessageDigest.isEqual(cached.fingerprint, fingerprint)
+            ) {
+                return true;
+            }
+        }
+
+        boolean valid = StartupTracer.time("login-bcrypt", () ->
+            PasswordHasher.matches(password, user.getPasswordHash())
+        );
+        if (valid && fingerprint != null) {
+            VERIFIED.put(
+                user.getUsername(),
+                new VerifiedLogin(
+                    user.getPasswordHash(),
+                    fingerprint,
+                    System.currentTimeMillis() + cacheMillis
+                )
+            );
+        }
+        return valid;
+    }
+
+    /**
+     * Recalcule le hachage au coût configuré (security.bcrypt.cost) et l'enregistre.
+     */
+    private void scheduleRehash(User user, String password) {
+        Long userId = user.getId();
+        String username = user.getUsername();
+        String oldHash = user.getPasswordHash();
+        REHASH_EXECUTOR.execute(() -> {
+            try {
+                String newHash = PasswordHasher.hash(password);
+                if (!userDAO.updatePasswordHash(userId, oldHash, newHash)) {
+                    // Mot de passe changé pendant le calcul : le nouveau est conservé
+                    LOG.info("Mise à niveau du hachage abandonnée userId={}", userId);
+                    return;
+                }
+                VERIFIED.computeIfPresent(username, (name, cached) ->
+                    cached.passwordHash.equals(oldHash)
+                        ? new VerifiedLogin(newHash, cached.fingerprint, cached.expiresAt)
+                        : cached
+                );
+                LOG.info("Hachage du mot de passe mis à niveau userId={} cost={}", userId, PasswordHasher.getCost());
+            } catch (RuntimeException e) {
+                LOG.warn("Mise à niveau du hachage impossible userId={}", userId, e);
+            }
+        });
+    }
+
+    private static byte[] fingerprint(String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(CACHE_KEY, HMAC_ALGORITHM));
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            // Pas de cache possible : la vérification BCrypt reste faite
+            return null;
+        }
     }
 
     /**
@@ -42,7 +192,7 @@ public class AuthService {
             throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris.");
         }
 
-        String hashed = BCrypt.hashpw(password, BCrypt.gensalt());
+        String hashed = PasswordHasher.hash(password);
         User newUser = new User(username, hashed, Role.MEDECIN);
         newUser.setMedecin(medecin); // Lien avec le profil médecin
 
@@ -56,7 +206,7 @@ public class AuthService {
         if (userDAO.findByUsername(username) != null) {
             return; // Déjà existant
         }
-        String hashed = BCrypt.hashpw(password, BCrypt.gensalt());
+        String hashed = PasswordHasher.hash(password);
         User newUser = new User(username, hashed, Role.ADMIN);
         userDAO.save(newUser);
     }
@@ -69,7 +219,7 @@ public class AuthService {
             throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris.");
         }
 
-        String hashed = BCrypt.hashpw(password, BCrypt.gensalt());
+        String hashed = PasswordHasher.hash(password);
         User newUser = new User(username, hashed, Role.SEC);
         userDAO.save(newUser);
     }
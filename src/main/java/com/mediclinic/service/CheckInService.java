@@ -0,0 +1,230 @@
+package com.mediclinic.service;
+
+import com.mediclinic.model.RendezVous;
+import com.mediclinic.model.RendezVousStatus;
+import java.awt.image.BufferedImage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Accueil continu : lit les images d'une {@link FrameSource}, décode les QR codes à
+ * cadence bornée (les images en trop sont différées, jamais écartées), ignore le
+ * dernier QR code lu tant qu'il reste devant la caméra et confirme les
+ * arrivées (PLANIFIE -> CONFIRME) par lots via {@link RendezVousService#updateStatus}.
+ */
+public class CheckInService {
+
+    private static final Logger LOG = LogManager.getLogger(CheckInService.class);
+
+    /**
+     * Notifications de l'accueil continu (appelées depuis le thread d'accueil).
+     */
+    public interface Listener {
+        void onCheckedIn(RendezVous rdv);
+
+        void onRejected(String message);
+
+        void onStopped(Exception error);
+    }
+
+    // 5 décodages par seconde au plus
+    private static final long MIN_DECODE_INTERVAL_MS = 200;
+    // Le dernier QR code lu est ignoré s'il est relu moins de 3 s après la lecture précédente
+    private static final long REPEAT_WINDOW_MS = 3000;
+    private static final int BATCH_SIZE = 10;
+    // Délai maximal avant de confirmer un lot incomplet
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final QRScanService qrScanService;
+    private final QRCodeService qrCodeService;
+    private final RendezVousService rendezVousService;
+    private Thread worker;
+
+    public CheckInService() {
+        this.qrScanService = new QRScanService();
+        this.qrCodeService = new QRCodeService();
+        this.rendezVousService = new RendezVousService();
+    }
+
+    /**
+     * Démarre l'accueil continu sur la source ; elle est fermée à l'arrêt.
+     */
+    public synchronized void start(FrameSource source, Listener listener) {
+        if (worker != null && worker.isAlive()) {
+            throw new IllegalStateException("L'accueil continu est déjà démarré.");
+        }
+        worker = new Thread(() -> run(source, listener), "qr-checkin");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Arrête l'accueil continu ; les arrivées déjà lues sont confirmées avant l'arrêt.
+     * {@link #isRunning()} reste vrai jusqu'à la fin de ces confirmations.
+     */
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return worker != null && worker.isAlive();
+    }
+
+    private void run(FrameSource source, Listener listener) {
+        // Arrivées lues et non encore confirmées, par id de RDV
+        Map<Long, QRCodeService.AppointmentData> pending = new LinkedHashMap<>();
+        Set<Long> checkedIn = new HashSet<>();
+        String lastPayload = null;
+        long lastPayloadAt = 0;
+        long nextDecodeAt = 0;
+        long firstPendingAt = 0;
+        Exception error = null;
+
+        try (FrameSource frames = source) {
+            while (!Thread.currentThread().isInterrupted()) {
+                long wait = nextDecodeAt - System.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+
+                BufferedImage frame = frames.nextFrame(FLUSH_INTERVAL_MS);
+                if (frame != null) {
+                    nextDecodeAt = System.currentTimeMillis() + MIN_DECODE_INTERVAL_MS;
+                    String payload = qrScanService.decodePayload(frame).get();
+
+                    // Même QR code toujours devant la caméra : rien à refaire. Passé le
+                    // délai, il est relu (patient qui se représente après un refus)
+                    long now = System.currentTimeMillis();
+                    boolean repeated =
+                        payload != null &&
+                        payload.equals(lastPayload) &&
+                        now - lastPayloadAt < REPEAT_WINDOW_MS;
+                    if (payload != null) {
+                        lastPayloadAt = now;
+                    }
+                    if (payload != null && !repeated) {
+                        lastPayload = payload;
+                        QRCodeService.AppointmentData data = parse(payload, listener);
+                        if (
+                            data != null &&
+                            !checkedIn.contains(data.getRendezVousId()) &&
+                            pending.putIfAbsent(data.getRendezVousId(), data) == null &&
+                            pending.size() == 1
+                        ) {
+                            firstPendingAt = System.currentTimeMillis();
+                        }
+                    }
+                }
+
+                if (
+                    pending.size() >= BATCH_SIZE ||
+                    (!pending.isEmpty() &&
+                        System.currentTimeMillis() - firstPendingAt >= FLUSH_INTERVAL_MS)
+                ) {
+                    flush(pending, checkedIn, listener);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Arrêt demandé
+        } catch (EOFException e) {
+            // Source épuisée
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            LOG.error("Accueil continu interrompu", e);
+            error = e;
+        }
+
+        try {
+            flush(pending, checkedIn, listener);
+        } catch (RuntimeException e) {
+            LOG.error("Échec de la confirmation des arrivées en attente", e);
+            if (error == null) {
+                error = e;
+            }
+        }
+        synchronized (this) {
+            if (worker == Thread.currentThread()) {
+                worker = null;
+            }
+        }
+        listener.onStopped(error);
+    }
+
+    private QRCodeService.AppointmentData parse(String payload, Listener listener) {
+        try {
+            QRCodeService.AppointmentData data = qrCodeService.parseQRCode(payload);
+            if (data.getRendezVousId() == null) {
+                listener.onRejected("QR code invalide: ID de rendez-vous manquant");
+                return null;
+            }
+            return data;
+        } catch (IllegalArgumentException e) {
+            listener.onRejected("QR code non reconnu");
+            return null;
+        }
+    }
+
+    /**
+     * Vérifie les QR codes du lot contre la base puis confirme les arrivées en une fois.
+     */
+    private void flush(
+        Map<Long, QRCodeService.AppointmentData> pending,
+        Set<Long> checkedIn,
+        Listener listener
+    ) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> valid = new ArrayList<>(pending.size());
+        for (RendezVous rdv : rendezVousService.findByIds(pending.keySet())) {
+            QRCodeService.AppointmentData data = pending.remove(rdv.getId());
+            if (!qrCodeService.matches(rdv, data)) {
+                listener.onRejected(
+                    "QR code invalide pour le rendez-vous " + rdv.getId()
+                );
+            } else if (rdv.getStatus() == RendezVousStatus.CONFIRME) {
+                checkedIn.add(rdv.getId());
+                listener.onRejected(
+                    rdv.getPatient().getNomComplet() + " : arrivée déjà confirmée"
+                );
+            } else if (rdv.getStatus() != RendezVousStatus.PLANIFIE) {
+                listener.onRejected(
+                    rdv.getPatient().getNomComplet() +
+                        " : rendez-vous " +
+                        rdv.getStatus()
+                );
+            } else {
+                valid.add(rdv.getId());
+            }
+        }
+        for (Long missing : pending.keySet()) {
+            listener.onRejected("Rendez-vous non trouvé (ID: " + missing + ")");
+        }
+        pending.clear();
+
+        for (RendezVous rdv : rendezVousService.updateStatus(
+            valid,
+            RendezVousStatus.CONFIRME
+        )) {
+            valid.remove(rdv.getId());
+            checkedIn.add(rdv.getId());
+            listener.onCheckedIn(rdv);
+        }
+        for (Long refused : valid) {
+            listener.onRejected(
+                "Confirmation refusée pour le rendez-vous " + refused
+            );
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package com.mediclinic.service;
 
 import com.mediclinic.model.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Exports CSV. Chaque export existe en deux variantes : à partir d'une liste déjà
+ * chargée, ou à partir d'un flux (requête scrollable côté DAO) pour les exports
+ * complets de la base. Les lignes sont écrites champ par champ dans un tampon
+ * d'écriture large, sans construire de chaîne intermédiaire par ligne ou par cellule.
+ */
 public class CsvService {
 
     private static final DateTimeFormatter DATE_FORMATTER =
@@ -16,69 +30,68 @@ public class CsvService {
     private static final DateTimeFormatter DATETIME_FORMATTER =
         DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
+    private static final String DETAILED_INVOICE_HEADER =
+        "Facture ID,Date,Patient,Description,Quantite,Prix Unitaire,Montant Ligne,Montant Total Facture";
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
     public void exportPatients(List<Patient> patients, String destPath)
         throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println(
+        exportPatients(patients.stream(), destPath);
+    }
+
+    public void exportPatients(Stream<Patient> patients, String destPath)
+        throws IOException {
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(
+                writer,
                 "ID,Nom,Prenom,Date Naissance,Telephone,Email,Adresse"
             );
 
-            for (Patient patient : patients) {
-                writer.println(
-                    String.join(
-                        ",",
-                        escapeCsv(String.valueOf(patient.getId())),
-                        escapeCsv(patient.getNom()),
-                        escapeCsv(patient.getPrenom()),
-                        escapeCsv(
-                            patient.getDateNaissance() != null
-                                ? patient
-                                      .getDateNaissance()
-                                      .format(DATE_FORMATTER)
-                                : ""
-                        ),
-                        escapeCsv(patient.getTelephone()),
-                        escapeCsv(
-                            patient.getEmail() != null ? patient.getEmail() : ""
-                        ),
-                        escapeCsv(
-                            patient.getAdresse() != null
-                                ? patient.getAdresse()
-                                : ""
-                        )
-                    )
-                );
+            Iterator<Patient> it = patients.iterator();
+            while (it.hasNext()) {
+                Patient patient = it.next();
+                writeField(writer, patient.getId());
+                writer.write(',');
+                writeField(writer, patient.getNom());
+                writer.write(',');
+                writeField(writer, patient.getPrenom());
+                writer.write(',');
+                writeDate(writer, patient.getDateNaissance(), DATE_FORMATTER);
+                writer.write(',');
+                writeField(writer, patient.getTelephone());
+                writer.write(',');
+                writeField(writer, patient.getEmail());
+                writer.write(',');
+                writeField(writer, patient.getAdresse());
+                writer.newLine();
             }
         }
     }
 
     public void exportDoctors(List<Medecin> doctors, String destPath)
         throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println("ID,Nom,Prenom,Specialite,Email,Telephone");
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(writer, "ID,Nom,Prenom,Specialite,Email,Telephone");
 
             for (Medecin doctor : doctors) {
-                writer.println(
-                    String.join(
-                        ",",
-                        escapeCsv(String.valueOf(doctor.getId())),
-                        escapeCsv(doctor.getNom()),
-                        escapeCsv(doctor.getPrenom()),
-                        escapeCsv(
-                            doctor.getSpecialite() != null
-                                ? doctor.getSpecialite().name()
-                                : ""
-                        ),
-                        escapeCsv(
-                            doctor.getEmail() != null ? doctor.getEmail() : ""
-                        ),
-                        escapeCsv(
-                            doctor.getTelephone() != null
-                                ? doctor.getTelephone()
-                                : ""
-                        )
-                    )
+                writeField(writer, doctor.getId());
+                writer.write(',');
+                writeField(writer, doctor.getNom());
+                writer.write(',');
+                writeField(writer, doctor.getPrenom());
+                writer.write(',');
+                writeField(
+                    writer,
+                    doctor.getSpecialite() != null
+                        ? doctor.getSpecialite().name()
+                        : null
                 );
+                writer.write(',');
+                writeField(writer, doctor.getEmail());
+                writer.write(',');
+                writeField(writer, doctor.getTelephone());
+                writer.newLine();
             }
         }
     }
@@ -87,98 +100,92 @@ public class CsvService {
         List<RendezVous> appointments,
         String destPath
     ) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println(
+        exportAppointments(appointments.stream(), destPath);
+    }
+
+    public void exportAppointments(
+        Stream<RendezVous> appointments,
+        String destPath
+    ) throws IOException {
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(
+                writer,
                 "ID,Date Heure Debut,Date Heure Fin,Patient,Medecin,Motif,Statut,Duree (min)"
             );
 
-            for (RendezVous rdv : appointments) {
+            Iterator<RendezVous> it = appointments.iterator();
+            while (it.hasNext()) {
+                RendezVous rdv = it.next();
                 long dureeMinutes = 0;
                 if (rdv.getDuree() != null) {
                     dureeMinutes = rdv.getDuree().toMinutes();
                 }
 
-                writer.println(
-                    String.join(
-                        ",",
-                        escapeCsv(String.valueOf(rdv.getId())),
-                        escapeCsv(
-                            rdv.getDateHeureDebut() != null
-                                ? rdv
-                                      .getDateHeureDebut()
-                                      .format(DATETIME_FORMATTER)
-                                : ""
-                        ),
-                        escapeCsv(
-                            rdv.getDateHeureFin() != null
-                                ? rdv
-                                      .getDateHeureFin()
-                                      .format(DATETIME_FORMATTER)
-                                : ""
-                        ),
-                        escapeCsv(
-                            rdv.getPatient() != null
-                                ? rdv.getPatient().getNomComplet()
-                                : ""
-                        ),
-                        escapeCsv(
-                            rdv.getMedecin() != null
-                                ? rdv.getMedecin().getNomComplet()
-                                : ""
-                        ),
-                        escapeCsv(rdv.getMotif() != null ? rdv.getMotif() : ""),
-                        escapeCsv(
-                            rdv.getStatus() != null
-                                ? rdv.getStatus().name()
-                                : ""
-                        ),
-                        escapeCsv(String.valueOf(dureeMinutes))
-                    )
+                writeField(writer, rdv.getId());
+                writer.write(',');
+                writeDate(writer, rdv.getDateHeureDebut(), DATETIME_FORMATTER);
+                writer.write(',');
+                writeDate(writer, rdv.getDateHeureFin(), DATETIME_FORMATTER);
+                writer.write(',');
+                writeField(
+                    writer,
+                    rdv.getPatient() != null
+                        ? rdv.getPatient().getNomComplet()
+                        : null
                 );
+                writer.write(',');
+                writeField(
+                    writer,
+                    rdv.getMedecin() != null
+                        ? rdv.getMedecin().getNomComplet()
+                        : null
+                );
+                writer.write(',');
+                writeField(writer, rdv.getMotif());
+                writer.write(',');
+                writeField(
+                    writer,
+                    rdv.getStatus() != null ? rdv.getStatus().name() : null
+                );
+                writer.write(',');
+                writer.write(Long.toString(dureeMinutes));
+                writer.newLine();
             }
         }
     }
 
     public void exportInvoices(List<Facture> invoices, String destPath)
         throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println("ID,Date,Patient,Montant Total,Type Paiement");
+        exportInvoices(invoices.stream(), destPath);
+    }
 
-            for (Facture facture : invoices) {
-                writer.println(
-                    String.join(
-                        ",",
-                        escapeCsv(String.valueOf(facture.getId())),
-                        escapeCsv(
-                            facture.getDateFacturation() != null
-                                ? facture
-                                      .getDateFacturation()
-                                      .format(DATE_FORMATTER)
-                                : ""
-                        ),
-                        escapeCsv(
-                            facture.getPatient() != null
-                                ? facture.getPatient().getNomComplet()
-                                : ""
-                        ),
-                        escapeCsv(String.valueOf(facture.getMontantTotal())),
-                        escapeCsv(
-                            facture.getTypePaiement() != null
-                                ? facture.getTypePaiement().name()
-                                : ""
-                        )
-                    )
+    public void exportInvoices(Stream<Facture> invoices, String destPath)
+        throws IOException {
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(writer, "ID,Date,Patient,Montant Total,Type Paiement");
+
+            Iterator<Facture> it = invoices.iterator();
+            while (it.hasNext()) {
+                Facture facture = it.next();
+                writeInvoiceColumns(writer, facture);
+                writer.write(',');
+                writeField(writer, facture.getMontantTotal());
+                writer.write(',');
+                writeField(
+                    writer,
+                    facture.getTypePaiement() != null
+                        ? facture.getTypePaiement().name()
+                        : null
                 );
+                writer.newLine();
             }
         }
     }
 
     public void exportInvoicesDetailed(List<Facture> invoices, String destPath)
         throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println(
-                "Facture ID,Date,Patient,Description,Quantite,Prix Unitaire,Montant Ligne,Montant Total Facture"
-            );
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(writer, DETAILED_INVOICE_HEADER);
 
             for (Facture facture : invoices) {
                 if (
@@ -186,79 +193,100 @@ public class CsvService {
                     !facture.getLignes().isEmpty()
                 ) {
                     for (LigneFacture ligne : facture.getLignes()) {
-                        BigDecimal montantLigne = ligne
-                            .getPrixUnitaire()
-                            .multiply(BigDecimal.valueOf(ligne.getQuantite()));
-
-                        writer.println(
-                            String.join(
-                                ",",
-                                escapeCsv(String.valueOf(facture.getId())),
-                                escapeCsv(
-                                    facture.getDateFacturation() != null
-                                        ? facture
-                                              .getDateFacturation()
-                                              .format(DATE_FORMATTER)
-                                        : ""
-                                ),
-                                escapeCsv(
-                                    facture.getPatient() != null
-                                        ? facture.getPatient().getNomComplet()
-                                        : ""
-                                ),
-                                escapeCsv(
-                                    ligne.getDescription() != null
-                                        ? ligne.getDescription()
-                                        : ""
-                                ),
-                                escapeCsv(String.valueOf(ligne.getQuantite())),
-                                escapeCsv(
-                                    String.valueOf(ligne.getPrixUnitaire())
-                                ),
-                                escapeCsv(String.valueOf(montantLigne)),
-                                escapeCsv(
-                                    String.valueOf(facture.getMontantTotal())
-                                )
-                            )
-                        );
+                        writeDetailedInvoiceRow(writer, facture, ligne);
                     }
                 } else {
-                    writer.println(
-                        String.join(
-                            ",",
-                            escapeCsv(String.valueOf(facture.getId())),
-                            escapeCsv(
-                                facture.getDateFacturation() != null
-                                    ? facture
-                                          .getDateFacturation()
-                                          .format(DATE_FORMATTER)
-                                    : ""
-                            ),
-                            escapeCsv(
-                                facture.getPatient() != null
-                                    ? facture.getPatient().getNomComplet()
-                                    : ""
-                            ),
-                            "",
-                            "0",
-                            "0",
-                            "0",
-                            escapeCsv(String.valueOf(facture.getMontantTotal()))
-                        )
-                    );
+                    writeDetailedInvoiceRow(writer, facture, null);
                 }
             }
         }
     }
 
+    /**
+     * Variante en flux de {@link #exportInvoicesDetailed(List, String)} : chaque élément
+     * est un couple [Facture, LigneFacture] (ligne null pour une facture sans ligne),
+     * tel que produit par FactureDAO.streamWithLignesByDateRange.
+     */
+    public void exportInvoicesDetailed(
+        Stream<Object[]> invoiceLines,
+        String destPath
+    ) throws IOException {
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(writer, DETAILED_INVOICE_HEADER);
+
+            Iterator<Object[]> it = invoiceLines.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                writeDetailedInvoiceRow(
+                    writer,
+                    (Facture) row[0],
+                    (LigneFacture) row[1]
+                );
+            }
+        }
+    }
+
+    private void writeDetailedInvoiceRow(
+        BufferedWriter writer,
+        Facture facture,
+        LigneFacture ligne
+    ) throws IOException {
+        writeInvoiceColumns(writer, facture);
+        writer.write(',');
+        if (ligne != null) {
+            BigDecimal montantLigne = ligne
+                .getPrixUnitaire()
+                .multiply(BigDecimal.valueOf(ligne.getQuantite()));
+
+            writeField(writer, ligne.getDescription());
+            writer.write(',');
+            writer.write(Integer.toString(ligne.getQuantite()));
+            writer.write(',');
+            writeField(writer, ligne.getPrixUnitaire());
+            writer.write(',');
+            writeField(writer, montantLigne);
+        } else {
+            writer.write(",0,0,0");
+        }
+        writer.write(',');
+        writeField(writer, facture.getMontantTotal());
+        writer.newLine();
+    }
+
+    /**
+     * Colonnes communes ID, Date, Patient des exports de factures.
+     */
+    private void writeInvoiceColumns(Writer writer, Facture facture)
+        throws IOException {
+        writeField(writer, facture.getId());
+        writer.write(',');
+        writeDate(writer, facture.getDateFacturation(), DATE_FORMATTER);
+        writer.write(',');
+        writeField(
+            writer,
+            facture.getPatient() != null
+                ? facture.getPatient().getNomComplet()
+                : null
+        );
+    }
+
     public void exportConsultations(
         List<Consultation> consultations,
         String destPath
     ) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(destPath))) {
-            writer.println("ID,Date,Patient,Medecin,Diagnostic,Observations");
+        exportConsultations(consultations.stream(), destPath);
+    }
+
+    public void exportConsultations(
+        Stream<Consultation> consultations,
+        String destPath
+    ) throws IOException {
+        try (BufferedWriter writer = openWriter(destPath)) {
+            writeHeader(writer, "ID,Date,Patient,Medecin,Diagnostic,Observations");
 
-            for (Consultation consultation : consultations) {
+            Iterator<Consultation> it = consultations.iterator();
+            while (it.hasNext()) {
+                Consultation consultation = it.next();
                 String patientName = "N/A";
                 String medecinName = "N/A";
 
@@ -277,50 +305,200 @@ public class CsvService {
                     }
                 }
 
-                writer.println(
-                    String.join(
-                        ",",
-                        escapeCsv(String.valueOf(consultation.getId())),
-                        escapeCsv(
-                            consultation.getDateConsultation() != null
-                                ? consultation
-                                      .getDateConsultation()
-                                      .format(DATETIME_FORMATTER)
-                                : ""
-                        ),
-                        escapeCsv(patientName),
-                        escapeCsv(medecinName),
-                        escapeCsv(
-                            consultation.getDiagnostic() != null
-                                ? consultation.getDiagnostic()
-                                : ""
-                        ),
-                        escapeCsv(
-                            consultation.getObservations() != null
-                                ? consultation.getObservations()
-                                : ""
-                        )
-                    )
+                writeField(writer, consultation.getId());
+                writer.write(',');
+                writeDate(
+                    writer,
+                    consultation.getDateConsultation(),
+                    DATETIME_FORMATTER
                 );
+                writer.write(',');
+                writeField(writer, patientName);
+                writer.write(',');
+                writeField(writer, medecinName);
+                writer.write(',');
+                writeField(writer, consultation.getDiagnostic());
+                writer.write(',');
+                writeField(writer, consultation.getObservations());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Ouvre un fichier CSV en lecture enregistrement par enregistrement.
+     */
+    public RecordReader openReader(String srcPath) throws IOException {
+        return new RecordReader(
+            new BufferedReader(new FileReader(srcPath), WRITE_BUFFER_SIZE)
+        );
+    }
+
+    /**
+     * Écrit un enregistrement complet (champs échappés, séparés par des virgules).
+     */
+    void writeRecord(BufferedWriter writer, List<String> fields)
+        throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
             }
+            writeField(writer, fields.get(i));
         }
+        writer.newLine();
     }
 
-    private String escapeCsv(String value) {
+    BufferedWriter openWriter(String destPath) throws IOException {
+        return new BufferedWriter(new FileWriter(destPath), WRITE_BUFFER_SIZE);
+    }
+
+    private void writeHeader(BufferedWriter writer, String header)
+        throws IOException {
+        writer.write(header);
+        writer.newLine();
+    }
+
+    private void writeField(Writer writer, Object value) throws IOException {
+        writeField(writer, value != null ? value.toString() : null);
+    }
+
+    /**
+     * Écrit un champ échappé selon RFC 4180 : entre guillemets (guillemets doublés)
+     * s'il contient une virgule, un guillemet ou un saut de ligne, tel quel sinon.
+     */
+    private void writeField(Writer writer, String value) throws IOException {
         if (value == null) {
-            return "";
+            return;
+        }
+
+        int length = value.length();
+        boolean needsQuoting = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuoting = true;
+                break;
+            }
+        }
+
+        if (!needsQuoting) {
+            writer.write(value);
+            return;
         }
 
-        if (
-            value.contains(",") ||
-            value.contains("\"") ||
-            value.contains("\n") ||
-            value.contains("\r")
-        ) {
-            value = value.replace("\"", "\"\"");
-            return "\"" + value + "\"";
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '"') {
+                // Écrit le segment jusqu'au guillemet inclus, puis le double
+                writer.write(value, start, i - start + 1);
+                writer.write('"');
+                start = i + 1;
+            }
         }
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
 
-        return value;
+    /**
+     * Les formats de date utilisés ne contiennent aucun caractère à échapper :
+     * ils sont formatés directement dans le flux de sortie.
+     */
+    private void writeDate(
+        Writer writer,
+        TemporalAccessor date,
+        DateTimeFormatter formatter
+    ) throws IOException {
+        if (date != null) {
+            formatter.formatTo(date, writer);
+        }
+    }
+
+    /**
+     * Lecteur CSV en flux (RFC 4180 : champs entre guillemets, guillemets doublés,
+     * sauts de ligne dans les champs). Un seul enregistrement est en mémoire à la fois.
+     */
+    public static class RecordReader implements Closeable {
+
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder(64);
+        private long lineNumber = 1;
+        private long recordLineNumber;
+        private boolean eof;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return les champs de l'enregistrement suivant, ou null en fin de fichier.
+         */
+        public List<String> next() throws IOException {
+            if (eof) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            recordLineNumber = lineNumber;
+            boolean quoted = false;
+            boolean empty = true;
+
+            int c;
+            while ((c = in.read()) != -1) {
+                empty = false;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int nextChar = in.read();
+                        if (nextChar == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (nextChar != -1) {
+                                in.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r') {
+                    // ignoré : la fin d'enregistrement est portée par '\n'
+                } else if (c == '\n') {
+                    lineNumber++;
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+
+            eof = true;
+            if (empty) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * Numéro de ligne (à partir de 1) où commence le dernier enregistrement lu.
+         */
+        public long getRecordLineNumber() {
+            return recordLineNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
     }
 }
@@ -1,7 +1,9 @@
 package com.mediclinic.service;
 
 import com.mediclinic.model.*;
-import com.mediclinic.util.UserSession;
+import com.mediclinic.util.SecurityContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,6 +17,8 @@ import java.util.stream.Collectors;
 
 public class DashboardService {
 
+    private static final Logger LOG = LogManager.getLogger(DashboardService.class);
+
     private final PatientService patientService;
     private final RendezVousService rendezVousService;
     private final MedecinService medecinService;
@@ -31,18 +35,18 @@ public class DashboardService {
      * Get dashboard statistics based on user role
      */
     public DashboardStats getDashboardStats() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new IllegalStateException("User not authenticated");
         }
 
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
+        Role role = context.getRole();
 
         switch (role) {
             case ADMIN:
                 return getAdminStats();
             case MEDECIN:
-                return getMedecinStats(user);
+                return getMedecinStats(context);
             case SEC:
                 return getSecretaryStats();
             default:
@@ -85,8 +89,8 @@ public class DashboardService {
     /**
      * Doctor sees only their appointments and patient info
      */
-    private DashboardStats getMedecinStats(User user) {
-        Medecin medecin = user.getMedecin();
+    private DashboardStats getMedecinStats(SecurityContext context) {
+        Medecin medecin = context.getMedecinReference();
         if (medecin == null) {
             throw new IllegalStateException("Doctor user has no associated Medecin profile");
         }
@@ -174,7 +178,7 @@ public class DashboardService {
      * Returns a LinkedHashMap with day names and appointment counts
      */
     public Map<String, Integer> getWeeklyAppointments() {
-        if (!UserSession.isAuthenticated()) {
+        if (SecurityContext.current() == null) {
             throw new IllegalStateException("User not authenticated");
         }
 
@@ -215,14 +219,14 @@ public class DashboardService {
      * Filtered by current user's role
      */
     public List<RendezVous> getUpcomingAppointmentsDetailed(int daysAhead) {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new IllegalStateException("User not authenticated");
         }
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime future = now.plusDays(daysAhead);
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
+        Role role = context.getRole();
 
         List<RendezVous> allAppointments = rendezVousService.findAll().stream()
             .filter(rdv -> {
@@ -238,7 +242,7 @@ public class DashboardService {
 
         // Filter by role if needed
         if (role == Role.MEDECIN) {
-            Medecin medecin = user.getMedecin();
+            Medecin medecin = context.getMedecinReference();
             if (medecin != null) {
                 allAppointments = allAppointments.stream()
                     .filter(rdv -> medecin.getId().equals(rdv.getMedecin().getId()))
@@ -254,8 +258,9 @@ public class DashboardService {
      * Filtered by current user's role
      */
     public List<RendezVous> getTodayAppointments() {
-        if (!UserSession.isAuthenticated()) {
-            System.err.println("User not authenticated in getTodayAppointments");
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            LOG.warn("Utilisateur non authentifié method=getTodayAppointments");
             return List.of();
         }
 
@@ -263,20 +268,24 @@ public class DashboardService {
             LocalDate today = LocalDate.now();
             LocalDateTime startOfDay = today.atStartOfDay();
             LocalDateTime endOfDay = today.atTime(23, 59, 59);
-            User user = UserSession.getInstance().getUser();
-            Role role = user.getRole();
+            Role role = context.getRole();
             
-            System.out.println("Getting appointments for today: " + today + " (" + startOfDay + " to " + endOfDay + ")");
+            LOG.debug("Rendez-vous du jour date={} debut={} fin={}", today, startOfDay, endOfDay);
 
             // Use the DAO to get all appointments with details loaded
             List<RendezVous> allRDV = rendezVousService.findAll();
-            System.out.println("Total appointments in database: " + allRDV.size());
+            LOG.debug("Rendez-vous chargés total={}", allRDV.size());
+
+            // Per-appointment traces only when debug is on: tested once, not per row
+            boolean traceRows = LOG.isDebugEnabled();
             
             List<RendezVous> allAppointments = allRDV.stream()
                 .filter(rdv -> {
                     LocalDateTime rdvStart = rdv.getDateHeureDebut();
                     if (rdvStart == null) {
-                        System.out.println("RDV " + rdv.getId() + " has null date");
+                        if (traceRows) {
+                            LOG.debug("Rendez-vous sans date id={}", rdv.getId());
+                        }
                         return false;
                     }
                     
@@ -284,8 +293,8 @@ public class DashboardService {
                     boolean isValidStatus = rdv.getStatus() == RendezVousStatus.PLANIFIE || 
                                            rdv.getStatus() == RendezVousStatus.CONFIRME;
                     
-                    if (isToday) {
-                        System.out.println("Found appointment today: " + rdv.getId() + " at " + rdvStart + " status=" + rdv.getStatus());
+                    if (traceRows && isToday) {
+                        LOG.debug("Rendez-vous du jour id={} debut={} statut={}", rdv.getId(), rdvStart, rdv.getStatus());
                     }
                     
                     return isToday && isValidStatus;
@@ -300,29 +309,28 @@ public class DashboardService {
                             rdv.getMedecin().getNomComplet();
                         }
                     } catch (Exception e) {
-                        System.err.println("Error loading relationships: " + e.getMessage());
+                        LOG.warn("Chargement des associations impossible id={}", rdv.getId(), e);
                     }
                 })
                 .sorted((r1, r2) -> r1.getDateHeureDebut().compareTo(r2.getDateHeureDebut()))
                 .collect(Collectors.toList());
             
-            System.out.println("Filtered appointments for today: " + allAppointments.size());
+            LOG.debug("Rendez-vous du jour retenus count={}", allAppointments.size());
 
             // Filter by role if needed
             if (role == Role.MEDECIN) {
-                Medecin medecin = user.getMedecin();
+                Medecin medecin = context.getMedecinReference();
                 if (medecin != null) {
                     allAppointments = allAppointments.stream()
                         .filter(rdv -> medecin.getId().equals(rdv.getMedecin().getId()))
                         .collect(Collectors.toList());
-                    System.out.println("Filtered for doctor: " + allAppointments.size());
+                    LOG.debug("Rendez-vous du médecin count={} medecinId={}", allAppointments.size(), medecin.getId());
                 }
             }
 
             return allAppointments;
         } catch (Exception e) {
-            System.err.println("Error in getTodayAppointments: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Échec du chargement method=getTodayAppointments", e);
             return List.of();
         }
     }
@@ -0,0 +1,113 @@
+package com.mediclinic.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+/**
+ * Images déposées dans un dossier (scanner de bureau, téléphone synchronisé...).
+ * Chaque image arrivée est renvoyée, dans l'ordre d'arrivée : aucune n'est sautée
+ * (chaque fichier peut être le badge d'un patient différent).
+ */
+public class DirectoryFrameSource implements FrameSource {
+
+    private final Path directory;
+    private final WatchService watchService;
+    // Images signalées et non encore renvoyées, dans l'ordre d'arrivée
+    private final Set<Path> pending = new LinkedHashSet<>();
+
+    public DirectoryFrameSource(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException(
+                "Dossier introuvable: " + directory
+            );
+        }
+        this.directory = directory;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY
+        );
+    }
+
+    @Override
+    public BufferedImage nextFrame(long timeoutMillis)
+        throws IOException, InterruptedException {
+        // Des images déjà en file : on ne fait que relever les nouveaux événements
+        collectEvents(pending.isEmpty() ? timeoutMillis : 0);
+
+        Iterator<Path> files = pending.iterator();
+        while (files.hasNext()) {
+            Path file = files.next();
+            files.remove();
+            try {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image != null) {
+                    return image;
+                }
+            } catch (IOException e) {
+                // Fichier encore en cours d'écriture : il sera relu au prochain ENTRY_MODIFY
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ajoute à la file les images signalées, en attendant au plus {@code timeoutMillis} ms
+     * le premier événement (0 : sans attendre).
+     */
+    private void collectEvents(long timeoutMillis)
+        throws IOException, InterruptedException {
+        WatchKey key;
+        try {
+            key = timeoutMillis > 0
+                ? watchService.poll(timeoutMillis, TimeUnit.MILLISECONDS)
+                : watchService.poll();
+        } catch (ClosedWatchServiceException e) {
+            throw new java.io.EOFException("Surveillance du dossier arrêtée");
+        }
+
+        while (key != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path) {
+                    Path file = directory.resolve((Path) event.context());
+                    // CREATE puis MODIFY du même fichier : une seule entrée en file
+                    if (isImage(file)) {
+                        pending.add(file);
+                    }
+                }
+            }
+            key.reset();
+            key = watchService.poll();
+        }
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return (
+            name.endsWith(".png") ||
+            name.endsWith(".jpg") ||
+            name.endsWith(".jpeg") ||
+            name.endsWith(".bmp")
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -2,6 +2,7 @@ package com.mediclinic.service;
 
 import com.mediclinic.dao.RendezVousDAO;
 import com.mediclinic.model.RendezVous;
+import com.mediclinic.util.AppSettings;
 import com.mediclinic.util.ConfigurationManager;
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
@@ -9,37 +10,39 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
-import java.util.Properties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class EmailService {
 
+    private static final Logger LOG = LogManager.getLogger(EmailService.class);
+
+    // Réglages relus à chaque envoi : une modification de application-local.properties
+    // s'applique sans redémarrer
     private final ConfigurationManager config;
-    private final String username;
-    private final String password;
     private final PdfService pdfService;
     private static final DateTimeFormatter DATETIME_FORMATTER =
         DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     public EmailService() {
         config = ConfigurationManager.getInstance();
-        username = config.getEmailUsername();
-        password = config.getEmailPassword();
         pdfService = new PdfService();
 
-        if (username == null || username.equals("votre.email@gmail.com")) {
-            System.err.println(
+        AppSettings.Smtp smtp = config.getSettings().getSmtp();
+        if (!smtp.isUsernameConfigured()) {
+            LOG.warn(
                 "WARNING: Email username not configured properly!"
             );
-            System.err.println(
+            LOG.warn(
                 "Please create 'application-local.properties' with your email credentials."
             );
         }
 
-        if (password == null || password.contains("abcd efgh")) {
-            System.err.println(
+        if (!smtp.isPasswordConfigured()) {
+            LOG.warn(
                 "WARNING: Email password not configured properly!"
             );
-            System.err.println(
+            LOG.warn(
                 "Please set your app password in 'application-local.properties'."
             );
         }
@@ -61,11 +64,12 @@ public class EmailService {
         String filePath,
         Path tempFileToDelete
     ) {
-        if (!isConfigured()) {
-            System.err.println(
+        AppSettings.Smtp smtp = config.getSettings().getSmtp();
+        if (!smtp.isConfigured()) {
+            LOG.warn(
                 "Email service not configured. Email will not be sent."
             );
-            System.err.println(
+            LOG.warn(
                 "Please configure email credentials in application-local.properties"
             );
             return;
@@ -73,37 +77,21 @@ public class EmailService {
 
         new Thread(() -> {
             try {
-                Properties prop = new Properties();
-                prop.put("mail.smtp.host", config.getSmtpHost());
-                prop.put(
-                    "mail.smtp.port",
-                    String.valueOf(config.getSmtpPort())
-                );
-                prop.put(
-                    "mail.smtp.auth",
-                    String.valueOf(config.isSmtpAuthEnabled())
-                );
-                prop.put(
-                    "mail.smtp.starttls.enable",
-                    String.valueOf(config.isStartTlsEnabled())
-                );
-                prop.put("mail.smtp.ssl.trust", config.getSmtpSslTrust());
-
                 Session session = Session.getInstance(
-                    prop,
+                    smtp.toMailProperties(),
                     new Authenticator() {
                         @Override
                         protected PasswordAuthentication getPasswordAuthentication() {
                             return new PasswordAuthentication(
-                                username,
-                                password
+                                smtp.getUsername(),
+                                smtp.getPassword()
                             );
                         }
                     }
                 );
 
                 Message message = new MimeMessage(session);
-                message.setFrom(new InternetAddress(username));
+                message.setFrom(new InternetAddress(smtp.getUsername()));
                 message.setRecipients(
                     Message.RecipientType.TO,
                     InternetAddress.parse(toEmail)
@@ -125,20 +113,18 @@ public class EmailService {
                 message.setContent(multipart);
 
                 Transport.send(message);
-                System.out.println("Email envoye avec succes a " + toEmail);
+                LOG.debug("Email envoyé to={} subject=\"{}\"", toEmail, subject);
             } catch (Exception e) {
-                System.err.println(
-                    "Erreur lors de l'envoi de l'email : " + e.getMessage()
-                );
-                e.printStackTrace();
+                LOG.error("Erreur lors de l'envoi de l'email to={}", toEmail, e);
             } finally {
                 if (tempFileToDelete != null) {
                     try {
                         Files.deleteIfExists(tempFileToDelete);
                     } catch (Exception e) {
-                        System.err.println(
-                            "Could not delete temporary PDF file: " +
-                                e.getMessage()
+                        LOG.warn(
+                            "Could not delete temporary PDF file path={}",
+                            tempFileToDelete,
+                            e
                         );
                     }
                 }
@@ -148,16 +134,11 @@ public class EmailService {
     }
 
     public boolean isConfigured() {
-        return (
-            username != null &&
-            !username.equals("votre.email@gmail.com") &&
-            password != null &&
-            !password.contains("abcd efgh")
-        );
+        return config.getSettings().getSmtp().isConfigured();
     }
 
     public String getConfiguredEmail() {
-        return username;
+        return config.getSettings().getSmtp().getUsername();
     }
 
     public void sendAppointmentConfirmation(
@@ -168,7 +149,7 @@ public class EmailService {
         String motif
     ) {
         if (!isConfigured()) {
-            System.err.println(
+            LOG.warn(
                 "Email service not configured. Appointment confirmation email will not be sent."
             );
             return;
@@ -208,14 +189,14 @@ public class EmailService {
 
     public void sendAppointmentConfirmationWithQR(RendezVous rdv) {
         if (!isConfigured()) {
-            System.err.println(
+            LOG.warn(
                 "Email service not configured. Appointment confirmation email will not be sent."
             );
             return;
         }
 
         if (rdv == null || rdv.getId() == null) {
-            System.err.println("Invalid RendezVous or missing ID");
+            LOG.warn("Invalid RendezVous or missing ID");
             return;
         }
 
@@ -225,13 +206,13 @@ public class EmailService {
         RendezVous reloadedRdv = rdvDAO.findById(rdv.getId());
         
         if (reloadedRdv == null || reloadedRdv.getPatient() == null) {
-            System.err.println("Cannot reload RendezVous or Patient from database");
+            LOG.warn("Cannot reload RendezVous or Patient from database");
             return;
         }
 
         String patientEmail = reloadedRdv.getPatient().getEmail();
         if (patientEmail == null || patientEmail.trim().isEmpty()) {
-            System.out.println(
+            LOG.info(
                 "Patient email not available. Skipping confirmation email."
             );
             return;
@@ -298,23 +279,25 @@ public class EmailService {
                     tempPdfPath
                 );
 
-                System.out.println(
-                    "Appointment confirmation with QR code sent to " +
-                        patientEmail
+                LOG.debug(
+                    "Appointment confirmation with QR code queued rdvId={} to={}",
+                    finalRdv.getId(),
+                    patientEmail
                 );
             } catch (Exception e) {
-                System.err.println(
-                    "Error generating or sending appointment confirmation PDF: " +
-                        e.getMessage()
+                LOG.error(
+                    "Error generating or sending appointment confirmation PDF rdvId={}",
+                    finalRdv.getId(),
+                    e
                 );
-                e.printStackTrace();
                 if (tempPdfPath != null) {
                     try {
                         Files.deleteIfExists(tempPdfPath);
                     } catch (Exception ex) {
-                        System.err.println(
-                            "Could not delete temporary PDF file: " +
-                                ex.getMessage()
+                        LOG.warn(
+                            "Could not delete temporary PDF file path={}",
+                            tempPdfPath,
+                            ex
                         );
                     }
                 }
@@ -331,7 +314,7 @@ public class EmailService {
         String motif
     ) {
         if (!isConfigured()) {
-            System.err.println(
+            LOG.warn(
                 "Email service not configured. Appointment reminder email will not be sent."
             );
             return;
@@ -369,14 +352,14 @@ public class EmailService {
 
     public void sendAppointmentReminderWithQR(RendezVous rdv) {
         if (!isConfigured()) {
-            System.err.println(
+            LOG.warn(
                 "Email service not configured. Appointment reminder email will not be sent."
             );
             return;
         }
 
         if (rdv == null || rdv.getId() == null) {
-            System.err.println("Invalid RendezVous or missing ID");
+            LOG.warn("Invalid RendezVous or missing ID");
             return;
         }
 
@@ -386,13 +369,13 @@ public class EmailService {
         RendezVous reloadedRdv = rdvDAO.findById(rdv.getId());
         
         if (reloadedRdv == null || reloadedRdv.getPatient() == null) {
-            System.err.println("Cannot reload RendezVous or Patient from database");
+            LOG.warn("Cannot reload RendezVous or Patient from database");
             return;
         }
 
         String patientEmail = reloadedRdv.getPatient().getEmail();
         if (patientEmail == null || patientEmail.trim().isEmpty()) {
-            System.out.println(
+            LOG.info(
                 "Patient email not available. Skipping reminder email."
             );
             return;
@@ -459,22 +442,25 @@ public class EmailService {
                     tempPdfPath
                 );
 
-                System.out.println(
-                    "Appointment reminder with QR code sent to " + patientEmail
+                LOG.debug(
+                    "Appointment reminder with QR code queued rdvId={} to={}",
+                    finalRdv.getId(),
+                    patientEmail
                 );
             } catch (Exception e) {
-                System.err.println(
-                    "Error generating or sending appointment reminder PDF: " +
-                        e.getMessage()
+                LOG.error(
+                    "Error generating or sending appointment reminder PDF rdvId={}",
+                    finalRdv.getId(),
+                    e
                 );
-                e.printStackTrace();
                 if (tempPdfPath != null) {
                     try {
                         Files.deleteIfExists(tempPdfPath);
                     } catch (Exception ex) {
-                        System.err.println(
-                            "Could not delete temporary PDF file: " +
-                                ex.getMessage()
+                        LOG.warn(
+                            "Could not delete temporary PDF file path={}",
+                            tempPdfPath,
+                            ex
                         );
                     }
                 }
@@ -489,7 +475,7 @@ public class EmailService {
         String patientId
     ) {
         if (!isConfigured()) {
-            System.err.println(
+            LOG.warn(
                 "Email service not configured. Welcome email will not be sent."
             );
             return;
@@ -6,16 +6,23 @@ import com.mediclinic.dao.PatientDAO;
 import com.mediclinic.model.Facture;
 import com.mediclinic.model.LigneFacture;
 import com.mediclinic.model.Patient;
-import com.mediclinic.model.Role;
 import com.mediclinic.model.TypePaiement;
-import com.mediclinic.util.UserSession;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class FacturationService {
 
+    private static final Logger LOG = LogManager.getLogger(FacturationService.class);
+
     private final FactureDAO factureDAO;
     private final LigneFactureDAO ligneFactureDAO;
     private final PatientDAO patientDAO;
@@ -37,14 +44,13 @@ public class FacturationService {
      */
     public Facture creerFacture(Long patientId, List<LigneFacture> lignes) throws IllegalArgumentException, SecurityException {
         // Check authentication and permission
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        Role role = UserSession.getInstance().getUser().getRole();
-        
         // Only SEC and ADMIN can create invoices
-        if (role != Role.SEC && role != Role.ADMIN) {
+        if (!context.has(Permission.INVOICE_CREATE)) {
             throw new SecurityException("Vous n'avez pas la permission de créer une facture.");
         }
 
@@ -93,14 +99,13 @@ public class FacturationService {
      */
     public Facture marquerCommePayee(Long factureId, TypePaiement typePaiement) throws SecurityException {
         // Check authentication and permission
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        Role role = UserSession.getInstance().getUser().getRole();
-        
         // Only SEC and ADMIN can mark invoices as paid
-        if (role != Role.SEC && role != Role.ADMIN) {
+        if (!context.has(Permission.INVOICE_MARK_PAID)) {
             throw new SecurityException("Vous n'avez pas la permission de marquer une facture comme payée.");
         }
         
@@ -128,11 +133,11 @@ public class FacturationService {
      * Check if current user can create invoices
      */
     public boolean canCreateInvoice() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.SEC || role == Role.ADMIN;
+        return context.has(Permission.INVOICE_CREATE);
     }
 
     // --- Méthodes de Recherche ---
@@ -154,6 +159,78 @@ public class FacturationService {
         return factureDAO.findAllWithDetails();
     }
 
+    /**
+     * Génère le rapport financier d'une période directement depuis la base :
+     * les totaux sont calculés par des requêtes d'agrégat et le détail est lu
+     * en flux, sans charger toutes les factures en mémoire.
+     */
+    public void generateFinancialReport(LocalDate startDate, LocalDate endDate, String destPath) throws IOException {
+        requireInvoiceExport();
+
+        long totalInvoices = factureDAO.countByDateRange(startDate, endDate);
+        BigDecimal totalRevenue = factureDAO.sumMontantByDateRange(startDate, endDate);
+        Map<TypePaiement, Long> paymentsByType = factureDAO.countByTypePaiement(startDate, endDate);
+
+        PdfService pdfService = new PdfService();
+        try {
+            factureDAO.streamByDateRange(startDate, endDate, invoices -> {
+                try {
+                    pdfService.generateFinancialReport(invoices.iterator(), totalInvoices, totalRevenue,
+                            paymentsByType, startDate, endDate, destPath);
+                } catch (FileNotFoundException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Exporte en CSV les factures d'une période (une ligne par facture, ou une ligne
+     * par ligne de facture si {@code detailed}), lues en flux depuis la base.
+     */
+    public void exportFacturesCsv(LocalDate startDate, LocalDate endDate, boolean detailed, String destPath)
+            throws IOException {
+        requireInvoiceExport();
+
+        CsvService csvService = new CsvService();
+        try {
+            if (detailed) {
+                factureDAO.streamWithLignesByDateRange(startDate, endDate, rows -> {
+                    try {
+                        csvService.exportInvoicesDetailed(rows, destPath);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } else {
+                factureDAO.streamByDateRange(startDate, endDate, invoices -> {
+                    try {
+                        csvService.exportInvoices(invoices, destPath);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Rapports et exports de factures : mêmes droits que l'export groupé PDF
+    private void requireInvoiceExport() {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+        if (!context.has(Permission.INVOICE_EXPORT)) {
+            throw new SecurityException(
+                "Vous n'avez pas la permission d'exporter les factures."
+            );
+        }
+    }
+
     public void sendFactureByEmail(Long factureId) {
         // 1. Get Data
         Facture facture = factureDAO.findById(factureId);
@@ -173,7 +250,7 @@ public class FacturationService {
                     filePath
             );
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            LOG.error("Envoi de la facture impossible factureId={}", factureId, e);
         }
     }
 }
\ No newline at end of file
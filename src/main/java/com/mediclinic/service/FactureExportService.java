@@ -0,0 +1,339 @@
+package com.mediclinic.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.mediclinic.dao.FactureDAO;
+import com.mediclinic.model.Facture;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Export groupé des factures en PDF (fin de mois, impression en masse).
+ * Les PDF sont rendus en parallèle sur un pool borné ; l'écriture (dossier,
+ * archive ZIP ou PDF fusionné) se fait dans l'ordre de sélection sur le thread
+ * appelant, avec une fenêtre limitée de rendus en attente pour borner la mémoire.
+ */
+public class FactureExportService {
+
+    public enum Format {
+        DOSSIER,
+        ZIP,
+        PDF_FUSIONNE
+    }
+
+    /**
+     * Notifié après chaque facture écrite (appelé depuis le thread de l'export).
+     */
+    public interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+
+    private static final int MAX_WORKERS = 4;
+    // Nombre de rendus en cours ou terminés non encore écrits, par worker
+    private static final int PENDING_PER_WORKER = 4;
+    // Factures chargées (avec patient et lignes) par requête
+    private static final int PAGE_SIZE = 100;
+
+    private static final Logger LOG = LogManager.getLogger(FactureExportService.class);
+
+    private final FactureDAO factureDAO;
+    private final int workers;
+
+    public FactureExportService() {
+        this.factureDAO = new FactureDAO();
+        this.workers = Math.max(
+            1,
+            Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1)
+        );
+    }
+
+    /**
+     * Sélectionne les factures (critères optionnels, null = pas de filtre) et les exporte.
+     * @param destination dossier cible pour {@link Format#DOSSIER}, fichier sinon.
+     * @return le nombre de factures exportées.
+     * @throws InterruptedIOException si le thread appelant est interrompu (annulation) ;
+     *         comme pour toute erreur, les fichiers créés par cet export sont supprimés
+     *         (les fichiers existants ne sont jamais supprimés).
+     */
+    public int exportFactures(
+        LocalDate debut,
+        LocalDate fin,
+        Long patientId,
+        Boolean estPayee,
+        Format format,
+        File destination,
+        ProgressListener listener
+    ) throws IOException, SecurityException {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        // Only SEC and ADMIN can export invoices
+        if (!context.has(Permission.INVOICE_EXPORT)) {
+            throw new SecurityException(
+                "Vous n'avez pas la permission d'exporter les factures."
+            );
+        }
+
+        if (format == null || destination == null) {
+            throw new IllegalArgumentException(
+                "Le format et la destination de l'export sont requis."
+            );
+        }
+
+        List<Long> ids = factureDAO.findIdsForExport(
+            debut,
+            fin,
+            patientId,
+            estPayee
+        );
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Annulation ou erreur : on ne laisse pas d'export partiel derrière soi.
+        // Seuls les fichiers créés par cet export sont supprimés ; un fichier unique
+        // (ZIP, PDF fusionné) est écrit à côté puis renommé, la cible existante
+        // n'est remplacée qu'en cas de succès.
+        List<Path> written = new ArrayList<>();
+        boolean createdDirectory = format == Format.DOSSIER && !destination.exists();
+        File target = format == Format.DOSSIER ? destination : partFile(destination);
+        boolean completed = false;
+        try {
+            int count = write(format, target, ids, listener, written);
+            if (target != destination) {
+                Files.move(
+                    target.toPath(),
+                    destination.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING
+                );
+            }
+            completed = true;
+            return count;
+        } finally {
+            if (!completed) {
+                deletePartialOutput(format, target, written, createdDirectory);
+            }
+        }
+    }
+
+    private static File partFile(File destination) throws IOException {
+        File parent = destination.getAbsoluteFile().getParentFile();
+        return Files.createTempFile(
+            parent.toPath(),
+            destination.getName() + ".",
+            ".part"
+        ).toFile();
+    }
+
+    private int write(
+        Format format,
+        File destination,
+        List<Long> ids,
+        ProgressListener listener,
+        List<Path> written
+    ) throws IOException {
+        Iterator<Facture> factures = pagedFactures(ids);
+        int total = ids.size();
+        switch (format) {
+            case DOSSIER:
+                Files.createDirectories(destination.toPath());
+                return render(factures, total, listener, (facture, pdf) -> {
+                    Path path = new File(destination, fileName(facture)).toPath();
+                    // Un fichier déjà présent est remplacé mais jamais supprimé en cas d'échec
+                    if (Files.notExists(path)) {
+                        written.add(path);
+                    }
+                    Files.write(path, pdf);
+                });
+            case ZIP:
+                try (
+                    ZipOutputStream zip = new ZipOutputStream(
+                        new FileOutputStream(destination)
+                    )
+                ) {
+                    return render(factures, total, listener, (facture, pdf) -> {
+                        zip.putNextEntry(new ZipEntry(fileName(facture)));
+                        zip.write(pdf);
+                        zip.closeEntry();
+                    });
+                }
+            case PDF_FUSIONNE:
+                try (
+                    PdfDocument merged = new PdfDocument(
+                        new PdfWriter(destination)
+                    )
+                ) {
+                    PdfMerger merger = new PdfMerger(merged);
+                    return render(factures, total, listener, (facture, pdf) -> {
+                        try (
+                            PdfDocument source = new PdfDocument(
+                                new PdfReader(new ByteArrayInputStream(pdf))
+                            )
+                        ) {
+                            merger.merge(source, 1, source.getNumberOfPages());
+                        }
+                    });
+                }
+            default:
+                throw new IllegalArgumentException(
+                    "Format d'export non supporté: " + format
+                );
+        }
+    }
+
+    private void deletePartialOutput(
+        Format format,
+        File destination,
+        List<Path> written,
+        boolean createdDirectory
+    ) {
+        try {
+            if (format == Format.DOSSIER) {
+                for (Path path : written) {
+                    Files.deleteIfExists(path);
+                }
+                if (createdDirectory) {
+                    Files.deleteIfExists(destination.toPath());
+                }
+            } else {
+                Files.deleteIfExists(destination.toPath());
+            }
+        } catch (IOException e) {
+            LOG.warn("Suppression de l'export partiel impossible path={}", destination, e);
+        }
+    }
+
+    /**
+     * Factures chargées par paquets de {@link #PAGE_SIZE} au fil de l'itération :
+     * seul le paquet en cours est en mémoire, pas toute la sélection.
+     */
+    private Iterator<Facture> pagedFactures(List<Long> ids) {
+        return new Iterator<>() {
+            private int nextIndex;
+            private Iterator<Facture> page = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                // Une facture supprimée entre-temps peut laisser un paquet vide
+                while (!page.hasNext() && nextIndex < ids.size()) {
+                    int end = Math.min(ids.size(), nextIndex + PAGE_SIZE);
+                    page = factureDAO.findForExportByIds(ids.subList(nextIndex, end)).iterator();
+                    nextIndex = end;
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Facture next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    private static String fileName(Facture facture) {
+        return "Facture_" + facture.getId() + ".pdf";
+    }
+
+    private interface PdfSink {
+        void write(Facture facture, byte[] pdf) throws IOException;
+    }
+
+    /**
+     * Rend les factures en parallèle et les transmet au sink dans l'ordre de la sélection.
+     */
+    private int render(
+        Iterator<Facture> it,
+        int total,
+        ProgressListener listener,
+        PdfSink sink
+    ) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "facture-export-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        int done = 0;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        Deque<Facture> pendingFactures = new ArrayDeque<>();
+
+        try {
+            while (it.hasNext() || !pending.isEmpty()) {
+                while (it.hasNext() && pending.size() < workers * PENDING_PER_WORKER) {
+                    Facture facture = it.next();
+                    pendingFactures.add(facture);
+                    pending.add(executor.submit(() -> renderPdf(facture)));
+                }
+
+                byte[] pdf = pending.poll().get();
+                sink.write(pendingFactures.poll(), pdf);
+                done++;
+                if (listener != null) {
+                    listener.onProgress(done, total);
+                }
+            }
+            return done;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                "Export interrompu après " + done + " facture(s)."
+            );
+        } catch (ClosedByInterruptException e) {
+            // Interruption pendant l'écriture d'un fichier (Files.write) : c'est une annulation
+            InterruptedIOException cancelled = new InterruptedIOException(
+                "Export interrompu après " + done + " facture(s)."
+            );
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            throw new IOException(
+                "Erreur lors de la génération d'une facture: " +
+                    e.getCause().getMessage(),
+                e.getCause()
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] renderPdf(Facture facture) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        new PdfService().generateFacturePdf(facture, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mediclinic.service;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source d'images pour l'accueil continu par QR code (dossier surveillé, flux caméra...).
+ * Les implémentations ne sont lues que par un seul thread.
+ */
+public interface FrameSource extends Closeable {
+
+    /**
+     * Attend l'image suivante au plus {@code timeoutMillis} ms. Un flux continu (caméra)
+     * peut sauter des images intermédiaires pour renvoyer la plus récente ; une source
+     * d'images distinctes (dossier) les renvoie toutes, dans l'ordre.
+     * @return l'image, ou null si aucune n'est arrivée dans le délai.
+     * @throws java.io.EOFException si la source est épuisée.
+     */
+    BufferedImage nextFrame(long timeoutMillis)
+        throws IOException, InterruptedException;
+}
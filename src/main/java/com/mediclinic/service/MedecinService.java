@@ -3,9 +3,9 @@ package com.mediclinic.service;
 import com.mediclinic.dao.MedecinDAO;
 import com.mediclinic.dao.RendezVousDAO;
 import com.mediclinic.model.Medecin;
-import com.mediclinic.model.Role;
 import com.mediclinic.model.SpecialiteMedecin;
-import com.mediclinic.util.UserSession;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
 import java.util.List;
 
 public class MedecinService {
@@ -26,12 +26,12 @@ public class MedecinService {
      */
     public Medecin saveMedecin(Medecin medecin) throws SecurityException {
         // Check authentication and permission - Only ADMIN can create/modify doctors
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
-        Role role = UserSession.getInstance().getUser().getRole();
-        if (role != Role.ADMIN) {
+        if (!context.has(Permission.DOCTOR_MANAGE)) {
             throw new SecurityException(
                 "Seul l'administrateur peut créer ou modifier un médecin."
             );
@@ -55,12 +55,12 @@ public class MedecinService {
         String telephone
     ) throws SecurityException {
         // Check authentication and permission - Only ADMIN can modify doctors
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
-        Role role = UserSession.getInstance().getUser().getRole();
-        if (role != Role.ADMIN) {
+        if (!context.has(Permission.DOCTOR_MANAGE)) {
             throw new SecurityException(
                 "Seul l'administrateur peut modifier un médecin."
             );
@@ -94,12 +94,12 @@ public class MedecinService {
     public void deleteMedecin(Long medecinId)
         throws IllegalStateException, SecurityException {
         // Check authentication and permission - Only ADMIN can delete doctors
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
-        Role role = UserSession.getInstance().getUser().getRole();
-        if (role != Role.ADMIN) {
+        if (!context.has(Permission.DOCTOR_MANAGE)) {
             throw new SecurityException(
                 "Seul l'administrateur peut supprimer un médecin."
             );
@@ -129,11 +129,11 @@ public class MedecinService {
      * Check if current user can create doctors
      */
     public boolean canCreateDoctor() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.ADMIN;
+        return context.has(Permission.DOCTOR_MANAGE);
     }
 
     // --- Méthodes de Recherche ---
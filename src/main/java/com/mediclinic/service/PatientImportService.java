@@ -0,0 +1,365 @@
+package com.mediclinic.service;
+
+import com.mediclinic.dao.PatientDAO;
+import com.mediclinic.model.Patient;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Import en masse de patients depuis un fichier CSV (reprise des données d'une clinique).
+ * Le fichier est lu enregistrement par enregistrement, chaque ligne est validée avec les
+ * règles de {@link PatientService}, puis les patients valides sont insérés par lots JDBC
+ * (taille hibernate.jdbc.batch_size) avec leur dossier médical.
+ * Les lignes rejetées sont recopiées dans un rapport d'erreurs à côté du fichier source.
+ */
+public class PatientImportService {
+
+    /**
+     * Notifié après chaque lot traité (appelé depuis le thread de l'import).
+     */
+    public interface ProgressListener {
+        void onProgress(long lignesTraitees, int importes, int rejetes);
+    }
+
+    /**
+     * Bilan d'un import.
+     */
+    public static class ImportResult {
+
+        private final int importes;
+        private final int rejetes;
+        private final String rapportErreurs;
+
+        ImportResult(int importes, int rejetes, String rapportErreurs) {
+            this.importes = importes;
+            this.rejetes = rejetes;
+            this.rapportErreurs = rapportErreurs;
+        }
+
+        public int getImportes() {
+            return importes;
+        }
+
+        public int getRejetes() {
+            return rejetes;
+        }
+
+        /**
+         * @return le chemin du rapport d'erreurs, ou null si aucune ligne n'a été rejetée.
+         */
+        public String getRapportErreurs() {
+            return rapportErreurs;
+        }
+    }
+
+    // Colonnes reconnues (en-têtes normalisés : minuscules, sans accents ni séparateurs)
+    private static final String COL_NOM = "nom";
+    private static final String COL_PRENOM = "prenom";
+    private static final String COL_DATE_NAISSANCE = "datenaissance";
+    private static final String COL_TELEPHONE = "telephone";
+    private static final String COL_EMAIL = "email";
+    private static final String COL_ADRESSE = "adresse";
+
+    // Format de CsvService.exportPatients, puis ISO en repli
+    private static final DateTimeFormatter CSV_DATE_FORMATTER =
+        DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final PatientDAO patientDAO;
+    private final CsvService csvService;
+
+    public PatientImportService() {
+        this.patientDAO = new PatientDAO();
+        this.csvService = new CsvService();
+    }
+
+    /**
+     * Importe les patients du fichier CSV (en-tête obligatoire, colonnes Nom, Prenom,
+     * Telephone, Email requises ; Date Naissance, Adresse optionnelles ; ID ignoré).
+     * @throws InterruptedIOException si le thread appelant est interrompu (les lots
+     *         déjà validés restent enregistrés).
+     */
+    public ImportResult importPatients(String srcPath, ProgressListener listener)
+        throws IOException, SecurityException {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        // Only SEC and ADMIN can import patients
+        if (!context.has(Permission.PATIENT_IMPORT)) {
+            throw new SecurityException(
+                "Vous n'avez pas la permission de créer un patient."
+            );
+        }
+
+        String reportPath = errorReportPath(srcPath);
+        // Le rapport d'un import précédent ne doit pas passer pour celui-ci
+        Files.deleteIfExists(Paths.get(reportPath));
+        int batchSize = patientDAO.getJdbcBatchSize();
+
+        try (CsvService.RecordReader reader = csvService.openReader(srcPath)) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("Le fichier CSV est vide.");
+            }
+            Map<String, Integer> columns = mapColumns(header);
+
+            ImportRun run = new ImportRun(header, reportPath, listener);
+            try {
+                Set<String> knownEmails = patientDAO.findAllEmails();
+                List<Patient> batch = new ArrayList<>(batchSize);
+                List<Row> batchRows = new ArrayList<>(batchSize);
+
+                List<String> record;
+                while ((record = reader.next()) != null) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException(
+                            "Import interrompu après " + run.importes +
+                                " patient(s) importé(s)."
+                        );
+                    }
+                    run.lignes++;
+                    long lineNumber = reader.getRecordLineNumber();
+                    if (isBlank(record)) {
+                        continue;
+                    }
+
+                    Patient patient = new Patient();
+                    String erreur = parsePatient(record, columns, patient);
+                    if (erreur == null) {
+                        erreur = PatientService.validatePatientFields(patient);
+                    }
+                    if (erreur == null) {
+                        patient.setEmail(patient.getEmail().trim());
+                        if (!knownEmails.add(patient.getEmail().toLowerCase(Locale.ROOT))) {
+                            erreur = "Un patient avec cet email existe déjà.";
+                        }
+                    }
+                    if (erreur != null) {
+                        run.reject(lineNumber, erreur, record);
+                        continue;
+                    }
+
+                    batch.add(patient);
+                    batchRows.add(new Row(lineNumber, record));
+                    if (batch.size() >= batchSize) {
+                        run.flush(batch, batchRows);
+                    }
+                }
+                run.flush(batch, batchRows);
+            } finally {
+                run.close();
+            }
+
+            return new ImportResult(
+                run.importes,
+                run.rejetes,
+                run.report != null ? reportPath : null
+            );
+        }
+    }
+
+    /**
+     * Lit les champs d'une ligne dans le patient.
+     * @return le message d'erreur, ou null si la ligne est exploitable.
+     */
+    private static String parsePatient(
+        List<String> record,
+        Map<String, Integer> columns,
+        Patient patient
+    ) {
+        patient.setNom(field(record, columns, COL_NOM));
+        patient.setPrenom(field(record, columns, COL_PRENOM));
+        patient.setTelephone(field(record, columns, COL_TELEPHONE));
+        patient.setEmail(field(record, columns, COL_EMAIL));
+        patient.setAdresse(field(record, columns, COL_ADRESSE));
+
+        if (patient.getNom() == null || patient.getPrenom() == null) {
+            return "Le nom et le prénom sont obligatoires.";
+        }
+
+        String date = field(record, columns, COL_DATE_NAISSANCE);
+        if (date != null) {
+            try {
+                patient.setDateNaissance(parseDate(date));
+            } catch (DateTimeParseException e) {
+                return "Date de naissance invalide: " + date;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value, CSV_DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return LocalDate.parse(value);
+        }
+    }
+
+    /**
+     * Valeur nettoyée d'une colonne, ou null si la colonne est absente ou vide.
+     */
+    private static String field(
+        List<String> record,
+        Map<String, Integer> columns,
+        String column
+    ) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Map<String, Integer> mapColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalizeHeader(header.get(i)), i);
+        }
+        Integer dateDeNaissance = columns.get("datedenaissance");
+        if (dateDeNaissance != null) {
+            columns.putIfAbsent(COL_DATE_NAISSANCE, dateDeNaissance);
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String required : Arrays.asList(
+            COL_NOM,
+            COL_PRENOM,
+            COL_TELEPHONE,
+            COL_EMAIL
+        )) {
+            if (!columns.containsKey(required)) {
+                missing.add(required);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException(
+                "Colonnes obligatoires manquantes dans l'en-tête: " + missing
+            );
+        }
+        return columns;
+    }
+
+    private static String normalizeHeader(String name) {
+        String stripped = Normalizer.normalize(
+            name.replace("\uFEFF", ""),
+            Normalizer.Form.NFD
+        ).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static boolean isBlank(List<String> record) {
+        for (String value : record) {
+            if (!value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String errorReportPath(String srcPath) {
+        int dot = srcPath.lastIndexOf('.');
+        int sep = Math.max(srcPath.lastIndexOf('/'), srcPath.lastIndexOf('\\'));
+        String base = dot > sep ? srcPath.substring(0, dot) : srcPath;
+        return base + "_erreurs.csv";
+    }
+
+    private static class Row {
+
+        final long lineNumber;
+        final List<String> record;
+
+        Row(long lineNumber, List<String> record) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+        }
+    }
+
+    /**
+     * État d'un import : compteurs, rapport d'erreurs (ouvert au premier rejet).
+     */
+    private class ImportRun {
+
+        private final List<String> header;
+        private final String reportPath;
+        private final ProgressListener listener;
+        private BufferedWriter report;
+        private long lignes;
+        private int importes;
+        private int rejetes;
+
+        ImportRun(List<String> header, String reportPath, ProgressListener listener) {
+            this.header = header;
+            this.reportPath = reportPath;
+            this.listener = listener;
+        }
+
+        void reject(long lineNumber, String erreur, List<String> record)
+            throws IOException {
+            if (report == null) {
+                report = csvService.openWriter(reportPath);
+                List<String> reportHeader = new ArrayList<>(header.size() + 2);
+                reportHeader.add("Ligne");
+                reportHeader.add("Erreur");
+                reportHeader.addAll(header);
+                csvService.writeRecord(report, reportHeader);
+            }
+            List<String> fields = new ArrayList<>(record.size() + 2);
+            fields.add(String.valueOf(lineNumber));
+            fields.add(erreur);
+            fields.addAll(record);
+            csvService.writeRecord(report, fields);
+            rejetes++;
+        }
+
+        /**
+         * Insère le lot courant ; en cas d'échec, toutes ses lignes sont rejetées.
+         */
+        void flush(List<Patient> batch, List<Row> rows) throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                patientDAO.insertWithDossiers(batch);
+                importes += batch.size();
+            } catch (RuntimeException e) {
+                String erreur = "Échec de l'insertion du lot: " + e.getMessage();
+                for (Row row : rows) {
+                    reject(row.lineNumber, erreur, row.record);
+                }
+            }
+            batch.clear();
+            rows.clear();
+            if (listener != null) {
+                listener.onProgress(lignes, importes, rejetes);
+            }
+        }
+
+        void close() throws IOException {
+            if (report != null) {
+                report.close();
+            }
+            if (listener != null) {
+                listener.onProgress(lignes, importes, rejetes);
+            }
+        }
+    }
+}
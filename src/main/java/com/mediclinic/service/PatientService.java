@@ -7,8 +7,8 @@ import com.mediclinic.model.Patient;
 import com.mediclinic.model.DossierMedical;
 import com.mediclinic.model.Medecin;
 import com.mediclinic.model.Role;
-import com.mediclinic.model.User;
-import com.mediclinic.util.UserSession;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
@@ -45,36 +45,20 @@ public class PatientService {
      */
     public Patient createPatient(Patient patient) throws IllegalArgumentException, SecurityException {
         // Check authentication and permission
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
-        
         // Only SEC and ADMIN can create patients
-        if (role != Role.SEC && role != Role.ADMIN) {
+        if (!context.has(Permission.PATIENT_CREATE)) {
             throw new SecurityException("Vous n'avez pas la permission de créer un patient.");
         }
         
-        // Règle de gestion 1 : Coordonnées valides (email, téléphone)
-        if (!validateContactInfo(patient)) {
-            throw new IllegalArgumentException("Informations de contact (email/téléphone) invalides ou incomplètes.");
-        }
-
-        // Validation du format email
-        if (!isValidEmail(patient.getEmail())) {
-            throw new IllegalArgumentException("Format d'email invalide.");
-        }
-
-        // Validation du format téléphone
-        if (!isValidPhone(patient.getTelephone())) {
-            throw new IllegalArgumentException("Format de téléphone invalide.");
-        }
-
-        // Validation de la date de naissance
-        if (patient.getDateNaissance() != null && patient.getDateNaissance().isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("La date de naissance ne peut pas être dans le futur.");
+        // Règle de gestion 1 : Coordonnées valides (email, téléphone, date de naissance)
+        String erreur = validatePatientFields(patient);
+        if (erreur != null) {
+            throw new IllegalArgumentException(erreur);
         }
 
         // Règle de gestion 2 : Vérifier l'unicité de l'email
@@ -98,10 +82,30 @@ public class PatientService {
         return savedPatient;
     }
 
+    /**
+     * Règles de validation des champs d'un patient (partagées avec l'import CSV).
+     * @return le message d'erreur, ou null si le patient est valide.
+     */
+    static String validatePatientFields(Patient patient) {
+        if (!validateContactInfo(patient)) {
+            return "Informations de contact (email/téléphone) invalides ou incomplètes.";
+        }
+        if (!isValidEmail(patient.getEmail())) {
+            return "Format d'email invalide.";
+        }
+        if (!isValidPhone(patient.getTelephone())) {
+            return "Format de téléphone invalide.";
+        }
+        if (patient.getDateNaissance() != null && patient.getDateNaissance().isAfter(LocalDate.now())) {
+            return "La date de naissance ne peut pas être dans le futur.";
+        }
+        return null;
+    }
+
     /**
      * Valide la présence d'un email et d'un téléphone.
      */
-    private boolean validateContactInfo(Patient patient) {
+    private static boolean validateContactInfo(Patient patient) {
         // Validation simple : vérifie si les champs ne sont pas vides ou null
         return patient.getEmail() != null && !patient.getEmail().trim().isEmpty() &&
                 patient.getTelephone() != null && !patient.getTelephone().trim().isEmpty();
@@ -110,14 +114,14 @@ public class PatientService {
     /**
      * Valide le format de l'email.
      */
-    private boolean isValidEmail(String email) {
+    private static boolean isValidEmail(String email) {
         return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
     /**
      * Valide le format du téléphone.
      */
-    private boolean isValidPhone(String phone) {
+    private static boolean isValidPhone(String phone) {
         return phone != null && PHONE_PATTERN.matcher(phone).matches();
     }
 
@@ -127,12 +131,12 @@ public class PatientService {
      */
     public void deletePatient(Long patientId) throws IllegalStateException, SecurityException {
         // Check authentication and permission - Only ADMIN can delete
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        User user = UserSession.getInstance().getUser();
-        if (user.getRole() != Role.ADMIN) {
+        if (!context.has(Permission.PATIENT_DELETE)) {
             throw new SecurityException("Seul l'administrateur peut supprimer un patient.");
         }
         
@@ -156,15 +160,13 @@ public class PatientService {
      */
     public Patient updatePatient(Patient patient) throws IllegalArgumentException, SecurityException {
         // Check authentication and permission
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
-        
         // Only SEC and ADMIN can update patients
-        if (role != Role.SEC && role != Role.ADMIN) {
+        if (!context.has(Permission.PATIENT_MODIFY)) {
             throw new SecurityException("Vous n'avez pas la permission de modifier un patient.");
         }
         
@@ -178,24 +180,10 @@ public class PatientService {
             throw new IllegalArgumentException("Patient non trouvé.");
         }
         
-        // Validation des coordonnées
-        if (!validateContactInfo(patient)) {
-            throw new IllegalArgumentException("Informations de contact (email/téléphone) invalides ou incomplètes.");
-        }
-
-        // Validation du format email
-        if (!isValidEmail(patient.getEmail())) {
-            throw new IllegalArgumentException("Format d'email invalide.");
-        }
-
-        // Validation du format téléphone
-        if (!isValidPhone(patient.getTelephone())) {
-            throw new IllegalArgumentException("Format de téléphone invalide.");
-        }
-
-        // Validation de la date de naissance
-        if (patient.getDateNaissance() != null && patient.getDateNaissance().isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("La date de naissance ne peut pas être dans le futur.");
+        // Validation des coordonnées et de la date de naissance
+        String erreur = validatePatientFields(patient);
+        if (erreur != null) {
+            throw new IllegalArgumentException(erreur);
         }
 
         // Vérifier l'unicité de l'email (sauf pour le patient actuel)
@@ -216,7 +204,7 @@ public class PatientService {
 
     public List<Patient> findAll() {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        if (SecurityContext.current() == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
@@ -227,19 +215,17 @@ public class PatientService {
      * Get all patients filtered by current user's role
      */
     public List<Patient> findAllForCurrentUser() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
-        
-        if (role == Role.ADMIN || role == Role.SEC) {
+        if (context.has(Permission.PATIENT_VIEW_ALL)) {
             // ADMIN and SEC see all patients
             return patientDAO.findAll();
-        } else if (role == Role.MEDECIN) {
+        } else if (context.getRole() == Role.MEDECIN) {
             // Doctors see only patients from their appointments
-            Medecin medecin = user.getMedecin();
+            Medecin medecin = context.getMedecinReference();
             if (medecin == null) {
                 return List.of();
             }
@@ -264,7 +250,7 @@ public class PatientService {
 
     public List<Patient> searchPatients(String term) {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        if (SecurityContext.current() == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
@@ -284,7 +270,7 @@ public class PatientService {
 
     public DossierMedical getDossier(Long patientId) {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        if (SecurityContext.current() == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
         
@@ -310,32 +296,32 @@ public class PatientService {
      * Check if current user can create patients
      */
     public boolean canCreatePatient() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.SEC || role == Role.ADMIN;
+        return context.has(Permission.PATIENT_CREATE);
     }
     
     /**
      * Check if current user can modify patients
      */
     public boolean canModifyPatient() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.SEC || role == Role.ADMIN;
+        return context.has(Permission.PATIENT_MODIFY);
     }
     
     /**
      * Check if current user can delete patients
      */
     public boolean canDeletePatient() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.ADMIN;
+        return context.has(Permission.PATIENT_DELETE);
     }
 }
\ No newline at end of file
@@ -19,26 +19,37 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.properties.VerticalAlignment;
 import com.mediclinic.model.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class PdfService {
 
+    private static final Logger LOG = LogManager.getLogger(PdfService.class);
+    private static final AtomicBoolean QR_CODE_WARNED = new AtomicBoolean();
+
     private static final DateTimeFormatter DATE_FORMATTER =
         DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter DATETIME_FORMATTER =
         DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("HH:mm");
+
+    // Nombre de lignes accumulées avant de vider une "large table" dans le document
+    private static final int LARGE_TABLE_FLUSH_ROWS = 100;
 
     private static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(41, 128, 185);
     private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(52, 73, 94);
@@ -51,7 +62,16 @@ public class PdfService {
 
     public void generateFacturePdf(Facture facture, String destPath)
         throws FileNotFoundException {
-        PdfWriter writer = new PdfWriter(destPath);
+        generateFacturePdf(facture, new FileOutputStream(destPath));
+        LOG.debug("Facture PDF générée path={}", destPath);
+    }
+
+    /**
+     * Écrit la facture dans un flux quelconque (fichier, mémoire, entrée d'archive).
+     * Le flux est fermé à la fin du document.
+     */
+    public void generateFacturePdf(Facture facture, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
 
@@ -148,13 +168,44 @@ public class PdfService {
         addFooter(document);
 
         document.close();
-        System.out.println("PDF generated at: " + destPath);
     }
 
     public void generateDailyReport(
         List<RendezVous> appointments,
         LocalDate date,
         String destPath
+    ) throws FileNotFoundException {
+        Map<RendezVousStatus, Long> countsByStatus = appointments
+            .stream()
+            .filter(rdv -> rdv.getStatus() != null)
+            .collect(
+                Collectors.groupingBy(
+                    RendezVous::getStatus,
+                    () -> new EnumMap<>(RendezVousStatus.class),
+                    Collectors.counting()
+                )
+            );
+        generateDailyReport(
+            appointments.iterator(),
+            appointments.size(),
+            countsByStatus,
+            date,
+            destPath
+        );
+    }
+
+    /**
+     * Rapport quotidien à partir d'un itérateur de rendez-vous (typiquement un flux
+     * issu d'une requête scrollable). Les compteurs sont fournis à part, car ils
+     * s'affichent avant la liste ; la liste est rendue en mode "large table" et
+     * vidée par blocs dans le document, la mémoire reste donc bornée.
+     */
+    public void generateDailyReport(
+        Iterator<RendezVous> appointments,
+        long totalAppointments,
+        Map<RendezVousStatus, Long> countsByStatus,
+        LocalDate date,
+        String destPath
     ) throws FileNotFoundException {
         PdfWriter writer = new PdfWriter(destPath);
         PdfDocument pdf = new PdfDocument(writer);
@@ -164,19 +215,18 @@ public class PdfService {
 
         document.add(new Paragraph("\n"));
 
-        long totalAppointments = appointments.size();
-        long confirmedAppointments = appointments
-            .stream()
-            .filter(rdv -> rdv.getStatus() == RendezVousStatus.CONFIRME)
-            .count();
-        long completedAppointments = appointments
-            .stream()
-            .filter(rdv -> rdv.getStatus() == RendezVousStatus.TERMINE)
-            .count();
-        long cancelledAppointments = appointments
-            .stream()
-            .filter(rdv -> rdv.getStatus() == RendezVousStatus.ANNULE)
-            .count();
+        long confirmedAppointments = countsByStatus.getOrDefault(
+            RendezVousStatus.CONFIRME,
+            0L
+        );
+        long completedAppointments = countsByStatus.getOrDefault(
+            RendezVousStatus.TERMINE,
+            0L
+        );
+        long cancelledAppointments = countsByStatus.getOrDefault(
+            RendezVousStatus.ANNULE,
+            0L
+        );
 
         Table statsTable = new Table(4);
         statsTable.setWidth(UnitValue.createPercentValue(100));
@@ -209,7 +259,7 @@ public class PdfService {
         document.add(statsTable);
         document.add(new Paragraph("\n"));
 
-        if (!appointments.isEmpty()) {
+        if (appointments.hasNext()) {
             Paragraph listTitle = new Paragraph("Liste des Rendez-vous")
                 .setFontSize(14)
                 .setBold()
@@ -217,7 +267,7 @@ public class PdfService {
             document.add(listTitle);
             document.add(new Paragraph("\n").setMarginTop(-5));
 
-            Table table = new Table(new float[] { 1, 2, 2, 3, 1.5f });
+            Table table = new Table(new float[] { 1, 2, 2, 3, 1.5f }, true);
             table.setWidth(UnitValue.createPercentValue(100));
 
             addTableHeader(table, "Heure");
@@ -226,13 +276,15 @@ public class PdfService {
             addTableHeader(table, "Motif");
             addTableHeader(table, "Statut");
 
-            for (RendezVous rdv : appointments) {
+            document.add(table);
+
+            int rows = 0;
+            while (appointments.hasNext()) {
+                RendezVous rdv = appointments.next();
                 addTableCell(
                     table,
                     rdv.getDateHeureDebut() != null
-                        ? rdv
-                              .getDateHeureDebut()
-                              .format(DateTimeFormatter.ofPattern("HH:mm"))
+                        ? rdv.getDateHeureDebut().format(TIME_FORMATTER)
                         : "",
                     false
                 );
@@ -261,15 +313,19 @@ public class PdfService {
                     : "";
                 DeviceRgb statusColor = getStatusColor(rdv.getStatus());
                 addStatusCell(table, status, statusColor);
+
+                if (++rows % LARGE_TABLE_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
             }
 
-            document.add(table);
+            table.complete();
         }
 
         addFooter(document);
 
         document.close();
-        System.out.println("Daily report PDF generated at: " + destPath);
+        LOG.debug("Daily report PDF generated path={}", destPath);
     }
 
     public void generateStatisticsReport(
@@ -396,7 +452,7 @@ public class PdfService {
         addFooter(document);
 
         document.close();
-        System.out.println("Statistics report PDF generated at: " + destPath);
+        LOG.debug("Statistics report PDF generated path={}", destPath);
     }
 
     public void generateFinancialReport(
@@ -404,6 +460,48 @@ public class PdfService {
         LocalDate startDate,
         LocalDate endDate,
         String destPath
+    ) throws FileNotFoundException {
+        BigDecimal totalRevenue = invoices
+            .stream()
+            .map(Facture::getMontantTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Map<TypePaiement, Long> paymentsByType = invoices
+            .stream()
+            .filter(f -> f.getTypePaiement() != null)
+            .collect(
+                Collectors.groupingBy(
+                    Facture::getTypePaiement,
+                    () -> new EnumMap<>(TypePaiement.class),
+                    Collectors.counting()
+                )
+            );
+
+        generateFinancialReport(
+            invoices.iterator(),
+            invoices.size(),
+            totalRevenue,
+            paymentsByType,
+            startDate,
+            endDate,
+            destPath
+        );
+    }
+
+    /**
+     * Rapport financier à partir d'un itérateur de factures (typiquement un flux
+     * issu d'une requête scrollable). Les totaux sont fournis à part, car ils
+     * s'affichent avant le détail ; le détail est rendu en mode "large table" et
+     * vidé par blocs dans le document, un rapport annuel tient donc en mémoire constante.
+     */
+    public void generateFinancialReport(
+        Iterator<Facture> invoices,
+        long totalInvoices,
+        BigDecimal totalRevenue,
+        Map<TypePaiement, Long> paymentsByType,
+        LocalDate startDate,
+        LocalDate endDate,
+        String destPath
     ) throws FileNotFoundException {
         PdfWriter writer = new PdfWriter(destPath);
         PdfDocument pdf = new PdfDocument(writer);
@@ -419,13 +517,6 @@ public class PdfService {
 
         document.add(new Paragraph("\n"));
 
-        BigDecimal totalRevenue = invoices
-            .stream()
-            .map(Facture::getMontantTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long totalInvoices = invoices.size();
-
         Table summaryTable = new Table(2);
         summaryTable.setWidth(UnitValue.createPercentValue(100));
 
@@ -445,16 +536,6 @@ public class PdfService {
         document.add(summaryTable);
         document.add(new Paragraph("\n"));
 
-        Map<TypePaiement, Long> paymentsByType = invoices
-            .stream()
-            .filter(f -> f.getTypePaiement() != null)
-            .collect(
-                Collectors.groupingBy(
-                    Facture::getTypePaiement,
-                    Collectors.counting()
-                )
-            );
-
         if (!paymentsByType.isEmpty()) {
             Paragraph paymentTitle = new Paragraph(
                 "Repartition par Type de Paiement"
@@ -487,7 +568,7 @@ public class PdfService {
             document.add(new Paragraph("\n"));
         }
 
-        if (!invoices.isEmpty()) {
+        if (invoices.hasNext()) {
             Paragraph detailTitle = new Paragraph("Detail des Factures")
                 .setFontSize(14)
                 .setBold()
@@ -495,7 +576,7 @@ public class PdfService {
             document.add(detailTitle);
             document.add(new Paragraph("\n").setMarginTop(-5));
 
-            Table table = new Table(new float[] { 1, 2, 2, 2, 2 });
+            Table table = new Table(new float[] { 1, 2, 2, 2, 2 }, true);
             table.setWidth(UnitValue.createPercentValue(100));
 
             addTableHeader(table, "N°");
@@ -504,7 +585,11 @@ public class PdfService {
             addTableHeader(table, "Montant");
             addTableHeader(table, "Type Paiement");
 
-            for (Facture facture : invoices) {
+            document.add(table);
+
+            int rows = 0;
+            while (invoices.hasNext()) {
+                Facture facture = invoices.next();
                 addTableCell(table, String.valueOf(facture.getId()), true);
                 addTableCell(
                     table,
@@ -532,15 +617,19 @@ public class PdfService {
                         : "N/A",
                     false
                 );
+
+                if (++rows % LARGE_TABLE_FLUSH_ROWS == 0) {
+                    table.flush();
+                }
             }
 
-            document.add(table);
+            table.complete();
         }
 
         addFooter(document);
 
         document.close();
-        System.out.println("Financial report PDF generated at: " + destPath);
+        LOG.debug("Financial report PDF generated path={}", destPath);
     }
 
     public void generateDossierMedicalPdf(
@@ -911,43 +1000,15 @@ public class PdfService {
 
         document.add(infoTable);
 
-        QRCodeService qrCodeService = new QRCodeService();
-        BufferedImage qrImage = qrCodeService.generateAppointmentQRCodeImage(
-            rdv
-        );
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(qrImage, "PNG", baos);
-        byte[] qrBytes = baos.toByteArray();
-
-        Image qrCodeImage = new Image(ImageDataFactory.create(qrBytes));
-        qrCodeImage.setWidth(200);
-        qrCodeImage.setHeight(200);
-        qrCodeImage.setHorizontalAlignment(HorizontalAlignment.CENTER);
-        qrCodeImage.setMarginTop(20);
-        qrCodeImage.setMarginBottom(10);
-
-        document.add(qrCodeImage);
-
-        document.add(
-            new Paragraph("QR Code de verification")
-                .setFontSize(12)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(10)
-                .setFontColor(PRIMARY_COLOR)
-        );
-
-        document.add(
-            new Paragraph(
-                "Presentez ce QR code a la secretaire le jour de votre rendez-vous pour une verification rapide."
-            )
-                .setFontSize(9)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20)
-                .setFontColor(DARK_GRAY)
-                .setItalic()
-        );
+        // Le QR code est optionnel : sans clé de signature, la confirmation est
+        // générée (et envoyée par e-mail) sans lui
+        if (QRCodeService.isSigningConfigured()) {
+            addAppointmentQRCode(document, rdv);
+        } else if (QR_CODE_WARNED.compareAndSet(false, true)) {
+            LOG.warn(
+                "Confirmations de rendez-vous générées sans QR code : qrcode.hmac.secret non configuré"
+            );
+        }
 
         Table instructionsTable = new Table(1);
         instructionsTable.setWidth(UnitValue.createPercentValue(100));
@@ -1001,6 +1062,41 @@ public class PdfService {
         document.close();
     }
 
+    private void addAppointmentQRCode(Document document, RendezVous rdv)
+        throws WriterException, IOException {
+        QRCodeService qrCodeService = new QRCodeService();
+        byte[] qrBytes = qrCodeService.generateAppointmentQRCode(rdv);
+
+        Image qrCodeImage = new Image(ImageDataFactory.create(qrBytes));
+        qrCodeImage.setWidth(200);
+        qrCodeImage.setHeight(200);
+        qrCodeImage.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        qrCodeImage.setMarginTop(20);
+        qrCodeImage.setMarginBottom(10);
+
+        document.add(qrCodeImage);
+
+        document.add(
+            new Paragraph("QR Code de verification")
+                .setFontSize(12)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(10)
+                .setFontColor(PRIMARY_COLOR)
+        );
+
+        document.add(
+            new Paragraph(
+                "Presentez ce QR code a la secretaire le jour de votre rendez-vous pour une verification rapide."
+            )
+                .setFontSize(9)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20)
+                .setFontColor(DARK_GRAY)
+                .setItalic()
+        );
+    }
+
     /**
      * Adds doctor's electronic signature to a PDF document
      * @param document the PDF document
@@ -1019,21 +1115,18 @@ public class PdfService {
 
         try {
             SignatureService signatureService = new SignatureService();
-            String signaturePath = signatureService.getSignatureFilePath(
+            byte[] signatureBytes = signatureService.loadSignatureBytes(
                 medecinId
             );
-            File signatureFile = new File(signaturePath);
 
-            if (!signatureFile.exists()) {
-                System.out.println(
-                    "INFO: No signature found for medecin " + medecinId
-                );
+            if (signatureBytes == null) {
+                LOG.debug("No signature found medecinId={}", medecinId);
                 return false;
             }
 
             // Load signature image
             com.itextpdf.io.image.ImageData imageData = ImageDataFactory.create(
-                signaturePath
+                signatureBytes
             );
             Image signatureImage = new Image(imageData);
 
@@ -1070,15 +1163,10 @@ public class PdfService {
 
             document.add(timestampText);
 
-            System.out.println(
-                "SUCCESS: Electronic signature added for medecin " + medecinId
-            );
+            LOG.debug("Electronic signature added medecinId={}", medecinId);
             return true;
         } catch (Exception e) {
-            System.err.println(
-                "ERROR: Failed to add signature: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Failed to add signature medecinId={}", medecinId, e);
             return false;
         }
     }
@@ -1103,17 +1191,16 @@ public class PdfService {
 
         try {
             SignatureService signatureService = new SignatureService();
-            String signaturePath = signatureService.getSignatureFilePath(
+            byte[] signatureBytes = signatureService.loadSignatureBytes(
                 medecinId
             );
-            File signatureFile = new File(signaturePath);
 
-            if (!signatureFile.exists()) {
+            if (signatureBytes == null) {
                 return false;
             }
 
             com.itextpdf.io.image.ImageData imageData = ImageDataFactory.create(
-                signaturePath
+                signatureBytes
             );
             Image signatureImage = new Image(imageData);
 
@@ -1124,8 +1211,10 @@ public class PdfService {
 
             return true;
         } catch (Exception e) {
-            System.err.println(
-                "ERROR: Failed to add signature at position: " + e.getMessage()
+            LOG.error(
+                "Failed to add signature at position medecinId={}",
+                medecinId,
+                e
             );
             return false;
         }
@@ -1348,6 +1437,6 @@ public class PdfService {
 
         document.close();
 
-        System.out.println("✓ Consultation PDF generated: " + outputPath);
+        LOG.debug("Consultation PDF generated path={}", outputPath);
     }
 }
@@ -3,94 +3,237 @@ package com.mediclinic.service;
 import com.github.sarxos.webcam.Webcam;
 import com.github.sarxos.webcam.WebcamDiscoveryService;
 import com.github.sarxos.webcam.WebcamException;
+import com.mediclinic.util.BlobStore;
+import com.mediclinic.util.DeferredBlobStore;
+import com.mediclinic.util.DefaultAvatarGenerator;
+import com.mediclinic.util.FileSystemBlobStore;
+import com.mediclinic.util.StartupTracer;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javax.imageio.ImageIO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Service for managing patient photos using webcam capture.
- * Photos are stored locally in the photos/ directory with naming pattern: patient_{id}.jpg
+ * Photos are kept in a {@link BlobStore} under the key patient_{id}.jpg, plus pre-scaled
+ * thumbnails patient_{id}_{size}.jpg written alongside on save. By default the store is
+ * a sharded store in photos/, opened on first access, into which flat files from older
+ * versions are imported.
+ * Decoded images are kept in a shared LRU cache bounded by their pixel memory.
  */
 public class PhotoService {
 
+    private static final Logger LOG = LogManager.getLogger(PhotoService.class);
+
+    /**
+     * Stored photo variants; SMALL and MEDIUM are thumbnails bounded to the given size.
+     */
+    public enum PhotoSize {
+        SMALL(64),
+        MEDIUM(256),
+        ORIGINAL(0);
+
+        private final int pixels;
+
+        PhotoSize(int pixels) {
+            this.pixels = pixels;
+        }
+
+        public int getPixels() {
+            return pixels;
+        }
+    }
+
     private static final String PHOTOS_DIRECTORY = "photos";
     private static final String PHOTO_FORMAT = "jpg";
     private static final String PHOTO_EXTENSION = ".jpg";
     private static final String PHOTO_PREFIX = "patient_";
-
+    private static final String CAPTURE_SCRIPT =
+        "scripts/capture_photo_libcamera.py";
+
+    // Decoded JavaFX images, ~4 bytes per pixel
+    private static final long CACHE_BUDGET_BYTES = 32L * 1024 * 1024;
+    private static final Map<String, Image> IMAGE_CACHE = new LinkedHashMap<>(
+        64,
+        0.75f,
+        true
+    );
+    private static long cachedBytes = 0;
+
+    private static final String VIEW_REQUEST_KEY = "photo.request";
+    private static final ExecutorService PHOTO_LOADER =
+        Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "photo-loader");
+            t.setDaemon(true);
+            return t;
+        });
+
+    private static BlobStore defaultStore;
+
+    private final BlobStore store;
     private Webcam webcam;
     private boolean useNativeCapture = false;
-    private String nativeWebcamDevice = "/dev/video0";
-    private boolean isIntelIPU6 = false;
 
-    static {
-        // Configure webcam driver for better Linux compatibility
-        try {
-            // Set discovery timeout to avoid hanging
-            WebcamDiscoveryService discovery = Webcam.getDiscoveryService();
-            discovery.setEnabled(true);
+    // Camera probing (driver setup, external tools, devices) runs once per process,
+    // on first use, on this executor; results are kept for the process lifetime
+    private static final ExecutorService CAMERA_PROBER =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "camera-probe");
+            t.setDaemon(true);
+            return t;
+        });
+    private static CompletableFuture<CameraProbe> cameraProbe;
+    private static final Map<String, Boolean> COMMAND_AVAILABLE =
+        new ConcurrentHashMap<>();
 
-            // Shorter timeout for Linux systems
-            String os = System.getProperty("os.name").toLowerCase();
-            if (os.contains("linux")) {
-                System.out.println(
-                    "Linux detected - will try native capture if Java webcam fails"
-                );
-            }
-        } catch (Exception e) {
-            System.err.println(
-                "Warning: Could not configure webcam driver: " + e.getMessage()
-            );
+    /**
+     * Camera capabilities of this machine, detected once
+     */
+    private static final class CameraProbe {
+
+        private final boolean linux;
+        private final boolean intelIPU6;
+        private final String webcamDevice;
+        private final boolean nativeCaptureSupported;
+
+        private CameraProbe(
+            boolean linux,
+            boolean intelIPU6,
+            String webcamDevice,
+            boolean nativeCaptureSupported
+        ) {
+            this.linux = linux;
+            this.intelIPU6 = intelIPU6;
+            this.webcamDevice = webcamDevice;
+            this.nativeCaptureSupported = nativeCaptureSupported;
         }
     }
 
     public PhotoService() {
-        // Ensure photos directory exists
-        createPhotosDirectory();
+        this(getDefaultStore());
+    }
+
+    public PhotoService(BlobStore store) {
+        this.store = store;
     }
 
     /**
-     * Creates the photos directory if it doesn't exist
+     * Shared store over the photos directory, opened (manifest loaded and legacy
+     * files imported) on first access rather than on construction
      */
-    private void createPhotosDirectory() {
-        try {
-            Path photosPath = Paths.get(PHOTOS_DIRECTORY);
-            if (!Files.exists(photosPath)) {
-                Files.createDirectories(photosPath);
-                System.out.println(
-                    "Created photos directory: " + photosPath.toAbsolutePath()
+    private static synchronized BlobStore getDefaultStore() {
+        if (defaultStore == null) {
+            defaultStore = new DeferredBlobStore(() -> {
+                FileSystemBlobStore fileStore = new FileSystemBlobStore(
+                    Paths.get(PHOTOS_DIRECTORY)
                 );
-            }
-        } catch (IOException e) {
-            System.err.println(
-                "Error creating photos directory: " + e.getMessage()
+                int imported = fileStore.importLegacyFiles(name ->
+                    name.startsWith(PHOTO_PREFIX) &&
+                    name.endsWith(PHOTO_EXTENSION)
+                );
+                if (imported > 0) {
+                    LOG.info("Photos imported into the store count={}", imported);
+                }
+                return fileStore;
+            });
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Starts camera probing in the background if it has not run yet, e.g. when a
+     * capture dialog opens, so that openWebcam() finds the results ready.
+     * @return the probing future, completed once detection is done
+     */
+    public static synchronized CompletableFuture<?> prepareCamera() {
+        return probeCamera();
+    }
+
+    private static synchronized CompletableFuture<CameraProbe> probeCamera() {
+        if (cameraProbe == null) {
+            cameraProbe = CompletableFuture.supplyAsync(
+                PhotoService::detectCamera,
+                CAMERA_PROBER
             );
-            e.printStackTrace();
         }
+        return cameraProbe;
+    }
+
+    /**
+     * Configures the Java webcam driver and detects native capture support
+     */
+    private static CameraProbe detectCamera() {
+        return StartupTracer.time("camera-probe", PhotoService::doDetectCamera);
+    }
+
+    private static CameraProbe doDetectCamera() {
+        // Configure webcam driver for better Linux compatibility
+        try {
+            // Set discovery timeout to avoid hanging
+            WebcamDiscoveryService discovery = Webcam.getDiscoveryService();
+            discovery.setEnabled(true);
+        } catch (Exception e) {
+            LOG.warn("Could not configure webcam driver", e);
+        }
+
+        String os = System.getProperty("os.name").toLowerCase();
+        boolean linux = os.contains("linux");
+        if (!linux) {
+            return new CameraProbe(false, false, null, false);
+        }
+        LOG.info("Linux detected - will try native capture if Java webcam fails");
+
+        boolean nativeCaptureSupported =
+            isCommandAvailable("python3") &&
+            isCommandAvailable("gst-launch-1.0") &&
+            new File(CAPTURE_SCRIPT).exists();
+        return new CameraProbe(
+            true,
+            detectIntelIPU6(),
+            detectWebcamDevice(),
+            nativeCaptureSupported
+        );
+    }
+
+    private static CameraProbe getCameraProbe() {
+        return probeCamera().join();
     }
 
     /**
-     * Opens the default webcam
+     * Opens the default webcam. Blocks during the first camera probing: call it off
+     * the JavaFX thread.
      * @return true if webcam was opened successfully, false otherwise
      */
     public boolean openWebcam() {
+        CameraProbe probe = getCameraProbe();
+
         // First, try native Linux capture if on Linux
-        String os = System.getProperty("os.name").toLowerCase();
-        if (os.contains("linux")) {
+        if (probe.linux) {
             if (tryNativeLinuxWebcam()) {
                 useNativeCapture = true;
-                System.out.println(
-                    "Using native Linux webcam capture via ffmpeg/v4l2"
-                );
+                LOG.info("Using native Linux webcam capture via ffmpeg/v4l2");
                 return true;
             }
         }
@@ -102,19 +245,17 @@ public class PhotoService {
             try {
                 webcams = Webcam.getWebcams(1000, TimeUnit.MILLISECONDS);
             } catch (Exception e) {
-                System.err.println(
-                    "Webcam discovery timed out or failed: " + e.getMessage()
-                );
+                LOG.warn("Webcam discovery timed out or failed: {}", e.getMessage());
                 return tryNativeLinuxWebcam();
             }
 
             if (webcams == null || webcams.isEmpty()) {
-                System.err.println("No webcam detected on this system");
+                LOG.warn("No webcam detected on this system");
                 return tryNativeLinuxWebcam();
             }
 
             webcam = webcams.get(0);
-            System.out.println("Found webcam: " + webcam.getName());
+            LOG.info("Found webcam name={}", webcam.getName());
 
             if (!webcam.isOpen()) {
                 try {
@@ -135,21 +276,17 @@ public class PhotoService {
                     }
 
                     if (!webcam.isOpen()) {
-                        System.err.println(
-                            "Webcam did not open within timeout"
-                        );
+                        LOG.warn("Webcam did not open within timeout");
                         return tryNativeLinuxWebcam();
                     }
 
-                    System.out.println(
-                        "Webcam opened successfully: " + webcam.getName()
-                    );
+                    LOG.info("Webcam opened name={}", webcam.getName());
                     useNativeCapture = false;
                     return true;
                 } catch (WebcamException e) {
-                    System.err.println("Webcam exception: " + e.getMessage());
-                    System.err.println(
-                        "This is a Linux v4l2 driver issue - trying native capture..."
+                    LOG.warn(
+                        "Webcam exception, likely a Linux v4l2 driver issue - trying native capture: {}",
+                        e.getMessage()
                     );
                     return tryNativeLinuxWebcam();
                 }
@@ -158,10 +295,10 @@ public class PhotoService {
             return true;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            System.err.println("Webcam initialization interrupted");
+            LOG.warn("Webcam initialization interrupted");
             return false;
         } catch (Exception e) {
-            System.err.println("Error opening webcam: " + e.getMessage());
+            LOG.warn("Error opening webcam: {}", e.getMessage());
             return tryNativeLinuxWebcam();
         }
     }
@@ -171,60 +308,44 @@ public class PhotoService {
      * @return true if native capture is available
      */
     private boolean tryNativeLinuxWebcam() {
-        String os = System.getProperty("os.name").toLowerCase();
-        if (!os.contains("linux")) {
+        CameraProbe probe = getCameraProbe();
+        if (!probe.linux) {
             return false;
         }
 
-        // Detect Intel IPU6 camera (known to have driver issues)
-        detectIntelIPU6();
-
-        // Check if Python3 and gstreamer are available for libcamera capture
+        // Python3, gstreamer and the capture script are needed for libcamera capture
+        if (probe.nativeCaptureSupported) {
+            LOG.info("Native Linux webcam capture available via libcamera/pipewire");
+            if (probe.intelIPU6) {
+                LOG.info("Intel IPU6 camera detected - using libcamera backend");
+            }
+            useNativeCapture = true;
+            return true;
+        }
         if (
             isCommandAvailable("python3") &&
             isCommandAvailable("gst-launch-1.0")
         ) {
-            // Check if capture script exists
-            File scriptFile = new File("scripts/capture_photo_libcamera.py");
-            if (scriptFile.exists()) {
-                System.out.println(
-                    "Native Linux webcam capture available via libcamera/pipewire"
-                );
-                if (isIntelIPU6) {
-                    System.out.println(
-                        "Intel IPU6 camera detected - using libcamera backend"
-                    );
-                }
-                useNativeCapture = true;
-                return true;
-            } else {
-                System.err.println(
-                    "WARNING: Capture script not found: scripts/capture_photo_libcamera.py"
-                );
-            }
+            LOG.warn("Capture script not found path={}", CAPTURE_SCRIPT);
         }
 
-        System.err.println(
-            "Native capture not available. Missing requirements:"
-        );
+        LOG.warn("Native capture not available. Missing requirements:");
         if (!isCommandAvailable("python3")) {
-            System.err.println(
-                "  - python3 (install: sudo dnf install python3)"
-            );
+            LOG.warn("  - python3 (install: sudo dnf install python3)");
         }
         if (!isCommandAvailable("gst-launch-1.0")) {
-            System.err.println(
+            LOG.warn(
                 "  - gstreamer (install: sudo dnf install gstreamer1-tools gstreamer1-plugins-base)"
             );
         }
-        System.err.println("Or use file upload instead of webcam.");
+        LOG.warn("Or use file upload instead of webcam.");
         return false;
     }
 
     /**
      * Detect if system has Intel IPU6 camera (known to have Linux driver issues)
      */
-    private void detectIntelIPU6() {
+    private static boolean detectIntelIPU6() {
         try {
             ProcessBuilder pb = new ProcessBuilder(
                 "v4l2-ctl",
@@ -234,50 +355,58 @@ public class PhotoService {
             BufferedReader reader = new BufferedReader(
                 new InputStreamReader(process.getInputStream())
             );
+            boolean ipu6 = false;
             String line;
             while ((line = reader.readLine()) != null) {
                 if (line.toLowerCase().contains("ipu6")) {
-                    isIntelIPU6 = true;
+                    ipu6 = true;
                     break;
                 }
             }
+            process.destroy();
             process.waitFor();
+            return ipu6;
         } catch (Exception e) {
             // If we can't detect, assume it's not IPU6
-            isIntelIPU6 = false;
+            return false;
         }
     }
 
     /**
      * Detect the first available webcam device
+     * @return the device path, or null if no video device exists
      */
-    private void detectWebcamDevice() {
+    private static String detectWebcamDevice() {
         // Try common video devices
         for (int i = 0; i < 32; i++) {
             String device = "/dev/video" + i;
             File deviceFile = new File(device);
             if (deviceFile.exists()) {
-                nativeWebcamDevice = device;
-                System.out.println("Using webcam device: " + device);
-                return;
+                LOG.info("Using webcam device={}", device);
+                return device;
             }
         }
-        nativeWebcamDevice = "/dev/video0"; // Default fallback
+        return null;
     }
 
     /**
-     * Check if a command is available in PATH
+     * Check if a command is available in PATH (looked up once per process)
      */
-    private boolean isCommandAvailable(String command) {
-        try {
-            Process process = Runtime.getRuntime().exec(
-                new String[] { "which", command }
-            );
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
-            return false;
-        }
+    public static boolean isCommandAvailable(String command) {
+        return COMMAND_AVAILABLE.computeIfAbsent(command, c -> {
+            try {
+                Process process = Runtime.getRuntime().exec(
+                    new String[] { "which", c }
+                );
+                int exitCode = process.waitFor();
+                return exitCode == 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                return false;
+            }
+        });
     }
 
     /**
@@ -287,10 +416,9 @@ public class PhotoService {
         if (webcam != null && webcam.isOpen()) {
             try {
                 webcam.close();
-                System.out.println("Webcam closed successfully");
+                LOG.debug("Webcam closed");
             } catch (Exception e) {
-                System.err.println("Error closing webcam: " + e.getMessage());
-                e.printStackTrace();
+                LOG.error("Error closing webcam", e);
             }
         }
     }
@@ -305,7 +433,7 @@ public class PhotoService {
         }
 
         if (webcam == null || !webcam.isOpen()) {
-            System.err.println("Webcam is not open. Call openWebcam() first.");
+            LOG.warn("Webcam is not open. Call openWebcam() first.");
             return null;
         }
 
@@ -318,11 +446,7 @@ public class PhotoService {
                 try {
                     image = webcam.getImage();
                     if (image != null) {
-                        System.out.println(
-                            "Photo captured successfully (attempt " +
-                                (i + 1) +
-                                ")"
-                        );
+                        LOG.debug("Photo captured attempt={}", i + 1);
                         break;
                     }
                     Thread.sleep(100); // Brief pause between retries
@@ -330,16 +454,13 @@ public class PhotoService {
                     if (i == retries - 1) {
                         throw e;
                     }
-                    System.out.println(
-                        "Capture attempt " + (i + 1) + " failed, retrying..."
-                    );
+                    LOG.debug("Capture failed attempt={}, retrying", i + 1);
                 }
             }
 
             return image;
         } catch (Exception e) {
-            System.err.println("Error capturing photo: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error capturing photo", e);
             return null;
         }
     }
@@ -356,16 +477,11 @@ public class PhotoService {
 
             // Use Python script with libcamera/pipewire/gstreamer
             // This works with Intel IPU6 cameras on Linux
-            String scriptPath = "scripts/capture_photo_libcamera.py";
+            String scriptPath = CAPTURE_SCRIPT;
             File scriptFile = new File(scriptPath);
 
             if (!scriptFile.exists()) {
-                System.err.println(
-                    "ERROR: Camera capture script not found: " + scriptPath
-                );
-                System.err.println(
-                    "Please ensure scripts/capture_photo_libcamera.py exists"
-                );
+                LOG.error("Camera capture script not found path={}", scriptPath);
                 return null;
             }
 
@@ -387,9 +503,9 @@ public class PhotoService {
             while ((line = reader.readLine()) != null) {
                 output.append(line).append("\n");
                 if (line.startsWith("SUCCESS")) {
-                    System.out.println(line);
+                    LOG.debug("Capture script: {}", line);
                 } else if (line.startsWith("ERROR")) {
-                    System.err.println(line);
+                    LOG.warn("Capture script: {}", line);
                 }
             }
 
@@ -399,27 +515,21 @@ public class PhotoService {
                 BufferedImage image = ImageIO.read(tempFile);
                 tempFile.delete();
                 if (image != null) {
-                    System.out.println(
-                        "Photo captured successfully using libcamera (via pipewire/gstreamer)"
-                    );
+                    LOG.debug("Photo captured using libcamera (via pipewire/gstreamer)");
                     return image;
                 }
             } else {
-                System.err.println(
-                    "Native capture failed with exit code: " + exitCode
+                LOG.warn(
+                    "Native capture failed exitCode={} output=\n{}",
+                    exitCode,
+                    output
                 );
-                if (output.length() > 0) {
-                    System.err.println("Output:\n" + output.toString());
-                }
             }
 
             tempFile.delete();
             return null;
         } catch (Exception e) {
-            System.err.println(
-                "Error in native photo capture: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error in native photo capture", e);
             return null;
         }
     }
@@ -431,47 +541,23 @@ public class PhotoService {
      * @return true if save was successful, false otherwise
      */
     public boolean savePatientPhoto(Long patientId, BufferedImage image) {
-        System.out.println(
-            "DEBUG PhotoService.savePatientPhoto called - patientId: " +
-                patientId +
-                ", image: " +
-                (image != null
-                    ? image.getWidth() + "x" + image.getHeight()
-                    : "NULL")
-        );
-
         if (patientId == null) {
-            System.err.println("ERROR: Patient ID cannot be null");
+            LOG.warn("Cannot save photo: patient ID is null");
             return false;
         }
 
         if (image == null) {
-            System.err.println("ERROR: Image cannot be null");
+            LOG.warn("Cannot save photo: image is null patientId={}", patientId);
             return false;
         }
 
         try {
-            File outputFile = getPatientPhotoFile(patientId);
-            System.out.println(
-                "DEBUG: Attempting to write image to: " +
-                    outputFile.getAbsolutePath()
-            );
-            System.out.println(
-                "DEBUG: Parent directory exists: " +
-                    outputFile.getParentFile().exists()
-            );
-            System.out.println(
-                "DEBUG: Parent directory writable: " +
-                    outputFile.getParentFile().canWrite()
-            );
-            System.out.println(
-                "DEBUG: Image type: " +
-                    image.getType() +
-                    " (TYPE_INT_ARGB=" +
-                    BufferedImage.TYPE_INT_ARGB +
-                    ", TYPE_INT_RGB=" +
-                    BufferedImage.TYPE_INT_RGB +
-                    ")"
+            LOG.debug(
+                "Saving photo patientId={} size={}x{} type={}",
+                patientId,
+                image.getWidth(),
+                image.getHeight(),
+                image.getType()
             );
 
             // Convert image to RGB if it has alpha channel (JPEG doesn't support alpha)
@@ -482,9 +568,7 @@ public class PhotoService {
                 image.getType() == BufferedImage.TYPE_4BYTE_ABGR ||
                 image.getType() == BufferedImage.TYPE_4BYTE_ABGR_PRE
             ) {
-                System.out.println(
-                    "DEBUG: Converting image from ARGB to RGB (removing alpha channel)"
-                );
+                LOG.debug("Converting image from ARGB to RGB (removing alpha channel)");
 
                 rgbImage = new BufferedImage(
                     image.getWidth(),
@@ -497,40 +581,30 @@ public class PhotoService {
                 java.awt.Graphics2D g = rgbImage.createGraphics();
                 g.drawImage(image, 0, 0, null);
                 g.dispose();
-
-                System.out.println(
-                    "DEBUG: Conversion complete, new type: " +
-                        rgbImage.getType()
-                );
             }
 
-            boolean writeSuccess = ImageIO.write(
-                rgbImage,
-                PHOTO_FORMAT,
-                outputFile
-            );
+            byte[] jpeg = encode(rgbImage);
+            boolean writeSuccess = jpeg != null;
 
             if (writeSuccess) {
-                System.out.println(
-                    "SUCCESS: Photo saved to " +
-                        outputFile.getAbsolutePath() +
-                        " (size: " +
-                        outputFile.length() +
-                        " bytes)"
+                BlobStore.BlobInfo info = store.put(
+                    getPatientPhotoKey(patientId),
+                    jpeg
+                );
+                LOG.debug(
+                    "Photo saved patientId={} bytes={}",
+                    patientId,
+                    info.getSize()
                 );
+                invalidateCache(patientId);
+                writeThumbnails(patientId, rgbImage);
                 return true;
             } else {
-                System.err.println(
-                    "ERROR: ImageIO.write returned false - no suitable writer found for format: " +
-                        PHOTO_FORMAT
-                );
+                LOG.error("No ImageIO writer found for format={}", PHOTO_FORMAT);
                 return false;
             }
         } catch (IOException e) {
-            System.err.println(
-                "ERROR: IOException saving photo: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error saving photo patientId={}", patientId, e);
             return false;
         }
     }
@@ -556,35 +630,240 @@ public class PhotoService {
      * @return JavaFX Image if photo exists, null otherwise
      */
     public Image loadPatientPhoto(Long patientId) {
+        return loadPatientPhoto(patientId, PhotoSize.ORIGINAL);
+    }
+
+    /**
+     * Loads a patient photo variant, from the cache when possible.
+     * Thumbnails missing for photos saved before they existed are generated on first use.
+     * @param patientId the patient's ID
+     * @param size the variant to load
+     * @return JavaFX Image if photo exists, null otherwise
+     */
+    public Image loadPatientPhoto(Long patientId, PhotoSize size) {
         if (patientId == null) {
             return null;
         }
 
-        File photoFile = getPatientPhotoFile(patientId);
+        Image cached = getCached(cacheKey(patientId, size));
+        if (cached != null) {
+            return cached;
+        }
 
-        if (!photoFile.exists()) {
+        String photoKey = getPatientPhotoKey(patientId);
+        if (!store.exists(photoKey)) {
             return null;
         }
 
+        String key = getPatientPhotoKey(patientId, size);
+        Image image;
         try {
-            BufferedImage bufferedImage = ImageIO.read(photoFile);
-            if (bufferedImage != null) {
-                System.out.println(
-                    "Photo loaded successfully for patient ID: " + patientId
-                );
-                return SwingFXUtils.toFXImage(bufferedImage, null);
+            if (!store.exists(key)) {
+                try (InputStream in = store.open(photoKey)) {
+                    BufferedImage original = in != null ? ImageIO.read(in) : null;
+                    if (original == null) {
+                        return null;
+                    }
+                    writeThumbnails(patientId, original);
+                }
+                if (!store.exists(key)) {
+                    key = photoKey;
+                }
+            }
+
+            // JavaFX decodes the JPEG directly (no BufferedImage/SwingFXUtils round trip)
+            try (InputStream in = store.open(key)) {
+                if (in == null) {
+                    return null;
+                }
+                image = new Image(in);
             }
         } catch (IOException e) {
-            System.err.println(
-                "Error loading photo for patient ID " +
-                    patientId +
-                    ": " +
-                    e.getMessage()
+            LOG.error("Error loading photo patientId={}", patientId, e);
+            return null;
+        }
+        if (image.isError()) {
+            LOG.error(
+                "Error decoding photo patientId={}",
+                patientId,
+                image.getException()
             );
-            e.printStackTrace();
+            return null;
         }
+        putCached(cacheKey(patientId, size), image);
+        return image;
+    }
 
-        return null;
+    /**
+     * Shows a patient photo in the view without blocking the caller (FX thread):
+     * the cached image is set immediately, otherwise a default avatar is shown until
+     * the photo has been loaded in the background.
+     * @param view the target ImageView
+     * @param patientId the patient's ID
+     * @param size the variant to load
+     * @param placeholderSize size of the default avatar shown meanwhile
+     */
+    public void displayPatientPhoto(
+        ImageView view,
+        Long patientId,
+        PhotoSize size,
+        int placeholderSize
+    ) {
+        // Token of the latest request for this view, dropped as soon as the view
+        // shows something else (the placeholder avatar is a shared instance, so
+        // the image itself cannot tell whether it was replaced)
+        Object request = new Object();
+        view.getProperties().put(VIEW_REQUEST_KEY, request);
+
+        Image cached = patientId != null
+            ? getCached(cacheKey(patientId, size))
+            : null;
+        if (cached != null) {
+            view.setImage(cached);
+            return;
+        }
+
+        Image placeholder = DefaultAvatarGenerator.generateDefaultAvatar(
+            placeholderSize
+        );
+        view.setImage(placeholder);
+        // The existence check is left to the loader: the first store access opens it
+        if (patientId == null) {
+            return;
+        }
+
+        ChangeListener<Image> replaced = (obs, oldImage, newImage) ->
+            view.getProperties().remove(VIEW_REQUEST_KEY, request);
+        view.imageProperty().addListener(replaced);
+
+        PHOTO_LOADER.execute(() -> {
+            Image image = loadPatientPhoto(patientId, size);
+            Platform.runLater(() -> {
+                view.imageProperty().removeListener(replaced);
+                // Skip if the view was reused for another patient or a new
+                // photo was captured or deleted meanwhile
+                if (
+                    image != null &&
+                    view.getProperties().get(VIEW_REQUEST_KEY) == request
+                ) {
+                    view.setImage(image);
+                }
+            });
+        });
+    }
+
+    /**
+     * Writes the SMALL and MEDIUM thumbnails of a photo
+     */
+    private void writeThumbnails(Long patientId, BufferedImage source) {
+        for (PhotoSize size : PhotoSize.values()) {
+            if (size == PhotoSize.ORIGINAL) {
+                continue;
+            }
+            try {
+                byte[] jpeg = encode(scaleToFit(source, size.getPixels()));
+                if (jpeg != null) {
+                    store.put(getPatientPhotoKey(patientId, size), jpeg);
+                }
+            } catch (IOException e) {
+                LOG.error(
+                    "Error writing thumbnail size={} patientId={}",
+                    size,
+                    patientId,
+                    e
+                );
+            }
+        }
+    }
+
+    /**
+     * Encodes an image as JPEG, or returns null if no writer is available
+     */
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, PHOTO_FORMAT, out)) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Scales an image down to fit in a square of the given size (never upscales)
+     */
+    private static BufferedImage scaleToFit(BufferedImage source, int maxSize) {
+        double ratio = Math.min(
+            1.0,
+            (double) maxSize / Math.max(source.getWidth(), source.getHeight())
+        );
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(
+            width,
+            height,
+            BufferedImage.TYPE_INT_RGB
+        );
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BICUBIC
+            );
+            g.setRenderingHint(
+                RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY
+            );
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static String cacheKey(Long patientId, PhotoSize size) {
+        return patientId + ":" + size;
+    }
+
+    private static long imageBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private static Image getCached(String key) {
+        synchronized (IMAGE_CACHE) {
+            return IMAGE_CACHE.get(key);
+        }
+    }
+
+    private static void putCached(String key, Image image) {
+        long bytes = imageBytes(image);
+        if (bytes > CACHE_BUDGET_BYTES) {
+            return;
+        }
+        synchronized (IMAGE_CACHE) {
+            Image previous = IMAGE_CACHE.put(key, image);
+            if (previous != null) {
+                cachedBytes -= imageBytes(previous);
+            }
+            cachedBytes += bytes;
+
+            // Evict least recently used images until back under budget
+            Iterator<Image> it = IMAGE_CACHE.values().iterator();
+            while (cachedBytes > CACHE_BUDGET_BYTES && it.hasNext()) {
+                cachedBytes -= imageBytes(it.next());
+                it.remove();
+            }
+        }
+    }
+
+    private static void invalidateCache(Long patientId) {
+        synchronized (IMAGE_CACHE) {
+            for (PhotoSize size : PhotoSize.values()) {
+                Image removed = IMAGE_CACHE.remove(cacheKey(patientId, size));
+                if (removed != null) {
+                    cachedBytes -= imageBytes(removed);
+                }
+            }
+        }
     }
 
     /**
@@ -600,14 +879,11 @@ public class PhotoService {
         try {
             BufferedImage image = ImageIO.read(file);
             if (image != null) {
-                System.out.println("Photo loaded from file: " + file.getName());
+                LOG.debug("Photo loaded from file name={}", file.getName());
             }
             return image;
         } catch (IOException e) {
-            System.err.println(
-                "Error loading photo from file: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error loading photo from file path={}", file, e);
             return null;
         }
     }
@@ -633,7 +909,21 @@ public class PhotoService {
         if (patientId == null) {
             return false;
         }
-        return getPatientPhotoFile(patientId).exists();
+        // Manifest lookup, no filesystem access once the store is open
+        return store.exists(getPatientPhotoKey(patientId));
+    }
+
+    /**
+     * Checks in the background if a patient photo exists, for callers on the
+     * JavaFX thread (the first check opens the photo store)
+     * @param patientId the patient's ID
+     * @return a future completed with true if the photo exists
+     */
+    public CompletableFuture<Boolean> hasPatientPhotoAsync(Long patientId) {
+        return CompletableFuture.supplyAsync(
+            () -> hasPatientPhoto(patientId),
+            PHOTO_LOADER
+        );
     }
 
     /**
@@ -646,94 +936,57 @@ public class PhotoService {
             return false;
         }
 
-        File photoFile = getPatientPhotoFile(patientId);
-
-        if (!photoFile.exists()) {
-            return true; // No photo to delete
-        }
+        invalidateCache(patientId);
 
         try {
-            boolean deleted = photoFile.delete();
+            boolean deleted = false;
+            for (PhotoSize size : PhotoSize.values()) {
+                deleted |= store.delete(getPatientPhotoKey(patientId, size));
+            }
             if (deleted) {
-                System.out.println(
-                    "Photo deleted successfully for patient ID: " + patientId
-                );
-            } else {
-                System.err.println(
-                    "Failed to delete photo for patient ID: " + patientId
-                );
+                LOG.debug("Photo deleted patientId={}", patientId);
             }
-            return deleted;
+            return true;
         } catch (Exception e) {
-            System.err.println(
-                "Error deleting photo for patient ID " +
-                    patientId +
-                    ": " +
-                    e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error deleting photo patientId={}", patientId, e);
             return false;
         }
     }
 
     /**
-     * Gets the File object for a patient's photo
+     * Gets the store key of a patient's photo
      * @param patientId the patient's ID
-     * @return File object for the patient's photo
+     * @return key of the patient's photo (patient_{id}.jpg)
      */
-    private File getPatientPhotoFile(Long patientId) {
-        String filename = PHOTO_PREFIX + patientId + PHOTO_EXTENSION;
-        return new File(PHOTOS_DIRECTORY, filename);
+    private String getPatientPhotoKey(Long patientId) {
+        return PHOTO_PREFIX + patientId + PHOTO_EXTENSION;
     }
 
     /**
-     * Gets the full path to a patient's photo
-     * @param patientId the patient's ID
-     * @return absolute path to the photo file
+     * Gets the store key of a photo variant (patient_{id}_{pixels}.jpg for thumbnails)
      */
-    public String getPatientPhotoPath(Long patientId) {
-        return getPatientPhotoFile(patientId).getAbsolutePath();
+    private String getPatientPhotoKey(Long patientId, PhotoSize size) {
+        if (size == PhotoSize.ORIGINAL) {
+            return getPatientPhotoKey(patientId);
+        }
+        return PHOTO_PREFIX + patientId + "_" + size.getPixels() + PHOTO_EXTENSION;
     }
 
     /**
-     * Checks if a webcam is available on the system
+     * Checks if a webcam is available on the system. Blocks during the first camera
+     * probing.
      * @return true if webcam is available, false otherwise
      */
     public boolean isWebcamAvailable() {
         // Check native Linux capture first
-        String os = System.getProperty("os.name").toLowerCase();
-        if (os.contains("linux")) {
-            detectIntelIPU6();
-
-            // Check if libcamera capture is available
-            if (
-                isCommandAvailable("python3") &&
-                isCommandAvailable("gst-launch-1.0")
-            ) {
-                File scriptFile = new File(
-                    "scripts/capture_photo_libcamera.py"
-                );
-                if (scriptFile.exists()) {
-                    // Check if any video device exists
-                    for (int i = 0; i < 32; i++) {
-                        File device = new File("/dev/video" + i);
-                        if (device.exists()) {
-                            System.out.println(
-                                "Found webcam device: /dev/video" + i
-                            );
-                            System.out.println(
-                                "Native capture available via libcamera/pipewire"
-                            );
-                            if (isIntelIPU6) {
-                                System.out.println(
-                                    "Intel IPU6 camera detected - libcamera support enabled"
-                                );
-                            }
-                            return true;
-                        }
-                    }
-                }
+        CameraProbe probe = getCameraProbe();
+        // Native capture needs libcamera tooling and a video device
+        if (probe.nativeCaptureSupported && probe.webcamDevice != null) {
+            LOG.info("Native capture available via libcamera/pipewire");
+            if (probe.intelIPU6) {
+                LOG.info("Intel IPU6 camera detected - libcamera support enabled");
             }
+            return true;
         }
 
         // Fall back to Java webcam library check
@@ -744,20 +997,18 @@ public class PhotoService {
                 TimeUnit.MILLISECONDS
             );
             if (webcams != null && !webcams.isEmpty()) {
-                System.out.println("Found " + webcams.size() + " webcam(s)");
+                LOG.info("Found webcams count={}", webcams.size());
                 for (Webcam cam : webcams) {
-                    System.out.println("  - " + cam.getName());
+                    LOG.info("  - {}", cam.getName());
                 }
                 return true;
             }
-            System.out.println("No webcams found via Java library");
+            LOG.info("No webcams found via Java library");
             return false;
         } catch (Exception e) {
-            System.err.println(
-                "Error checking webcam availability: " + e.getMessage()
-            );
-            System.err.println(
-                "Note: Webcam may not be supported on this system (common on Linux with v4l2 issues)"
+            LOG.warn(
+                "Error checking webcam availability (common on Linux with v4l2 issues): {}",
+                e.getMessage()
             );
             return false;
         }
@@ -8,22 +8,68 @@ import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.mediclinic.model.RendezVous;
+import com.mediclinic.util.ConfigurationManager;
 
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.imageio.ImageIO;
-
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Génération et lecture des QR codes de rendez-vous.
+ * Le contenu encodé est compact : "MC1:" suivi, en Base45 (alphabet alphanumérique
+ * des QR codes), de l'id du rendez-vous et d'une signature HMAC-SHA256 tronquée
+ * portant sur l'id, le patient, le médecin et l'heure de début. Le scanner retrouve
+ * le reste en base. L'ancien format texte reste lisible pour les codes déjà imprimés.
+ */
 public class QRCodeService {
 
+    private static final Logger LOG = LogManager.getLogger(QRCodeService.class);
+
     private static final int QR_CODE_SIZE = 300;
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(
         "dd/MM/yyyy HH:mm"
     );
 
+    static final String COMPACT_PREFIX = "MC1:";
+    private static final String LEGACY_PREFIX = "MEDICLINIC_RDV";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 10;
+    private static final String SECRET_PROPERTY = "qrcode.hmac.secret";
+    private static final String BASE45_CHARSET =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    private static final int CACHE_SIZE = 256;
+
+    // PNG déjà rendus, par id de rendez-vous ; une entrée n'est réutilisée que si
+    // le contenu signé est identique (rendez-vous non déplacé ni réaffecté).
+    private static final Map<Long, CachedQRCode> PNG_CACHE = new LinkedHashMap<>(
+        CACHE_SIZE,
+        0.75f,
+        true
+    ) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedQRCode> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static volatile SecretKeySpec signingKey;
+
     public byte[] generateAppointmentQRCode(RendezVous rdv)
         throws WriterException, IOException {
         if (rdv == null || rdv.getId() == null) {
@@ -34,25 +80,23 @@ public class QRCodeService {
 
         String qrData = buildQRData(rdv);
 
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.MARGIN, 1);
-
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(
-            qrData,
-            BarcodeFormat.QR_CODE,
-            QR_CODE_SIZE,
-            QR_CODE_SIZE,
-            hints
-        );
+        synchronized (PNG_CACHE) {
+            CachedQRCode cached = PNG_CACHE.get(rdv.getId());
+            if (cached != null && cached.payload.equals(qrData)) {
+                return cached.png.clone();
+            }
+        }
 
-        BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+        BufferedImage qrImage = renderQRCode(qrData);
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ImageIO.write(qrImage, "PNG", baos);
-        return baos.toByteArray();
+        byte[] png = baos.toByteArray();
+
+        synchronized (PNG_CACHE) {
+            PNG_CACHE.put(rdv.getId(), new CachedQRCode(qrData, png.clone()));
+        }
+        return png;
     }
 
     public BufferedImage generateAppointmentQRCodeImage(RendezVous rdv)
@@ -63,11 +107,14 @@ public class QRCodeService {
             );
         }
 
-        String qrData = buildQRData(rdv);
+        return renderQRCode(buildQRData(rdv));
+    }
 
+    private BufferedImage renderQRCode(String qrData) throws WriterException {
+        // Le contenu n'utilise que l'alphabet alphanumérique : niveau M suffit et
+        // tient dans un QR code version 2 (25x25 modules)
         Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
         hints.put(EncodeHintType.MARGIN, 1);
 
         QRCodeWriter qrCodeWriter = new QRCodeWriter();
@@ -83,52 +130,195 @@ public class QRCodeService {
     }
 
     private String buildQRData(RendezVous rdv) {
-        StringBuilder data = new StringBuilder();
-
-        data.append("MEDICLINIC_RDV\n");
-        data.append("ID:").append(rdv.getId()).append("\n");
-
-        data
-            .append("PATIENT:")
-            .append(rdv.getPatient().getNomComplet())
-            .append("\n");
-        data
-            .append("PATIENT_ID:")
-            .append(rdv.getPatient().getId())
-            .append("\n");
-
-        data
-            .append("MEDECIN:Dr. ")
-            .append(rdv.getMedecin().getNomComplet())
-            .append("\n");
-        data
-            .append("MEDECIN_ID:")
-            .append(rdv.getMedecin().getId())
-            .append("\n");
-
-        data
-            .append("DATE:")
-            .append(rdv.getDateHeureDebut().format(DATETIME_FORMATTER))
-            .append("\n");
-
-        data
-            .append("DATE_FIN:")
-            .append(rdv.getDateHeureFin().format(DATETIME_FORMATTER))
-            .append("\n");
-
-        data.append("STATUS:").append(rdv.getStatus().name()).append("\n");
-
-        if (rdv.getMotif() != null && !rdv.getMotif().isEmpty()) {
-            data.append("MOTIF:").append(rdv.getMotif()).append("\n");
-        }
-
-        return data.toString();
+        ByteBuffer payload = ByteBuffer.allocate(10 + SIGNATURE_LENGTH);
+        writeVarLong(payload, rdv.getId());
+        payload.put(sign(rdv), 0, SIGNATURE_LENGTH);
+        return COMPACT_PREFIX + base45Encode(
+            Arrays.copyOf(payload.array(), payload.position())
+        );
+    }
+
+    /**
+     * Vérifie que la signature d'un QR code compact correspond au rendez-vous en base.
+     */
+    public boolean verifySignature(RendezVous rdv, AppointmentData data) {
+        if (data.getSignature() == null || !rdv.getId().equals(data.getRendezVousId())) {
+            return false;
+        }
+        byte[] expected = Arrays.copyOf(sign(rdv), SIGNATURE_LENGTH);
+        return MessageDigest.isEqual(expected, data.getSignature());
+    }
+
+    /**
+     * Vérifie qu'un QR code lu correspond au rendez-vous en base : signature pour le
+     * format compact, id/patient/médecin/date pour l'ancien format texte.
+     */
+    public boolean matches(RendezVous rdv, AppointmentData data) {
+        if (data.getSignature() != null) {
+            return verifySignature(rdv, data);
+        }
+
+        if (!rdv.getId().equals(data.getRendezVousId())) {
+            return false;
+        }
+
+        if (!rdv.getPatient().getId().equals(data.getPatientId())) {
+            return false;
+        }
+
+        if (!rdv.getMedecin().getId().equals(data.getDoctorId())) {
+            return false;
+        }
+
+        String expectedDate = rdv.getDateHeureDebut().format(DATETIME_FORMATTER);
+        return expectedDate.equals(data.getAppointmentDateTime());
+    }
+
+    private static byte[] sign(RendezVous rdv) {
+        ByteBuffer signed = ByteBuffer.allocate(4 * Long.BYTES);
+        signed.putLong(rdv.getId());
+        signed.putLong(rdv.getPatient().getId());
+        signed.putLong(rdv.getMedecin().getId());
+        signed.putLong(rdv.getDateHeureDebut().toEpochSecond(ZoneOffset.UTC));
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(getSigningKey());
+            return mac.doFinal(signed.array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature du QR code impossible", e);
+        }
+    }
+
+    /**
+     * Indique si qrcode.hmac.secret est configuré, c'est-à-dire si des QR codes compacts
+     * peuvent être générés ; sinon {@link #generateAppointmentQRCode} lève une
+     * IllegalStateException.
+     */
+    public static boolean isSigningConfigured() {
+        if (signingKey != null) {
+            return true;
+        }
+        String secret = ConfigurationManager.getInstance().getProperty(
+            SECRET_PROPERTY
+        );
+        return secret != null && !secret.isBlank();
+    }
+
+    /**
+     * Clé HMAC de qrcode.hmac.secret. Sans clé configurée, aucun QR code compact n'est
+     * signé ni vérifié : une clé connue de tous permettrait de forger des codes.
+     */
+    private static SecretKeySpec getSigningKey() {
+        SecretKeySpec key = signingKey;
+        if (key == null) {
+            String secret = ConfigurationManager.getInstance().getProperty(
+                SECRET_PROPERTY
+            );
+            if (secret == null || secret.isBlank()) {
+                LOG.error("QR code compact refusé : {} non configuré", SECRET_PROPERTY);
+                throw new IllegalStateException(
+                    "Clé de signature des QR codes non configurée (" +
+                        SECRET_PROPERTY +
+                        " dans application-local.properties)."
+                );
+            }
+            key = new SecretKeySpec(
+                secret.getBytes(StandardCharsets.UTF_8),
+                HMAC_ALGORITHM
+            );
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid QR code data format");
+    }
+
+    /**
+     * Base45 (RFC 9285) : 2 octets -> 3 caractères, dernier octet isolé -> 2.
+     */
+    static String base45Encode(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length + 1) / 2 * 3);
+        for (int i = 0; i + 1 < data.length; i += 2) {
+            int n = ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+            out.append(BASE45_CHARSET.charAt(n % 45));
+            out.append(BASE45_CHARSET.charAt((n / 45) % 45));
+            out.append(BASE45_CHARSET.charAt(n / 2025));
+        }
+        if (data.length % 2 != 0) {
+            int n = data[data.length - 1] & 0xFF;
+            out.append(BASE45_CHARSET.charAt(n % 45));
+            out.append(BASE45_CHARSET.charAt(n / 45));
+        }
+        return out.toString();
+    }
+
+    static byte[] base45Decode(String text) {
+        if (text.length() % 3 == 1) {
+            throw new IllegalArgumentException("Invalid QR code data format");
+        }
+        byte[] out = new byte[text.length() / 3 * 2 + (text.length() % 3 == 2 ? 1 : 0)];
+        int o = 0;
+        for (int i = 0; i < text.length(); i += 3) {
+            int n = base45Value(text.charAt(i)) + base45Value(text.charAt(i + 1)) * 45;
+            if (i + 2 < text.length()) {
+                n += base45Value(text.charAt(i + 2)) * 2025;
+                if (n > 0xFFFF) {
+                    throw new IllegalArgumentException("Invalid QR code data format");
+                }
+                out[o++] = (byte) (n >> 8);
+            } else if (n > 0xFF) {
+                throw new IllegalArgumentException("Invalid QR code data format");
+            }
+            out[o++] = (byte) n;
+        }
+        return out;
+    }
+
+    private static int base45Value(char c) {
+        int value = BASE45_CHARSET.indexOf(c);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid QR code data format");
+        }
+        return value;
+    }
+
+    private static class CachedQRCode {
+
+        final String payload;
+        final byte[] png;
+
+        CachedQRCode(String payload, byte[] png) {
+            this.payload = payload;
+            this.png = png;
+        }
     }
 
     public AppointmentData parseQRCode(String qrData) {
+        if (qrData != null && qrData.startsWith(COMPACT_PREFIX)) {
+            return parseCompactQRCode(qrData);
+        }
+
         if (
             qrData == null ||
-            !qrData.startsWith("MEDICLINIC_RDV")
+            !qrData.startsWith(LEGACY_PREFIX)
         ) {
             throw new IllegalArgumentException(
                 "Invalid QR code data format"
@@ -181,6 +371,25 @@ public class QRCodeService {
         return appointmentData;
     }
 
+    private AppointmentData parseCompactQRCode(String qrData) {
+        ByteBuffer payload = ByteBuffer.wrap(
+            base45Decode(qrData.substring(COMPACT_PREFIX.length()))
+        );
+        AppointmentData appointmentData = new AppointmentData();
+        try {
+            appointmentData.setRendezVousId(readVarLong(payload));
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid QR code data format");
+        }
+        if (payload.remaining() != SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("Invalid QR code data format");
+        }
+        byte[] signature = new byte[SIGNATURE_LENGTH];
+        payload.get(signature);
+        appointmentData.setSignature(signature);
+        return appointmentData;
+    }
+
     public static class AppointmentData {
 
         private Long rendezVousId;
@@ -192,6 +401,7 @@ public class QRCodeService {
         private String appointmentEndDateTime;
         private String status;
         private String motif;
+        private byte[] signature;
 
         public Long getRendezVousId() {
             return rendezVousId;
@@ -265,6 +475,17 @@ public class QRCodeService {
             this.motif = motif;
         }
 
+        /**
+         * Signature tronquée d'un QR code compact (null pour l'ancien format texte).
+         */
+        public byte[] getSignature() {
+            return signature;
+        }
+
+        public void setSignature(byte[] signature) {
+            this.signature = signature;
+        }
+
         @Override
         public String toString() {
             return (
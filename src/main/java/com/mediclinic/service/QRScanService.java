@@ -0,0 +1,221 @@
+package com.mediclinic.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.mediclinic.model.RendezVous;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+/**
+ * Lecture des QR codes de rendez-vous hors du thread JavaFX.
+ * Un unique thread de scan réutilise le même {@link QRCodeReader} (non thread-safe) :
+ * décodage rapide restreint au format QR, puis TRY_HARDER seulement en cas d'échec.
+ * Les photos trop grandes sont réduites en niveaux de gris avant binarisation.
+ */
+public class QRScanService {
+
+    /**
+     * Résultat d'un scan : données lues et rendez-vous correspondant (null si introuvable).
+     */
+    public static class ScanResult {
+
+        private final QRCodeService.AppointmentData data;
+        private final RendezVous rendezVous;
+
+        ScanResult(QRCodeService.AppointmentData data, RendezVous rendezVous) {
+            this.data = data;
+            this.rendezVous = rendezVous;
+        }
+
+        public QRCodeService.AppointmentData getData() {
+            return data;
+        }
+
+        public RendezVous getRendezVous() {
+            return rendezVous;
+        }
+    }
+
+    // Au-delà, la binarisation coûte cher sans améliorer la lecture d'un QR compact
+    private static final int MAX_SCAN_DIMENSION = 1280;
+
+    private static final Map<DecodeHintType, Object> FAST_HINTS = new EnumMap<>(
+        DecodeHintType.class
+    );
+    private static final Map<DecodeHintType, Object> TRY_HARDER_HINTS;
+
+    static {
+        FAST_HINTS.put(
+            DecodeHintType.POSSIBLE_FORMATS,
+            Collections.singletonList(BarcodeFormat.QR_CODE)
+        );
+        TRY_HARDER_HINTS = new EnumMap<>(FAST_HINTS);
+        TRY_HARDER_HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+
+    private static final ExecutorService SCAN_EXECUTOR =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "qr-scan");
+            t.setDaemon(true);
+            return t;
+        });
+
+    // Confiné au thread "qr-scan"
+    private static final QRCodeReader READER = new QRCodeReader();
+
+    private final QRCodeService qrCodeService;
+    private final RendezVousService rendezVousService;
+
+    public QRScanService() {
+        this.qrCodeService = new QRCodeService();
+        this.rendezVousService = new RendezVousService();
+    }
+
+    /**
+     * Lit l'image, décode le QR code et charge le rendez-vous, sur le thread de scan.
+     * Le future échoue avec {@link NotFoundException} si aucun QR code n'est lisible,
+     * ou {@link IllegalArgumentException} si son contenu n'est pas un rendez-vous.
+     */
+    public CompletableFuture<ScanResult> scan(File imageFile) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+                try {
+                    BufferedImage image = ImageIO.read(imageFile);
+                    if (image == null) {
+                        throw new IOException(
+                            "Format d'image non reconnu: " + imageFile.getName()
+                        );
+                    }
+                    return lookup(decode(image));
+                } catch (IOException | NotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            },
+            SCAN_EXECUTOR
+        );
+    }
+
+    /**
+     * Décode une image déjà en mémoire (capture caméra) sur le thread de scan.
+     */
+    public CompletableFuture<ScanResult> scan(BufferedImage image) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+                try {
+                    return lookup(decode(image));
+                } catch (NotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            },
+            SCAN_EXECUTOR
+        );
+    }
+
+    /**
+     * Décode seulement le texte du QR code d'une image (null si aucun n'est lisible).
+     */
+    public CompletableFuture<String> decodePayload(BufferedImage image) {
+        return CompletableFuture.supplyAsync(
+            () -> {
+                try {
+                    return decode(image);
+                } catch (NotFoundException e) {
+                    return null;
+                }
+            },
+            SCAN_EXECUTOR
+        );
+    }
+
+    private ScanResult lookup(String qrData) {
+        QRCodeService.AppointmentData data = qrCodeService.parseQRCode(qrData);
+        RendezVous rdv = data.getRendezVousId() != null
+            ? rendezVousService.findById(data.getRendezVousId())
+            : null;
+        return new ScanResult(data, rdv);
+    }
+
+    /**
+     * Décode le texte du QR code. Doit être appelé sur le thread de scan.
+     */
+    private static String decode(BufferedImage image) throws NotFoundException {
+        BufferedImage scaled = downsample(image);
+        String text = tryDecode(scaled, FAST_HINTS);
+        if (text == null) {
+            text = tryDecode(scaled, TRY_HARDER_HINTS);
+        }
+        if (text == null && scaled != image) {
+            // Dernier recours : résolution d'origine (QR code très petit dans la photo)
+            text = tryDecode(image, TRY_HARDER_HINTS);
+        }
+        if (text == null) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+        return text;
+    }
+
+    private static String tryDecode(
+        BufferedImage image,
+        Map<DecodeHintType, Object> hints
+    ) {
+        LuminanceSource source = new BufferedImageLuminanceSource(image);
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+        try {
+            return READER.decode(bitmap, hints).getText();
+        } catch (NotFoundException | ChecksumException | FormatException e) {
+            return null;
+        } finally {
+            READER.reset();
+        }
+    }
+
+    /**
+     * Réduit l'image en niveaux de gris si elle dépasse MAX_SCAN_DIMENSION.
+     */
+    private static BufferedImage downsample(BufferedImage image) {
+        int largest = Math.max(image.getWidth(), image.getHeight());
+        if (largest <= MAX_SCAN_DIMENSION) {
+            return image;
+        }
+
+        double ratio = (double) MAX_SCAN_DIMENSION / largest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(
+            width,
+            height,
+            BufferedImage.TYPE_BYTE_GRAY
+        );
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR
+            );
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
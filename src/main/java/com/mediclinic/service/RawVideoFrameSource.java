@@ -0,0 +1,158 @@
+package com.mediclinic.service;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flux vidéo brut RGB 24 bits (largeur x hauteur x 3 octets par image, sans en-tête)
+ * lu sur un pipe, typiquement la sortie standard d'un unique processus gst-launch.
+ * Chaque image est lue directement dans le tampon d'une {@link BufferedImage}
+ * réutilisée : l'image renvoyée n'est valide que jusqu'à l'appel suivant.
+ * La lecture est bloquante, le délai de {@link #nextFrame(long)} est ignoré.
+ */
+public class RawVideoFrameSource implements FrameSource {
+
+    private final InputStream in;
+    private final Process process;
+    private final byte[] pixels;
+    private final BufferedImage image;
+
+    public RawVideoFrameSource(InputStream in, int width, int height) {
+        this(in, null, width, height);
+    }
+
+    private RawVideoFrameSource(
+        InputStream in,
+        Process process,
+        int width,
+        int height
+    ) {
+        this.in = in;
+        this.process = process;
+        this.pixels = new byte[width * height * 3];
+
+        // Raster RGB entrelacé adossé directement au tableau de lecture
+        DataBufferByte buffer = new DataBufferByte(pixels, pixels.length);
+        WritableRaster raster = Raster.createWritableRaster(
+            new PixelInterleavedSampleModel(
+                DataBuffer.TYPE_BYTE,
+                width,
+                height,
+                3,
+                width * 3,
+                new int[] { 0, 1, 2 }
+            ),
+            buffer,
+            null
+        );
+        ComponentColorModel colorModel = new ComponentColorModel(
+            ColorSpace.getInstance(ColorSpace.CS_sRGB),
+            false,
+            false,
+            Transparency.OPAQUE,
+            DataBuffer.TYPE_BYTE
+        );
+        this.image = new BufferedImage(colorModel, raster, false, null);
+    }
+
+    /**
+     * Lance la commande et lit son flux brut sur sa sortie standard ; le processus
+     * est arrêté à la fermeture de la source.
+     */
+    public static RawVideoFrameSource start(
+        List<String> command,
+        int width,
+        int height
+    ) throws IOException {
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        return new RawVideoFrameSource(
+            process.getInputStream(),
+            process,
+            width,
+            height
+        );
+    }
+
+    /**
+     * Pipeline GStreamer (pipewire, compatible Intel IPU6) émettant du RGB brut sur stdout.
+     * Le nom de l'élément fdsink permet de retrouver le processus s'il reste orphelin.
+     */
+    public static List<String> gstreamerCommand(int width, int height, int fps) {
+        List<String> command = new ArrayList<>();
+        command.add("gst-launch-1.0");
+        command.add("-q");
+        command.add("pipewiresrc");
+        command.add("!");
+        command.add("queue");
+        command.add("max-size-buffers=2");
+        command.add("leaky=downstream");
+        command.add("!");
+        command.add("videoconvert");
+        command.add("!");
+        command.add("videoscale");
+        command.add("!");
+        command.add("videorate");
+        command.add("!");
+        command.add(
+            "video/x-raw,format=RGB,width=" + width + ",height=" + height +
+            ",framerate=" + fps + "/1"
+        );
+        command.add("!");
+        command.add("fdsink");
+        command.add("name=mediclinic_preview");
+        command.add("fd=1");
+        command.add("sync=false");
+        return command;
+    }
+
+    public Process getProcess() {
+        return process;
+    }
+
+    @Override
+    public BufferedImage nextFrame(long timeoutMillis) throws IOException {
+        int offset = 0;
+        while (offset < pixels.length) {
+            int read = in.read(pixels, offset, pixels.length - offset);
+            if (read < 0) {
+                throw new EOFException("Fin du flux vidéo");
+            }
+            offset += read;
+        }
+        return image;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroy();
+                try {
+                    if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -8,11 +8,21 @@ import com.mediclinic.model.Patient;
 import com.mediclinic.model.RendezVous;
 import com.mediclinic.model.RendezVousStatus;
 import com.mediclinic.model.Role;
-import com.mediclinic.model.User;
-import com.mediclinic.util.UserSession;
+import com.mediclinic.util.Permission;
+import com.mediclinic.util.SecurityContext;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RendezVousService {
     /**
@@ -58,15 +68,15 @@ public class RendezVousService {
     public RendezVous planifierRendezVous(RendezVous rdv)
         throws IllegalStateException, IllegalArgumentException, SecurityException {
         // Check authentication and permission
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
+        Role role = context.getRole();
 
-        // SEC and ADMIN can create appointments
-        if (role != Role.SEC && role != Role.ADMIN && role != Role.MEDECIN) {
+        // SEC, ADMIN and MEDECIN can schedule appointments
+        if (!context.has(Permission.APPOINTMENT_SCHEDULE)) {
             throw new SecurityException(
                 "Vous n'avez pas la permission de créer un rendez-vous."
             );
@@ -74,7 +84,7 @@ public class RendezVousService {
 
         // Check if SEC is trying to create appointment for their associated doctor
         if (role == Role.SEC) {
-            Medecin userMedecin = user.getMedecin();
+            Medecin userMedecin = context.getMedecinReference();
             if (userMedecin == null) {
                 throw new SecurityException(
                     "Secrétaire non associée à un médecin."
@@ -189,7 +199,8 @@ public class RendezVousService {
     public void terminerRendezVous(Long rdvId)
         throws IllegalStateException, SecurityException {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
@@ -199,9 +210,8 @@ public class RendezVousService {
         }
 
         // Check permission - doctors can only complete their own appointments
-        User user = UserSession.getInstance().getUser();
-        if (user.getRole() == Role.MEDECIN) {
-            Medecin medecin = user.getMedecin();
+        if (context.getRole() == Role.MEDECIN) {
+            Medecin medecin = context.getMedecinReference();
             if (
                 medecin == null ||
                 !medecin.getId().equals(rdv.getMedecin().getId())
@@ -262,7 +272,7 @@ public class RendezVousService {
 
     public List<RendezVous> findAll() {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        if (SecurityContext.current() == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
@@ -273,34 +283,190 @@ public class RendezVousService {
      * Get all appointments filtered by current user's role
      */
     public List<RendezVous> findAllForCurrentUser() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
-
-        if (role == Role.ADMIN) {
+        if (context.has(Permission.APPOINTMENT_VIEW_ALL)) {
             // ADMIN sees all appointments
             return rdvDAO.findAllWithDetails();
-        } else if (role == Role.SEC) {
-            // SEC sees only appointments for their associated doctor
-            Medecin medecin = user.getMedecin();
-            if (medecin == null) {
-                // SEC must be associated with a doctor
-                return List.of();
-            }
-            return rdvDAO.findByMedecin(medecin);
-        } else if (role == Role.MEDECIN) {
-            // Doctors see only their appointments
-            Medecin medecin = user.getMedecin();
-            if (medecin == null) {
-                return List.of();
-            }
-            return rdvDAO.findByMedecin(medecin);
         }
 
-        return List.of();
+        // SEC and MEDECIN see only appointments of their associated doctor
+        Medecin medecin = context.getMedecinReference();
+        if (medecin == null) {
+            return List.of();
+        }
+        return rdvDAO.findByMedecin(medecin);
+    }
+
+    /**
+     * Nombre de rendez-vous par statut visibles par l'utilisateur courant sur une période
+     * (bornes incluses, null = sans borne), par une requête d'agrégat : aucun rendez-vous
+     * n'est chargé.
+     */
+    public Map<RendezVousStatus, Long> countByStatus(
+        LocalDate startDate,
+        LocalDate endDate
+    ) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        // ADMIN voit tous les RDV ; SEC et MEDECIN uniquement ceux du médecin associé
+        boolean viewAll = context.has(Permission.APPOINTMENT_VIEW_ALL);
+        Medecin medecin = viewAll ? null : context.getMedecinReference();
+        if (!viewAll && medecin == null) {
+            return new EnumMap<>(RendezVousStatus.class);
+        }
+        return rdvDAO.countByStatusInDateRange(
+            medecin,
+            startOf(startDate),
+            endOf(endDate)
+        );
+    }
+
+    /**
+     * Statistiques de tous les rendez-vous visibles par l'utilisateur courant, au format
+     * attendu par {@link PdfService#generateStatisticsReport} (totalAppointments,
+     * appointmentsByStatus, appointmentsByDoctor), calculées par requêtes d'agrégat.
+     */
+    public Map<String, Object> getAppointmentStatistics() {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        boolean viewAll = context.has(Permission.APPOINTMENT_VIEW_ALL);
+        Medecin medecin = viewAll ? null : context.getMedecinReference();
+
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byDoctor = new HashMap<>();
+        if (viewAll || medecin != null) {
+            rdvDAO
+                .countByStatusInDateRange(medecin, null, null)
+                .forEach((status, count) -> byStatus.put(status.name(), count));
+            byDoctor.putAll(rdvDAO.countByMedecinName(medecin));
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(
+            "totalAppointments",
+            byStatus.values().stream().mapToLong(Long::longValue).sum()
+        );
+        stats.put("appointmentsByStatus", byStatus);
+        stats.put("appointmentsByDoctor", byDoctor);
+        return stats;
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date != null ? date.atStartOfDay() : null;
+    }
+
+    private static LocalDateTime endOf(LocalDate date) {
+        return date != null ? date.atTime(23, 59, 59, 999_999_999) : null;
+    }
+
+    /**
+     * Génère le rapport quotidien PDF des rendez-vous visibles par l'utilisateur courant.
+     * Les compteurs par statut viennent d'une requête d'agrégat et la liste est lue
+     * en flux depuis la base, sans être chargée entièrement en mémoire.
+     */
+    public void generateDailyReport(LocalDate date, String destPath)
+        throws IOException {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        PdfService pdfService = new PdfService();
+
+        // ADMIN voit tous les RDV ; SEC et MEDECIN uniquement ceux du médecin associé
+        boolean viewAll = context.has(Permission.APPOINTMENT_VIEW_ALL);
+        Medecin medecin = viewAll ? null : context.getMedecinReference();
+        if (!viewAll && medecin == null) {
+            pdfService.generateDailyReport(
+                Collections.emptyIterator(),
+                0,
+                new EnumMap<>(RendezVousStatus.class),
+                date,
+                destPath
+            );
+            return;
+        }
+
+        LocalDateTime debut = date.atStartOfDay();
+        LocalDateTime fin = date.atTime(23, 59, 59, 999_999_999);
+
+        Map<RendezVousStatus, Long> countsByStatus =
+            rdvDAO.countByStatusInDateRange(medecin, debut, fin);
+        long total = countsByStatus
+            .values()
+            .stream()
+            .mapToLong(Long::longValue)
+            .sum();
+
+        try {
+            rdvDAO.streamByDateRange(medecin, debut, fin, appointments -> {
+                try {
+                    pdfService.generateDailyReport(
+                        appointments.iterator(),
+                        total,
+                        countsByStatus,
+                        date,
+                        destPath
+                    );
+                } catch (FileNotFoundException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Exporte en CSV les rendez-vous visibles par l'utilisateur courant sur une période
+     * (bornes incluses, null = sans borne), lus en flux depuis la base.
+     */
+    public void exportAppointmentsCsv(
+        LocalDate startDate,
+        LocalDate endDate,
+        String destPath
+    ) throws IOException {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        CsvService csvService = new CsvService();
+
+        // ADMIN voit tous les RDV ; SEC et MEDECIN uniquement ceux du médecin associé
+        boolean viewAll = context.has(Permission.APPOINTMENT_VIEW_ALL);
+        Medecin medecin = viewAll ? null : context.getMedecinReference();
+        if (!viewAll && medecin == null) {
+            csvService.exportAppointments(List.<RendezVous>of(), destPath);
+            return;
+        }
+
+        try {
+            rdvDAO.streamByDateRange(
+                medecin,
+                startOf(startDate),
+                endOf(endDate),
+                appointments -> {
+                    try {
+                        csvService.exportAppointments(appointments, destPath);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -311,7 +477,8 @@ public class RendezVousService {
     public RendezVous updateStatus(Long rdvId, RendezVousStatus newStatus)
         throws SecurityException {
         // Check authentication
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new SecurityException("Utilisateur non authentifié.");
         }
 
@@ -333,9 +500,8 @@ public class RendezVousService {
         }
 
         // Check permission - doctors can only modify their own appointments
-        User user = UserSession.getInstance().getUser();
-        if (user.getRole() == Role.MEDECIN) {
-            Medecin medecin = user.getMedecin();
+        if (context.getRole() == Role.MEDECIN) {
+            Medecin medecin = context.getMedecinReference();
             if (
                 medecin == null ||
                 !medecin.getId().equals(rdv.getMedecin().getId())
@@ -366,60 +532,133 @@ public class RendezVousService {
         return rdvDAO.save(rdv);
     }
 
+    /**
+     * Met à jour le statut de plusieurs rendez-vous (accueil en série) : un chargement
+     * groupé, puis une requête UPDATE par statut de départ. Les rendez-vous introuvables,
+     * hors du périmètre du médecin connecté ou dont la transition est invalide sont ignorés.
+     * @return les rendez-vous effectivement passés au nouveau statut.
+     */
+    public List<RendezVous> updateStatus(
+        Collection<Long> rdvIds,
+        RendezVousStatus newStatus
+    ) throws SecurityException {
+        // Check authentication
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new SecurityException("Utilisateur non authentifié.");
+        }
+
+        if (newStatus == null) {
+            throw new IllegalArgumentException("Le nouveau statut est requis.");
+        }
+        if (rdvIds == null || rdvIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<RendezVousStatus, List<RendezVous>> byStatus = new EnumMap<>(
+            RendezVousStatus.class
+        );
+        for (RendezVous rdv : rdvDAO.findByIds(rdvIds)) {
+            // Doctors can only modify their own appointments
+            if (context.getRole() == Role.MEDECIN) {
+                Medecin medecin = context.getMedecinReference();
+                if (
+                    medecin == null ||
+                    !medecin.getId().equals(rdv.getMedecin().getId())
+                ) {
+                    continue;
+                }
+            }
+            if (
+                rdv.getStatus() == newStatus ||
+                !isValidStatusTransition(rdv.getStatus(), newStatus)
+            ) {
+                continue;
+            }
+            byStatus
+                .computeIfAbsent(rdv.getStatus(), s -> new ArrayList<>())
+                .add(rdv);
+        }
+
+        List<RendezVous> updated = new ArrayList<>();
+        for (Map.Entry<RendezVousStatus, List<RendezVous>> entry : byStatus.entrySet()) {
+            List<Long> ids = new ArrayList<>(entry.getValue().size());
+            for (RendezVous rdv : entry.getValue()) {
+                ids.add(rdv.getId());
+            }
+            int count = rdvDAO.updateStatus(ids, entry.getKey(), newStatus);
+            if (count == ids.size()) {
+                for (RendezVous rdv : entry.getValue()) {
+                    rdv.setStatus(newStatus);
+                    updated.add(rdv);
+                }
+            } else {
+                // Modifiés entre-temps : relire pour ne renvoyer que les RDV réellement passés
+                for (RendezVous rdv : rdvDAO.findByIds(ids)) {
+                    if (rdv.getStatus() == newStatus) {
+                        updated.add(rdv);
+                    }
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Charge plusieurs rendez-vous (patient et médecin inclus) en une requête.
+     */
+    public List<RendezVous> findByIds(Collection<Long> rdvIds) {
+        if (rdvIds == null || rdvIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return rdvDAO.findByIds(rdvIds);
+    }
+
     /**
      * Check if current user can modify this appointment
      */
     public boolean canModifyAppointment(Long rdvId) {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
 
-        User user = UserSession.getInstance().getUser();
-        Role role = user.getRole();
-
         // ADMIN can modify any appointment
-        if (role == Role.ADMIN) {
+        if (context.has(Permission.APPOINTMENT_MODIFY_ALL)) {
             return true;
         }
 
-        // SEC can only modify appointments for their associated doctor
-        if (role == Role.SEC) {
-            RendezVous rdv = rdvDAO.findById(rdvId);
-            if (rdv == null) {
-                return false;
-            }
-            Medecin userMedecin = user.getMedecin();
-            return (
-                userMedecin != null &&
-                userMedecin.getId().equals(rdv.getMedecin().getId())
-            );
+        return canModifyAppointment(rdvDAO.findById(rdvId));
+    }
+
+    /**
+     * Check if current user can modify this appointment, already loaded
+     * (no query, usable while rendering the agenda)
+     */
+    public boolean canModifyAppointment(RendezVous rdv) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null || rdv == null) {
+            return false;
         }
 
-        // Doctors can only modify their own appointments
-        if (role == Role.MEDECIN) {
-            RendezVous rdv = rdvDAO.findById(rdvId);
-            if (rdv == null) {
-                return false;
-            }
-            Medecin medecin = user.getMedecin();
-            return (
-                medecin != null &&
-                medecin.getId().equals(rdv.getMedecin().getId())
-            );
+        // ADMIN can modify any appointment
+        if (context.has(Permission.APPOINTMENT_MODIFY_ALL)) {
+            return true;
         }
 
-        return false;
+        // SEC and doctors can only modify appointments of their associated doctor
+        return rdv.getMedecin() != null && context.isMedecin(rdv.getMedecin().getId());
     }
 
     /**
      * Check if current user can create appointments
      */
     public boolean canCreateAppointment() {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
-        Role role = UserSession.getInstance().getUser().getRole();
-        return role == Role.SEC || role == Role.ADMIN;
+        return context.has(Permission.APPOINTMENT_CREATE);
     }
 
     /**
@@ -1,70 +1,80 @@
 package com.mediclinic.service;
 
+import com.mediclinic.util.BlobStore;
+import com.mediclinic.util.DeferredBlobStore;
+import com.mediclinic.util.FileSystemBlobStore;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import javax.imageio.ImageIO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Service for managing doctor electronic signatures.
  * Handles signature storage, retrieval, and validation.
+ * Signatures are kept in a {@link BlobStore} under the key medecin_{id}.png; by default
+ * a sharded store in signatures/, into which flat files from older versions are imported.
  */
 public class SignatureService {
 
+    private static final Logger LOG = LogManager.getLogger(SignatureService.class);
+
     private static final String SIGNATURES_DIRECTORY = "signatures";
     private static final String SIGNATURE_FORMAT = "png";
     private static final String SIGNATURE_EXTENSION = ".png";
     private static final String SIGNATURE_PREFIX = "medecin_";
 
-    static {
-        // Ensure signatures directory exists on service initialization
-        try {
-            Path signaturesPath = Paths.get(SIGNATURES_DIRECTORY);
-            if (!Files.exists(signaturesPath)) {
-                Files.createDirectories(signaturesPath);
-                System.out.println(
-                    "Created signatures directory: " +
-                        signaturesPath.toAbsolutePath()
-                );
-            }
-        } catch (IOException e) {
-            System.err.println(
-                "Error creating signatures directory: " + e.getMessage()
-            );
-            e.printStackTrace();
-        }
-    }
+    private static final ExecutorService SIGNATURE_LOADER =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "signature-loader");
+            t.setDaemon(true);
+            return t;
+        });
+
+    private static BlobStore defaultStore;
+
+    private final BlobStore store;
 
     public SignatureService() {
-        // Ensure directory exists
-        createSignaturesDirectory();
+        this(getDefaultStore());
+    }
+
+    public SignatureService(BlobStore store) {
+        this.store = store;
     }
 
     /**
-     * Creates the signatures directory if it doesn't exist
+     * Shared store over the signatures directory, opened (manifest loaded and legacy
+     * files imported) on first access rather than on construction
      */
-    private void createSignaturesDirectory() {
-        try {
-            Path signaturesPath = Paths.get(SIGNATURES_DIRECTORY);
-            if (!Files.exists(signaturesPath)) {
-                Files.createDirectories(signaturesPath);
-                System.out.println(
-                    "Created signatures directory: " +
-                        signaturesPath.toAbsolutePath()
+    private static synchronized BlobStore getDefaultStore() {
+        if (defaultStore == null) {
+            defaultStore = new DeferredBlobStore(() -> {
+                FileSystemBlobStore fileStore = new FileSystemBlobStore(
+                    Paths.get(SIGNATURES_DIRECTORY)
                 );
-            }
-        } catch (IOException e) {
-            System.err.println(
-                "Error creating signatures directory: " + e.getMessage()
-            );
-            e.printStackTrace();
+                int imported = fileStore.importLegacyFiles(name ->
+                    name.startsWith(SIGNATURE_PREFIX) &&
+                    name.endsWith(SIGNATURE_EXTENSION)
+                );
+                if (imported > 0) {
+                    LOG.info("Signatures imported into the store count={}", imported);
+                }
+                return fileStore;
+            });
         }
+        return defaultStore;
     }
 
     /**
@@ -75,21 +85,16 @@ public class SignatureService {
      */
     public boolean saveSignature(Long medecinId, WritableImage signature) {
         if (medecinId == null) {
-            System.err.println("ERROR: Medecin ID cannot be null");
+            LOG.warn("Medecin ID cannot be null");
             return false;
         }
 
         if (signature == null) {
-            System.err.println("ERROR: Signature image cannot be null");
+            LOG.warn("Signature image cannot be null medecinId={}", medecinId);
             return false;
         }
 
         try {
-            File outputFile = getSignatureFile(medecinId);
-            System.out.println(
-                "DEBUG: Saving signature to: " + outputFile.getAbsolutePath()
-            );
-
             // Convert JavaFX WritableImage to BufferedImage
             BufferedImage bufferedImage = SwingFXUtils.fromFXImage(
                 signature,
@@ -99,33 +104,30 @@ public class SignatureService {
             // Check if image needs alpha removal (though PNG supports alpha)
             // For consistency with photo service, we could convert to RGB
             // But PNG supports transparency, which is good for signatures
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
             boolean writeSuccess = ImageIO.write(
                 bufferedImage,
                 SIGNATURE_FORMAT,
-                outputFile
+                png
             );
 
             if (writeSuccess) {
-                System.out.println(
-                    "SUCCESS: Signature saved to " +
-                        outputFile.getAbsolutePath() +
-                        " (size: " +
-                        outputFile.length() +
-                        " bytes)"
+                BlobStore.BlobInfo info = store.put(
+                    getSignatureKey(medecinId),
+                    png.toByteArray()
+                );
+                LOG.debug(
+                    "Signature saved medecinId={} bytes={}",
+                    medecinId,
+                    info.getSize()
                 );
                 return true;
             } else {
-                System.err.println(
-                    "ERROR: ImageIO.write returned false - no suitable writer found for format: " +
-                        SIGNATURE_FORMAT
-                );
+                LOG.error("No ImageIO writer found for format={}", SIGNATURE_FORMAT);
                 return false;
             }
         } catch (IOException e) {
-            System.err.println(
-                "ERROR: IOException saving signature: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error saving signature medecinId={}", medecinId, e);
             return false;
         }
     }
@@ -137,36 +139,26 @@ public class SignatureService {
      */
     public Image loadSignature(Long medecinId) {
         if (medecinId == null) {
-            System.err.println("ERROR: Medecin ID cannot be null");
+            LOG.warn("Medecin ID cannot be null");
             return null;
         }
 
-        File signatureFile = getSignatureFile(medecinId);
-
-        if (!signatureFile.exists()) {
-            System.out.println(
-                "INFO: No signature found for medecin " + medecinId
-            );
-            return null;
-        }
+        try (InputStream in = store.open(getSignatureKey(medecinId))) {
+            if (in == null) {
+                LOG.debug("No signature found medecinId={}", medecinId);
+                return null;
+            }
 
-        try {
-            BufferedImage bufferedImage = ImageIO.read(signatureFile);
-            if (bufferedImage == null) {
-                System.err.println("ERROR: Failed to read signature image");
+            Image fxImage = new Image(in);
+            if (fxImage.isError()) {
+                LOG.error("Failed to decode signature image medecinId={}", medecinId);
                 return null;
             }
 
-            Image fxImage = SwingFXUtils.toFXImage(bufferedImage, null);
-            System.out.println(
-                "SUCCESS: Loaded signature for medecin " + medecinId
-            );
+            LOG.debug("Signature loaded medecinId={}", medecinId);
             return fxImage;
         } catch (IOException e) {
-            System.err.println(
-                "ERROR: Failed to load signature: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Failed to load signature medecinId={}", medecinId, e);
             return null;
         }
     }
@@ -178,73 +170,92 @@ public class SignatureService {
      */
     public BufferedImage loadSignatureAsBufferedImage(Long medecinId) {
         if (medecinId == null) {
-            System.err.println("ERROR: Medecin ID cannot be null");
+            LOG.warn("Medecin ID cannot be null");
             return null;
         }
 
-        File signatureFile = getSignatureFile(medecinId);
-
-        if (!signatureFile.exists()) {
-            System.out.println(
-                "INFO: No signature found for medecin " + medecinId
-            );
-            return null;
-        }
+        try (InputStream in = store.open(getSignatureKey(medecinId))) {
+            if (in == null) {
+                LOG.debug("No signature found medecinId={}", medecinId);
+                return null;
+            }
 
-        try {
-            BufferedImage bufferedImage = ImageIO.read(signatureFile);
+            BufferedImage bufferedImage = ImageIO.read(in);
             if (bufferedImage == null) {
-                System.err.println("ERROR: Failed to read signature image");
+                LOG.error("Failed to decode signature image medecinId={}", medecinId);
                 return null;
             }
 
-            System.out.println(
-                "SUCCESS: Loaded signature as BufferedImage for medecin " +
-                    medecinId
-            );
+            LOG.debug("Signature loaded as BufferedImage medecinId={}", medecinId);
             return bufferedImage;
         } catch (IOException e) {
-            System.err.println(
-                "ERROR: Failed to load signature: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Failed to load signature medecinId={}", medecinId, e);
             return null;
         }
     }
 
     /**
-     * Gets the file path for a doctor's signature
+     * Loads a doctor's signature as encoded PNG bytes (for PDF generation)
      * @param medecinId the doctor's ID
-     * @return absolute path to the signature file
+     * @return PNG bytes of the signature, or null if not found
      */
-    public String getSignatureFilePath(Long medecinId) {
-        return getSignatureFile(medecinId).getAbsolutePath();
+    public byte[] loadSignatureBytes(Long medecinId) {
+        if (medecinId == null) {
+            return null;
+        }
+
+        try {
+            return store.read(getSignatureKey(medecinId));
+        } catch (IOException e) {
+            LOG.error("Failed to load signature medecinId={}", medecinId, e);
+            return null;
+        }
     }
 
     /**
      * Checks if a doctor has a saved signature
      * @param medecinId the doctor's ID
-     * @return true if signature exists, false otherwise
+     * @return true if signature exists, false otherwise (including when the
+     *         signature store cannot be opened)
      */
     public boolean hasSignature(Long medecinId) {
         if (medecinId == null) {
             return false;
         }
 
-        File signatureFile = getSignatureFile(medecinId);
-        boolean exists = signatureFile.exists() && signatureFile.length() > 0;
-
-        if (exists) {
-            System.out.println(
-                "INFO: Signature exists for medecin " +
-                    medecinId +
-                    " (" +
-                    signatureFile.length() +
-                    " bytes)"
-            );
+        try {
+            // Manifest lookup, no filesystem access once the store is open
+            BlobStore.BlobInfo info = store.stat(getSignatureKey(medecinId));
+            return info != null && info.getSize() > 0;
+        } catch (UncheckedIOException e) {
+            LOG.error("Failed to open signature store medecinId={}", medecinId, e);
+            return false;
         }
+    }
 
-        return exists;
+    /**
+     * Checks in the background if a doctor has a saved signature, for callers on
+     * the JavaFX thread (the first check opens the signature store)
+     * @param medecinId the doctor's ID
+     * @return a future completed with true if the signature exists
+     */
+    public CompletableFuture<Boolean> hasSignatureAsync(Long medecinId) {
+        return CompletableFuture.supplyAsync(
+            () -> hasSignature(medecinId),
+            SIGNATURE_LOADER
+        );
+    }
+
+    /**
+     * Loads a doctor's signature in the background, for callers on the JavaFX thread
+     * @param medecinId the doctor's ID
+     * @return a future completed with the signature, or null if there is none
+     */
+    public CompletableFuture<Image> loadSignatureAsync(Long medecinId) {
+        return CompletableFuture.supplyAsync(
+            () -> hasSignature(medecinId) ? loadSignature(medecinId) : null,
+            SIGNATURE_LOADER
+        );
     }
 
     /**
@@ -254,37 +265,19 @@ public class SignatureService {
      */
     public boolean deleteSignature(Long medecinId) {
         if (medecinId == null) {
-            System.err.println("ERROR: Medecin ID cannot be null");
+            LOG.warn("Medecin ID cannot be null");
             return false;
         }
 
-        File signatureFile = getSignatureFile(medecinId);
-
-        if (!signatureFile.exists()) {
-            System.out.println(
-                "INFO: No signature to delete for medecin " + medecinId
-            );
-            return true; // Nothing to delete is considered success
-        }
-
         try {
-            boolean deleted = signatureFile.delete();
-            if (deleted) {
-                System.out.println(
-                    "SUCCESS: Deleted signature for medecin " + medecinId
-                );
+            if (store.delete(getSignatureKey(medecinId))) {
+                LOG.debug("Signature deleted medecinId={}", medecinId);
             } else {
-                System.err.println(
-                    "ERROR: Failed to delete signature file: " +
-                        signatureFile.getAbsolutePath()
-                );
+                LOG.debug("No signature to delete medecinId={}", medecinId);
             }
-            return deleted;
+            return true; // Nothing to delete is considered success
         } catch (Exception e) {
-            System.err.println(
-                "ERROR: Exception deleting signature: " + e.getMessage()
-            );
-            e.printStackTrace();
+            LOG.error("Error deleting signature medecinId={}", medecinId, e);
             return false;
         }
     }
@@ -296,7 +289,7 @@ public class SignatureService {
      */
     public boolean validateSignature(WritableImage signature) {
         if (signature == null) {
-            System.err.println("ERROR: Signature image is null");
+            LOG.warn("Signature image is null");
             return false;
         }
 
@@ -305,35 +298,27 @@ public class SignatureService {
 
         // Check minimum dimensions (signature should be at least 50x20 pixels)
         if (width < 50 || height < 20) {
-            System.err.println(
-                "ERROR: Signature too small (" + width + "x" + height + ")"
-            );
+            LOG.warn("Signature too small size={}x{}", width, height);
             return false;
         }
 
         // Check maximum dimensions (reasonable limit)
         if (width > 2000 || height > 1000) {
-            System.err.println(
-                "ERROR: Signature too large (" + width + "x" + height + ")"
-            );
+            LOG.warn("Signature too large size={}x{}", width, height);
             return false;
         }
 
-        System.out.println(
-            "INFO: Signature validated (" + width + "x" + height + ")"
-        );
+        LOG.debug("Signature validated size={}x{}", width, height);
         return true;
     }
 
     /**
-     * Gets the File object for a doctor's signature
+     * Gets the store key of a doctor's signature
      * @param medecinId the doctor's ID
-     * @return File object for the signature
+     * @return key of the signature (medecin_{id}.png)
      */
-    private File getSignatureFile(Long medecinId) {
-        String filename =
-            SIGNATURE_PREFIX + medecinId + SIGNATURE_EXTENSION;
-        return new File(SIGNATURES_DIRECTORY, filename);
+    private String getSignatureKey(Long medecinId) {
+        return SIGNATURE_PREFIX + medecinId + SIGNATURE_EXTENSION;
     }
 
     /**
@@ -360,28 +345,22 @@ public class SignatureService {
      * @return String with signature statistics
      */
     public String getSignatureStats() {
-        File signaturesDir = new File(SIGNATURES_DIRECTORY);
-
-        if (!signaturesDir.exists() || !signaturesDir.isDirectory()) {
-            return "Signatures directory not found";
-        }
-
-        File[] signatureFiles = signaturesDir.listFiles(
-            (dir, name) -> name.endsWith(SIGNATURE_EXTENSION)
+        Collection<BlobStore.BlobInfo> signatures = store.list(
+            SIGNATURE_PREFIX
         );
 
-        if (signatureFiles == null || signatureFiles.length == 0) {
+        if (signatures.isEmpty()) {
             return "No signatures stored";
         }
 
         long totalSize = 0;
-        for (File file : signatureFiles) {
-            totalSize += file.length();
+        for (BlobStore.BlobInfo info : signatures) {
+            totalSize += info.getSize();
         }
 
         return String.format(
             "%d signature(s) stored, total size: %d KB",
-            signatureFiles.length,
+            signatures.size(),
             totalSize / 1024
         );
     }
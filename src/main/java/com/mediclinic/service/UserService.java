@@ -4,7 +4,7 @@ import com.mediclinic.dao.UserDAO;
 import com.mediclinic.model.Role;
 import com.mediclinic.model.User;
 import com.mediclinic.model.Medecin;
-import org.mindrot.jbcrypt.BCrypt;
+import com.mediclinic.util.PasswordHasher;
 
 import java.util.List;
 
@@ -30,7 +30,7 @@ public class UserService {
             medecin = new MedecinService().findById(medecin.getId());
         }
         
-        String hashed = BCrypt.hashpw(plainPassword, BCrypt.gensalt());
+        String hashed = PasswordHasher.hash(plainPassword);
         User newUser = new User(username, hashed, role);
         newUser.setMedecin(medecin);
         return userDAO.save(newUser);
@@ -50,12 +50,12 @@ public class UserService {
         }
 
         // Verify old password
-        if (oldPassword != null && !BCrypt.checkpw(oldPassword, user.getPasswordHash())) {
+        if (oldPassword != null && !PasswordHasher.matches(oldPassword, user.getPasswordHash())) {
             throw new IllegalArgumentException("Ancien mot de passe incorrect.");
         }
 
         // Hash and update new password
-        String hashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
+        String hashedPassword = PasswordHasher.hash(newPassword);
         user.setPasswordHash(hashedPassword);
         userDAO.save(user);
     }
@@ -114,7 +114,7 @@ public class UserService {
 
         // Hash password if it's not already hashed
         if (user.getPasswordHash() != null && !user.getPasswordHash().startsWith("$2a$")) {
-            String hashed = BCrypt.hashpw(user.getPasswordHash(), BCrypt.gensalt());
+            String hashed = PasswordHasher.hash(user.getPasswordHash());
             user.setPasswordHash(hashed);
         }
 
@@ -143,7 +143,7 @@ public class UserService {
             throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris.");
         }
 
-        String hashed = BCrypt.hashpw(plainPassword, BCrypt.gensalt());
+        String hashed = PasswordHasher.hash(plainPassword);
         User newUser = new User(username, hashed, role);
         return userDAO.save(newUser);
     }
@@ -0,0 +1,200 @@
+package com.mediclinic.util;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réglages typés, résolus une fois par version de la configuration. Immuables : les
+ * chemins fréquents lisent des champs plutôt que de relire les propriétés. Une
+ * modification de application-local.properties produit une nouvelle instance (voir
+ * {@link ConfigurationManager#addListener}).
+ */
+public final class AppSettings {
+
+    private final Smtp smtp;
+    private final Pool pool;
+    private final Cache cache;
+    private final Reminder reminder;
+
+    AppSettings(ConfigurationManager.Snapshot snapshot) {
+        this.smtp = new Smtp(snapshot);
+        this.pool = new Pool(snapshot);
+        this.cache = new Cache(snapshot);
+        this.reminder = new Reminder(snapshot);
+    }
+
+    /**
+     * Réglages de la configuration en vigueur.
+     */
+    public static AppSettings current() {
+        return ConfigurationManager.getInstance().getSettings();
+    }
+
+    public Smtp getSmtp() {
+        return smtp;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Reminder getReminder() {
+        return reminder;
+    }
+
+    /**
+     * Serveur d'envoi et identifiants (email.*).
+     */
+    public static final class Smtp {
+
+        // Valeurs d'exemple de application.properties, à remplacer en local
+        private static final String SAMPLE_USERNAME = "votre.email@gmail.com";
+        private static final String SAMPLE_PASSWORD = "abcd efgh";
+
+        private final String host;
+        private final int port;
+        private final boolean auth;
+        private final boolean startTls;
+        private final String sslTrust;
+        private final String username;
+        private final String password;
+
+        private Smtp(ConfigurationManager.Snapshot snapshot) {
+            this.host = snapshot.get("email.smtp.host", "smtp.gmail.com");
+            this.port = snapshot.getInt("email.smtp.port", 587);
+            this.auth = snapshot.getBoolean("email.smtp.auth", true);
+            this.startTls = snapshot.getBoolean("email.smtp.starttls.enable", true);
+            this.sslTrust = snapshot.get("email.smtp.ssl.trust", "smtp.gmail.com");
+            this.username = snapshot.get("email.username", null);
+            this.password = snapshot.get("email.password", null);
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public boolean isAuth() {
+            return auth;
+        }
+
+        public boolean isStartTls() {
+            return startTls;
+        }
+
+        public String getSslTrust() {
+            return sslTrust;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public boolean isUsernameConfigured() {
+            return username != null && !username.equals(SAMPLE_USERNAME);
+        }
+
+        public boolean isPasswordConfigured() {
+            return password != null && !password.contains(SAMPLE_PASSWORD);
+        }
+
+        public boolean isConfigured() {
+            return isUsernameConfigured() && isPasswordConfigured();
+        }
+
+        /**
+         * Propriétés jakarta.mail de la session d'envoi.
+         */
+        public Properties toMailProperties() {
+            Properties prop = new Properties();
+            prop.put("mail.smtp.host", host);
+            prop.put("mail.smtp.port", String.valueOf(port));
+            prop.put("mail.smtp.auth", String.valueOf(auth));
+            prop.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+            prop.put("mail.smtp.ssl.trust", sslTrust);
+            return prop;
+        }
+    }
+
+    /**
+     * Pool de connexions JDBC (database.pool.*), lu au démarrage de Hibernate :
+     * une modification ne prend effet qu'au prochain lancement.
+     */
+    public static final class Pool {
+
+        private final Integer size;
+
+        private Pool(ConfigurationManager.Snapshot snapshot) {
+            int value = snapshot.getInt("database.pool.size", 0);
+            this.size = value > 0 ? value : null;
+        }
+
+        /**
+         * Nombre de connexions, null pour garder celui de hibernate.cfg.xml.
+         */
+        public Integer getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Caches de l'application.
+     */
+    public static final class Cache {
+
+        private final long loginMillis;
+
+        private Cache(ConfigurationManager.Snapshot snapshot) {
+            this.loginMillis = TimeUnit.MINUTES.toMillis(
+                Math.max(0, snapshot.getInt("security.login.cache.minutes", 15))
+            );
+        }
+
+        /**
+         * Durée pendant laquelle une connexion vérifiée évite un nouveau calcul BCrypt,
+         * 0 si le cache est désactivé.
+         */
+        public long getLoginMillis() {
+            return loginMillis;
+        }
+    }
+
+    /**
+     * Rappels de rendez-vous par email (reminder.*).
+     */
+    public static final class Reminder {
+
+        private final long intervalMinutes;
+        private final long windowHours;
+
+        private Reminder(ConfigurationManager.Snapshot snapshot) {
+            this.intervalMinutes = Math.max(1, snapshot.getInt("reminder.interval.minutes", 60));
+            this.windowHours = Math.max(1, snapshot.getInt("reminder.window.hours", 24));
+        }
+
+        /**
+         * Délai entre deux passages du planificateur.
+         */
+        public long getIntervalMinutes() {
+            return intervalMinutes;
+        }
+
+        /**
+         * Les rendez-vous qui commencent dans ce délai reçoivent un rappel.
+         */
+        public long getWindowHours() {
+            return windowHours;
+        }
+    }
+}
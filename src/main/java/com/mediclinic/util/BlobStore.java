@@ -0,0 +1,82 @@
+package com.mediclinic.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * Stockage de fichiers binaires (photos, signatures) adressés par une clé logique
+ * ("patient_12.jpg"). Les implémentations tiennent un index en mémoire : les tests
+ * d'existence ne touchent pas le support de stockage.
+ */
+public interface BlobStore {
+
+    /**
+     * Métadonnées d'un blob.
+     */
+    final class BlobInfo {
+
+        private final String key;
+        private final String hash;
+        private final long size;
+        private final long lastModified;
+
+        public BlobInfo(String key, String hash, long size, long lastModified) {
+            this.key = key;
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Empreinte SHA-256 (hexadécimal) du contenu.
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    boolean exists(String key);
+
+    /**
+     * @return les métadonnées du blob, ou null s'il n'existe pas.
+     */
+    BlobInfo stat(String key);
+
+    /**
+     * Enregistre (ou remplace) le contenu associé à la clé ; l'écriture est atomique.
+     */
+    BlobInfo put(String key, byte[] data) throws IOException;
+
+    /**
+     * @return le contenu, ou null si le blob n'existe pas.
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * @return le contenu, ou null si le blob n'existe pas.
+     */
+    byte[] read(String key) throws IOException;
+
+    /**
+     * @return true si le blob existait.
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Blobs dont la clé commence par le préfixe donné.
+     */
+    Collection<BlobInfo> list(String keyPrefix);
+}
@@ -2,16 +2,119 @@ package com.mediclinic.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * Configuration de l'application : application.properties, surchargé par
+ * application-local.properties, lui-même surchargé par les propriétés système
+ * (-Dcle=valeur) et les variables d'environnement (CLE_AVEC_SOULIGNES).
+ *
+ * La configuration chargée est un instantané immuable, remplacé d'un bloc à chaque
+ * rechargement : chaque clé n'est résolue qu'une fois par instantané et les réglages
+ * typés ({@link AppSettings}) sont calculés au chargement. Après
+ * {@link #startWatching()}, une modification de application-local.properties recharge
+ * la configuration et prévient les abonnés ({@link #addListener}).
+ */
 public class ConfigurationManager {
 
-    private static ConfigurationManager instance;
-    private Properties properties;
+    private static final Logger LOG = LogManager.getLogger(ConfigurationManager.class);
+
+    private static final String DEFAULT_FILE = "application.properties";
+    private static final String LOCAL_FILE = "application-local.properties";
+    // Emplacement explicite du fichier local (sinon celui trouvé dans le classpath)
+    private static final String LOCAL_FILE_PROPERTY = "config.local.file";
+
+    // Les éditeurs écrivent souvent un fichier en plusieurs fois
+    private static final long RELOAD_DELAY_MS = 300;
+
+    private static volatile ConfigurationManager instance;
+
+    private final Path localFile;
+    private final List<Consumer<AppSettings>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+    private Thread watcher;
+
+    /**
+     * Propriétés chargées et valeurs déjà résolues.
+     */
+    static final class Snapshot {
+
+        private final Properties properties;
+        private final ConcurrentHashMap<String, Optional<String>> resolved = new ConcurrentHashMap<>();
+        private final AppSettings settings;
+
+        private Snapshot(Properties properties) {
+            this.properties = properties;
+            this.settings = new AppSettings(this);
+        }
+
+        String get(String key) {
+            return resolved.computeIfAbsent(key, this::resolve).orElse(null);
+        }
+
+        String get(String key, String defaultValue) {
+            String value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        int getInt(String key, int defaultValue) {
+            String value = get(key);
+            if (value != null) {
+                try {
+                    return Integer.parseInt(value.trim());
+                } catch (NumberFormatException e) {
+                    LOG.warn("Valeur entière invalide key={} value={}", key, value);
+                }
+            }
+            return defaultValue;
+        }
+
+        boolean getBoolean(String key, boolean defaultValue) {
+            String value = get(key);
+            if (value != null) {
+                return Boolean.parseBoolean(value.trim());
+            }
+            return defaultValue;
+        }
+
+        private Optional<String> resolve(String key) {
+            // -Dkey=valeur prime (lancements de bancs d'essai, tests)
+            String systemValue = System.getProperty(key);
+            if (systemValue != null && !systemValue.isEmpty()) {
+                return Optional.of(systemValue);
+            }
+
+            String envKey = key.toUpperCase().replace('.', '_');
+            String envValue = System.getenv(envKey);
+
+            if (envValue != null && !envValue.isEmpty()) {
+                return Optional.of(envValue);
+            }
+
+            return Optional.ofNullable(properties.getProperty(key));
+        }
+    }
 
     private ConfigurationManager() {
-        properties = new Properties();
-        loadProperties();
+        localFile = locateLocalFile();
+        snapshot = loadSnapshot();
     }
 
     public static ConfigurationManager getInstance() {
@@ -25,99 +128,229 @@ public class ConfigurationManager {
         return instance;
     }
 
-    private void loadProperties() {
+    /**
+     * Fichier local sur disque, null s'il n'est pas surveillable (absent, ou dans un jar).
+     */
+    private Path locateLocalFile() {
+        String explicit = System.getProperty(LOCAL_FILE_PROPERTY);
+        if (explicit == null || explicit.isEmpty()) {
+            explicit = System.getenv(LOCAL_FILE_PROPERTY.toUpperCase().replace('.', '_'));
+        }
+        if (explicit != null && !explicit.isEmpty()) {
+            return Paths.get(explicit).toAbsolutePath();
+        }
+
+        URL url = getClass().getClassLoader().getResource(LOCAL_FILE);
+        if (url != null && "file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                LOG.warn("Fichier local non surveillable url={}", url);
+            }
+        }
+        return null;
+    }
+
+    private Snapshot loadSnapshot() {
+        Properties properties = new Properties();
         try {
             InputStream defaultProps = getClass()
                 .getClassLoader()
-                .getResourceAsStream("application.properties");
+                .getResourceAsStream(DEFAULT_FILE);
 
             if (defaultProps != null) {
                 properties.load(defaultProps);
                 defaultProps.close();
             }
 
-            InputStream localProps = getClass()
-                .getClassLoader()
-                .getResourceAsStream("application-local.properties");
+            if (localFile != null) {
+                if (Files.isRegularFile(localFile)) {
+                    try (InputStream localProps = Files.newInputStream(localFile)) {
+                        properties.load(localProps);
+                    }
+                    LOG.info("Configuration locale chargée path={}", localFile);
+                }
+            } else {
+                InputStream localProps = getClass()
+                    .getClassLoader()
+                    .getResourceAsStream(LOCAL_FILE);
 
-            if (localProps != null) {
-                properties.load(localProps);
-                localProps.close();
-                System.out.println("Loaded local configuration from application-local.properties");
+                if (localProps != null) {
+                    properties.load(localProps);
+                    localProps.close();
+                    LOG.info("Configuration locale chargée depuis le classpath file={}", LOCAL_FILE);
+                }
             }
 
         } catch (IOException e) {
-            System.err.println("Error loading configuration: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Erreur de chargement de la configuration", e);
         }
+        return new Snapshot(properties);
     }
 
-    public String getProperty(String key) {
-        String envKey = key.toUpperCase().replace('.', '_');
-        String envValue = System.getenv(envKey);
-
-        if (envValue != null && !envValue.isEmpty()) {
-            return envValue;
-        }
+    /**
+     * Réglages typés de la configuration en vigueur.
+     */
+    public AppSettings getSettings() {
+        return snapshot.settings;
+    }
 
-        return properties.getProperty(key);
+    public String getProperty(String key) {
+        return snapshot.get(key);
     }
 
     public String getProperty(String key, String defaultValue) {
-        String value = getProperty(key);
-        return value != null ? value : defaultValue;
+        return snapshot.get(key, defaultValue);
     }
 
     public int getIntProperty(String key, int defaultValue) {
-        String value = getProperty(key);
-        if (value != null) {
-            try {
-                return Integer.parseInt(value);
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid integer value for " + key + ": " + value);
-            }
-        }
-        return defaultValue;
+        return snapshot.getInt(key, defaultValue);
     }
 
     public boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = getProperty(key);
-        if (value != null) {
-            return Boolean.parseBoolean(value);
-        }
-        return defaultValue;
+        return snapshot.getBoolean(key, defaultValue);
     }
 
     public String getEmailUsername() {
-        return getProperty("email.username");
+        return getSettings().getSmtp().getUsername();
     }
 
     public String getEmailPassword() {
-        return getProperty("email.password");
+        return getSettings().getSmtp().getPassword();
     }
 
     public String getSmtpHost() {
-        return getProperty("email.smtp.host", "smtp.gmail.com");
+        return getSettings().getSmtp().getHost();
     }
 
     public int getSmtpPort() {
-        return getIntProperty("email.smtp.port", 587);
+        return getSettings().getSmtp().getPort();
     }
 
     public boolean isSmtpAuthEnabled() {
-        return getBooleanProperty("email.smtp.auth", true);
+        return getSettings().getSmtp().isAuth();
     }
 
     public boolean isStartTlsEnabled() {
-        return getBooleanProperty("email.smtp.starttls.enable", true);
+        return getSettings().getSmtp().isStartTls();
     }
 
     public String getSmtpSslTrust() {
-        return getProperty("email.smtp.ssl.trust", "smtp.gmail.com");
+        return getSettings().getSmtp().getSslTrust();
+    }
+
+    /**
+     * Abonne un écouteur aux rechargements. Il est appelé avec les nouveaux réglages sur
+     * le thread qui recharge (thread de surveillance) : passer par Platform.runLater pour
+     * toucher à l'interface.
+     */
+    public void addListener(Consumer<AppSettings> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<AppSettings> listener) {
+        listeners.remove(listener);
     }
 
+    /**
+     * Relit les fichiers et remplace la configuration d'un bloc : un lecteur voit
+     * l'ancienne ou la nouvelle configuration, jamais un mélange des deux.
+     */
     public void reload() {
-        properties.clear();
-        loadProperties();
+        Snapshot next = loadSnapshot();
+        snapshot = next;
+        for (Consumer<AppSettings> listener : listeners) {
+            try {
+                listener.accept(next.settings);
+            } catch (RuntimeException e) {
+                LOG.error("Échec d'un abonné au rechargement de la configuration", e);
+            }
+        }
+    }
+
+    /**
+     * Surveille application-local.properties et recharge la configuration à chaque
+     * modification (thread démon). Sans effet si le fichier n'est pas sur disque.
+     */
+    public synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        if (localFile == null || localFile.getParent() == null) {
+            LOG.info("Pas de fichier {} sur disque à surveiller", LOCAL_FILE);
+            return;
+        }
+
+        Path directory = localFile.getParent();
+        WatchService watchService;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            );
+        } catch (IOException e) {
+            LOG.warn("Surveillance de la configuration impossible path={}", localFile, e);
+            return;
+        }
+
+        watcher = new Thread(() -> watch(watchService), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOG.info("Surveillance de la configuration path={}", localFile);
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+    }
+
+    private void watch(WatchService watchService) {
+        Path fileName = localFile.getFileName();
+        try (watchService) {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = concernsLocalFile(key, fileName);
+                if (!key.reset()) {
+                    LOG.warn("Répertoire de configuration inaccessible path={}", localFile.getParent());
+                    return;
+                }
+                if (!changed) {
+                    continue;
+                }
+
+                // Regroupe les écritures successives en un seul rechargement
+                Thread.sleep(RELOAD_DELAY_MS);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+
+                reload();
+                LOG.info("Configuration rechargée path={}", localFile);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException | IOException e) {
+            LOG.debug("Surveillance de la configuration arrêtée", e);
+        }
+    }
+
+    private static boolean concernsLocalFile(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (
+                event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                fileName.equals(event.context())
+            ) {
+                changed = true;
+            }
+        }
+        return changed;
     }
 }
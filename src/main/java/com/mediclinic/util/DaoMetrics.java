@@ -0,0 +1,219 @@
+package com.mediclinic.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Mesures des accès à la base par écran et par méthode appelante (DAO ou service) :
+ * nombre d'appels, échecs, latence, requêtes SQL exécutées et entités chargées.
+ * Alimentées par {@link DaoMetricsListener} à la fermeture de chaque session Hibernate,
+ * consultables dans le panneau de diagnostic et en JMX.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+
+    private static final Logger LOG = LogManager.getLogger(DaoMetrics.class);
+
+    public static final String ENABLED_PROPERTY = "diagnostics.dao.enabled";
+    private static final String OBJECT_NAME = "com.mediclinic:type=DaoMetrics";
+    private static final String NO_SCREEN = "-";
+
+    private static final DaoMetrics INSTANCE = new DaoMetrics();
+    private static boolean registered = false;
+
+    // Écran affiché quand la session est ouverte (les chargements d'un écran partent
+    // souvent d'un thread de fond : on retient l'écran courant, pas le thread)
+    private static volatile String currentScreen = NO_SCREEN;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static class Entry {
+
+        private final String screen;
+        private final String method;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        Entry(String screen, String method) {
+            this.screen = screen;
+            this.method = method;
+        }
+    }
+
+    /**
+     * Vue figée des mesures d'un couple (écran, méthode).
+     */
+    public static class Snapshot {
+
+        private final String screen;
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final long statements;
+        private final long rows;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final double totalMillis;
+
+        private Snapshot(Entry entry) {
+            this.screen = entry.screen;
+            this.method = entry.method;
+            this.calls = entry.latency.getCount();
+            this.errors = entry.errors.sum();
+            this.statements = entry.statements.sum();
+            this.rows = entry.rows.sum();
+            this.meanMillis = entry.latency.getMeanMillis();
+            this.p50Millis = entry.latency.getPercentileMillis(0.50);
+            this.p95Millis = entry.latency.getPercentileMillis(0.95);
+            this.p99Millis = entry.latency.getPercentileMillis(0.99);
+            this.maxMillis = entry.latency.getMaxMillis();
+            this.totalMillis = entry.latency.getTotalMillis();
+        }
+
+        public String getScreen() { return screen; }
+        public String getMethod() { return method; }
+        public long getCalls() { return calls; }
+        public long getErrors() { return errors; }
+        public long getStatements() { return statements; }
+        public long getRows() { return rows; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+        public double getTotalMillis() { return totalMillis; }
+    }
+
+    private DaoMetrics() {}
+
+    public static DaoMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationManager.getInstance().getBooleanProperty(
+            ENABLED_PROPERTY,
+            true
+        );
+    }
+
+    /**
+     * Enregistre le MBean auprès du serveur JMX de la plateforme (une seule fois).
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+            registered = true;
+        } catch (JMException e) {
+            LOG.warn("Impossible d'enregistrer le MBean DaoMetrics", e);
+        }
+    }
+
+    public static void setCurrentScreen(String screen) {
+        currentScreen = screen != null ? screen : NO_SCREEN;
+    }
+
+    static String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    void record(
+        String screen,
+        String method,
+        long nanos,
+        long statements,
+        long rows,
+        boolean failed
+    ) {
+        Entry entry = entries.computeIfAbsent(screen + '\u0000' + method, k ->
+            new Entry(screen, method)
+        );
+        entry.latency.recordNanos(nanos);
+        entry.statements.add(statements);
+        entry.rows.add(rows);
+        if (failed) {
+            entry.errors.increment();
+        }
+    }
+
+    /**
+     * Mesures triées par temps total décroissant.
+     */
+    @Override
+    public List<Snapshot> getStatistics() {
+        List<Snapshot> result = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            result.add(new Snapshot(entry));
+        }
+        result.sort(
+            Comparator.comparingDouble(Snapshot::getTotalMillis).reversed()
+        );
+        return result;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.latency.getCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalStatements() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.statements.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(
+            Locale.ROOT,
+            "%-18s %-48s %7s %5s %8s %8s %9s %9s %9s %9s%n",
+            "écran", "méthode", "appels", "err", "requêtes", "entités",
+            "moy ms", "p95 ms", "p99 ms", "max ms"
+        ));
+        for (Snapshot s : getStatistics()) {
+            report.append(String.format(
+                Locale.ROOT,
+                "%-18s %-48s %7d %5d %8d %8d %9.1f %9.1f %9.1f %9.1f%n",
+                s.getScreen(), s.getMethod(), s.getCalls(), s.getErrors(),
+                s.getStatements(), s.getRows(), s.getMeanMillis(),
+                s.getP95Millis(), s.getP99Millis(), s.getMaxMillis()
+            ));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        entries.clear();
+    }
+}
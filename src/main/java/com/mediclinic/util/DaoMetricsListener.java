@@ -0,0 +1,141 @@
+package com.mediclinic.util;
+
+import java.util.Optional;
+import org.hibernate.SessionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Écouteur créé par Hibernate pour chaque session (hibernate.session.events.auto) :
+ * une session correspond à un appel de DAO, de son ouverture à sa fermeture. Compte
+ * les requêtes exécutées et, via {@link #ROW_COUNTER}, les entités chargées, puis
+ * transmet la mesure à {@link DaoMetrics} à la fermeture. Chronomètre aussi chaque
+ * exécution pour {@link QueryDiagnostics} lorsque le détecteur est actif.
+ */
+public class DaoMetricsListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String APP_PACKAGE = "com.mediclinic.";
+    private static final String UTIL_PACKAGE = "com.mediclinic.util.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    // Faux si seul le détecteur de requêtes utilise l'écouteur
+    static volatile boolean metricsEnabled = true;
+
+    // Session en cours sur ce thread, pour rattacher les chargements d'entités
+    private static final ThreadLocal<DaoMetricsListener> CURRENT = new ThreadLocal<>();
+
+    /**
+     * A enregistrer sur POST_LOAD : une entité chargée compte pour une ligne.
+     */
+    public static final PostLoadEventListener ROW_COUNTER = new PostLoadEventListener() {
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            DaoMetricsListener listener = CURRENT.get();
+            if (listener != null) {
+                listener.rows++;
+            }
+        }
+    };
+
+    private final long start = System.nanoTime();
+    private final String screen = DaoMetrics.getCurrentScreen();
+    private final String caller = findCaller();
+    private final DaoMetricsListener previous = CURRENT.get();
+    private long statements;
+    private long rows;
+    private boolean failed;
+    private boolean ended;
+
+    public DaoMetricsListener() {
+        CURRENT.set(this);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        if (QueryDiagnostics.isEnabled()) {
+            QueryDiagnostics.executeStarted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        if (QueryDiagnostics.isEnabled()) {
+            QueryDiagnostics.executeEnded();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        if (QueryDiagnostics.isEnabled()) {
+            QueryDiagnostics.executeStarted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+        if (QueryDiagnostics.isEnabled()) {
+            QueryDiagnostics.executeEnded();
+        }
+    }
+
+    @Override
+    public void transactionCompletion(boolean successful) {
+        if (!successful) {
+            failed = true;
+        }
+    }
+
+    @Override
+    public void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        if (!metricsEnabled) {
+            return;
+        }
+        DaoMetrics.getInstance().record(
+            screen,
+            caller,
+            System.nanoTime() - start,
+            statements,
+            rows,
+            failed
+        );
+    }
+
+    /**
+     * Première méthode de l'application hors util dans la pile (le DAO, ou le service
+     * qui ouvre lui-même sa session).
+     */
+    private static String findCaller() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames ->
+            frames
+                .filter(f ->
+                    f.getClassName().startsWith(APP_PACKAGE) &&
+                    !f.getClassName().startsWith(UTIL_PACKAGE)
+                )
+                .findFirst()
+        );
+        if (frame.isEmpty()) {
+            return "(autre)";
+        }
+        String className = frame.get().getClassName();
+        return (
+            className.substring(className.lastIndexOf('.') + 1) +
+            "." +
+            frame.get().getMethodName()
+        );
+    }
+}
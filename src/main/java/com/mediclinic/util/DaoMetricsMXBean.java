@@ -0,0 +1,20 @@
+package com.mediclinic.util;
+
+import java.util.List;
+
+/**
+ * Statistiques d'accès à la base exposées en JMX (com.mediclinic:type=DaoMetrics),
+ * consultables avec JConsole ou VisualVM.
+ */
+public interface DaoMetricsMXBean {
+
+    List<DaoMetrics.Snapshot> getStatistics();
+
+    long getTotalCalls();
+
+    long getTotalStatements();
+
+    String getReport();
+
+    void reset();
+}
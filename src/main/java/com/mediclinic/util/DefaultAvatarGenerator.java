@@ -1,12 +1,17 @@
 package com.mediclinic.util;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
 /**
- * Utility class to generate default avatar images for patients
+ * Utility class to generate default avatar images for patients.
+ * Rendered avatars are memoized by (kind, size, color) in a bounded LRU cache, so the
+ * same Image instance is returned for identical requests: callers must not draw on it.
  */
 public class DefaultAvatarGenerator {
 
@@ -14,36 +19,53 @@ public class DefaultAvatarGenerator {
     private static final Color BACKGROUND_COLOR = Color.rgb(230, 230, 250);
     private static final Color ICON_COLOR = Color.rgb(100, 100, 120);
 
+    // Sizes used by the patient dialogs and the photo placeholder
+    private static final int[] PREWARM_SIZES = { 120, DEFAULT_SIZE };
+
+    private static final int CACHE_MAX_ENTRIES = 128;
+    private static final Map<String, Image> CACHE = new LinkedHashMap<>(
+        32,
+        0.75f,
+        true
+    ) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > CACHE_MAX_ENTRIES;
+        }
+    };
+
     /**
      * Generates a default avatar image with a person icon
      * @param size the size of the image (width and height)
      * @return JavaFX Image of the default avatar
      */
     public static Image generateDefaultAvatar(int size) {
-        WritableImage image = new WritableImage(size, size);
-        PixelWriter writer = image.getPixelWriter();
+        String key = "default:" + size;
+        Image cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int[] pixels = new int[size * size];
 
         // Fill background
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                writer.setColor(x, y, BACKGROUND_COLOR);
-            }
-        }
+        Arrays.fill(pixels, toArgb(BACKGROUND_COLOR));
 
         // Draw a simple person icon (circle for head + body)
         int centerX = size / 2;
+        int iconColor = toArgb(ICON_COLOR);
 
         // Draw head (circle)
         int headRadius = size / 6;
         int headY = size / 3;
-        drawCircle(writer, centerX, headY, headRadius, ICON_COLOR, size);
+        drawCircle(pixels, centerX, headY, headRadius, iconColor, size);
 
         // Draw body (arc/semicircle)
         int bodyRadius = size / 4;
         int bodyY = (size * 2) / 3;
-        drawSemiCircle(writer, centerX, bodyY, bodyRadius, ICON_COLOR, size);
+        drawSemiCircle(pixels, centerX, bodyY, bodyRadius, iconColor, size);
 
-        return image;
+        return putCached(key, toImage(pixels, size));
     }
 
     /**
@@ -54,23 +76,35 @@ public class DefaultAvatarGenerator {
         return generateDefaultAvatar(DEFAULT_SIZE);
     }
 
+    /**
+     * Renders the default avatar in the sizes used by the UI so the first dialog
+     * does not pay for it. Safe to call from a background thread.
+     */
+    public static void prewarm() {
+        for (int size : PREWARM_SIZES) {
+            generateDefaultAvatar(size);
+        }
+    }
+
     /**
      * Draws a filled circle
      */
     private static void drawCircle(
-        PixelWriter writer,
+        int[] pixels,
         int cx,
         int cy,
         int radius,
-        Color color,
+        int color,
         int imageSize
     ) {
-        for (int y = 0; y < imageSize; y++) {
+        int fromY = Math.max(0, cy - radius);
+        int toY = Math.min(imageSize - 1, cy + radius);
+        for (int y = fromY; y <= toY; y++) {
             for (int x = 0; x < imageSize; x++) {
                 int dx = x - cx;
                 int dy = y - cy;
                 if (dx * dx + dy * dy <= radius * radius) {
-                    writer.setColor(x, y, color);
+                    pixels[y * imageSize + x] = color;
                 }
             }
         }
@@ -80,11 +114,11 @@ public class DefaultAvatarGenerator {
      * Draws a filled semicircle (bottom half)
      */
     private static void drawSemiCircle(
-        PixelWriter writer,
+        int[] pixels,
         int cx,
         int cy,
         int radius,
-        Color color,
+        int color,
         int imageSize
     ) {
         for (int y = cy; y < imageSize && y < cy + radius; y++) {
@@ -92,7 +126,7 @@ public class DefaultAvatarGenerator {
                 int dx = x - cx;
                 int dy = y - cy;
                 if (dx * dx + dy * dy <= radius * radius) {
-                    writer.setColor(x, y, color);
+                    pixels[y * imageSize + x] = color;
                 }
             }
         }
@@ -106,21 +140,23 @@ public class DefaultAvatarGenerator {
      * @return JavaFX Image with colored background and initials
      */
     public static Image generateColoredAvatar(String text, int size) {
-        WritableImage image = new WritableImage(size, size);
-        PixelWriter writer = image.getPixelWriter();
-
         // Generate a color based on the text hash
         int hash = Math.abs(text.hashCode());
         Color bgColor = Color.hsb((hash % 360), 0.5, 0.8);
+        int argb = toArgb(bgColor);
 
-        // Fill background with generated color
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                writer.setColor(x, y, bgColor);
-            }
+        // Keyed by color: names sharing a hue share the image
+        String key = "colored:" + size + ":" + Integer.toHexString(argb);
+        Image cached = getCached(key);
+        if (cached != null) {
+            return cached;
         }
 
-        return image;
+        // Fill background with generated color
+        int[] pixels = new int[size * size];
+        Arrays.fill(pixels, argb);
+
+        return putCached(key, toImage(pixels, size));
     }
 
     /**
@@ -140,4 +176,47 @@ public class DefaultAvatarGenerator {
             (lastName != null ? lastName : "");
         return generateColoredAvatar(fullName, size);
     }
+
+    /**
+     * Writes the whole buffer in one call instead of one setColor per pixel
+     */
+    private static Image toImage(int[] pixels, int size) {
+        WritableImage image = new WritableImage(size, size);
+        image
+            .getPixelWriter()
+            .setPixels(
+                0,
+                0,
+                size,
+                size,
+                PixelFormat.getIntArgbInstance(),
+                pixels,
+                0,
+                size
+            );
+        return image;
+    }
+
+    private static int toArgb(Color color) {
+        return (
+            ((int) Math.round(color.getOpacity() * 255) << 24) |
+            ((int) Math.round(color.getRed() * 255) << 16) |
+            ((int) Math.round(color.getGreen() * 255) << 8) |
+            (int) Math.round(color.getBlue() * 255)
+        );
+    }
+
+    private static Image getCached(String key) {
+        synchronized (CACHE) {
+            return CACHE.get(key);
+        }
+    }
+
+    private static Image putCached(String key, Image image) {
+        synchronized (CACHE) {
+            // Keep the first image rendered if another thread raced us
+            Image existing = CACHE.putIfAbsent(key, image);
+            return existing != null ? existing : image;
+        }
+    }
 }
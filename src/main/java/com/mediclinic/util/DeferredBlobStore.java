@@ -0,0 +1,87 @@
+package com.mediclinic.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * {@link BlobStore} ouvert au premier accès : construire le service qui l'utilise ne
+ * touche pas au disque. L'ouverture (lecture du manifeste, import de l'ancien stockage)
+ * a lieu dans le thread du premier appel, qui doit donc être un thread d'arrière-plan.
+ * Un échec n'est pas retenu : l'accès suivant retente l'ouverture.
+ */
+public class DeferredBlobStore implements BlobStore {
+
+    /**
+     * Ouverture du store réel.
+     */
+    @FunctionalInterface
+    public interface Opener {
+        BlobStore open() throws IOException;
+    }
+
+    private final Opener opener;
+    private volatile BlobStore store;
+
+    public DeferredBlobStore(Opener opener) {
+        this.opener = opener;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return ensureOpenUnchecked().exists(key);
+    }
+
+    @Override
+    public BlobInfo stat(String key) {
+        return ensureOpenUnchecked().stat(key);
+    }
+
+    @Override
+    public BlobInfo put(String key, byte[] data) throws IOException {
+        return ensureOpen().put(key, data);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return ensureOpen().open(key);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        return ensureOpen().read(key);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return ensureOpen().delete(key);
+    }
+
+    @Override
+    public Collection<BlobInfo> list(String keyPrefix) {
+        return ensureOpenUnchecked().list(keyPrefix);
+    }
+
+    private BlobStore ensureOpenUnchecked() {
+        try {
+            return ensureOpen();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BlobStore ensureOpen() throws IOException {
+        BlobStore current = store;
+        if (current == null) {
+            synchronized (this) {
+                current = store;
+                if (current == null) {
+                    current = opener.open();
+                    store = current;
+                }
+            }
+        }
+        return current;
+    }
+}
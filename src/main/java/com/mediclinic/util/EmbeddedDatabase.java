@@ -0,0 +1,132 @@
+package com.mediclinic.util;
+
+import com.mediclinic.model.Role;
+import com.mediclinic.model.User;
+import java.security.SecureRandom;
+import java.util.Base64;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Profil de base embarquée (database.profile=h2) : l'application tourne sur une base H2
+ * en mode MySQL dans le processus, sans serveur MySQL (démonstration, bancs d'essai,
+ * tests d'intégration). Le pilote H2 est ajouté par le profil Maven h2.
+ * Sur une base vide, un compte administrateur est créé et, si demandé, un jeu de
+ * données synthétique est inséré.
+ */
+public class EmbeddedDatabase {
+
+    private static final Logger LOG = LogManager.getLogger(EmbeddedDatabase.class);
+
+    public static final String PROFILE_PROPERTY = "database.profile";
+    public static final String H2_PROFILE = "h2";
+
+    // Fichier local par défaut ; database.url=jdbc:h2:mem:... pour une base en mémoire
+    private static final String DEFAULT_URL =
+        "jdbc:h2:./data/mediclinic;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private static final String SEED_PATIENTS_PROPERTY = "database.seed.patients";
+    private static final String SEED_APPOINTMENTS_PROPERTY = "database.seed.appointments";
+    private static final String ADMIN_USERNAME_PROPERTY = "database.seed.admin.username";
+    private static final String ADMIN_PASSWORD_PROPERTY = "database.seed.admin.password";
+
+    public static boolean isEnabled() {
+        String profile = ConfigurationManager.getInstance().getProperty(
+            PROFILE_PROPERTY
+        );
+        return profile != null && H2_PROFILE.equalsIgnoreCase(profile.trim());
+    }
+
+    /**
+     * Remplace la connexion MySQL de hibernate.cfg.xml par la base H2. Les surcharges
+     * database.url, database.schema.auto... restent appliquées ensuite par HibernateUtil.
+     */
+    public static void configure(Configuration configuration) {
+        configuration.setProperty("hibernate.connection.url", DEFAULT_URL);
+        configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.password", "");
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "update");
+    }
+
+    /**
+     * Prépare une base neuve : compte administrateur si aucun utilisateur n'existe,
+     * données synthétiques si database.seed.patients est renseigné et qu'aucun patient
+     * n'existe. Sans database.seed.admin.password, le mot de passe administrateur est
+     * tiré au hasard et journalisé une seule fois, à la création du compte.
+     */
+    public static void initialize(SessionFactory sessionFactory) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+
+        if (count(sessionFactory, "User") == 0) {
+            String username = config.getProperty(ADMIN_USERNAME_PROPERTY, "admin");
+            String password = config.getProperty(ADMIN_PASSWORD_PROPERTY);
+            boolean generated = password == null || password.isBlank();
+            if (generated) {
+                password = randomPassword();
+            }
+            Transaction tx = null;
+            try (Session session = sessionFactory.openSession()) {
+                tx = session.beginTransaction();
+                session.persist(new User(
+                    username,
+                    PasswordHasher.hash(password),
+                    Role.ADMIN
+                ));
+                tx.commit();
+            } catch (Exception e) {
+                if (tx != null) tx.rollback();
+                throw e;
+            }
+            if (generated) {
+                LOG.warn(
+                    "Base embarquée: compte administrateur créé username={} password={} " +
+                        "(aléatoire, {} non configuré)",
+                    username,
+                    password,
+                    ADMIN_PASSWORD_PROPERTY
+                );
+            } else {
+                LOG.info(
+                    "Base embarquée: compte administrateur créé username={}",
+                    username
+                );
+            }
+        }
+
+        int patients = config.getIntProperty(SEED_PATIENTS_PROPERTY, 0);
+        if (patients > 0 && count(sessionFactory, "Patient") == 0) {
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                sessionFactory
+            );
+            generator.setPatientCount(patients);
+            generator.setAppointmentCount(
+                config.getIntProperty(SEED_APPOINTMENTS_PROPERTY, patients * 4)
+            );
+            SyntheticDataGenerator.Result result = StartupTracer.time(
+                "embedded-seed",
+                generator::generate
+            );
+            LOG.info("Base embarquée: données générées {}", result);
+        }
+    }
+
+    private static String randomPassword() {
+        byte[] bytes = new byte[12];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static long count(SessionFactory sessionFactory, String entity) {
+        try (Session session = sessionFactory.openSession()) {
+            return session
+                .createQuery("SELECT COUNT(e) FROM " + entity + " e", Long.class)
+                .uniqueResult();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.mediclinic.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * {@link BlobStore} sur disque, adressé par contenu : chaque blob est stocké une seule
+ * fois sous {@code <racine>/ab/cd/<sha256>}, ce qui répartit les fichiers dans 65 536
+ * sous-dossiers au lieu d'un seul dossier plat.
+ * Le manifeste (clé -> empreinte, taille, date) est un journal en ajout seul
+ * ({@code manifest.log}) rejoué au démarrage puis tenu en mémoire ; il est compacté
+ * quand les entrées obsolètes dominent. Blobs et journal compacté sont écrits dans un
+ * fichier temporaire puis renommés.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String MANIFEST_FILE = "manifest.log";
+    // Fichiers de l'ancien stockage à plat, conservés après import
+    private static final String LEGACY_DIRECTORY = "legacy";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final char SEPARATOR = '\t';
+
+    private final Path root;
+    private final Path manifestPath;
+    private final Map<String, BlobInfo> manifest = new HashMap<>();
+    // Nombre de clés pointant vers chaque contenu (dédoublonnage)
+    private final Map<String, Integer> references = new HashMap<>();
+    private int journalEntries;
+
+    public FileSystemBlobStore(Path root) throws IOException {
+        this.root = root;
+        this.manifestPath = root.resolve(MANIFEST_FILE);
+        Files.createDirectories(root);
+        loadManifest();
+    }
+
+    @Override
+    public synchronized boolean exists(String key) {
+        return manifest.containsKey(key);
+    }
+
+    @Override
+    public synchronized BlobInfo stat(String key) {
+        return manifest.get(key);
+    }
+
+    @Override
+    public synchronized BlobInfo put(String key, byte[] data) throws IOException {
+        checkKey(key);
+        String hash = sha256(data);
+        Path blob = blobPath(hash);
+
+        // Un contenu identique déjà présent n'est pas réécrit
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            Path tmp = blob.resolveSibling(hash + TMP_SUFFIX);
+            Files.write(tmp, data);
+            moveAtomically(tmp, blob);
+        }
+
+        BlobInfo info = new BlobInfo(
+            key,
+            hash,
+            data.length,
+            System.currentTimeMillis()
+        );
+        appendJournal(formatEntry(info));
+        BlobInfo previous = manifest.put(key, info);
+        references.merge(hash, 1, Integer::sum);
+        if (previous != null) {
+            release(previous.getHash());
+        }
+        compactIfNeeded();
+        return info;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        BlobInfo info = stat(key);
+        if (info == null) {
+            return null;
+        }
+        try {
+            return Files.newInputStream(blobPath(info.getHash()));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        BlobInfo info = stat(key);
+        if (info == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(blobPath(info.getHash()));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(String key) throws IOException {
+        BlobInfo removed = manifest.get(key);
+        if (removed == null) {
+            return false;
+        }
+        appendJournal("-" + SEPARATOR + key);
+        manifest.remove(key);
+        release(removed.getHash());
+        compactIfNeeded();
+        return true;
+    }
+
+    @Override
+    public synchronized Collection<BlobInfo> list(String keyPrefix) {
+        List<BlobInfo> result = new ArrayList<>();
+        for (BlobInfo info : manifest.values()) {
+            if (info.getKey().startsWith(keyPrefix)) {
+                result.add(info);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Importe les fichiers posés directement à la racine (ancien stockage à plat) dont
+     * le nom est accepté par le filtre : le nom devient la clé, puis le fichier d'origine
+     * est déplacé dans {@code legacy/} (sauvegarde, jamais supprimée). Un fichier dont
+     * la clé existe déjà n'est ni importé ni déplacé.
+     * @return le nombre de fichiers importés
+     */
+    public int importLegacyFiles(Predicate<String> nameFilter)
+        throws IOException {
+        List<Path> legacy = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(root)) {
+            for (Path file : dir) {
+                String name = file.getFileName().toString();
+                if (
+                    Files.isRegularFile(file) &&
+                    !name.startsWith(MANIFEST_FILE) &&
+                    nameFilter.test(name)
+                ) {
+                    legacy.add(file);
+                }
+            }
+        }
+
+        int imported = 0;
+        Path backup = root.resolve(LEGACY_DIRECTORY);
+        for (Path file : legacy) {
+            String key = file.getFileName().toString();
+            if (exists(key)) {
+                continue;
+            }
+            put(key, Files.readAllBytes(file));
+            // Déplacé seulement une fois importé : sinon un blob supprimé
+            // réapparaîtrait à l'ouverture suivante
+            Files.createDirectories(backup);
+            Files.move(
+                file,
+                backup.resolve(key),
+                StandardCopyOption.REPLACE_EXISTING
+            );
+            imported++;
+        }
+        return imported;
+    }
+
+    /**
+     * Décrémente les références d'un contenu et supprime le fichier s'il n'est plus utilisé.
+     */
+    private void release(String hash) throws IOException {
+        Integer count = references.get(hash);
+        if (count == null || count <= 1) {
+            references.remove(hash);
+            Path blob = blobPath(hash);
+            Files.deleteIfExists(blob);
+            // Supprime les dossiers de répartition devenus vides
+            try {
+                Files.deleteIfExists(blob.getParent());
+                Files.deleteIfExists(blob.getParent().getParent());
+            } catch (DirectoryNotEmptyException e) {
+                // Encore utilisé par d'autres blobs
+            }
+        } else {
+            references.put(hash, count - 1);
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return root
+            .resolve(hash.substring(0, 2))
+            .resolve(hash.substring(2, 4))
+            .resolve(hash);
+    }
+
+    private void loadManifest() throws IOException {
+        if (!Files.exists(manifestPath)) {
+            return;
+        }
+        try (
+            BufferedReader reader = Files.newBufferedReader(
+                manifestPath,
+                StandardCharsets.UTF_8
+            )
+        ) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                journalEntries++;
+                String[] parts = line.split(String.valueOf(SEPARATOR));
+                try {
+                    if (parts.length == 2 && "-".equals(parts[0])) {
+                        manifest.remove(parts[1]);
+                    } else if (parts.length == 4 && parts[1].length() == 64) {
+                        manifest.put(
+                            parts[0],
+                            new BlobInfo(
+                                parts[0],
+                                parts[1],
+                                Long.parseLong(parts[2]),
+                                Long.parseLong(parts[3])
+                            )
+                        );
+                    }
+                } catch (NumberFormatException e) {
+                    // Dernière ligne tronquée (arrêt brutal pendant l'ajout) : ignorée
+                }
+            }
+        }
+        for (BlobInfo info : manifest.values()) {
+            references.merge(info.getHash(), 1, Integer::sum);
+        }
+
+        // Termine la ligne tronquée pour que le prochain ajout ne s'y colle pas
+        boolean truncated;
+        try (
+            FileChannel channel = FileChannel.open(
+                manifestPath,
+                StandardOpenOption.READ
+            )
+        ) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            truncated =
+                channel.size() > 0 &&
+                channel.read(last, channel.size() - 1) == 1 &&
+                last.get(0) != '\n';
+        }
+        if (truncated) {
+            appendJournal("");
+        }
+    }
+
+    private void appendJournal(String entry) throws IOException {
+        Files.write(
+            manifestPath,
+            (entry + "\n").getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND
+        );
+        journalEntries++;
+    }
+
+    /**
+     * Réécrit le journal avec les seules entrées vivantes quand il a plus que doublé.
+     */
+    private void compactIfNeeded() throws IOException {
+        if (journalEntries < 64 || journalEntries <= 2 * manifest.size()) {
+            return;
+        }
+        Path tmp = manifestPath.resolveSibling(MANIFEST_FILE + TMP_SUFFIX);
+        try (
+            BufferedWriter writer = Files.newBufferedWriter(
+                tmp,
+                StandardCharsets.UTF_8
+            )
+        ) {
+            for (BlobInfo info : manifest.values()) {
+                writer.write(formatEntry(info));
+                writer.newLine();
+            }
+        }
+        moveAtomically(tmp, manifestPath);
+        journalEntries = manifest.size();
+    }
+
+    private static String formatEntry(BlobInfo info) {
+        return (
+            info.getKey() +
+            SEPARATOR +
+            info.getHash() +
+            SEPARATOR +
+            info.getSize() +
+            SEPARATOR +
+            info.getLastModified()
+        );
+    }
+
+    private static void moveAtomically(Path source, Path target)
+        throws IOException {
+        try {
+            Files.move(
+                source,
+                target,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void checkKey(String key) {
+        if (
+            key == null ||
+            key.isEmpty() ||
+            key.indexOf(SEPARATOR) >= 0 ||
+            key.indexOf('\n') >= 0 ||
+            key.indexOf(File.separatorChar) >= 0
+        ) {
+            throw new IllegalArgumentException("Clé de blob invalide: " + key);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
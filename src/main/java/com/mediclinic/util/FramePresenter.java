@@ -0,0 +1,118 @@
+package com.mediclinic.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Affiche un flux d'images (aperçu caméra) dans une ImageView via une WritableImage
+ * réutilisée. Tant que l'image précédente n'a pas été dessinée par le thread JavaFX,
+ * les nouvelles images sont ignorées : l'aperçu ne prend jamais de retard.
+ */
+public class FramePresenter {
+
+    private static final int[] RGB_OFFSETS = { 0, 1, 2 };
+
+    private final ImageView view;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    // Tampons de copie, réécrits uniquement quand aucun rendu n'est en attente
+    private int width;
+    private int height;
+    private byte[] rgbStaging;
+    private int[] argbStaging;
+    private WritableImage image;
+
+    public FramePresenter(ImageView view) {
+        this.view = view;
+    }
+
+    /**
+     * Copie l'image et planifie son affichage. Appelé depuis le thread de capture ;
+     * l'image source peut être réutilisée dès le retour.
+     * @return false si l'image a été ignorée (interface en retard).
+     */
+    public boolean offer(BufferedImage frame) {
+        if (frame == null || !pending.compareAndSet(false, true)) {
+            return false;
+        }
+
+        boolean resized = frame.getWidth() != width || frame.getHeight() != height;
+        width = frame.getWidth();
+        height = frame.getHeight();
+
+        byte[] rgb = packedRgb(frame);
+        if (rgb != null) {
+            if (rgbStaging == null || rgbStaging.length != rgb.length) {
+                rgbStaging = new byte[rgb.length];
+            }
+            System.arraycopy(rgb, 0, rgbStaging, 0, rgb.length);
+            argbStaging = null;
+        } else {
+            if (argbStaging == null || argbStaging.length != width * height) {
+                argbStaging = new int[width * height];
+            }
+            frame.getRGB(0, 0, width, height, argbStaging, 0, width);
+            rgbStaging = null;
+        }
+
+        int w = width;
+        int h = height;
+        byte[] rgbFrame = rgbStaging;
+        int[] argbFrame = argbStaging;
+        Platform.runLater(() -> {
+            try {
+                if (resized || image == null) {
+                    image = new WritableImage(w, h);
+                    view.setImage(image);
+                }
+                if (rgbFrame != null) {
+                    image
+                        .getPixelWriter()
+                        .setPixels(0, 0, w, h, PixelFormat.getByteRgbInstance(), rgbFrame, 0, w * 3);
+                } else {
+                    image
+                        .getPixelWriter()
+                        .setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argbFrame, 0, w);
+                }
+            } finally {
+                pending.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Tableau d'octets RGB contigu de l'image si elle est déjà dans ce format (flux brut),
+     * sinon null.
+     */
+    private static byte[] packedRgb(BufferedImage frame) {
+        Raster raster = frame.getRaster();
+        if (
+            raster.getDataBuffer().getDataType() != DataBuffer.TYPE_BYTE ||
+            raster.getDataBuffer().getNumBanks() != 1 ||
+            !(raster.getSampleModel() instanceof ComponentSampleModel) ||
+            raster.getParent() != null
+        ) {
+            return null;
+        }
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        if (
+            model.getPixelStride() != 3 ||
+            model.getScanlineStride() != frame.getWidth() * 3 ||
+            !Arrays.equals(model.getBandOffsets(), RGB_OFFSETS)
+        ) {
+            return null;
+        }
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        return data.length == frame.getWidth() * frame.getHeight() * 3 ? data : null;
+    }
+}
@@ -1,45 +1,225 @@
 package com.mediclinic.util;
 
 import com.mediclinic.model.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * SessionFactory construite une seule fois, en arrière-plan : MainApp lance
+ * {@link #startBootstrap()} au démarrage pendant que l'écran de connexion s'affiche,
+ * les accès suivants attendent la fin de la construction.
+ */
 public class HibernateUtil {
 
-    private static final SessionFactory sessionFactory = buildSessionFactory();
+    private static final Logger LOG = LogManager.getLogger(HibernateUtil.class);
+
+    // Surcharge de hbm2ddl.auto (update dans hibernate.cfg.xml) : validate ou none en production
+    private static final String SCHEMA_AUTO_PROPERTY = "database.schema.auto";
+
+    // Surcharges de la connexion de hibernate.cfg.xml (autre base, bancs d'essai)
+    private static final String[][] CONNECTION_OVERRIDES = {
+        { "database.url", "hibernate.connection.url" },
+        { "database.username", "hibernate.connection.username" },
+        { "database.password", "hibernate.connection.password" },
+        { "database.driver", "hibernate.connection.driver_class" },
+        { "database.dialect", "hibernate.dialect" },
+    };
+
+    private static CompletableFuture<SessionFactory> bootstrap;
 
     private static SessionFactory buildSessionFactory() {
         try {
-            // Crée la SessionFactory à partir du fichier hibernate.cfg.xml
-            Configuration configuration = new Configuration();
-            configuration.configure("hibernate.cfg.xml");
-
-            // Enregistrement des Entités
-            configuration.addAnnotatedClass(Patient.class);
-            configuration.addAnnotatedClass(Medecin.class);
-            configuration.addAnnotatedClass(RendezVous.class);
-            configuration.addAnnotatedClass(DossierMedical.class);
-            configuration.addAnnotatedClass(Consultation.class);
-            configuration.addAnnotatedClass(Facture.class);
-            configuration.addAnnotatedClass(LigneFacture.class);
-            configuration.addAnnotatedClass(User.class);
+            long start = System.nanoTime();
+
+            boolean embedded = EmbeddedDatabase.isEnabled();
+            // Mesures par appel de DAO (panneau de diagnostic, JMX)
+            boolean metrics = DaoMetrics.isEnabled();
+            Configuration configuration = StartupTracer.time(
+                "hibernate-configure",
+                () -> configure(embedded, metrics)
+            );
 
             // Les Enums n'ont pas besoin d'être ajoutées explicitement
-            return configuration.buildSessionFactory();
+            // (la phase inclut la mise à jour du schéma si hbm2ddl.auto l'active)
+            SessionFactory sessionFactory = StartupTracer.time(
+                "hibernate-build[hbm2ddl=" +
+                configuration.getProperty("hibernate.hbm2ddl.auto") +
+                "]",
+                configuration::buildSessionFactory
+            );
+            if (metrics) {
+                sessionFactory
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, DaoMetricsListener.ROW_COUNTER);
+                DaoMetrics.registerMBean();
+            }
+            if (embedded) {
+                EmbeddedDatabase.initialize(sessionFactory);
+            }
+            LOG.info(
+                "SessionFactory prête durationMs={}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            );
+            return sessionFactory;
+
+        } catch (RuntimeException | Error ex) {
+            // Journalisation de l'erreur en cas d'échec de la SessionFactory
+            LOG.error("Échec de la création de la SessionFactory", ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Crée la configuration à partir du fichier hibernate.cfg.xml et des surcharges.
+     */
+    private static Configuration configure(boolean embedded, boolean metrics) {
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+
+        if (embedded) {
+            EmbeddedDatabase.configure(configuration);
+        }
+
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        for (String[] override : CONNECTION_OVERRIDES) {
+            String value = config.getProperty(override[0]);
+            if (value != null && !value.isBlank()) {
+                configuration.setProperty(override[1], value.trim());
+            }
+        }
+
+        Integer poolSize = config.getSettings().getPool().getSize();
+        if (poolSize != null) {
+            configuration.setProperty(
+                "hibernate.connection.pool_size",
+                String.valueOf(poolSize)
+            );
+        }
+
+        String schemaAuto = config.getProperty(SCHEMA_AUTO_PROPERTY);
+        if (schemaAuto != null && !schemaAuto.isBlank()) {
+            configuration.setProperty(
+                "hibernate.hbm2ddl.auto",
+                schemaAuto.trim()
+            );
+        }
+
+        // Détecteur N+1 / requêtes lentes du mode développement
+        QueryDiagnostics.configure();
+        boolean queryDiagnostics = QueryDiagnostics.isEnabled();
+        DaoMetricsListener.metricsEnabled = metrics;
+        if (metrics || queryDiagnostics) {
+            configuration.setProperty(
+                "hibernate.session.events.auto",
+                DaoMetricsListener.class.getName()
+            );
+        }
+        if (queryDiagnostics) {
+            configuration.setProperty(
+                "hibernate.session_factory.statement_inspector",
+                QueryInspector.class.getName()
+            );
+        }
 
-        } catch (Throwable ex) {
-            // Affichage de l'erreur en cas d'échec de la SessionFactory
-            System.err.println("Échec de la création de la SessionFactory: " + ex);
-            throw new ExceptionInInitializerError(ex);
+        // Enregistrement des Entités
+        configuration.addAnnotatedClass(Patient.class);
+        configuration.addAnnotatedClass(Medecin.class);
+        configuration.addAnnotatedClass(RendezVous.class);
+        configuration.addAnnotatedClass(DossierMedical.class);
+        configuration.addAnnotatedClass(Consultation.class);
+        configuration.addAnnotatedClass(Facture.class);
+        configuration.addAnnotatedClass(LigneFacture.class);
+        configuration.addAnnotatedClass(User.class);
+        return configuration;
+    }
+
+    /**
+     * Lance la construction de la SessionFactory sur un thread dédié, si ce n'est déjà fait.
+     * Un échec n'est pas retenu : l'appel suivant relance la construction (base
+     * démarrée entre-temps, par exemple).
+     * @return le futur de la SessionFactory
+     */
+    public static synchronized CompletableFuture<SessionFactory> startBootstrap() {
+        if (bootstrap == null) {
+            bootstrap = new CompletableFuture<>();
+            CompletableFuture<SessionFactory> future = bootstrap;
+            Thread thread = new Thread(() -> {
+                try {
+                    future.complete(buildSessionFactory());
+                } catch (Throwable ex) {
+                    synchronized (HibernateUtil.class) {
+                        if (bootstrap == future) {
+                            bootstrap = null;
+                        }
+                    }
+                    future.completeExceptionally(ex);
+                }
+            }, "hibernate-bootstrap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return bootstrap;
+    }
+
+    public static synchronized boolean isReady() {
+        return (
+            bootstrap != null &&
+            bootstrap.isDone() &&
+            !bootstrap.isCompletedExceptionally()
+        );
+    }
+
+    /**
+     * Attend la SessionFactory au plus le délai donné.
+     * @throws IllegalStateException si la construction a échoué ou n'est pas terminée à temps
+     */
+    public static SessionFactory awaitSessionFactory(long timeout, TimeUnit unit) {
+        try {
+            return startBootstrap().get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                "Base de données indisponible: " + e.getCause().getMessage(),
+                e.getCause()
+            );
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(
+                "La connexion à la base de données prend trop de temps."
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                "Attente de la base de données interrompue."
+            );
         }
     }
 
     public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+        try {
+            return startBootstrap().join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(
+                "Base de données indisponible: " + e.getCause().getMessage(),
+                e.getCause()
+            );
+        }
     }
 
     public static void shutdown() {
         // Ferme les caches et les pools de connexions
-        getSessionFactory().close();
+        if (isReady()) {
+            getSessionFactory().close();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.mediclinic.util;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limitation des tentatives de connexion par nom d'utilisateur. Après
+ * security.login.max.attempts échecs consécutifs, le compte est bloqué
+ * security.login.lockout.seconds secondes, durée doublée à chaque nouvel échec
+ * (plafonnée à 15 minutes). Une connexion réussie remet le compteur à zéro.
+ * Les compteurs sont des entiers atomiques dans une table concurrente, sans verrou
+ * autour de la vérification ; la table est bornée à {@link #MAX_TRACKED_USERNAMES} noms
+ * (au-delà, les comptes débloqués puis ceux dont le blocage finit le plus tôt sont
+ * oubliés).
+ */
+public class LoginThrottle {
+
+    private static final String MAX_ATTEMPTS_PROPERTY = "security.login.max.attempts";
+    private static final String LOCKOUT_SECONDS_PROPERTY = "security.login.lockout.seconds";
+
+    private static final long MAX_LOCKOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int MAX_TRACKED_USERNAMES = 10_000;
+
+    private final int maxAttempts;
+    private final long lockoutMillis;
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    private static class Attempts {
+
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long blockedUntil;
+    }
+
+    public LoginThrottle() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.maxAttempts = Math.max(1, config.getIntProperty(MAX_ATTEMPTS_PROPERTY, 5));
+        this.lockoutMillis = TimeUnit.SECONDS.toMillis(
+            Math.max(1, config.getIntProperty(LOCKOUT_SECONDS_PROPERTY, 30))
+        );
+    }
+
+    /**
+     * Temps restant avant qu'une tentative soit de nouveau acceptée, 0 si permise.
+     */
+    public long getRemainingLockMillis(String username) {
+        Attempts entry = attempts.get(key(username));
+        if (entry == null) {
+            return 0;
+        }
+        return Math.max(0, entry.blockedUntil - System.currentTimeMillis());
+    }
+
+    public void recordFailure(String username) {
+        if (attempts.size() >= MAX_TRACKED_USERNAMES) {
+            purge();
+        }
+        Attempts entry = attempts.computeIfAbsent(key(username), k -> new Attempts());
+        int failures = entry.failures.incrementAndGet();
+        if (failures >= maxAttempts) {
+            int doublings = Math.min(failures - maxAttempts, 16);
+            long lockout = Math.min(lockoutMillis << doublings, MAX_LOCKOUT_MILLIS);
+            entry.blockedUntil = System.currentTimeMillis() + lockout;
+        }
+    }
+
+    public void recordSuccess(String username) {
+        attempts.remove(key(username));
+    }
+
+    // Table pleine : seuls les comptes actuellement bloqués sont conservés ; s'ils
+    // remplissent encore la table, un dixième est libéré en commençant par ceux dont
+    // le blocage se termine le plus tôt
+    private void purge() {
+        long now = System.currentTimeMillis();
+        attempts.values().removeIf(entry -> entry.blockedUntil <= now);
+
+        int excess = attempts.size() - MAX_TRACKED_USERNAMES * 9 / 10;
+        if (excess > 0) {
+            attempts
+                .entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().blockedUntil))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(attempts::remove);
+        }
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,75 @@
+package com.mediclinic.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Hachage BCrypt des mots de passe avec un coût configurable (security.bcrypt.cost).
+ * Les hachages produits avec un autre coût restent valides ; {@link #needsRehash}
+ * permet de les mettre à niveau à la connexion suivante.
+ */
+public final class PasswordHasher {
+
+    public static final String COST_PROPERTY = "security.bcrypt.cost";
+
+    // Coût par défaut de BCrypt.gensalt(), bornes acceptées par jBCrypt
+    private static final int DEFAULT_COST = 10;
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 30;
+
+    private PasswordHasher() {}
+
+    /**
+     * Coût (log2 du nombre de tours) utilisé pour les nouveaux hachages.
+     */
+    public static int getCost() {
+        int cost = ConfigurationManager.getInstance().getIntProperty(
+            COST_PROPERTY,
+            DEFAULT_COST
+        );
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    public static String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(getCost()));
+    }
+
+    /**
+     * Vérifie un mot de passe ; un hachage absent ou mal formé ne correspond à rien.
+     */
+    public static boolean matches(String password, String hash) {
+        if (password == null || hash == null) {
+            return false;
+        }
+        try {
+            return BCrypt.checkpw(password, hash);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Vrai si le hachage a été calculé avec un autre coût que le coût configuré.
+     */
+    public static boolean needsRehash(String hash) {
+        Integer cost = costOf(hash);
+        return cost != null && cost != getCost();
+    }
+
+    /**
+     * Coût lu dans un hachage "$2a$10$...", null si le format n'est pas reconnu.
+     */
+    static Integer costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+            return null;
+        }
+        int costStart = hash.indexOf('$', 1) + 1;
+        if (costStart == 0 || costStart + 3 > hash.length() || hash.charAt(costStart + 2) != '$') {
+            return null;
+        }
+        try {
+            return Integer.parseInt(hash.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mediclinic.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Permissions de l'application : accès aux pages et actions des services. L'attribution
+ * aux rôles est dans {@link PermissionChecker}. SecurityContext les range dans un masque
+ * de 64 bits : pas plus de 64 constantes.
+ */
+public enum Permission {
+    PAGE_DASHBOARD("dashboard"),
+    PAGE_PATIENTS("patients"),
+    PAGE_AGENDA("agenda"),
+    PAGE_DOCTORS("doctors"),
+    PAGE_BILLING("billing"),
+    PAGE_USERS("users"),
+    PAGE_CONSULTATIONS("consultations"),
+    PAGE_DOSSIERS("dossiers"),
+
+    // Patients : tous les patients (sinon ceux des rendez-vous du médecin associé)
+    PATIENT_VIEW_ALL,
+    PATIENT_CREATE,
+    PATIENT_MODIFY,
+    PATIENT_DELETE,
+    PATIENT_IMPORT,
+
+    // Rendez-vous : tous les médecins (sinon le médecin associé uniquement)
+    APPOINTMENT_VIEW_ALL,
+    /**
+     * Modifier ou annuler le rendez-vous de n'importe quel médecin (ADMIN) ; sans elle,
+     * seulement ceux du médecin associé.
+     */
+    APPOINTMENT_MODIFY_ALL,
+    /**
+     * Points d'entrée de saisie d'un rendez-vous dans l'interface : bouton « Nouveau »
+     * de l'agenda et création rapide du tableau de bord. Réservée à l'accueil (SEC) et
+     * à l'ADMIN : le MEDECIN ne prend pas les rendez-vous des patients.
+     */
+    APPOINTMENT_CREATE,
+    /**
+     * Enregistrement d'un rendez-vous par le service (planifierRendezVous). Le MEDECIN
+     * l'a, bien que sans APPOINTMENT_CREATE, pour planifier ses propres suivis ; la
+     * SEC n'enregistre que pour son médecin associé.
+     */
+    APPOINTMENT_SCHEDULE,
+
+    DOCTOR_MANAGE,
+
+    INVOICE_CREATE,
+    INVOICE_MARK_PAID,
+    INVOICE_EXPORT,
+
+    DIAGNOSTICS_VIEW;
+
+    private static final Map<String, Permission> BY_PAGE = new HashMap<>();
+
+    static {
+        for (Permission permission : values()) {
+            if (permission.page != null) {
+                BY_PAGE.put(permission.page, permission);
+            }
+        }
+    }
+
+    private final String page;
+
+    Permission() {
+        this(null);
+    }
+
+    Permission(String page) {
+        this.page = page;
+    }
+
+    /**
+     * Nom de la page pour les permissions d'accès aux pages, null sinon.
+     */
+    public String getPage() {
+        return page;
+    }
+
+    /**
+     * Permission d'accès à une page par son nom, null si la page est inconnue.
+     */
+    public static Permission forPage(String page) {
+        if (page == null) {
+            return null;
+        }
+        Permission permission = BY_PAGE.get(page);
+        if (permission == null) {
+            permission = BY_PAGE.get(page.toLowerCase(Locale.ROOT));
+        }
+        return permission;
+    }
+}
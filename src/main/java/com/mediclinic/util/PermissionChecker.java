@@ -3,21 +3,92 @@ package com.mediclinic.util;
 import com.mediclinic.model.Role;
 
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 
 public class PermissionChecker {
 
+    // Matrice rôle -> permissions, construite une fois : les vérifications ne
+    // font que des lectures (EnumMap, EnumSet), sans allocation
+    private static final Map<Role, Set<Permission>> MATRIX = new EnumMap<>(Role.class);
+
+    static {
+        MATRIX.put(Role.ADMIN, Collections.unmodifiableSet(EnumSet.allOf(Permission.class)));
+        MATRIX.put(Role.MEDECIN, Collections.unmodifiableSet(EnumSet.of(
+            Permission.PAGE_DASHBOARD,
+            Permission.PAGE_AGENDA,
+            Permission.PAGE_PATIENTS, // read-only for patients
+            Permission.PAGE_CONSULTATIONS,
+            Permission.PAGE_DOSSIERS,
+            Permission.APPOINTMENT_SCHEDULE
+        )));
+        MATRIX.put(Role.SEC, Collections.unmodifiableSet(EnumSet.of(
+            Permission.PAGE_DASHBOARD,
+            Permission.PAGE_PATIENTS,
+            Permission.PAGE_AGENDA,
+            Permission.PAGE_BILLING,
+            Permission.PATIENT_VIEW_ALL,
+            Permission.PATIENT_CREATE,
+            Permission.PATIENT_MODIFY,
+            Permission.PATIENT_IMPORT,
+            Permission.APPOINTMENT_CREATE,
+            Permission.APPOINTMENT_SCHEDULE,
+            Permission.INVOICE_CREATE,
+            Permission.INVOICE_MARK_PAID,
+            Permission.INVOICE_EXPORT
+        )));
+    }
+
     /**
-     * Check if a role can access a specific page
+     * Check if a role has a permission
      */
-    public static boolean canAccessPage(Role role, String page) {
-        if (role == null || page == null) {
+    public static boolean hasPermission(Role role, Permission permission) {
+        if (role == null || permission == null) {
             return false;
         }
+        Set<Permission> permissions = MATRIX.get(role);
+        return permissions != null && permissions.contains(permission);
+    }
+
+    /**
+     * Check if the current user has a permission
+     */
+    public static boolean hasPermission(Permission permission) {
+        SecurityContext context = SecurityContext.current();
+        return context != null && context.has(permission);
+    }
+
+    /**
+     * Permissions of a role (unmodifiable)
+     */
+    public static Set<Permission> getPermissions(Role role) {
+        Set<Permission> permissions = role != null ? MATRIX.get(role) : null;
+        return permissions != null ? permissions : Collections.emptySet();
+    }
+
+    /**
+     * Check if a role can access a specific page
+     */
+    public static boolean canAccessPage(Role role, String page) {
+        return hasPermission(role, Permission.forPage(page));
+    }
 
-        Set<String> allowedPages = getAllowedPages(role);
-        return allowedPages.contains(page.toLowerCase());
+    /**
+     * Require that the current user has a permission
+     * Throws IllegalStateException if not authenticated or doesn't have it
+     */
+    public static void requirePermission(Permission permission) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        if (!context.has(permission)) {
+            throw new IllegalStateException("Access denied. Required permission: " +
+                permission + ", but user has role: " + context.getRole());
+        }
     }
 
     /**
@@ -25,12 +96,12 @@ public class PermissionChecker {
      * Throws IllegalStateException if not authenticated or doesn't have the role
      */
     public static void requireRole(Role... roles) {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             throw new IllegalStateException("User not authenticated");
         }
 
-        UserSession session = UserSession.getInstance();
-        Role userRole = session.getUser().getRole();
+        Role userRole = context.getRole();
 
         for (Role requiredRole : roles) {
             if (userRole == requiredRole) {
@@ -46,52 +117,31 @@ public class PermissionChecker {
      * Check if current user has any of the specified roles
      */
     public static boolean hasAnyRole(Role... roles) {
-        if (!UserSession.isAuthenticated()) {
-            return false;
-        }
-
-        UserSession session = UserSession.getInstance();
-        Role userRole = session.getUser().getRole();
-
-        for (Role role : roles) {
-            if (userRole == role) {
-                return true;
-            }
-        }
-        return false;
+        SecurityContext context = SecurityContext.current();
+        return context != null && context.hasAnyRole(roles);
     }
 
     /**
-     * Get allowed pages for a role
+     * Masque des permissions d'un rôle, bit = ordinal (calculé une fois par SecurityContext)
      */
-    private static Set<String> getAllowedPages(Role role) {
-        Set<String> pages = new HashSet<>();
-
-        switch (role) {
-            case ADMIN:
-                pages.addAll(Arrays.asList("dashboard", "patients", "agenda", "doctors", "billing", "users", "consultations", "dossiers"));
-                break;
-            case MEDECIN:
-                pages.addAll(Arrays.asList("dashboard", "agenda", "patients", "consultations", "dossiers")); // read-only for patients
-                break;
-            case SEC:
-                pages.addAll(Arrays.asList("dashboard", "patients", "agenda", "billing"));
-                break;
+    static long permissionMask(Role role) {
+        long mask = 0;
+        for (Permission permission : getPermissions(role)) {
+            mask |= 1L << permission.ordinal();
         }
-
-        return pages;
+        return mask;
     }
 
     /**
      * Check if current user can perform action on a resource
      */
     public static boolean canPerformAction(String action, String resource) {
-        if (!UserSession.isAuthenticated()) {
+        SecurityContext context = SecurityContext.current();
+        if (context == null) {
             return false;
         }
 
-        UserSession session = UserSession.getInstance();
-        Role role = session.getUser().getRole();
+        Role role = context.getRole();
 
         // Admin can do everything
         if (role == Role.ADMIN) {
@@ -0,0 +1,208 @@
+package com.mediclinic.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Détecteur de rafales de requêtes pour le développement (diagnostics.queries.enabled=true).
+ * Les requêtes sont regroupées par action utilisateur (écran ouvert, bouton cliqué) :
+ * une même forme de requête répétée au-delà du seuil signale un probable N+1, une
+ * exécution plus longue que le seuil est signalée comme lente. Le bilan de l'action
+ * est affiché dans la console dès qu'elle ne produit plus de requêtes.
+ */
+public class QueryDiagnostics {
+
+    private static final Logger LOG = LogManager.getLogger(QueryDiagnostics.class);
+
+    public static final String ENABLED_PROPERTY = "diagnostics.queries.enabled";
+    private static final String SLOW_MS_PROPERTY = "diagnostics.queries.slow.ms";
+    private static final String REPEAT_PROPERTY = "diagnostics.queries.repeat.threshold";
+
+    // Bilan affiché après ce délai sans nouvelle requête
+    private static final long QUIET_MILLIS = 1500;
+    private static final int SQL_EXCERPT_LENGTH = 160;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile boolean enabled = false;
+    private static long slowNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private static int repeatThreshold = 5;
+
+    private static Action current = new Action("démarrage");
+    private static ScheduledExecutorService reporter;
+
+    // Requête préparée puis exécutée sur ce thread (forme, début d'exécution)
+    private static final ThreadLocal<String> LAST_SHAPE = new ThreadLocal<>();
+    private static final ThreadLocal<Long> EXECUTE_START = new ThreadLocal<>();
+
+    private static class Action {
+
+        private final String name;
+        private final long start = System.nanoTime();
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private final List<String> slowQueries = new ArrayList<>();
+        private int statements;
+        private long lastStatement;
+
+        Action(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Lit la configuration ; sans effet si le mode développement n'est pas activé.
+     */
+    public static synchronized void configure() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        enabled = config.getBooleanProperty(ENABLED_PROPERTY, false);
+        slowNanos = TimeUnit.MILLISECONDS.toNanos(
+            config.getIntProperty(SLOW_MS_PROPERTY, 100)
+        );
+        repeatThreshold = config.getIntProperty(REPEAT_PROPERTY, 5);
+        if (enabled && reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "query-diagnostics");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleWithFixedDelay(
+                QueryDiagnostics::reportIfQuiet,
+                QUIET_MILLIS,
+                500,
+                TimeUnit.MILLISECONDS
+            );
+            LOG.info(
+                "Diagnostic SQL actif slowMs={} repeatThreshold={}",
+                TimeUnit.NANOSECONDS.toMillis(slowNanos),
+                repeatThreshold
+            );
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ouvre une nouvelle action utilisateur ; le bilan de la précédente est affiché.
+     */
+    public static void beginAction(String name) {
+        if (!enabled) {
+            return;
+        }
+        Action finished;
+        synchronized (QueryDiagnostics.class) {
+            finished = current;
+            current = new Action(name);
+        }
+        report(finished);
+    }
+
+    static void statementPrepared(String sql) {
+        String shape = shapeOf(sql);
+        LAST_SHAPE.set(shape);
+        synchronized (QueryDiagnostics.class) {
+            current.shapes.merge(shape, 1, Integer::sum);
+            current.statements++;
+            current.lastStatement = System.nanoTime();
+        }
+    }
+
+    static void executeStarted() {
+        EXECUTE_START.set(System.nanoTime());
+    }
+
+    static void executeEnded() {
+        Long start = EXECUTE_START.get();
+        if (start == null) {
+            return;
+        }
+        EXECUTE_START.remove();
+        long elapsed = System.nanoTime() - start;
+        if (elapsed < slowNanos) {
+            return;
+        }
+        String entry =
+            TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms : " + excerpt(LAST_SHAPE.get());
+        LOG.warn("Requête lente {}", entry);
+        synchronized (QueryDiagnostics.class) {
+            current.slowQueries.add(entry);
+        }
+    }
+
+    private static void reportIfQuiet() {
+        Action finished;
+        synchronized (QueryDiagnostics.class) {
+            if (
+                current.statements == 0 ||
+                System.nanoTime() - current.lastStatement <
+                TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS)
+            ) {
+                return;
+            }
+            // Les requêtes suivantes de la même action forment un nouveau bilan
+            finished = current;
+            current = new Action(finished.name + " (suite)");
+        }
+        report(finished);
+    }
+
+    private static void report(Action action) {
+        if (action.statements == 0) {
+            return;
+        }
+        StringBuilder report = new StringBuilder();
+        report.append("Action « ")
+            .append(action.name)
+            .append(" » : ")
+            .append(action.statements)
+            .append(" requête(s), ")
+            .append(action.shapes.size())
+            .append(" forme(s), sur ")
+            .append(TimeUnit.NANOSECONDS.toMillis(action.lastStatement - action.start))
+            .append(" ms");
+        for (Map.Entry<String, Integer> shape : action.shapes.entrySet()) {
+            if (shape.getValue() >= repeatThreshold) {
+                report.append("\n  N+1 probable (")
+                    .append(shape.getValue())
+                    .append("x) : ")
+                    .append(excerpt(shape.getKey()));
+            }
+        }
+        for (String slow : action.slowQueries) {
+            report.append("\n  Lente ").append(slow);
+        }
+        LOG.info("{}", report);
+    }
+
+    /**
+     * Forme de la requête : littéraux remplacés par ?, listes IN réduites, espaces
+     * normalisés ; deux requêtes de même forme ne diffèrent que par leurs paramètres.
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static String excerpt(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        return sql.length() <= SQL_EXCERPT_LENGTH
+            ? sql
+            : sql.substring(0, SQL_EXCERPT_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,19 @@
+package com.mediclinic.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Inspecteur Hibernate (hibernate.session_factory.statement_inspector) du mode
+ * développement : transmet chaque requête préparée à {@link QueryDiagnostics} sans la
+ * modifier.
+ */
+public class QueryInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        QueryDiagnostics.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mediclinic.util;
+
+/**
+ * Contrôleur d'une vue conservée en cache par {@link ViewCache} : appelé chaque fois
+ * que la vue est réaffichée, il recharge ses données sans reconstruire la vue.
+ */
+public interface Refreshable {
+    void refresh();
+}
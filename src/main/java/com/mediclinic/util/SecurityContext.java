@@ -0,0 +1,154 @@
+package com.mediclinic.util;
+
+import com.mediclinic.model.Medecin;
+import com.mediclinic.model.Role;
+import com.mediclinic.model.User;
+import java.util.concurrent.Callable;
+
+/**
+ * Identité de l'utilisateur connecté, figée à la connexion : identifiants, rôle,
+ * médecin associé et permissions (masque de bits précalculé). Immuable, donc
+ * lisible sans synchronisation depuis n'importe quel thread.
+ *
+ * Le contexte de la session est publié par {@link UserSession} (champ volatile). Une
+ * tâche de fond peut aussi recevoir explicitement le contexte de l'appelant via
+ * {@link #wrap(Runnable)} : il reste alors valable même si la session change entre-temps.
+ */
+public final class SecurityContext {
+
+    private static volatile SecurityContext published;
+
+    // Contexte transmis explicitement à une tâche, prioritaire sur le contexte publié
+    private static final ThreadLocal<SecurityContext> BOUND = new ThreadLocal<>();
+
+    private final Long userId;
+    private final String username;
+    private final Role role;
+    private final Long medecinId;
+    private final long permissions;
+
+    private SecurityContext(Long userId, String username, Role role, Long medecinId) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.medecinId = medecinId;
+        this.permissions = PermissionChecker.permissionMask(role);
+    }
+
+    public static SecurityContext of(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        return new SecurityContext(
+            user.getId(),
+            user.getUsername(),
+            user.getRole(),
+            user.getMedecin() != null ? user.getMedecin().getId() : null
+        );
+    }
+
+    /**
+     * Contexte de l'appelant : celui transmis à la tâche en cours s'il y en a un,
+     * sinon celui de la session ; null si personne n'est connecté.
+     */
+    public static SecurityContext current() {
+        SecurityContext bound = BOUND.get();
+        return bound != null ? bound : published;
+    }
+
+    static void publish(SecurityContext context) {
+        published = context;
+    }
+
+    /**
+     * Exécute la tâche avec ce contexte, sur le thread qui l'exécute.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            SecurityContext previous = BOUND.get();
+            BOUND.set(this);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            SecurityContext previous = BOUND.get();
+            BOUND.set(this);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(SecurityContext previous) {
+        if (previous != null) {
+            BOUND.set(previous);
+        } else {
+            BOUND.remove();
+        }
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * Médecin associé (profil du médecin ou médecin de la secrétaire), null sinon.
+     */
+    public Long getMedecinId() {
+        return medecinId;
+    }
+
+    /**
+     * Médecin associé réduit à son identifiant, pour les paramètres de requête ;
+     * null si aucun médecin n'est associé.
+     */
+    public Medecin getMedecinReference() {
+        if (medecinId == null) {
+            return null;
+        }
+        Medecin medecin = new Medecin();
+        medecin.setId(medecinId);
+        return medecin;
+    }
+
+    public boolean isMedecin(Long id) {
+        return medecinId != null && medecinId.equals(id);
+    }
+
+    public boolean hasRole(Role role) {
+        return this.role == role;
+    }
+
+    public boolean hasAnyRole(Role... roles) {
+        for (Role r : roles) {
+            if (role == r) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean has(Permission permission) {
+        return permission != null && (permissions & (1L << permission.ordinal())) != 0;
+    }
+
+    public boolean canAccessPage(String page) {
+        return has(Permission.forPage(page));
+    }
+}
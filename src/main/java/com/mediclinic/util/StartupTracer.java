@@ -0,0 +1,233 @@
+package com.mediclinic.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Mesure des phases du démarrage (nanosecondes, relatives au lancement de MainApp.main)
+ * jusqu'au premier affichage du tableau de bord. Le rapport est écrit une fois par
+ * lancement : détail dans logs/startup.json, une ligne de synthèse ajoutée à
+ * logs/startup.log pour comparer les lancements.
+ * Les phases peuvent se chevaucher (construction Hibernate en parallèle de l'interface).
+ */
+public class StartupTracer {
+
+    private static final Logger LOG = LogManager.getLogger(StartupTracer.class);
+
+    /**
+     * Phase en cours ; {@link #close()} enregistre sa durée.
+     */
+    public static class Phase implements AutoCloseable {
+
+        private final String name;
+        private final String thread;
+        private final long start;
+        private long end = -1;
+
+        private Phase(String name) {
+            this.name = name;
+            this.thread = Thread.currentThread().getName();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (end < 0) {
+                end = System.nanoTime();
+                record(this);
+            }
+        }
+    }
+
+    /**
+     * Traitement mesuré par {@link #time}.
+     */
+    @FunctionalInterface
+    public interface Step<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final Path REPORT_DIRECTORY = Paths.get("logs");
+    private static final DateTimeFormatter LOG_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final long ORIGIN = System.nanoTime();
+    private static final List<Phase> PHASES = new ArrayList<>();
+    private static final List<Phase> MARKS = new ArrayList<>();
+    private static boolean finished = false;
+
+    /**
+     * Démarre une phase, à fermer explicitement (phase qui couvre plusieurs méthodes) ;
+     * sinon préférer {@link #time}.
+     */
+    public static Phase start(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Exécute le traitement dans une phase du nom donné, close même en cas d'exception.
+     * @return le résultat du traitement
+     */
+    public static <T, E extends Exception> T time(String name, Step<T, E> step)
+        throws E {
+        Phase phase = start(name);
+        try {
+            return step.run();
+        } finally {
+            phase.close();
+        }
+    }
+
+    /**
+     * Enregistre un instant (écran affiché, première requête...).
+     */
+    public static void mark(String name) {
+        Phase mark = new Phase(name);
+        mark.end = mark.start;
+        synchronized (StartupTracer.class) {
+            if (!finished) {
+                MARKS.add(mark);
+            }
+        }
+    }
+
+    /**
+     * Enregistre le dernier instant du démarrage et écrit le rapport (une seule fois).
+     */
+    public static void finish(String name) {
+        mark(name);
+        List<Phase> phases;
+        List<Phase> marks;
+        synchronized (StartupTracer.class) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            phases = new ArrayList<>(PHASES);
+            marks = new ArrayList<>(MARKS);
+        }
+        writeReport(phases, marks, System.nanoTime());
+    }
+
+    private static synchronized void record(Phase phase) {
+        if (!finished) {
+            PHASES.add(phase);
+        }
+    }
+
+    private static void writeReport(List<Phase> phases, List<Phase> marks, long end) {
+        // Temps passé dans la JVM avant MainApp.main (chargement des classes, JavaFX)
+        long jvmMillis =
+            System.currentTimeMillis() -
+            ManagementFactory.getRuntimeMXBean().getStartTime() -
+            (end - ORIGIN) / 1_000_000;
+
+        StringBuilder log = new StringBuilder();
+        log.append("===== Démarrage: ")
+            .append(millis(end - ORIGIN))
+            .append(" ms depuis main (JVM avant main: ")
+            .append(jvmMillis)
+            .append(" ms) =====\n");
+        for (Phase phase : phases) {
+            log.append(String.format(
+                "  %-32s %9s ms  (+%s ms, %s)%n",
+                phase.name,
+                millis(phase.end - phase.start),
+                millis(phase.start - ORIGIN),
+                phase.thread
+            ));
+        }
+        for (Phase mark : marks) {
+            log.append(String.format(
+                "  @ %-30s %9s ms%n",
+                mark.name,
+                millis(mark.start - ORIGIN)
+            ));
+        }
+        LOG.info("{}", log.toString().stripTrailing());
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"timestamp\": \"")
+            .append(LocalDateTime.now())
+            .append("\",\n  \"jvmBeforeMainMillis\": ")
+            .append(jvmMillis)
+            .append(",\n  \"totalNanos\": ")
+            .append(end - ORIGIN)
+            .append(",\n  \"phases\": [");
+        appendJson(json, phases);
+        json.append("],\n  \"marks\": [");
+        appendJson(json, marks);
+        json.append("]\n}\n");
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(LocalDateTime.now().format(LOG_TIMESTAMP))
+            .append(" total=")
+            .append(millis(end - ORIGIN))
+            .append("ms");
+        for (Phase phase : phases) {
+            summary.append(' ')
+                .append(phase.name)
+                .append('=')
+                .append(millis(phase.end - phase.start))
+                .append("ms");
+        }
+        summary.append('\n');
+
+        try {
+            Files.createDirectories(REPORT_DIRECTORY);
+            Files.writeString(
+                REPORT_DIRECTORY.resolve("startup.json"),
+                json,
+                StandardCharsets.UTF_8
+            );
+            Files.writeString(
+                REPORT_DIRECTORY.resolve("startup.log"),
+                summary,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND
+            );
+        } catch (IOException e) {
+            LOG.warn("Impossible d'écrire le rapport de démarrage", e);
+        }
+    }
+
+    private static void appendJson(StringBuilder json, List<Phase> phases) {
+        for (int i = 0; i < phases.size(); i++) {
+            Phase phase = phases.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                .append("    {\"name\": \"")
+                .append(escape(phase.name))
+                .append("\", \"thread\": \"")
+                .append(escape(phase.thread))
+                .append("\", \"startNanos\": ")
+                .append(phase.start - ORIGIN)
+                .append(", \"durationNanos\": ")
+                .append(phase.end - phase.start)
+                .append('}');
+        }
+        if (!phases.isEmpty()) {
+            json.append("\n  ");
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,779 @@
+package com.mediclinic.util;
+
+import com.mediclinic.model.RendezVousStatus;
+import com.mediclinic.model.SpecialiteMedecin;
+import com.mediclinic.model.TypePaiement;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+/**
+ * Générateur de données synthétiques (patients, dossiers, médecins, rendez-vous,
+ * consultations, factures et lignes) pour les tests de charge et les bancs d'essai.
+ * Déterministe : à graine, paramètres et date de référence égaux, les mêmes lignes
+ * sont produites.
+ * Les lignes sont insérées par lots JDBC sur la connexion de HibernateUtil, avec des
+ * identifiants attribués à la suite des existants (pas de lecture des clés générées).
+ * Avec MySQL, le gain des lots suppose rewriteBatchedStatements=true dans l'URL.
+ *
+ * Usage : java ... com.mediclinic.util.SyntheticDataGenerator [patients] [rendez-vous] [graine]
+ * [date de référence AAAA-MM-JJ]
+ */
+public class SyntheticDataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    // Rendez-vous par transaction, pour borner la taille des transactions
+    private static final int APPOINTMENTS_PER_TRANSACTION = 50_000;
+
+    // Créneaux de 8h à 18h
+    private static final int FIRST_HOUR = 8;
+    private static final int LAST_HOUR = 18;
+
+    private static final String[] NOMS = {
+        "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+        "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel",
+        "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier", "Morel",
+        "Girard", "Andre", "Mercier", "Dupont", "Lambert", "Bonnet", "Francois",
+        "Alaoui", "Benali", "El Idrissi", "Tazi", "Bennani", "Chraibi",
+        "Amrani", "Berrada", "Fassi", "Kettani", "Lahlou", "Sqalli",
+    };
+    private static final String[] PRENOMS = {
+        "Jean", "Marie", "Pierre", "Sophie", "Michel", "Nathalie", "Philippe",
+        "Isabelle", "Alain", "Sylvie", "Nicolas", "Catherine", "Julien", "Claire",
+        "Mohamed", "Fatima", "Youssef", "Khadija", "Ahmed", "Amina", "Omar",
+        "Salma", "Karim", "Leila", "Hamza", "Imane", "Mehdi", "Sara", "Yassine",
+        "Nadia", "Lucas", "Emma", "Hugo", "Chloe", "Louis", "Lea", "Adam",
+        "Ines", "Rayan", "Zineb",
+    };
+    private static final String[] VILLES = {
+        "Casablanca", "Rabat", "Marrakech", "Fès", "Tanger", "Agadir", "Meknès",
+        "Oujda", "Kénitra", "Tétouan",
+    };
+    private static final String[] MOTIFS = {
+        "Consultation", "Contrôle", "Suivi traitement", "Bilan annuel",
+        "Douleurs", "Renouvellement ordonnance", "Vaccination", "Résultats d'analyses",
+    };
+    private static final String[] DIAGNOSTICS = {
+        "Rhinopharyngite", "Hypertension artérielle", "Lombalgie", "Angine",
+        "Gastro-entérite", "Diabète de type 2 équilibré", "Dermatite", "Migraine",
+        "Examen normal",
+    };
+    private static final String[] PRESCRIPTIONS = {
+        "Paracétamol 1g, 3 fois par jour pendant 5 jours",
+        "Ibuprofène 400mg si douleur",
+        "Amoxicilline 1g, 2 fois par jour pendant 7 jours",
+        "Repos et hydratation",
+        "Bilan sanguin de contrôle dans 3 mois",
+    };
+    private static final String[] ACTES = {
+        "Consultation", "Consultation spécialisée", "Électrocardiogramme",
+        "Échographie", "Vaccination", "Pansement", "Certificat médical",
+        "Analyse sanguine",
+    };
+    private static final long[] TARIFS = {
+        200, 300, 250, 400, 150, 100, 80, 180,
+    };
+
+    private final SessionFactory sessionFactory;
+
+    private long seed = 42L;
+    // Jour autour duquel le planning est généré ; null pour aujourd'hui
+    private LocalDate referenceDate;
+    private int patientCount = 10_000;
+    private int medecinCount = 0;
+    private int appointmentCount = 40_000;
+    private int appointmentMinutes = 30;
+    private int appointmentsPerDoctorPerDay = 14;
+    private double pastRatio = 0.7;
+    private double cancelledRatio = 0.08;
+    private double noShowRatio = 0.05;
+    private double confirmedRatio = 0.4;
+    private double consultationRatio = 0.9;
+    private double invoicedRatio = 0.95;
+    private double paidRatio = 0.8;
+    // Poids du nombre de lignes par facture : 1, 2, 3 puis 4 lignes
+    private int[] invoiceLineWeights = { 60, 25, 10, 5 };
+
+    /**
+     * Nombre de lignes insérées par table.
+     */
+    public static class Result {
+
+        private long medecins;
+        private long patients;
+        private long rendezVous;
+        private long consultations;
+        private long factures;
+        private long lignesFacture;
+        private long elapsedMillis;
+
+        public long getMedecins() {
+            return medecins;
+        }
+
+        public long getPatients() {
+            return patients;
+        }
+
+        public long getRendezVous() {
+            return rendezVous;
+        }
+
+        public long getConsultations() {
+            return consultations;
+        }
+
+        public long getFactures() {
+            return factures;
+        }
+
+        public long getLignesFacture() {
+            return lignesFacture;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d médecins, %d patients, %d rendez-vous, %d consultations, " +
+                "%d factures, %d lignes en %d ms",
+                medecins,
+                patients,
+                rendezVous,
+                consultations,
+                factures,
+                lignesFacture,
+                elapsedMillis
+            );
+        }
+    }
+
+    public SyntheticDataGenerator() {
+        this(null);
+    }
+
+    /**
+     * @param sessionFactory base cible ; null pour celle de HibernateUtil
+     */
+    public SyntheticDataGenerator(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public static void main(String[] args) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        if (args.length > 0) {
+            generator.setPatientCount(Integer.parseInt(args[0]));
+        }
+        if (args.length > 1) {
+            generator.setAppointmentCount(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.setSeed(Long.parseLong(args[2]));
+        }
+        if (args.length > 3) {
+            generator.setReferenceDate(LocalDate.parse(args[3]));
+        }
+        try {
+            System.out.println("Données générées: " + generator.generate());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    /**
+     * Insère le jeu de données dans la base configurée pour HibernateUtil.
+     * Les rendez-vous occupent les jours ouvrés autour de la date de référence
+     * (pastRatio dans le passé) : passés terminés, absents ou annulés, futurs planifiés, confirmés
+     * ou annulés. Les rendez-vous terminés reçoivent consultation et facture.
+     */
+    public Result generate() {
+        validate();
+        long start = System.nanoTime();
+        Result result = new Result();
+        Random random = new Random(seed);
+        LocalDate today = referenceDate != null ? referenceDate : LocalDate.now();
+        // Date fixée : même jeu de données d'un jour à l'autre, les rendez-vous du jour
+        // de référence sont tous à venir
+        LocalDateTime now = referenceDate != null
+            ? referenceDate.atTime(FIRST_HOUR, 0)
+            : LocalDateTime.now();
+
+        int medecins = getEffectiveMedecinCount();
+        Ids ids = inTransaction(connection -> {
+            Ids next = new Ids(connection);
+            insertMedecins(connection, random, next, medecins);
+            insertPatients(connection, random, next, today);
+            return next;
+        });
+        result.medecins = medecins;
+        result.patients = patientCount;
+
+        // Jours ouvrés nécessaires au rythme demandé, répartis autour de la référence
+        long perDay = (long) medecins * appointmentsPerDoctorPerDay;
+        int days = (int) ((appointmentCount + perDay - 1) / perDay);
+        LocalDate day = minusWorkingDays(
+            today,
+            (int) Math.round(days * pastRatio)
+        );
+
+        int slots = (LAST_HOUR - FIRST_HOUR) * 60 / appointmentMinutes;
+        // Une transaction par groupe de jours complets
+        int daysInTransaction = (int) Math.max(
+            1,
+            APPOINTMENTS_PER_TRANSACTION / perDay
+        );
+        int remaining = appointmentCount;
+        while (remaining > 0) {
+            LocalDate fromDay = day;
+            int toInsert = remaining;
+            int inserted = inTransaction(connection -> {
+                try (
+                    AppointmentWriter writer = new AppointmentWriter(
+                        connection,
+                        ids,
+                        result
+                    )
+                ) {
+                    LocalDate current = fromDay;
+                    int count = 0;
+                    for (int d = 0; d < daysInTransaction && count < toInsert; d++) {
+                        for (int m = 0; m < medecins && count < toInsert; m++) {
+                            long medecinId = ids.firstMedecin + m;
+                            int[] chosen = chooseSlots(random, slots);
+                            for (int s = 0; s < chosen.length && count < toInsert; s++) {
+                                LocalDateTime debut = current
+                                    .atTime(FIRST_HOUR, 0)
+                                    .plusMinutes((long) chosen[s] * appointmentMinutes);
+                                writer.add(random, medecinId, debut, now);
+                                count++;
+                            }
+                        }
+                        current = plusWorkingDays(current, 1);
+                    }
+                    writer.flush();
+                    return count;
+                }
+            });
+            remaining -= inserted;
+            day = plusWorkingDays(day, daysInTransaction);
+        }
+
+        inTransaction(connection -> {
+            ids.restartIdentities(connection);
+            return null;
+        });
+
+        result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(
+            System.nanoTime() - start
+        );
+        return result;
+    }
+
+    private void validate() {
+        int slots = (LAST_HOUR - FIRST_HOUR) * 60 / appointmentMinutes;
+        if (patientCount <= 0 || appointmentCount < 0) {
+            throw new IllegalArgumentException(
+                "Nombre de patients ou de rendez-vous invalide"
+            );
+        }
+        if (appointmentsPerDoctorPerDay <= 0 || appointmentsPerDoctorPerDay > slots) {
+            throw new IllegalArgumentException(
+                "Rendez-vous par médecin et par jour: entre 1 et " + slots
+            );
+        }
+        if (invoiceLineWeights.length == 0) {
+            throw new IllegalArgumentException(
+                "Distribution des lignes de facture vide"
+            );
+        }
+    }
+
+    private int getEffectiveMedecinCount() {
+        return medecinCount > 0 ? medecinCount : Math.max(5, patientCount / 250);
+    }
+
+    // --- Tables de référence ---
+
+    private void insertMedecins(
+        Connection connection,
+        Random random,
+        Ids ids,
+        int count
+    ) throws SQLException {
+        SpecialiteMedecin[] specialites = SpecialiteMedecin.values();
+        try (
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO medecin (id, nom, prenom, specialite, email, telephone) " +
+                "VALUES (?, ?, ?, ?, ?, ?)"
+            )
+        ) {
+            for (int i = 0; i < count; i++) {
+                long id = ids.firstMedecin + i;
+                ps.setLong(1, id);
+                ps.setString(2, pick(random, NOMS));
+                ps.setString(3, pick(random, PRENOMS));
+                ps.setString(4, specialites[i % specialites.length].name());
+                ps.setString(5, "medecin" + id + "@synthetique.mediclinic.ma");
+                ps.setString(6, phone(random));
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertPatients(
+        Connection connection,
+        Random random,
+        Ids ids,
+        LocalDate referenceDay
+    ) throws SQLException {
+        Date today = Date.valueOf(referenceDay);
+        try (
+            PreparedStatement patient = connection.prepareStatement(
+                "INSERT INTO patient (id, nom, prenom, date_naissance, email, telephone, adresse) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)"
+            );
+            PreparedStatement dossier = connection.prepareStatement(
+                "INSERT INTO dossier_medical (id, patient_id, date_creation) VALUES (?, ?, ?)"
+            )
+        ) {
+            for (int i = 0; i < patientCount; i++) {
+                long id = ids.firstPatient + i;
+                patient.setLong(1, id);
+                patient.setString(2, pick(random, NOMS));
+                patient.setString(3, pick(random, PRENOMS));
+                patient.setDate(
+                    4,
+                    Date.valueOf(referenceDay.minusDays(random.nextInt(90 * 365)))
+                );
+                patient.setString(5, "patient" + id + "@synthetique.mediclinic.ma");
+                patient.setString(6, phone(random));
+                patient.setString(
+                    7,
+                    (1 + random.nextInt(200)) + " rue " + pick(random, NOMS) +
+                    ", " + pick(random, VILLES)
+                );
+                patient.addBatch();
+
+                dossier.setLong(1, ids.firstDossier + i);
+                dossier.setLong(2, id);
+                dossier.setDate(3, today);
+                dossier.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    patient.executeBatch();
+                    dossier.executeBatch();
+                }
+            }
+            patient.executeBatch();
+            dossier.executeBatch();
+        }
+    }
+
+    // --- Rendez-vous et ce qui en découle ---
+
+    /**
+     * Écrit les rendez-vous, consultations, factures et lignes par lots ; les lots
+     * sont exécutés ensemble, dans l'ordre des clés étrangères.
+     */
+    private class AppointmentWriter implements AutoCloseable {
+
+        private final Ids ids;
+        private final Result result;
+        private final PreparedStatement rendezVous;
+        private final PreparedStatement consultation;
+        private final PreparedStatement facture;
+        private final PreparedStatement ligne;
+        private int pending;
+
+        AppointmentWriter(Connection connection, Ids ids, Result result)
+            throws SQLException {
+            this.ids = ids;
+            this.result = result;
+            this.rendezVous = connection.prepareStatement(
+                "INSERT INTO rendez_vous (id, patient_id, medecin_id, date_heure_debut, " +
+                "date_heure_fin, status, motif) VALUES (?, ?, ?, ?, ?, ?, ?)"
+            );
+            this.consultation = connection.prepareStatement(
+                "INSERT INTO consultation (id, dossier_id, rendez_vous_id, date_consultation, " +
+                "observations_examen, diagnostic, prescriptions) VALUES (?, ?, ?, ?, ?, ?, ?)"
+            );
+            this.facture = connection.prepareStatement(
+                "INSERT INTO facture (id, patient_id, rendez_vous_id, date_facturation, " +
+                "montant_total, est_payee, type_paiement) VALUES (?, ?, ?, ?, ?, ?, ?)"
+            );
+            this.ligne = connection.prepareStatement(
+                "INSERT INTO ligne_facture (id, facture_id, description, prix_unitaire, quantite) " +
+                "VALUES (?, ?, ?, ?, ?)"
+            );
+        }
+
+        void add(Random random, long medecinId, LocalDateTime debut, LocalDateTime now)
+            throws SQLException {
+            int patientIndex = random.nextInt(patientCount);
+            long patientId = ids.firstPatient + patientIndex;
+            long rdvId = ids.nextRendezVous++;
+            RendezVousStatus status = chooseStatus(random, debut.isBefore(now));
+
+            rendezVous.setLong(1, rdvId);
+            rendezVous.setLong(2, patientId);
+            rendezVous.setLong(3, medecinId);
+            rendezVous.setTimestamp(4, Timestamp.valueOf(debut));
+            rendezVous.setTimestamp(
+                5,
+                Timestamp.valueOf(debut.plusMinutes(appointmentMinutes))
+            );
+            rendezVous.setString(6, status.name());
+            rendezVous.setString(7, pick(random, MOTIFS));
+            rendezVous.addBatch();
+            result.rendezVous++;
+
+            if (status == RendezVousStatus.TERMINE) {
+                if (random.nextDouble() < consultationRatio) {
+                    consultation.setLong(1, ids.nextConsultation++);
+                    consultation.setLong(2, ids.firstDossier + patientIndex);
+                    consultation.setLong(3, rdvId);
+                    consultation.setTimestamp(4, Timestamp.valueOf(debut));
+                    consultation.setString(5, "Examen clinique sans particularité");
+                    consultation.setString(6, pick(random, DIAGNOSTICS));
+                    consultation.setString(7, pick(random, PRESCRIPTIONS));
+                    consultation.addBatch();
+                    result.consultations++;
+                }
+                if (random.nextDouble() < invoicedRatio) {
+                    addFacture(random, patientId, rdvId, debut.toLocalDate());
+                }
+            }
+
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void addFacture(
+            Random random,
+            long patientId,
+            long rdvId,
+            LocalDate date
+        ) throws SQLException {
+            long factureId = ids.nextFacture++;
+            int lignes = 1 + weightedIndex(random, invoiceLineWeights);
+            BigDecimal total = BigDecimal.ZERO;
+            for (int l = 0; l < lignes; l++) {
+                int acte = random.nextInt(ACTES.length);
+                BigDecimal prix = BigDecimal.valueOf(TARIFS[acte]);
+                int quantite = random.nextDouble() < 0.1 ? 2 : 1;
+                ligne.setLong(1, ids.nextLigneFacture++);
+                ligne.setLong(2, factureId);
+                ligne.setString(3, ACTES[acte]);
+                ligne.setBigDecimal(4, prix);
+                ligne.setInt(5, quantite);
+                ligne.addBatch();
+                total = total.add(prix.multiply(BigDecimal.valueOf(quantite)));
+                result.lignesFacture++;
+            }
+
+            TypePaiement[] paiements = TypePaiement.values();
+            boolean payee = random.nextDouble() < paidRatio;
+            facture.setLong(1, factureId);
+            facture.setLong(2, patientId);
+            facture.setLong(3, rdvId);
+            facture.setDate(4, Date.valueOf(date));
+            facture.setBigDecimal(5, total);
+            facture.setBoolean(6, payee);
+            facture.setString(
+                7,
+                payee ? paiements[random.nextInt(paiements.length)].name() : null
+            );
+            facture.addBatch();
+            result.factures++;
+        }
+
+        void flush() throws SQLException {
+            try {
+                rendezVous.executeBatch();
+                consultation.executeBatch();
+                facture.executeBatch();
+                ligne.executeBatch();
+            } finally {
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            rendezVous.close();
+            consultation.close();
+            facture.close();
+            ligne.close();
+        }
+    }
+
+    private RendezVousStatus chooseStatus(Random random, boolean past) {
+        double r = random.nextDouble();
+        if (r < cancelledRatio) {
+            return RendezVousStatus.ANNULE;
+        }
+        r = random.nextDouble();
+        if (past) {
+            // Absent : le rendez-vous n'a jamais été clôturé
+            return r < noShowRatio ? RendezVousStatus.CONFIRME : RendezVousStatus.TERMINE;
+        }
+        return r < confirmedRatio ? RendezVousStatus.CONFIRME : RendezVousStatus.PLANIFIE;
+    }
+
+    /**
+     * Tire appointmentsPerDoctorPerDay créneaux distincts parmi ceux de la journée,
+     * dans l'ordre chronologique.
+     */
+    private int[] chooseSlots(Random random, int slots) {
+        int[] chosen = new int[appointmentsPerDoctorPerDay];
+        int needed = chosen.length;
+        int n = 0;
+        // Sélection séquentielle : chaque créneau retenu avec la probabilité restante
+        for (int s = 0; s < slots && n < needed; s++) {
+            if (random.nextInt(slots - s) < needed - n) {
+                chosen[n++] = s;
+            }
+        }
+        return chosen;
+    }
+
+    // --- Identifiants ---
+
+    /**
+     * Prochains identifiants de chaque table, à la suite des lignes existantes.
+     */
+    private static class Ids {
+
+        private final long firstMedecin;
+        private final long firstPatient;
+        private final long firstDossier;
+        private long nextRendezVous;
+        private long nextConsultation;
+        private long nextFacture;
+        private long nextLigneFacture;
+
+        Ids(Connection connection) throws SQLException {
+            firstMedecin = nextId(connection, "medecin");
+            firstPatient = nextId(connection, "patient");
+            firstDossier = nextId(connection, "dossier_medical");
+            nextRendezVous = nextId(connection, "rendez_vous");
+            nextConsultation = nextId(connection, "consultation");
+            nextFacture = nextId(connection, "facture");
+            nextLigneFacture = nextId(connection, "ligne_facture");
+        }
+
+        /**
+         * MySQL recale AUTO_INCREMENT après des id explicites, pas H2 : on repositionne
+         * les colonnes d'identité pour les insertions suivantes de l'application.
+         */
+        void restartIdentities(Connection connection) throws SQLException {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"H2".equalsIgnoreCase(product)) {
+                return;
+            }
+            String[] tables = {
+                "medecin", "patient", "dossier_medical", "rendez_vous",
+                "consultation", "facture", "ligne_facture",
+            };
+            try (Statement statement = connection.createStatement()) {
+                for (String table : tables) {
+                    statement.execute(
+                        "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " +
+                        nextId(connection, table)
+                    );
+                }
+            }
+        }
+
+        private static long nextId(Connection connection, String table)
+            throws SQLException {
+            try (
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(
+                    "SELECT COALESCE(MAX(id), 0) + 1 FROM " + table
+                )
+            ) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // --- Outils ---
+
+    private interface Work<R> {
+        R execute(Connection connection) throws SQLException;
+    }
+
+    private <R> R inTransaction(Work<R> work) {
+        SessionFactory factory = sessionFactory != null
+            ? sessionFactory
+            : HibernateUtil.getSessionFactory();
+        Transaction tx = null;
+        try (Session session = factory.openSession()) {
+            tx = session.beginTransaction();
+            R result = session.doReturningWork(work::execute);
+            tx.commit();
+            return result;
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            throw e;
+        }
+    }
+
+    private static int weightedIndex(Random random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String phone(Random random) {
+        return String.format("06%08d", random.nextInt(100_000_000));
+    }
+
+    private static LocalDate plusWorkingDays(LocalDate day, int count) {
+        LocalDate result = day;
+        for (int i = 0; i < count; ) {
+            result = result.plusDays(1);
+            if (isWorkingDay(result)) {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private static LocalDate minusWorkingDays(LocalDate day, int count) {
+        LocalDate result = day;
+        while (!isWorkingDay(result)) {
+            result = result.plusDays(1);
+        }
+        for (int i = 0; i < count; ) {
+            result = result.minusDays(1);
+            if (isWorkingDay(result)) {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isWorkingDay(LocalDate day) {
+        return (
+            day.getDayOfWeek() != DayOfWeek.SATURDAY &&
+            day.getDayOfWeek() != DayOfWeek.SUNDAY
+        );
+    }
+
+    // --- Paramètres ---
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param referenceDate jour autour duquel le planning est généré (passé/futur, âges) ;
+     *        null pour aujourd'hui
+     */
+    public void setReferenceDate(LocalDate referenceDate) {
+        this.referenceDate = referenceDate;
+    }
+
+    public void setPatientCount(int patientCount) {
+        this.patientCount = patientCount;
+    }
+
+    /**
+     * @param medecinCount nombre de médecins ; 0 pour un médecin pour 250 patients
+     */
+    public void setMedecinCount(int medecinCount) {
+        this.medecinCount = medecinCount;
+    }
+
+    public void setAppointmentCount(int appointmentCount) {
+        this.appointmentCount = appointmentCount;
+    }
+
+    public void setAppointmentMinutes(int appointmentMinutes) {
+        this.appointmentMinutes = appointmentMinutes;
+    }
+
+    /**
+     * @param appointmentsPerDoctorPerDay densité de l'agenda (créneaux occupés par jour)
+     */
+    public void setAppointmentsPerDoctorPerDay(int appointmentsPerDoctorPerDay) {
+        this.appointmentsPerDoctorPerDay = appointmentsPerDoctorPerDay;
+    }
+
+    /**
+     * @param pastRatio part des jours générés situés avant aujourd'hui
+     */
+    public void setPastRatio(double pastRatio) {
+        this.pastRatio = pastRatio;
+    }
+
+    /**
+     * Répartition des statuts : part d'annulés, part d'absents parmi les rendez-vous
+     * passés non annulés (restés confirmés), part de confirmés parmi les futurs.
+     */
+    public void setStatusMix(
+        double cancelledRatio,
+        double noShowRatio,
+        double confirmedRatio
+    ) {
+        this.cancelledRatio = cancelledRatio;
+        this.noShowRatio = noShowRatio;
+        this.confirmedRatio = confirmedRatio;
+    }
+
+    public void setConsultationRatio(double consultationRatio) {
+        this.consultationRatio = consultationRatio;
+    }
+
+    public void setInvoicedRatio(double invoicedRatio) {
+        this.invoicedRatio = invoicedRatio;
+    }
+
+    public void setPaidRatio(double paidRatio) {
+        this.paidRatio = paidRatio;
+    }
+
+    /**
+     * @param invoiceLineWeights poids relatifs d'une facture à 1, 2, 3... lignes
+     */
+    public void setInvoiceLineWeights(int... invoiceLineWeights) {
+        this.invoiceLineWeights = invoiceLineWeights.clone();
+    }
+}
@@ -3,20 +3,29 @@ package com.mediclinic.util;
 import com.mediclinic.model.Role;
 import com.mediclinic.model.User;
 
+/**
+ * Utilisateur connecté sur ce poste. L'entité {@link User} sert à l'affichage ; les
+ * contrôles d'accès des services passent par le {@link SecurityContext} immuable
+ * publié en même temps.
+ */
 public class UserSession {
 
-    private static UserSession instance;
-    private User user;
+    private static volatile UserSession instance;
+    private final User user;
+    private final SecurityContext context;
 
     private UserSession(User user) {
         this.user = user;
+        this.context = SecurityContext.of(user);
     }
 
-    public static void setInstance(User user) {
+    public static synchronized void setInstance(User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
-        instance = new UserSession(user);
+        UserSession session = new UserSession(user);
+        instance = session;
+        SecurityContext.publish(session.context);
     }
 
     public static UserSession getInstance() {
@@ -30,47 +39,37 @@ public class UserSession {
         return user;
     }
 
+    public SecurityContext getContext() {
+        return context;
+    }
+
     /**
      * Check if a user is currently authenticated
      */
     public static boolean isAuthenticated() {
-        return instance != null && instance.user != null;
+        return SecurityContext.current() != null;
     }
 
     /**
      * Check if the current user has a specific role
      */
     public boolean hasRole(Role role) {
-        return user != null && user.getRole() == role;
+        return context.hasRole(role);
     }
 
     /**
      * Check if the current user has any of the specified roles
      */
     public boolean hasAnyRole(Role... roles) {
-        if (user == null) {
-            return false;
-        }
-        Role userRole = user.getRole();
-        for (Role role : roles) {
-            if (userRole == role) {
-                return true;
-            }
-        }
-        return false;
+        return context.hasAnyRole(roles);
     }
 
     /**
      * Get the medecin ID for the current user (if user is a doctor)
      */
     public static Long getMedecinId() {
-        if (instance == null || instance.user == null) {
-            return null;
-        }
-        if (instance.user.getMedecin() == null) {
-            return null;
-        }
-        return instance.user.getMedecin().getId();
+        SecurityContext context = SecurityContext.current();
+        return context != null ? context.getMedecinId() : null;
     }
 
     /**
@@ -80,7 +79,8 @@ public class UserSession {
         return isAuthenticated();
     }
 
-    public static void clean() {
+    public static synchronized void clean() {
         instance = null;
+        SecurityContext.publish(null);
     }
 }
@@ -0,0 +1,129 @@
+package com.mediclinic.util;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Vues FXML chargées une seule fois (FXML analysé, contrôleur créé et initialisé) puis
+ * réutilisées. Le cache est propre à une session : il appartient au MainController,
+ * recréé à chaque connexion.
+ * Toutes les méthodes s'appellent depuis le thread JavaFX ; seul le préchargement
+ * s'exécute en arrière-plan.
+ */
+public class ViewCache {
+
+    private static final Logger LOG = LogManager.getLogger(ViewCache.class);
+
+    /**
+     * Vue chargée et son contrôleur.
+     */
+    public static class LoadedView {
+
+        private final Parent root;
+        private final Object controller;
+
+        private LoadedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        public Object getController() {
+            return controller;
+        }
+    }
+
+    private final Map<String, LoadedView> views = new HashMap<>();
+    private Thread preloader;
+
+    public boolean contains(String fxmlFile) {
+        return views.containsKey(fxmlFile);
+    }
+
+    /**
+     * Renvoie la vue en cache, ou la charge.
+     * @throws IOException si le fichier FXML est introuvable ou invalide
+     */
+    public LoadedView get(String fxmlFile) throws IOException {
+        LoadedView view = views.get(fxmlFile);
+        if (view == null) {
+            view = load(fxmlFile);
+            views.put(fxmlFile, view);
+        }
+        return view;
+    }
+
+    /**
+     * Charge en arrière-plan, l'une après l'autre, les vues pas encore en cache.
+     * Une vue dont le chargement échoue hors du thread JavaFX (alerte affichée par
+     * son contrôleur, par exemple) est ignorée : elle sera chargée normalement à la
+     * première navigation.
+     */
+    public void preload(List<String> fxmlFiles) {
+        List<String> missing = new ArrayList<>();
+        for (String fxmlFile : fxmlFiles) {
+            if (!views.containsKey(fxmlFile)) {
+                missing.add(fxmlFile);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        preloader = new Thread(() -> {
+            for (String fxmlFile : missing) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    LoadedView view = load(fxmlFile);
+                    // Une navigation a pu charger la vue entre-temps : on la garde
+                    Platform.runLater(() -> {
+                        if (preloader != null) {
+                            views.putIfAbsent(fxmlFile, view);
+                        }
+                    });
+                } catch (Exception e) {
+                    LOG.warn("Préchargement ignoré fxml={}", fxmlFile, e);
+                }
+            }
+        }, "view-preload");
+        preloader.setDaemon(true);
+        preloader.start();
+    }
+
+    /**
+     * Vide le cache et arrête le préchargement (déconnexion).
+     */
+    public void clear() {
+        if (preloader != null) {
+            preloader.interrupt();
+            preloader = null;
+        }
+        views.clear();
+    }
+
+    private static LoadedView load(String fxmlFile) throws IOException {
+        URL resource = ViewCache.class.getResource(fxmlFile);
+        if (resource == null) {
+            throw new IOException("Ressource FXML introuvable: " + fxmlFile);
+        }
+        return StartupTracer.time("fxml " + fxmlFile, () -> {
+            FXMLLoader loader = new FXMLLoader(resource);
+            Parent root = loader.load();
+            return new LoadedView(root, loader.getController());
+        });
+    }
+}